@@ -14,25 +14,80 @@
  */
 package org.propagatorComparator;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
 
+import org.hipparchus.CalculusFieldElement;
+import org.hipparchus.Field;
+import org.hipparchus.analysis.differentiation.Gradient;
+import org.hipparchus.analysis.differentiation.GradientField;
+import org.hipparchus.geometry.euclidean.threed.FieldVector3D;
 import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.linear.MatrixUtils;
+import org.hipparchus.optim.nonlinear.vector.leastsquares.LevenbergMarquardtOptimizer;
+import org.hipparchus.linear.RealMatrix;
+import org.hipparchus.ode.FieldODEIntegrator;
 import org.hipparchus.ode.ODEIntegrator;
+import org.hipparchus.ode.nonstiff.AdaptiveStepsizeIntegrator;
+import org.hipparchus.ode.nonstiff.ClassicalRungeKuttaFieldIntegrator;
 import org.hipparchus.ode.nonstiff.ClassicalRungeKuttaIntegrator;
+import org.hipparchus.ode.nonstiff.DormandPrince853FieldIntegrator;
 import org.hipparchus.ode.nonstiff.DormandPrince853Integrator;
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.hipparchus.exception.MathRuntimeException;
+import org.hipparchus.random.RandomGenerator;
+import org.hipparchus.random.Well19937a;
+import org.hipparchus.stat.correlation.Covariance;
+import org.hipparchus.stat.descriptive.StreamingStatistics;
+import org.hipparchus.stat.regression.SimpleRegression;
 import org.hipparchus.util.FastMath;
+import org.orekit.attitudes.InertialProvider;
 import org.orekit.bodies.CelestialBody;
 import org.orekit.bodies.CelestialBodyFactory;
 import org.orekit.bodies.OneAxisEllipsoid;
 import org.orekit.data.DataContext;
 import org.orekit.data.DataProvidersManager;
 import org.orekit.data.DirectoryCrawler;
+import org.orekit.errors.OrekitException;
+import org.orekit.estimation.leastsquares.BatchLSEstimator;
+import org.orekit.estimation.measurements.EstimatedMeasurement;
+import org.orekit.estimation.measurements.ObservableSatellite;
+import org.orekit.estimation.measurements.PV;
 import org.orekit.forces.ForceModel;
 import org.orekit.forces.drag.DragForce;
+import org.orekit.forces.drag.DragSensitive;
 import org.orekit.forces.drag.IsotropicDrag;
 import org.orekit.forces.gravity.HolmesFeatherstoneAttractionModel;
 import org.orekit.forces.gravity.NewtonianAttraction;
@@ -53,42 +108,114 @@ import org.orekit.models.earth.atmosphere.data.CssiSpaceWeatherData;
 import org.orekit.orbits.CartesianOrbit;
 import org.orekit.orbits.CircularOrbit;
 import org.orekit.orbits.EquinoctialOrbit;
+import org.orekit.orbits.FieldCartesianOrbit;
+import org.orekit.orbits.FieldOrbit;
 import org.orekit.orbits.KeplerianOrbit;
 import org.orekit.orbits.Orbit;
 import org.orekit.orbits.OrbitType;
 import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.BoundedPropagator;
+import org.orekit.propagation.EphemerisGenerator;
+import org.orekit.propagation.FieldSpacecraftState;
+import org.orekit.propagation.MatricesHarvester;
 import org.orekit.propagation.PropagationType;
+import org.orekit.propagation.Propagator;
 import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.StateCovariance;
+import org.orekit.propagation.analytical.BrouwerLyddanePropagator;
+import org.orekit.propagation.analytical.KeplerianPropagator;
 import org.orekit.propagation.analytical.tle.TLE;
 import org.orekit.propagation.analytical.tle.TLEPropagator;
+import org.orekit.propagation.conversion.ClassicalRungeKuttaIntegratorBuilder;
+import org.orekit.propagation.conversion.DSSTPropagatorBuilder;
+import org.orekit.propagation.conversion.DormandPrince853IntegratorBuilder;
+import org.orekit.propagation.conversion.NumericalPropagatorBuilder;
+import org.orekit.propagation.conversion.ODEIntegratorBuilder;
+import org.orekit.propagation.conversion.OrbitDeterminationPropagatorBuilder;
+import org.orekit.propagation.events.AltitudeDetector;
+import org.orekit.propagation.numerical.FieldNumericalPropagator;
 import org.orekit.propagation.numerical.NumericalPropagator;
+import org.orekit.propagation.semianalytical.dsst.DSSTHarvester;
+import org.orekit.propagation.semianalytical.dsst.FieldDSSTPropagator;
 import org.orekit.propagation.semianalytical.dsst.DSSTPropagator;
 import org.orekit.propagation.semianalytical.dsst.forces.DSSTAtmosphericDrag;
+import org.orekit.propagation.semianalytical.dsst.forces.DSSTForceModel;
 import org.orekit.propagation.semianalytical.dsst.forces.DSSTNewtonianAttraction;
 import org.orekit.propagation.semianalytical.dsst.forces.DSSTSolarRadiationPressure;
 import org.orekit.propagation.semianalytical.dsst.forces.DSSTTesseral;
 import org.orekit.propagation.semianalytical.dsst.forces.DSSTThirdBody;
 import org.orekit.propagation.semianalytical.dsst.forces.DSSTZonal;
 import org.orekit.time.AbsoluteDate;
+import org.orekit.time.FieldAbsoluteDate;
 import org.orekit.time.TimeScalesFactory;
 import org.orekit.utils.Constants;
+import org.orekit.utils.FieldPVCoordinates;
 import org.orekit.utils.IERSConventions;
+import org.orekit.utils.ParameterDriver;
 import org.orekit.utils.PVCoordinates;
+import org.orekit.utils.TimeStampedFieldPVCoordinates;
+import org.propagatorComparator.analytical.SecularBatchPropagator;
+import org.propagatorComparator.atmosphere.CachedSpaceWeatherData;
+import org.propagatorComparator.atmosphere.GriddedAtmosphere;
+import org.propagatorComparator.atmosphere.ScaledSolarActivity;
+import org.propagatorComparator.bodies.AnalyticalMoon;
+import org.propagatorComparator.bodies.AnalyticalSun;
+import org.propagatorComparator.encke.EnckePropagator;
+import org.propagatorComparator.ephemeris.BoundedEphemerisBuilder;
+import org.propagatorComparator.ephemeris.IndexedEphemeris;
+import org.propagatorComparator.ephemeris.IndexedEphemerisBuilder;
+import org.propagatorComparator.ephemeris.MappedEphemeris;
+import org.propagatorComparator.forces.GradientParametersDSSTForceModel;
+import org.propagatorComparator.forces.GradientParametersForceModel;
+import org.propagatorComparator.forces.ParallelForceModel;
+import org.propagatorComparator.gravity.FlatHolmesFeatherstoneAttractionModel;
+import org.propagatorComparator.gravity.GriddedGravity;
+import org.propagatorComparator.picard.ChebyshevPicardPropagator;
+import org.propagatorComparator.radiation.SelectiveSolarRadiationPressure;
+import org.propagatorComparator.radiation.ShadowIntervals;
+import org.propagatorComparator.radiation.ShadowedDSSTSolarRadiationPressure;
+import org.propagatorComparator.radiation.ShadowedSolarRadiationPressure;
+import org.propagatorComparator.reference.ChebyshevTrajectory;
+import org.propagatorComparator.reference.ChebyshevTrajectoryBuilder;
+import org.propagatorComparator.reference.ReferenceTrajectoryStore;
+import org.propagatorComparator.regularized.KustaanheimoStiefelPropagator;
+import org.propagatorComparator.truth.TruthEphemeris;
+import org.propagatorComparator.yaml.BatchPropagationConfiguration;
+import org.propagatorComparator.yaml.BoundedEphemerisConfiguration;
+import org.propagatorComparator.yaml.CatalogConfiguration;
 import org.propagatorComparator.yaml.CentralBodyConfiguration;
+import org.propagatorComparator.yaml.CovarianceConfiguration;
+import org.propagatorComparator.yaml.CrossoverMapConfiguration;
+import org.propagatorComparator.yaml.EnckeConfiguration;
+import org.propagatorComparator.yaml.EphemerisConfiguration;
 import org.propagatorComparator.yaml.ForceModelConfiguration;
+import org.propagatorComparator.yaml.ForceModelConfiguration.AtmosphereGridConfiguration;
 import org.propagatorComparator.yaml.ForceModelConfiguration.DragConfiguration;
+import org.propagatorComparator.yaml.ForceModelConfiguration.GravityAutoConfiguration;
 import org.propagatorComparator.yaml.ForceModelConfiguration.GravityConfiguration;
+import org.propagatorComparator.yaml.ForceModelConfiguration.GravityGridConfiguration;
+import org.propagatorComparator.yaml.ForceModelConfiguration.ParallelForceModelsConfiguration;
+import org.propagatorComparator.yaml.ForceModelConfiguration.ShadowIntervalsConfiguration;
 import org.propagatorComparator.yaml.ForceModelConfiguration.SolarRadiationPressureConfiguration;
 import org.propagatorComparator.yaml.ForceModelConfiguration.ThirdBodyConfiguration;
 import org.propagatorComparator.yaml.IntegratorConfiguration;
+import org.propagatorComparator.yaml.LifetimeConfiguration;
 import org.propagatorComparator.yaml.OrbitComparatorInputs;
 import org.propagatorComparator.yaml.OrbitConfiguration;
+import org.propagatorComparator.yaml.OrbitDeterminationConfiguration;
 import org.propagatorComparator.yaml.OrbitTypeConfiguration;
 import org.propagatorComparator.yaml.OrbitTypeConfiguration.CartesianOrbitConfiguration;
 import org.propagatorComparator.yaml.OrbitTypeConfiguration.CircularOrbitConfiguration;
 import org.propagatorComparator.yaml.OrbitTypeConfiguration.EquinoctialOrbitConfiguration;
 import org.propagatorComparator.yaml.OrbitTypeConfiguration.KeplerianOrbitConfiguration;
 import org.propagatorComparator.yaml.OrbitTypeConfiguration.TLEConfiguration;
+import org.propagatorComparator.yaml.PararealConfiguration;
+import org.propagatorComparator.yaml.PicardConfiguration;
+import org.propagatorComparator.yaml.ReferenceConfiguration;
+import org.propagatorComparator.yaml.RegularizedConfiguration;
+import org.propagatorComparator.yaml.ScalingStudyConfiguration;
+import org.propagatorComparator.yaml.SensitivityConfiguration;
+import org.propagatorComparator.yaml.TruthConfiguration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
@@ -106,6 +233,303 @@ public class OrbitComparator {
     /** Key to print the wall clock run time. */
     private static final String WALL_CLOCK_RUN_TIME = "wall clock run time (s): ";
 
+    /** Default time step of the atmosphere density grid (s). */
+    private static final double DEFAULT_GRID_TIME_STEP = 3600.0;
+
+    /** Default minimum altitude of the atmosphere density grid (m). */
+    private static final double DEFAULT_GRID_MIN_ALTITUDE = 100000.0;
+
+    /** Default maximum altitude of the atmosphere density grid (m). */
+    private static final double DEFAULT_GRID_MAX_ALTITUDE = 1000000.0;
+
+    /** Default number of altitude nodes of the atmosphere density grid. */
+    private static final int DEFAULT_GRID_ALTITUDE_POINTS = 91;
+
+    /** Default number of latitude nodes of the atmosphere density grid. */
+    private static final int DEFAULT_GRID_LATITUDE_POINTS = 19;
+
+    /** Default number of local solar time nodes of the atmosphere density grid. */
+    private static final int DEFAULT_GRID_LST_POINTS = 24;
+
+    /** Default propagation durations of the scaling study (days). */
+    private static final List<Double> DEFAULT_SCALING_DURATIONS = Arrays.asList(1.0, 10.0, 100.0, 365.25, 3652.5);
+
+    /** Default gravity field degrees of the scaling study. */
+    private static final List<Integer> DEFAULT_SCALING_DEGREES = Arrays.asList(2, 8, 16, 36, 70, 120);
+
+    /** Default semi-major axes of the scaling study, from LEO to GEO (m). */
+    private static final List<Double> DEFAULT_SCALING_SEMI_MAJOR_AXES = Arrays.asList(6878137.0, 7378137.0, 12378137.0, 26560000.0, 42164000.0);
+
+    /** Default output file of the scaling study. */
+    private static final String DEFAULT_SCALING_OUTPUT = "scaling-study.csv";
+
+    /** Name of the duration axis of the scaling study. */
+    private static final String DURATION_AXIS = "duration";
+
+    /** Name of the gravity degree axis of the scaling study. */
+    private static final String DEGREE_AXIS = "degree";
+
+    /** Name of the semi-major axis axis of the scaling study. */
+    private static final String SEMI_MAJOR_AXIS_AXIS = "semiMajorAxis";
+
+    /** Default target position accuracies of the crossover map (m). */
+    private static final List<Double> DEFAULT_CROSSOVER_TARGETS = Arrays.asList(1.0, 10.0, 100.0, 1000.0);
+
+    /** Default integrator position errors tried by the crossover map, from the loosest to the tightest (m). */
+    private static final List<Double> DEFAULT_CROSSOVER_POSITION_ERRORS = Arrays.asList(1000.0, 100.0, 10.0, 1.0, 0.1, 0.01);
+
+    /** Default integrator position error of the reference propagation of the crossover map (m). */
+    private static final double DEFAULT_CROSSOVER_REFERENCE_POSITION_ERROR = 0.001;
+
+    /** Default output file of the crossover map. */
+    private static final String DEFAULT_CROSSOVER_OUTPUT = "crossover-map.csv";
+
+    /** Name of the state transition matrix additional state. */
+    private static final String STM_NAME = "stm";
+
+    /** Size of the orbital part of the covariance. */
+    private static final int ORBIT_SIZE = 6;
+
+    /** Default finite difference step on the position for the sensitivities (m). */
+    private static final double DEFAULT_SENSITIVITY_POSITION_STEP = 1.0;
+
+    /** Default finite difference step on the velocity for the sensitivities (m/s). */
+    private static final double DEFAULT_SENSITIVITY_VELOCITY_STEP = 0.001;
+
+    /** Default relative finite difference step on the parameters for the sensitivities (absolute below unit values). */
+    private static final double DEFAULT_SENSITIVITY_PARAMETER_STEP = 0.001;
+
+    /** Seed of the Monte Carlo samples checking the linearized dispersion. */
+    private static final int MONTE_CARLO_SEED = 0x5eed;
+
+    /** Default time step between two measurements of the orbit determination benchmark (s). */
+    private static final double DEFAULT_OD_MEASUREMENT_STEP = 600.0;
+
+    /** Default standard deviation of the measured position (m). */
+    private static final double DEFAULT_OD_POSITION_SIGMA = 1.0;
+
+    /** Default standard deviation of the measured velocity (m/s). */
+    private static final double DEFAULT_OD_VELOCITY_SIGMA = 0.001;
+
+    /** Default radial offset applied to the position of the initial guess (m). */
+    private static final double DEFAULT_OD_INITIAL_POSITION_OFFSET = 100.0;
+
+    /** Default along-track offset applied to the velocity of the initial guess (m/s). */
+    private static final double DEFAULT_OD_INITIAL_VELOCITY_OFFSET = 0.1;
+
+    /** Default integrator position error of the reference propagation of the orbit determination benchmark (m). */
+    private static final double DEFAULT_OD_REFERENCE_POSITION_ERROR = 0.001;
+
+    /** Default scaling factor of the orbital parameters (m). */
+    private static final double DEFAULT_OD_POSITION_SCALE = 10.0;
+
+    /** Default convergence threshold on the normalized parameters. */
+    private static final double DEFAULT_OD_CONVERGENCE_THRESHOLD = 1.0e-3;
+
+    /** Default maximum number of iterations of the orbit determination. */
+    private static final int DEFAULT_OD_MAX_ITERATIONS = 20;
+
+    /** Default maximum number of evaluations of the orbit determination. */
+    private static final int DEFAULT_OD_MAX_EVALUATIONS = 40;
+
+    /** Seed of the noise added to the simulated measurements. */
+    private static final int OD_NOISE_SEED = 0x0d0d;
+
+    /** Output discarding the configuration printed by the quiet builds of integrators and propagators. */
+    private static final PrintStream QUIET_OUTPUT = new PrintStream(new OutputStream() {
+        /** {@inheritDoc} */
+        @Override
+        public void write(final int b) {
+            // Discarded
+        }
+    });
+
+    /** Default output file of the TLE catalog comparison. */
+    private static final String DEFAULT_CATALOG_OUTPUT = "catalog-comparison.csv";
+
+    /** Default number of objects waiting to be processed, per thread. */
+    private static final int DEFAULT_CATALOG_QUEUE_PER_THREAD = 2;
+
+    /** Status of a successfully processed catalog object. */
+    private static final String CATALOG_OK = "OK";
+
+    /** Default step between the output epochs of the batch secular propagation (s). */
+    private static final double DEFAULT_BATCH_STEP = 3600.0;
+
+    /** Default number of objects of the batch secular propagation cross-checked with the numerical and DSST propagators. */
+    private static final int DEFAULT_BATCH_SAMPLES = 10;
+
+    /** Seed of the selection of the objects cross-checked with the numerical and DSST propagators. */
+    private static final int BATCH_SAMPLE_SEED = 0xba7c;
+
+    /** Convergence threshold of the mean elements of the cross-checked objects. */
+    private static final double BATCH_MEAN_EPSILON = 1.0e-13;
+
+    /** Maximum number of iterations of the mean elements of the cross-checked objects. */
+    private static final int BATCH_MEAN_MAX_ITERATIONS = 200;
+
+    /** Default position tolerance of the Parareal iterations (m). */
+    private static final double DEFAULT_PARAREAL_TOLERANCE = 1.0;
+
+    /** Default segment duration of the Chebyshev-Picard propagator, as a fraction of the Keplerian period. */
+    private static final double DEFAULT_PICARD_SEGMENT_FRACTION = 0.5;
+
+    /** Default polynomial order of the Chebyshev-Picard propagator. */
+    private static final int DEFAULT_PICARD_ORDER = 40;
+
+    /** Default position tolerance of the Picard iterations (m). */
+    private static final double DEFAULT_PICARD_TOLERANCE = 1.0e-6;
+
+    /** Default maximum number of Picard iterations per segment. */
+    private static final int DEFAULT_PICARD_MAX_ITERATIONS = 30;
+
+    /** Default rectification threshold of the Encke propagator (deviation to reference position norms ratio). */
+    private static final double DEFAULT_ENCKE_RECTIFICATION_THRESHOLD = 0.01;
+
+    /** Default reentry altitude of the orbit lifetime study (m). */
+    private static final double DEFAULT_LIFETIME_ALTITUDE = 120000.0;
+
+    /** Default maximum propagation duration of the orbit lifetime study (days). */
+    private static final double DEFAULT_LIFETIME_MAX_DURATION = 25.0 * Constants.JULIAN_YEAR / Constants.JULIAN_DAY;
+
+    /** Default solar flux scale factors of the orbit lifetime study. */
+    private static final List<Double> DEFAULT_LIFETIME_FLUX_SCALES = Collections.singletonList(1.0);
+
+    /** Maximum check interval of the reentry detection, as a fraction of the initial Keplerian period. */
+    private static final double LIFETIME_CHECK_FRACTION = 0.1;
+
+    /** Convergence threshold of the reentry detection (s). */
+    private static final double LIFETIME_EVENT_THRESHOLD = 1.0;
+
+    /** Default number of points of the truth ephemeris interpolation. */
+    private static final int DEFAULT_TRUTH_INTERPOLATION_POINTS = 8;
+
+    /** Default output file of the residuals with respect to the truth ephemeris. */
+    private static final String DEFAULT_TRUTH_OUTPUT = "truth-residuals.csv";
+
+    /** Default directory of the reference trajectory files. */
+    private static final String DEFAULT_REFERENCE_DIRECTORY = "reference-trajectories";
+
+    /** Default position error of the reference integrator (m). */
+    private static final double DEFAULT_REFERENCE_POSITION_ERROR = 1.0e-4;
+
+    /** Minimum step of the reference integrator (s). */
+    private static final double DEFAULT_REFERENCE_MIN_STEP = 1.0e-3;
+
+    /** Default maximum duration of the reference Chebyshev segments, as a fraction of the Keplerian period. */
+    private static final double DEFAULT_REFERENCE_SEGMENT_FRACTION = 0.125;
+
+    /** Default degree of the reference Chebyshev series. */
+    private static final int DEFAULT_REFERENCE_DEGREE = 16;
+
+    /** Number of random-time lookups of the reference trajectory benchmark. */
+    private static final int REFERENCE_LOOKUPS = 100000;
+
+    /** Seed of the random-time lookups of the reference trajectory benchmark. */
+    private static final int REFERENCE_LOOKUP_SEED = 0x0cb1;
+
+    /** Default maximum duration of the indexed ephemeris segments, as a fraction of the Keplerian period. */
+    private static final double DEFAULT_EPHEMERIS_SEGMENT_FRACTION = 0.125;
+
+    /** Default degree of the indexed ephemeris Chebyshev series. */
+    private static final int DEFAULT_EPHEMERIS_DEGREE = 12;
+
+    /** Default number of random-time queries of the indexed ephemeris benchmark. */
+    private static final int DEFAULT_EPHEMERIS_QUERIES = 100000;
+
+    /** Seed of the random-time queries of the indexed ephemeris benchmark. */
+    private static final int EPHEMERIS_QUERY_SEED = 0x0e9e;
+
+    /** Default directory of the bounded-memory ephemeris files. */
+    private static final String DEFAULT_BOUNDED_EPHEMERIS_DIRECTORY = "ephemerides";
+
+    /** Default position tolerance of the bounded-memory ephemeris segments (m). */
+    private static final double DEFAULT_BOUNDED_EPHEMERIS_TOLERANCE = 1.0e-2;
+
+    /** Default degree of the bounded-memory ephemeris Chebyshev series. */
+    private static final int DEFAULT_BOUNDED_EPHEMERIS_DEGREE = 12;
+
+    /** Default minimum duration of the bounded-memory ephemeris segments (s). */
+    private static final double DEFAULT_BOUNDED_EPHEMERIS_MIN_SEGMENT = 1.0;
+
+    /** Default maximum duration of the bounded-memory ephemeris segments, as a fraction of the Keplerian period. */
+    private static final double DEFAULT_BOUNDED_EPHEMERIS_MAX_SEGMENT_FRACTION = 0.5;
+
+    /** Default number of segments kept in the in-heap cache of the bounded-memory ephemerides. */
+    private static final int DEFAULT_BOUNDED_EPHEMERIS_CACHE_SIZE = 64;
+
+    /** Number of garbage collections requested before a heap measurement. */
+    private static final int HEAP_MEASUREMENT_COLLECTIONS = 3;
+
+    /** Minimum degree considered by the automatic gravity field selection. */
+    private static final int MIN_AUTO_GRAVITY_DEGREE = 2;
+
+    /** Minimum order considered by the automatic gravity field selection (keeps the sectorial C22 and S22 terms). */
+    private static final int MIN_AUTO_GRAVITY_ORDER = 2;
+
+    /** Number of sampled positions used by the automatic gravity field selection. */
+    private static final int AUTO_GRAVITY_SAMPLES = 24;
+
+    /** Key for the Orekit Holmes-Featherstone spherical harmonics engine. */
+    private static final String HOLMES_FEATHERSTONE_ENGINE = "HOLMES_FEATHERSTONE";
+
+    /** Key for the allocation-free spherical harmonics engine. */
+    private static final String FLAT_ENGINE = "FLAT";
+
+    /** Degrees of the gravity fields used to benchmark the spherical harmonics engines. */
+    private static final int[] ENGINE_BENCHMARK_DEGREES = {8, 36, 70, 120};
+
+    /** Number of states used to benchmark the spherical harmonics engines. */
+    private static final int ENGINE_BENCHMARK_STATES = 1000;
+
+    /** Number of passes over the states used to warm up the spherical harmonics engines. */
+    private static final int ENGINE_BENCHMARK_WARMUP = 20;
+
+    /** Number of measured iterations for the spherical harmonics engines. */
+    private static final int ENGINE_BENCHMARK_ITERATIONS = 10;
+
+    /** Number of passes over the states in each measured iteration for the spherical harmonics engines. */
+    private static final int ENGINE_BENCHMARK_PASSES = 4;
+
+    /** Default maximum angular step of the gravity acceleration grid (°). */
+    private static final double DEFAULT_GRAVITY_GRID_ANGULAR_STEP = 2.0;
+
+    /** Default radial step of the gravity acceleration grid (m). */
+    private static final double DEFAULT_GRAVITY_GRID_RADIAL_STEP = 25000.0;
+
+    /** Default margin around the orbit radius range covered by the gravity acceleration grid (m). */
+    private static final double DEFAULT_GRAVITY_GRID_MARGIN = 50000.0;
+
+    /** Number of random samples used to check the gravity acceleration grid. */
+    private static final int GRAVITY_GRID_CHECK_SAMPLES = 10000;
+
+    /** Default margin applied around the predicted penumbra phases (s). */
+    private static final double DEFAULT_SHADOW_MARGIN = 60.0;
+
+    /** Number of samples over one orbit used to estimate the drag decay ignored by the shadow intervals reference. */
+    private static final int SHADOW_DECAY_SAMPLES = 36;
+
+    /** Name of the central body in the occulting bodies list. */
+    private static final String EARTH = "Earth";
+
+    /** Name of the Moon in the occulting bodies list. */
+    private static final String MOON = "Moon";
+
+    /** Key for the JPL DE third body ephemerides. */
+    private static final String DE_EPHEMERIS = "DE";
+
+    /** Key for the analytical third body ephemerides. */
+    private static final String ANALYTICAL_EPHEMERIS = "ANALYTICAL";
+
+    /** Sampling step for the comparison of the third body ephemerides (s). */
+    private static final double EPHEMERIS_COMPARISON_STEP = 3600.0;
+
+    /** Default number of threads evaluating the force models. */
+    private static final int DEFAULT_PARALLEL_THREADS = FastMath.min(4, Runtime.getRuntime().availableProcessors());
+
+    /** Default minimum combined cost of the force models to evaluate them concurrently (µs). */
+    private static final double DEFAULT_PARALLEL_THRESHOLD = 20.0;
+
     /**
      * Main method
      * @param args [0] is the input YAML file name
@@ -146,39 +570,278 @@ public class OrbitComparator {
         // Central body
         final OneAxisEllipsoid centralBody = initializeBody(inputData);
 
-        // Gravity field
-        final NormalizedSphericalHarmonicsProvider   normalizedGravityField   = initializeNormalizedGravityField(inputData);
-        final UnnormalizedSphericalHarmonicsProvider unnormalizedGravityField = initializeUnnormalizedGravityField(inputData);
+        // Truth ephemeris (null if not used)
+        final TruthEphemeris truth = initializeTruth(inputData, centralBody);
+
+        // Gravity field (degree and order selected separately for each propagator in automatic mode)
+        final NormalizedSphericalHarmonicsProvider   normalizedGravityField   = initializeNormalizedGravityField(inputData, centralBody, truth);
+        final UnnormalizedSphericalHarmonicsProvider unnormalizedGravityField = initializeUnnormalizedGravityField(inputData, centralBody, truth);
         
         // Initial orbit
-        final Orbit initialOrbit = initializeOrbit(inputData, normalizedGravityField);
+        final Orbit initialOrbit = initializeOrbit(inputData, normalizedGravityField, truth);
+
+        // Atmosphere (shared by both propagators)
+        final Atmosphere atmosphere = initializeAtmosphere(inputData, centralBody, initialOrbit.getDate(), propagationTime * Constants.JULIAN_DAY);
+
+        // Shadow intervals (shared by both propagators)
+        final Map<String, ShadowIntervals> shadows = initializeShadowIntervals(inputData, initialOrbit, centralBody, unnormalizedGravityField, atmosphere, propagationTime * Constants.JULIAN_DAY);
+
+        // Gravity acceleration grid (used by the numerical propagator)
+        final GriddedGravity gravityGrid = initializeGravityGrid(inputData, initialOrbit, centralBody, normalizedGravityField);
 
         // Numerical propagator integrator
         final ODEIntegrator numericalIntegrator = initializeIntegrator(inputData.getNumericalIntegrator(), initialOrbit, "numerical propagator");
         // Numerical propagator
-        final NumericalPropagator numericalPropagator = initializeNumericalPropagator(inputData, numericalIntegrator, initialOrbit, centralBody, normalizedGravityField);
+        final NumericalPropagator numericalPropagator = initializeNumericalPropagator(inputData, numericalIntegrator, initialOrbit, centralBody, normalizedGravityField, atmosphere, shadows, gravityGrid);
 
         // DSST propagator integrator
         final ODEIntegrator dsstIntegrator = initializeIntegrator(inputData.getDsstIntegrator(), initialOrbit, "DSST propagator");
         // DSST propagator
-        final DSSTPropagator dsstPropagator = initializeDSSTPropagator(inputData, dsstIntegrator, initialOrbit, centralBody, unnormalizedGravityField);
+        final DSSTPropagator dsstPropagator = initializeDSSTPropagator(inputData, dsstIntegrator, initialOrbit, centralBody, unnormalizedGravityField, atmosphere, shadows);
 
         // Build the numerical propagator and propagate
-        final double t0Num = System.currentTimeMillis();
+        final long t0Num = System.nanoTime();
         final SpacecraftState numericalState = numericalPropagator.propagate(initialOrbit.getDate().shiftedBy(propagationTime * Constants.JULIAN_DAY));
-        final double t1Num = System.currentTimeMillis();
+        final long t1Num = System.nanoTime();
+        final double numericalTime = 1.0e-9 * (t1Num - t0Num);
         System.out.println("");
-        System.out.println("Numerical " + WALL_CLOCK_RUN_TIME + (0.001 * (t1Num - t0Num)));
+        System.out.println("Numerical " + WALL_CLOCK_RUN_TIME + numericalTime);
         System.out.println(numericalState);
 
         // Build the numerical propagator and propagate
-        final double t0Dsst = System.currentTimeMillis();
+        final long t0Dsst = System.nanoTime();
         final SpacecraftState dsstState = dsstPropagator.propagate(initialOrbit.getDate().shiftedBy(propagationTime * Constants.JULIAN_DAY));
-        final double t1Dsst = System.currentTimeMillis();
+        final long t1Dsst = System.nanoTime();
+        final double dsstTime = 1.0e-9 * (t1Dsst - t0Dsst);
         System.out.println("");
-        System.out.println("DSST " + WALL_CLOCK_RUN_TIME + (0.001 * (t1Dsst - t0Dsst)));
+        System.out.println("DSST " + WALL_CLOCK_RUN_TIME + dsstTime);
         System.out.println(dsstState);
 
+        // Chebyshev-Picard propagation
+        if (inputData.getPicard() != null) {
+            propagatePicard(inputData, initialOrbit, numericalPropagator, propagationTime * Constants.JULIAN_DAY,
+                            numericalState, numericalTime);
+        }
+
+        // Encke propagation
+        if (inputData.getEncke() != null) {
+            propagateEncke(inputData, initialOrbit, centralBody, normalizedGravityField, atmosphere, shadows, gravityGrid,
+                           propagationTime * Constants.JULIAN_DAY, numericalState);
+        }
+
+        // Regularized propagation
+        if (inputData.getRegularized() != null) {
+            propagateRegularized(inputData, initialOrbit, centralBody, normalizedGravityField, atmosphere, shadows, gravityGrid,
+                                 propagationTime * Constants.JULIAN_DAY);
+        }
+
+        // Comparison with the truth ephemeris
+        if (truth != null) {
+            compareWithTruth(inputData, truth, initialOrbit.getFrame(), centralBody, normalizedGravityField, unnormalizedGravityField,
+                             propagationTime * Constants.JULIAN_DAY);
+        }
+
+        // Comparison with the high-fidelity reference trajectory
+        if (inputData.getReference() != null) {
+            compareWithReference(inputData, initialOrbit, centralBody,
+                                 propagationTime * Constants.JULIAN_DAY, numericalState, dsstState);
+        }
+
+        // Indexed ephemeris benchmark
+        if (inputData.getEphemeris() != null) {
+            benchmarkEphemeris(inputData, initialOrbit, centralBody, normalizedGravityField, atmosphere, shadows, gravityGrid,
+                               propagationTime * Constants.JULIAN_DAY);
+        }
+
+        // Bounded-memory ephemeris generation
+        if (inputData.getBoundedEphemeris() != null) {
+            generateBoundedEphemerides(inputData, initialOrbit, centralBody, normalizedGravityField, unnormalizedGravityField,
+                                       atmosphere, shadows, gravityGrid, propagationTime * Constants.JULIAN_DAY);
+        }
+
+        // Comparison with an exact eclipse computation
+        if (shadows != null && inputData.getForceModels().getSolarRadiationPressure().getShadowIntervals().isCompareWithExact()) {
+
+            // Propagators using exact eclipse computation
+            final NumericalPropagator exactNumericalPropagator = initializeNumericalPropagator(inputData, numericalIntegrator, initialOrbit, centralBody, normalizedGravityField, atmosphere, null, gravityGrid);
+            final DSSTPropagator      exactDsstPropagator      = initializeDSSTPropagator(inputData, dsstIntegrator, initialOrbit, centralBody, unnormalizedGravityField, atmosphere, null);
+
+            // Propagate
+            final long t0ExactNum = System.nanoTime();
+            final SpacecraftState exactNumericalState = exactNumericalPropagator.propagate(initialOrbit.getDate().shiftedBy(propagationTime * Constants.JULIAN_DAY));
+            final long t1ExactNum = System.nanoTime();
+            final long t0ExactDsst = System.nanoTime();
+            final SpacecraftState exactDsstState = exactDsstPropagator.propagate(initialOrbit.getDate().shiftedBy(propagationTime * Constants.JULIAN_DAY));
+            final long t1ExactDsst = System.nanoTime();
+            final double exactNumericalTime = 1.0e-9 * (t1ExactNum - t0ExactNum);
+            final double exactDsstTime      = 1.0e-9 * (t1ExactDsst - t0ExactDsst);
+
+            System.out.println("");
+            System.out.println("   Shadow intervals vs. exact eclipses");
+            System.out.println("      Numerical exact " + WALL_CLOCK_RUN_TIME + exactNumericalTime);
+            System.out.println("      Numerical speedup: " + speedup(exactNumericalTime, numericalTime));
+            System.out.println("      Numerical delta (m): " + positionDifference(numericalState, exactNumericalState));
+            System.out.println("      DSST exact " + WALL_CLOCK_RUN_TIME + exactDsstTime);
+            System.out.println("      DSST speedup:      " + speedup(exactDsstTime, dsstTime));
+            System.out.println("      DSST delta (m):    " + positionDifference(dsstState, exactDsstState));
+            shutdownParallelForceModels(exactNumericalPropagator);
+
+        }
+
+        // Comparison with the exact gravity model
+        if (gravityGrid != null && inputData.getForceModels().getGravity().getGrid().isCompareWithExact()) {
+
+            // Numerical propagator using the exact gravity model
+            final NumericalPropagator exactNumericalPropagator = initializeNumericalPropagator(inputData, numericalIntegrator, initialOrbit, centralBody, normalizedGravityField, atmosphere, shadows, null);
+
+            // Propagate
+            final long t0ExactNum = System.nanoTime();
+            final SpacecraftState exactNumericalState = exactNumericalPropagator.propagate(initialOrbit.getDate().shiftedBy(propagationTime * Constants.JULIAN_DAY));
+            final long t1ExactNum = System.nanoTime();
+            final double exactNumericalTime = 1.0e-9 * (t1ExactNum - t0ExactNum);
+
+            System.out.println("");
+            System.out.println("   Gravity grid vs. exact gravity model");
+            System.out.println("      Numerical exact " + WALL_CLOCK_RUN_TIME + exactNumericalTime);
+            System.out.println("      Numerical speedup: " + speedup(exactNumericalTime, numericalTime));
+            System.out.println("      Numerical delta (m): " + positionDifference(numericalState, exactNumericalState));
+            shutdownParallelForceModels(exactNumericalPropagator);
+
+        }
+
+        // Covariance propagation
+        if (inputData.getCovariance() != null) {
+            propagateCovariance(inputData, initialOrbit, centralBody, normalizedGravityField, unnormalizedGravityField,
+                                atmosphere, shadows, gravityGrid, numericalIntegrator, dsstIntegrator, propagationTime * Constants.JULIAN_DAY);
+        }
+
+        // Sensitivities
+        if (inputData.getSensitivity() != null) {
+            computeSensitivities(inputData, initialOrbit, centralBody, normalizedGravityField, unnormalizedGravityField,
+                                 atmosphere, numericalIntegrator, dsstIntegrator, propagationTime * Constants.JULIAN_DAY);
+        }
+
+        // Orbit determination benchmark
+        if (inputData.getOrbitDetermination() != null) {
+            benchmarkOrbitDetermination(inputData, initialOrbit, centralBody, normalizedGravityField, unnormalizedGravityField,
+                                        atmosphere, shadows, gravityGrid);
+        }
+
+        // Parareal propagation
+        if (inputData.getParareal() != null) {
+            propagateParareal(inputData, initialOrbit, centralBody, normalizedGravityField, unnormalizedGravityField,
+                              atmosphere, shadows, gravityGrid, propagationTime * Constants.JULIAN_DAY,
+                              numericalState, numericalTime);
+        }
+
+        // Benchmark of the spherical harmonics engines
+        if (inputData.getForceModels().getGravity().isBenchmarkEngines()) {
+            benchmarkGravityEngines(initialOrbit, centralBody);
+        }
+
+        // Benchmark of the parallel force models
+        if (inputData.getForceModels().getParallelForceModels() != null && inputData.getForceModels().getParallelForceModels().isBenchmark()) {
+            benchmarkParallelForceModels(inputData, initialOrbit, centralBody, normalizedGravityField, atmosphere, shadows, gravityGrid,
+                                         numericalIntegrator, propagationTime * Constants.JULIAN_DAY);
+        }
+
+        // Comparison of the third body ephemerides
+        if (inputData.getForceModels().isCompareThirdBodyEphemerides() && inputData.getForceModels().getThirdBody() != null) {
+            compareThirdBodyEphemerides(inputData, initialOrbit, centralBody, normalizedGravityField, unnormalizedGravityField,
+                                        atmosphere, shadows, gravityGrid, numericalIntegrator, dsstIntegrator, propagationTime * Constants.JULIAN_DAY);
+        }
+
+        // Scaling study
+        if (inputData.getScalingStudy() != null) {
+            runScalingStudy(inputData, initialOrbit, centralBody);
+        }
+
+        // DSST vs. numerical crossover map
+        if (inputData.getCrossoverMap() != null) {
+            computeCrossoverMap(inputData, initialOrbit, centralBody, normalizedGravityField, unnormalizedGravityField);
+        }
+
+        // Orbit lifetime study
+        if (inputData.getLifetime() != null) {
+            runLifetimeStudy(inputData, initialOrbit, centralBody, normalizedGravityField, unnormalizedGravityField);
+        }
+
+        // TLE catalog comparison
+        if (inputData.getCatalog() != null) {
+            compareCatalog(inputData, initialOrbit.getFrame(), centralBody, normalizedGravityField, unnormalizedGravityField);
+        }
+
+        // Batch secular propagation
+        if (inputData.getBatchPropagation() != null) {
+            runBatchPropagation(inputData, initialOrbit.getFrame(), centralBody, normalizedGravityField, unnormalizedGravityField);
+        }
+
+        // Parallel force models of the numerical propagator (daemon workers, so nothing is left running on failure)
+        shutdownParallelForceModels(numericalPropagator);
+
+    }
+
+    /**
+     * Compute the position difference between two states.
+     * @param state first state
+     * @param reference second state
+     * @return the position difference (m)
+     */
+    private static double positionDifference(final SpacecraftState state, final SpacecraftState reference) {
+        return Vector3D.distance(state.getPVCoordinates().getPosition(),
+                                 reference.getPVCoordinates(state.getFrame()).getPosition());
+    }
+
+    /**
+     * Compute the speedup of a run with respect to a reference run.
+     * @param referenceTime run time of the reference (s)
+     * @param time run time (s)
+     * @return the speedup (NaN if the run time is below the clock resolution)
+     */
+    private static double speedup(final double referenceTime, final double time) {
+        return time > 0.0 ? referenceTime / time : Double.NaN;
+    }
+
+    /**
+     * Get the used heap memory after garbage collection.
+     * @return the used heap memory (bytes)
+     */
+    private static long usedHeap() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < HEAP_MEASUREMENT_COLLECTIONS; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Reset the peak usage of the heap memory pools.
+     */
+    private static void resetPeakHeap() {
+        for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * Get an upper bound of the peak usage of the heap memory since the last reset.
+     * <p>
+     * The peaks of the heap memory pools are not reached at the same time (the young
+     * generation is emptied when its content is promoted to the old generation), so
+     * their sum is an upper bound of the peak usage of the whole heap.
+     * </p>
+     * @return the sum of the peak usages of the heap memory pools (bytes)
+     */
+    private static long peakHeapBound() {
+        long peak = 0L;
+        for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
     }
 
     /**
@@ -227,10 +890,21 @@ public class OrbitComparator {
 
     /**
      * Initialize the normalized spherical harmonics provider.
+     * <p>
+     * In automatic mode, the configured degree and order define the reference
+     * field and the cheapest field meeting the target accuracy with the numerical
+     * propagator is returned. The selection runs use the configured drag, solar
+     * radiation pressure and third body models, with exact eclipses.
+     * </p>
      * @param inputData input data
+     * @param centralBody central body
+     * @param truth truth ephemeris (null if not used)
      * @return a configured spherical harmonics provider
+     * @throws IOException if the space weather or density grid caches cannot be read or written
      */
-    private static NormalizedSphericalHarmonicsProvider initializeNormalizedGravityField(final OrbitComparatorInputs inputData) {
+    private static NormalizedSphericalHarmonicsProvider initializeNormalizedGravityField(final OrbitComparatorInputs inputData,
+                                                                                        final OneAxisEllipsoid centralBody,
+                                                                                        final TruthEphemeris truth) throws IOException {
 
         // Gravity data
         final GravityConfiguration gravityData = inputData.getForceModels().getGravity();
@@ -238,18 +912,41 @@ public class OrbitComparator {
         // Use input data
         final int degree = gravityData.getDegree();
         final int order  = FastMath.min(degree, gravityData.getOrder());
-        
-        // Return
-        return GravityFieldFactory.getNormalizedProvider(degree, order);
+        if (gravityData.getAuto() == null) {
+            return GravityFieldFactory.getNormalizedProvider(degree, order);
+        }
+
+        // Automatic selection
+        final NormalizedSphericalHarmonicsProvider reference = GravityFieldFactory.getNormalizedProvider(degree, order);
+        final Orbit         orbit      = initializeOrbit(inputData, reference, truth);
+        final ODEIntegrator integrator = initializeIntegrator(inputData.getNumericalIntegrator(), orbit, "numerical gravity field selection");
+        final double        duration   = getGravitySelectionDuration(inputData);
+        final Atmosphere    atmosphere = initializeAtmosphere(inputData, centralBody, orbit.getDate(), duration);
+        final Vector3D[]    expected   = sampleNumericalPositions(inputData, orbit, centralBody, reference, atmosphere, integrator, duration, false);
+        final int[] selected = selectGravityField("numerical", degree, order, gravityData.getAuto().getTargetAccuracy(),
+            (n, m) -> maxPositionDifference(sampleNumericalPositions(inputData, orbit, centralBody, GravityFieldFactory.getNormalizedProvider(n, m),
+                                                                     atmosphere, integrator, duration, true), expected));
+        return GravityFieldFactory.getNormalizedProvider(selected[0], selected[1]);
 
     }
 
     /**
      * Initialize the unnormalized spherical harmonics provider.
+     * <p>
+     * In automatic mode, the configured degree and order define the reference
+     * field and the cheapest field meeting the target accuracy with the DSST
+     * propagator is returned. The selection runs use the configured drag, solar
+     * radiation pressure and third body models, with exact eclipses.
+     * </p>
      * @param inputData input data
+     * @param centralBody central body
+     * @param truth truth ephemeris (null if not used)
      * @return a configured spherical harmonics provider
+     * @throws IOException if the space weather or density grid caches cannot be read or written
      */
-    private static UnnormalizedSphericalHarmonicsProvider initializeUnnormalizedGravityField(final OrbitComparatorInputs inputData) {
+    private static UnnormalizedSphericalHarmonicsProvider initializeUnnormalizedGravityField(final OrbitComparatorInputs inputData,
+                                                                                            final OneAxisEllipsoid centralBody,
+                                                                                            final TruthEphemeris truth) throws IOException {
 
         // Gravity data
         final GravityConfiguration gravityData = inputData.getForceModels().getGravity();
@@ -257,64 +954,516 @@ public class OrbitComparator {
         // Use input data
         final int degree = gravityData.getDegree();
         final int order  = FastMath.min(degree, gravityData.getOrder());
-        
-        // Return
-        return GravityFieldFactory.getUnnormalizedProvider(degree, order);
+        if (gravityData.getAuto() == null) {
+            return GravityFieldFactory.getUnnormalizedProvider(degree, order);
+        }
+
+        // Automatic selection
+        final UnnormalizedSphericalHarmonicsProvider reference = GravityFieldFactory.getUnnormalizedProvider(degree, order);
+        final Orbit         orbit      = initializeOrbit(inputData, reference, truth);
+        final ODEIntegrator integrator = initializeIntegrator(inputData.getDsstIntegrator(), orbit, "DSST gravity field selection");
+        final double        duration   = getGravitySelectionDuration(inputData);
+        final Atmosphere    atmosphere = initializeAtmosphere(inputData, centralBody, orbit.getDate(), duration);
+        final Vector3D[]    expected   = sampleDSSTPositions(inputData, orbit, centralBody, reference, atmosphere, integrator, duration, false);
+        final int[] selected = selectGravityField("DSST", degree, order, gravityData.getAuto().getTargetAccuracy(),
+            (n, m) -> maxPositionDifference(sampleDSSTPositions(inputData, orbit, centralBody, GravityFieldFactory.getUnnormalizedProvider(n, m),
+                                                                atmosphere, integrator, duration, true), expected));
+        return GravityFieldFactory.getUnnormalizedProvider(selected[0], selected[1]);
 
     }
 
     /**
-     * Initialize initial orbit.
-     * @param inputData tutorial input data
-     * @param gravityField gravity field (used for the central attraction coefficient)
-     * @return the configured orbit
+     * Get the duration of the automatic gravity field selection runs.
+     * @param inputData input data
+     * @return the duration of the selection runs (s)
      */
-    private static Orbit initializeOrbit(final OrbitComparatorInputs inputData,
-                                         final SphericalHarmonicsProvider gravityField) {
+    private static double getGravitySelectionDuration(final OrbitComparatorInputs inputData) {
+        final GravityAutoConfiguration auto = inputData.getForceModels().getGravity().getAuto();
+        if (auto.getTargetAccuracy() <= 0.0) {
+            throw new IllegalArgumentException("Target accuracy of the automatic gravity field selection must be positive: " +
+                                               auto.getTargetAccuracy());
+        }
+        if (inputData.getForceModels().getGravity().getDegree() < MIN_AUTO_GRAVITY_DEGREE) {
+            throw new IllegalArgumentException("Automatic gravity field selection requires a reference degree of at least " +
+                                               MIN_AUTO_GRAVITY_DEGREE);
+        }
+        return (auto.getDuration() != NULL_DOUBLE ? auto.getDuration() : inputData.getPropagationDuration()) * Constants.JULIAN_DAY;
+    }
 
-        // Input orbit data
-        final OrbitConfiguration orbit = inputData.getOrbit();
+    /**
+     * Select the cheapest gravity field meeting a target accuracy.
+     * <p>
+     * The truncation error is assumed to decrease when the degree or the order
+     * increases. The degree is first found by bisection with full order fields,
+     * then the order is found by bisection for this degree, keeping at least the
+     * sectorial terms of order 2.
+     * </p>
+     * @param propagatorName name of the propagator
+     * @param maxDegree degree of the reference field
+     * @param maxOrder order of the reference field
+     * @param target target position accuracy (m)
+     * @param error function computing the position error of a field with respect to the reference (m)
+     * @return the selected degree and order
+     */
+    private static int[] selectGravityField(final String propagatorName, final int maxDegree, final int maxOrder,
+                                            final double target, final BiFunction<Integer, Integer, Double> error) {
 
-        // Central attration coefficient
-        final double mu = gravityField.getMu();
+        final double t0 = System.currentTimeMillis();
 
-        // Verify if an input orbit has been defined
-        // If not, we use the first orbit entry in the CPF file
-        if (orbit != null) {
+        // Errors of the evaluated fields
+        final Map<String, Double> errors = new HashMap<>();
+        errors.put(maxDegree + "x" + maxOrder, 0.0);
+        final BiFunction<Integer, Integer, Double> cachedError = (n, m) -> errors.computeIfAbsent(n + "x" + m, key -> error.apply(n, m));
 
-            // Input orbit data were defined
-            final OrbitTypeConfiguration data = orbit.getOrbitType();
+        // Bisection on degree
+        int low  = MIN_AUTO_GRAVITY_DEGREE;
+        int high = maxDegree;
+        while (low < high) {
+            final int degree = (low + high) / 2;
+            if (cachedError.apply(degree, FastMath.min(degree, maxOrder)) <= target) {
+                high = degree;
+            } else {
+                low = degree + 1;
+            }
+        }
+        final int degree = high;
 
-            // Inertial frame
-            final Frame frame = orbit.getInertialFrame() == null ? FramesFactory.getEME2000() : orbit.getInertialFrame();
+        // Bisection on order
+        high = FastMath.min(degree, maxOrder);
+        low  = FastMath.min(MIN_AUTO_GRAVITY_ORDER, high);
+        while (low < high) {
+            final int order = (low + high) / 2;
+            if (cachedError.apply(degree, order) <= target) {
+                high = order;
+            } else {
+                low = order + 1;
+            }
+        }
+        final int order = high;
 
-            // Obit definition
-            if (data.getKeplerian() != null) {
-                // Input data are Keplerian elements
-                final KeplerianOrbitConfiguration keplerian = data.getKeplerian();
-                return new KeplerianOrbit(keplerian.getA(), keplerian.getE(),
-                                          FastMath.toRadians(keplerian.getI()),
-                                          FastMath.toRadians(keplerian.getPa()),
-                                          FastMath.toRadians(keplerian.getRaan()),
-                                          FastMath.toRadians(keplerian.getV()),
-                                          PositionAngle.valueOf(keplerian.getPositionAngle()),
-                                          frame,
-                                          new AbsoluteDate(orbit.getDate(),
-                                                         TimeScalesFactory.getUTC()),
-                                          mu);
-            } else if (data.getEquinoctial() != null) {
-                // Input data are Equinoctial elements
-                final EquinoctialOrbitConfiguration equinoctial = data.getEquinoctial();
-                return new EquinoctialOrbit(equinoctial.getA(),
-                                            equinoctial.getEx(), equinoctial.getEy(),
-                                            equinoctial.getHx(), equinoctial.getHy(),
-                                            FastMath.toRadians(equinoctial.getLv()),
-                                            PositionAngle.valueOf(equinoctial.getPositionAngle()),
-                                            frame,
-                                            new AbsoluteDate(orbit.getDate(),
-                                                             TimeScalesFactory.getUTC()),
-                                            mu);
-            } else if (data.getCircular() != null) {
+        final double finalError = cachedError.apply(degree, order);
+        final double t1 = System.currentTimeMillis();
+        System.out.println("");
+        System.out.println("   Automatic gravity field selection for: " + propagatorName);
+        System.out.println("      Reference:         " + maxDegree + "x" + maxOrder);
+        System.out.println("      Target (m):        " + target);
+        System.out.println("      Selected:          " + degree + "x" + order);
+        System.out.println("      Error (m):         " + finalError);
+        System.out.println("      Runs:              " + errors.size());
+        System.out.println("      " + WALL_CLOCK_RUN_TIME + (0.001 * (t1 - t0)));
+        return new int[] {degree, order};
+
+    }
+
+    /**
+     * Sample the positions of a numerical propagation with the configured force models.
+     * <p>
+     * The eclipses are computed exactly and the force models are evaluated serially.
+     * </p>
+     * @param inputData input data
+     * @param orbit initial orbit
+     * @param centralBody central body
+     * @param gravityField gravity field
+     * @param atmosphere atmosphere model (null if drag is not used)
+     * @param integrator integrator
+     * @param duration propagation duration (s)
+     * @param quiet if true, the force models configuration is not printed
+     * @return the sampled positions
+     */
+    private static Vector3D[] sampleNumericalPositions(final OrbitComparatorInputs inputData,
+                                                       final Orbit orbit,
+                                                       final OneAxisEllipsoid centralBody,
+                                                       final NormalizedSphericalHarmonicsProvider gravityField,
+                                                       final Atmosphere atmosphere,
+                                                       final ODEIntegrator integrator,
+                                                       final double duration,
+                                                       final boolean quiet) {
+        final ForceModelOptions options = ForceModelOptions.of(inputData.getForceModels()).withParallel(null);
+        final NumericalPropagator propagator = initializeNumericalPropagator(inputData, integrator, orbit, centralBody, gravityField,
+                                                                             atmosphere, null, null, options, quiet);
+        return samplePositions(propagator, orbit, duration);
+    }
+
+    /**
+     * Sample the positions of a DSST propagation with the configured force models.
+     * <p>
+     * The eclipses are computed exactly.
+     * </p>
+     * @param inputData input data
+     * @param orbit initial orbit
+     * @param centralBody central body
+     * @param gravityField gravity field
+     * @param atmosphere atmosphere model (null if drag is not used)
+     * @param integrator integrator
+     * @param duration propagation duration (s)
+     * @param quiet if true, the force models configuration is not printed
+     * @return the sampled positions
+     */
+    private static Vector3D[] sampleDSSTPositions(final OrbitComparatorInputs inputData,
+                                                  final Orbit orbit,
+                                                  final OneAxisEllipsoid centralBody,
+                                                  final UnnormalizedSphericalHarmonicsProvider gravityField,
+                                                  final Atmosphere atmosphere,
+                                                  final ODEIntegrator integrator,
+                                                  final double duration,
+                                                  final boolean quiet) {
+        final DSSTPropagator propagator = initializeDSSTPropagator(inputData, integrator, orbit, centralBody, gravityField, atmosphere, null, quiet);
+        return samplePositions(propagator, orbit, duration);
+    }
+
+    /**
+     * Sample the positions of a propagation at regular dates.
+     * @param propagator propagator
+     * @param orbit initial orbit
+     * @param duration propagation duration (s)
+     * @return the positions in the frame of the initial orbit
+     */
+    private static Vector3D[] samplePositions(final Propagator propagator, final Orbit orbit, final double duration) {
+        final Vector3D[] positions = new Vector3D[AUTO_GRAVITY_SAMPLES];
+        for (int i = 0; i < positions.length; i++) {
+            final AbsoluteDate date = orbit.getDate().shiftedBy((i + 1) * duration / positions.length);
+            positions[i] = propagator.propagate(date).getPVCoordinates(orbit.getFrame()).getPosition();
+        }
+        return positions;
+    }
+
+    /**
+     * Compute the largest distance between two lists of positions.
+     * @param positions positions
+     * @param references reference positions
+     * @return the largest distance (m)
+     */
+    private static double maxPositionDifference(final Vector3D[] positions, final Vector3D[] references) {
+        double max = 0.0;
+        for (int i = 0; i < positions.length; i++) {
+            max = FastMath.max(max, Vector3D.distance(positions[i], references[i]));
+        }
+        return max;
+    }
+
+    /**
+     * Initialize the atmosphere model used by the drag force.
+     * @param inputData input data
+     * @param centralBody central body
+     * @param start start date of the propagation
+     * @param duration propagation duration (s)
+     * @return a configured atmosphere model (null if drag is not used)
+     * @throws IOException if the space weather or density grid caches cannot be read or written
+     */
+    private static Atmosphere initializeAtmosphere(final OrbitComparatorInputs inputData,
+                                                   final OneAxisEllipsoid centralBody,
+                                                   final AbsoluteDate start,
+                                                   final double duration) throws IOException {
+
+        // Drag data
+        final DragConfiguration drag = inputData.getForceModels().getDrag();
+        if (drag == null) {
+            return null;
+        }
+
+        // Space weather data (parsed once per JVM)
+        final File swCache = drag.getSpaceWeatherCacheDirectory() != null ? new File(drag.getSpaceWeatherCacheDirectory()) : null;
+        final CachedSpaceWeatherData cswd = CachedSpaceWeatherData.getInstance(CssiSpaceWeatherData.DEFAULT_SUPPORTED_NAMES, swCache);
+
+        // Atmosphere model
+        final Atmosphere nrlmsise00 = new NRLMSISE00(cswd, CelestialBodyFactory.getSun(), centralBody);
+
+        // Precomputed density grid
+        final AtmosphereGridConfiguration grid = drag.getAtmosphereGrid();
+        if (grid == null) {
+            return nrlmsise00;
+        }
+
+        final double t0 = System.currentTimeMillis();
+        final GriddedAtmosphere atmosphere =
+                        new GriddedAtmosphere(nrlmsise00, centralBody, CelestialBodyFactory.getSun(), start, duration,
+                                              grid.getTimeStep() != NULL_DOUBLE ? grid.getTimeStep() : DEFAULT_GRID_TIME_STEP,
+                                              grid.getMinAltitude() != NULL_DOUBLE ? grid.getMinAltitude() : DEFAULT_GRID_MIN_ALTITUDE,
+                                              grid.getMaxAltitude() != NULL_DOUBLE ? grid.getMaxAltitude() : DEFAULT_GRID_MAX_ALTITUDE,
+                                              grid.getAltitudePoints() != 0 ? grid.getAltitudePoints() : DEFAULT_GRID_ALTITUDE_POINTS,
+                                              grid.getLatitudePoints() != 0 ? grid.getLatitudePoints() : DEFAULT_GRID_LATITUDE_POINTS,
+                                              grid.getLocalSolarTimePoints() != 0 ? grid.getLocalSolarTimePoints() : DEFAULT_GRID_LST_POINTS,
+                                              cswd.getChecksum(),
+                                              grid.getCacheDirectory() != null ? new File(grid.getCacheDirectory()) : null);
+        final double t1 = System.currentTimeMillis();
+        System.out.println("");
+        System.out.println("   Atmosphere density grid");
+        System.out.println("      Samples:           " + atmosphere.getSampleCount());
+        System.out.println("      Loaded from cache: " + atmosphere.isLoadedFromCache());
+        System.out.println("      " + WALL_CLOCK_RUN_TIME + (0.001 * (t1 - t0)));
+        return atmosphere;
+
+    }
+
+    /**
+     * Initialize the gravity acceleration grid used by the numerical propagator.
+     * <p>
+     * By default, the grid covers the radius range of the initial osculating
+     * orbit, with a margin, and its angular step decreases with the degree of
+     * the field so that the shortest wavelengths are correctly sampled.
+     * </p>
+     * @param inputData input data
+     * @param orbit initial orbit
+     * @param centralBody central body
+     * @param gravityField gravity field
+     * @return a configured gravity acceleration grid (null if the exact model is used)
+     * @throws IOException if the grid cache cannot be read or written
+     */
+    private static GriddedGravity initializeGravityGrid(final OrbitComparatorInputs inputData,
+                                                       final Orbit orbit,
+                                                       final OneAxisEllipsoid centralBody,
+                                                       final NormalizedSphericalHarmonicsProvider gravityField) throws IOException {
+
+        // Gravity data
+        final GravityConfiguration gravity = inputData.getForceModels().getGravity();
+        final GravityGridConfiguration grid = gravity.getGrid();
+        if (grid == null || gravity.getDegree() == 0) {
+            return null;
+        }
+
+        // Grid definition
+        final double angularStep = grid.getAngularStep() != NULL_DOUBLE ?
+                                   grid.getAngularStep() : FastMath.min(DEFAULT_GRAVITY_GRID_ANGULAR_STEP, 45.0 / gravityField.getMaxDegree());
+        final double radialStep  = grid.getRadialStep() != NULL_DOUBLE ? grid.getRadialStep() : DEFAULT_GRAVITY_GRID_RADIAL_STEP;
+        final double a = orbit.getA();
+        final double e = orbit.getE();
+        final double minRadius = grid.getMinAltitude() != NULL_DOUBLE ?
+                                 gravityField.getAe() + grid.getMinAltitude() : a * (1.0 - e) - DEFAULT_GRAVITY_GRID_MARGIN;
+        final double maxRadius = grid.getMaxAltitude() != NULL_DOUBLE ?
+                                 gravityField.getAe() + grid.getMaxAltitude() : a * (1.0 + e) + DEFAULT_GRAVITY_GRID_MARGIN;
+
+        final double t0 = System.currentTimeMillis();
+        final GriddedGravity gravityGrid =
+                        new GriddedGravity(centralBody.getBodyFrame(), gravityField, orbit.getDate(),
+                                           minRadius, maxRadius, radialStep, FastMath.toRadians(angularStep),
+                                           grid.getCacheDirectory() != null ? new File(grid.getCacheDirectory()) : null);
+        final double t1 = System.currentTimeMillis();
+        final double[] errors = gravityGrid.getInterpolationErrors(orbit.getDate(), GRAVITY_GRID_CHECK_SAMPLES, 0L);
+        System.out.println("");
+        System.out.println("   Gravity acceleration grid");
+        System.out.println("      Radius range (km): " + (0.001 * gravityGrid.getMinRadius()) + " - " + (0.001 * gravityGrid.getMaxRadius()));
+        System.out.println("      Angular step (°):  " + angularStep);
+        System.out.println("      Radial step (m):   " + radialStep);
+        System.out.println("      Samples:           " + gravityGrid.getSampleCount());
+        System.out.println("      Loaded from cache: " + gravityGrid.isLoadedFromCache());
+        System.out.println("      Max error (m/s²):  " + errors[0]);
+        System.out.println("      RMS error (m/s²):  " + errors[1]);
+        System.out.println("      Max relative error: " + errors[2]);
+        System.out.println("      " + WALL_CLOCK_RUN_TIME + (0.001 * (t1 - t0)));
+        return gravityGrid;
+
+    }
+
+    /**
+     * Initialize the shadow intervals used by the solar radiation pressure.
+     * <p>
+     * The intervals are computed on a Brouwer-Lyddane reference trajectory
+     * (Keplerian if the Brouwer-Lyddane model cannot be used for the orbit).
+     * The margin is the budget for the timing error of the reference. As the
+     * reference ignores drag, the intervals are only predicted while the
+     * along-track drift due to the decay stays within the margin, and the
+     * eclipses are computed exactly afterwards.
+     * </p>
+     * @param inputData input data
+     * @param orbit initial orbit
+     * @param centralBody central body
+     * @param gravityField gravity field
+     * @param atmosphere atmosphere model (null if drag is not used)
+     * @param duration propagation duration (s)
+     * @return the shadow intervals for each occulting body (null if exact eclipse computation is used)
+     */
+    private static Map<String, ShadowIntervals> initializeShadowIntervals(final OrbitComparatorInputs inputData,
+                                                                          final Orbit orbit,
+                                                                          final OneAxisEllipsoid centralBody,
+                                                                          final UnnormalizedSphericalHarmonicsProvider gravityField,
+                                                                          final Atmosphere atmosphere,
+                                                                          final double duration) {
+
+        // Solar radiation pressure data
+        final SolarRadiationPressureConfiguration srp = inputData.getForceModels().getSolarRadiationPressure();
+        if (srp == null || srp.getShadowIntervals() == null) {
+            return null;
+        }
+        final boolean      centralBodyOcculting = isCentralBodyOcculting(srp);
+        final List<String> otherOccultingBodies = getOtherOccultingBodies(srp);
+        if (!centralBodyOcculting && otherOccultingBodies.isEmpty()) {
+            // Never in shadow
+            return null;
+        }
+        final ShadowIntervalsConfiguration config = srp.getShadowIntervals();
+        final double margin   = config.getMargin() != NULL_DOUBLE ? config.getMargin() : DEFAULT_SHADOW_MARGIN;
+        final double validity = config.getValidity() != NULL_DOUBLE ? config.getValidity() :
+                                                                      estimateShadowValidity(inputData, orbit, atmosphere, margin);
+
+        final double t0 = System.currentTimeMillis();
+
+        // Reference trajectory
+        Propagator reference;
+        try {
+            final UnnormalizedSphericalHarmonicsProvider.UnnormalizedSphericalHarmonics harmonics = gravityField.onDate(orbit.getDate());
+            final double[] cn0 = new double[6];
+            for (int n = 2; n <= FastMath.min(5, gravityField.getMaxDegree()); n++) {
+                cn0[n] = harmonics.getUnnormalizedCnm(n, 0);
+            }
+            reference = new BrouwerLyddanePropagator(orbit, InertialProvider.of(orbit.getFrame()), Propagator.DEFAULT_MASS,
+                                                     gravityField.getAe(), gravityField.getMu(),
+                                                     cn0[2], cn0[3], cn0[4], cn0[5],
+                                                     PropagationType.OSCULATING, 0.0);
+        } catch (OrekitException oe) {
+            reference = new KeplerianPropagator(orbit);
+        }
+
+        // Shadow intervals for each occulting body
+        final Map<String, ShadowIntervals> shadows = new LinkedHashMap<>();
+        if (centralBodyOcculting) {
+            final OneAxisEllipsoid earth = new OneAxisEllipsoid(gravityField.getAe(), 0.0, centralBody.getBodyFrame());
+            shadows.put(EARTH, ShadowIntervals.compute(reference, orbit.getDate(), duration, CelestialBodyFactory.getSun(), earth, margin, validity));
+        }
+        for (final String name : otherOccultingBodies) {
+            final CelestialBody body = CelestialBodyFactory.getBody(name);
+            final OneAxisEllipsoid occulting = new OneAxisEllipsoid(Constants.MOON_EQUATORIAL_RADIUS, 0.0, body.getBodyOrientedFrame());
+            shadows.put(name, ShadowIntervals.compute(reference, orbit.getDate(), duration, CelestialBodyFactory.getSun(), occulting, margin, validity));
+        }
+
+        final double t1 = System.currentTimeMillis();
+        final ShadowIntervals first = shadows.values().iterator().next();
+        System.out.println("");
+        System.out.println("   Shadow intervals      ");
+        System.out.println("      Reference:         " + reference.getClass().getSimpleName());
+        System.out.println("      Margin:            " + margin);
+        System.out.println("      Validity end:      " + first.getValidityEnd() +
+                           (first.isTruncated() ? " (exact eclipses afterwards)" : ""));
+        for (final Map.Entry<String, ShadowIntervals> entry : shadows.entrySet()) {
+            System.out.println("      " + entry.getKey() + " transitions: " + entry.getValue().getTransitionsCount() +
+                               " (" + entry.getValue().getTransitionsDuration() + " s)");
+        }
+        System.out.println("      " + WALL_CLOCK_RUN_TIME + (0.001 * (t1 - t0)));
+        return shadows;
+
+    }
+
+    /**
+     * Estimate the duration over which the shadow intervals reference stays within the timing error budget.
+     * <p>
+     * A decay rate da/dt of the semi-major axis shifts the mean anomaly by
+     * 3/4 n (da/dt / a) t², i.e. a timing error of 3/4 (da/dt / a) t² along the orbit.
+     * The decay rate -ρ (Cd A / m) √(μ a) is evaluated with the largest density
+     * sampled over the initial orbit.
+     * </p>
+     * @param inputData input data
+     * @param orbit initial orbit
+     * @param atmosphere atmosphere model (null if drag is not used)
+     * @param margin timing error budget (s)
+     * @return the duration over which the timing error stays within the margin (s, infinite without drag)
+     */
+    private static double estimateShadowValidity(final OrbitComparatorInputs inputData,
+                                                 final Orbit orbit,
+                                                 final Atmosphere atmosphere,
+                                                 final double margin) {
+
+        final DragConfiguration drag = inputData.getForceModels().getDrag();
+        if (drag == null || atmosphere == null) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        // Largest density over the initial orbit
+        double density = 0.0;
+        for (int i = 0; i < SHADOW_DECAY_SAMPLES; i++) {
+            final Orbit shifted = orbit.shiftedBy(i * orbit.getKeplerianPeriod() / SHADOW_DECAY_SAMPLES);
+            density = FastMath.max(density, atmosphere.getDensity(shifted.getDate(),
+                                                                  shifted.getPVCoordinates(atmosphere.getFrame()).getPosition(),
+                                                                  atmosphere.getFrame()));
+        }
+
+        // Decay rate and quadratic timing drift
+        final double decay = density * drag.getCd() * drag.getArea() / Propagator.DEFAULT_MASS * FastMath.sqrt(orbit.getMu() * orbit.getA());
+        return decay > 0.0 ? FastMath.sqrt(margin * orbit.getA() / (0.75 * decay)) : Double.POSITIVE_INFINITY;
+
+    }
+
+    /**
+     * Check if the central body is one of the occulting bodies.
+     * @param srp solar radiation pressure configuration
+     * @return true if the central body is an occulting body (default if no occulting bodies are configured)
+     */
+    private static boolean isCentralBodyOcculting(final SolarRadiationPressureConfiguration srp) {
+        return srp.getOccultingBodies() == null || srp.getOccultingBodies().contains(EARTH);
+    }
+
+    /**
+     * Get the occulting bodies other than the central body.
+     * @param srp solar radiation pressure configuration
+     * @return the names of the occulting bodies other than the central body
+     */
+    private static List<String> getOtherOccultingBodies(final SolarRadiationPressureConfiguration srp) {
+        if (srp.getOccultingBodies() == null) {
+            return Collections.emptyList();
+        }
+        final List<String> others = new ArrayList<>();
+        for (final String name : srp.getOccultingBodies()) {
+            if (MOON.equals(name)) {
+                others.add(name);
+            } else if (!EARTH.equals(name)) {
+                throw new IllegalArgumentException("Unsupported occulting body: " + name);
+            }
+        }
+        return others;
+    }
+
+    /**
+     * Initialize initial orbit.
+     * @param inputData tutorial input data
+     * @param gravityField gravity field (used for the central attraction coefficient)
+     * @param truth truth ephemeris (null if not used)
+     * @return the configured orbit
+     */
+    private static Orbit initializeOrbit(final OrbitComparatorInputs inputData,
+                                         final SphericalHarmonicsProvider gravityField,
+                                         final TruthEphemeris truth) {
+
+        // Input orbit data
+        final OrbitConfiguration orbit = inputData.getOrbit();
+
+        // Central attration coefficient
+        final double mu = gravityField.getMu();
+
+        // Verify if an input orbit has been defined
+        // If not, we use the first orbit entry in the CPF or SP3 file
+        if (orbit != null) {
+
+            // Input orbit data were defined
+            final OrbitTypeConfiguration data = orbit.getOrbitType();
+
+            // Inertial frame
+            final Frame frame = orbit.getInertialFrame() == null ? FramesFactory.getEME2000() : orbit.getInertialFrame();
+
+            // Obit definition
+            if (data.getKeplerian() != null) {
+                // Input data are Keplerian elements
+                final KeplerianOrbitConfiguration keplerian = data.getKeplerian();
+                return new KeplerianOrbit(keplerian.getA(), keplerian.getE(),
+                                          FastMath.toRadians(keplerian.getI()),
+                                          FastMath.toRadians(keplerian.getPa()),
+                                          FastMath.toRadians(keplerian.getRaan()),
+                                          FastMath.toRadians(keplerian.getV()),
+                                          PositionAngle.valueOf(keplerian.getPositionAngle()),
+                                          frame,
+                                          new AbsoluteDate(orbit.getDate(),
+                                                         TimeScalesFactory.getUTC()),
+                                          mu);
+            } else if (data.getEquinoctial() != null) {
+                // Input data are Equinoctial elements
+                final EquinoctialOrbitConfiguration equinoctial = data.getEquinoctial();
+                return new EquinoctialOrbit(equinoctial.getA(),
+                                            equinoctial.getEx(), equinoctial.getEy(),
+                                            equinoctial.getHx(), equinoctial.getHy(),
+                                            FastMath.toRadians(equinoctial.getLv()),
+                                            PositionAngle.valueOf(equinoctial.getPositionAngle()),
+                                            frame,
+                                            new AbsoluteDate(orbit.getDate(),
+                                                             TimeScalesFactory.getUTC()),
+                                            mu);
+            } else if (data.getCircular() != null) {
                 // Input data are Circular elements
                 final CircularOrbitConfiguration circular = data.getCircular();
                 return new CircularOrbit(circular.getA(),
@@ -336,12 +1485,7 @@ public class OrbitComparator {
 
                 final TLEPropagator propagator = TLEPropagator.selectExtrapolator(tle);
 
-                final AbsoluteDate initDate = tle.getDate();
-                final SpacecraftState initialState = propagator.getInitialState();
-
-                //Transformation from TEME to frame.
-                return new CartesianOrbit(initialState.getPVCoordinates(frame),
-                                          frame, initDate, mu);
+                return initializeTLEOrbit(propagator, frame, mu);
 
             } else {
                 // Input data are Cartesian elements
@@ -356,313 +1500,4386 @@ public class OrbitComparator {
                                           mu);
             }
 
+        } else if (truth != null) {
+
+            // First entry of the truth ephemeris
+            return truth.getInitialOrbit(FramesFactory.getEME2000(), mu);
+
+        } else {
+
+            // Orbit must be defined
+            throw new IllegalArgumentException("Orbit must be defined!");
+
+        }
+
+    }
+
+    /**
+     * Initialize the truth ephemeris.
+     * @param inputData input data
+     * @param centralBody central body (its frame is the frame of the ephemeris records)
+     * @return the truth ephemeris (null if not used)
+     * @throws IOException if the ephemeris file cannot be read
+     */
+    private static TruthEphemeris initializeTruth(final OrbitComparatorInputs inputData,
+                                                  final OneAxisEllipsoid centralBody) throws IOException {
+
+        final TruthConfiguration truthData = inputData.getTruth();
+        if (truthData == null) {
+            return null;
+        }
+        if (truthData.getFile() == null) {
+            throw new IllegalArgumentException("Truth ephemeris file shall be defined");
+        }
+
+        final File   file   = new File(truthData.getFile());
+        final int    points = truthData.getInterpolationPoints() != 0 ? truthData.getInterpolationPoints() : DEFAULT_TRUTH_INTERPOLATION_POINTS;
+        final double t0     = System.currentTimeMillis();
+        final TruthEphemeris truth = TruthEphemeris.load(file, truthData.getFormat(), truthData.getSatellite(), centralBody.getBodyFrame(), points);
+        final double t1     = System.currentTimeMillis();
+
+        System.out.println("");
+        System.out.println("   Truth ephemeris");
+        System.out.println("      File:              " + file.getAbsolutePath());
+        System.out.println("      Satellite:         " + truth.getSatellite());
+        System.out.println("      Records:           " + truth.getSize());
+        System.out.println("      Start:             " + truth.getStart());
+        System.out.println("      End:               " + truth.getEnd());
+        System.out.println("      Step (s):          " + truth.getStep());
+        System.out.println("      Loading " + WALL_CLOCK_RUN_TIME + (0.001 * (t1 - t0)));
+        return truth;
+
+    }
+
+    /**
+     * Compare the numerical and DSST propagators with the truth ephemeris.
+     * <p>
+     * Both propagators are initialized from the first record of the ephemeris and
+     * propagated over the arc covered by the ephemeris (limited to the propagation
+     * duration). The residuals (radial, along-track and cross-track components of
+     * the position difference) are computed at the ephemeris step and streamed to
+     * the output file as the propagations progress.
+     * </p>
+     * @param inputData input data
+     * @param truth truth ephemeris
+     * @param frame inertial frame of the propagations
+     * @param centralBody central body
+     * @param normalizedGravityField gravity field of the numerical propagator
+     * @param unnormalizedGravityField gravity field of the DSST propagator
+     * @param duration propagation duration (s)
+     * @throws IOException if the output file cannot be written
+     */
+    private static void compareWithTruth(final OrbitComparatorInputs inputData,
+                                         final TruthEphemeris truth,
+                                         final Frame frame,
+                                         final OneAxisEllipsoid centralBody,
+                                         final NormalizedSphericalHarmonicsProvider normalizedGravityField,
+                                         final UnnormalizedSphericalHarmonicsProvider unnormalizedGravityField,
+                                         final double duration) throws IOException {
+
+        final TruthConfiguration truthData = inputData.getTruth();
+        final File  output = new File(truthData.getOutputFile() != null ? truthData.getOutputFile() : DEFAULT_TRUTH_OUTPUT);
+        final Orbit orbit  = truth.getInitialOrbit(frame, normalizedGravityField.getMu());
+        final double arc   = FastMath.min(duration, truth.getEnd().durationFrom(orbit.getDate()));
+        final double step  = truth.getStep();
+
+        // Propagators
+        final Atmosphere atmosphere = initializeAtmosphere(inputData, centralBody, orbit.getDate(), arc);
+        final Map<String, ShadowIntervals> shadows = initializeShadowIntervals(inputData, orbit, centralBody, unnormalizedGravityField, atmosphere, arc);
+        final NumericalPropagator numerical = initializeNumericalPropagator(inputData,
+                                                                            initializeIntegratorBuilder(inputData.getNumericalIntegrator()).buildIntegrator(orbit, OrbitType.EQUINOCTIAL),
+                                                                            orbit, centralBody, normalizedGravityField, atmosphere, shadows, null);
+        final DSSTPropagator dsst = initializeDSSTPropagator(inputData,
+                                                             initializeIntegratorBuilder(inputData.getDsstIntegrator()).buildIntegrator(orbit, OrbitType.EQUINOCTIAL),
+                                                             orbit, centralBody, unnormalizedGravityField, atmosphere, shadows);
+
+        // Streamed residuals
+        final StreamingStatistics numericalStatistics = new StreamingStatistics();
+        final StreamingStatistics dsstStatistics      = new StreamingStatistics();
+        final double t0;
+        final double t1;
+        final double t2;
+        try (PrintWriter writer = new PrintWriter(output, "UTF-8")) {
+            writer.println("propagator,date,radialM,alongTrackM,crossTrackM,positionM");
+            numerical.getMultiplexer().add(step, state -> writeTruthResidual(writer, "numerical", state, truth, numericalStatistics));
+            dsst.getMultiplexer().add(step, state -> writeTruthResidual(writer, "DSST", state, truth, dsstStatistics));
+            t0 = System.currentTimeMillis();
+            numerical.propagate(orbit.getDate().shiftedBy(arc));
+            t1 = System.currentTimeMillis();
+            dsst.propagate(orbit.getDate().shiftedBy(arc));
+            t2 = System.currentTimeMillis();
+        } finally {
+            shutdownParallelForceModels(numerical);
+        }
+
+        System.out.println("");
+        System.out.println("   Comparison with the truth ephemeris");
+        System.out.println("      Initial orbit:     " + orbit);
+        System.out.println("      Arc (days):        " + (arc / Constants.JULIAN_DAY));
+        System.out.println("      Residuals:         " + numericalStatistics.getN());
+        System.out.println("      Numerical " + WALL_CLOCK_RUN_TIME + (0.001 * (t1 - t0)));
+        System.out.println("      Numerical RMS/max (m): " + numericalStatistics.getQuadraticMean() + " / " + numericalStatistics.getMax());
+        System.out.println("      DSST " + WALL_CLOCK_RUN_TIME + (0.001 * (t2 - t1)));
+        System.out.println("      DSST RMS/max (m):      " + dsstStatistics.getQuadraticMean() + " / " + dsstStatistics.getMax());
+        System.out.println("      Residuals file:    " + output.getAbsolutePath());
+
+    }
+
+    /**
+     * Compare the numerical and DSST final states with the high-fidelity reference trajectory.
+     * <p>
+     * The reference trajectory is computed by a numerical propagator using its
+     * own exact models, whatever the speed options of the compared propagators:
+     * configured gravity field without automatic truncation evaluated by the
+     * Holmes-Featherstone model, NRLMSISE00 atmosphere without density grid, DE
+     * ephemerides for the third bodies, exact eclipses and serial evaluation of
+     * the force models. The integration tolerance is tight, and the trajectory
+     * is fitted by Chebyshev segments. It is stored in the reference directory
+     * under a key identifying the initial orbit, the span, the physics of the
+     * models (gravity field, third bodies, spacecraft, space weather data) and
+     * the reference settings, so it is computed only for the first run of a
+     * given configuration and loaded afterwards.
+     * </p>
+     * @param inputData input data
+     * @param initialOrbit initial orbit
+     * @param centralBody central body
+     * @param duration propagation duration (s)
+     * @param numericalState final state of the numerical propagation
+     * @param dsstState final state of the DSST propagation
+     * @throws IOException if the reference trajectory cannot be read or written
+     */
+    private static void compareWithReference(final OrbitComparatorInputs inputData,
+                                             final Orbit initialOrbit,
+                                             final OneAxisEllipsoid centralBody,
+                                             final double duration,
+                                             final SpacecraftState numericalState,
+                                             final SpacecraftState dsstState) throws IOException {
+
+        final ReferenceConfiguration referenceData = inputData.getReference();
+        final String directory       = referenceData.getDirectory() != null ? referenceData.getDirectory() : DEFAULT_REFERENCE_DIRECTORY;
+        final double positionError   = referenceData.getPositionError() != NULL_DOUBLE ? referenceData.getPositionError() : DEFAULT_REFERENCE_POSITION_ERROR;
+        final double segmentDuration = referenceData.getSegmentDuration() != NULL_DOUBLE ?
+                                       referenceData.getSegmentDuration() : DEFAULT_REFERENCE_SEGMENT_FRACTION * initialOrbit.getKeplerianPeriod();
+        final int    degree          = referenceData.getDegree() != 0 ? referenceData.getDegree() : DEFAULT_REFERENCE_DEGREE;
+
+        // Configured gravity field, not truncated by the automatic selection
+        final GravityConfiguration gravityData = inputData.getForceModels().getGravity();
+        final NormalizedSphericalHarmonicsProvider gravityField =
+                        GravityFieldFactory.getNormalizedProvider(gravityData.getDegree(), FastMath.min(gravityData.getDegree(), gravityData.getOrder()));
+
+        // Exact atmosphere model (space weather data parsed once per JVM)
+        final DragConfiguration drag = inputData.getForceModels().getDrag();
+        final Atmosphere atmosphere;
+        final long spaceWeather;
+        if (drag != null) {
+            final File swCache = drag.getSpaceWeatherCacheDirectory() != null ? new File(drag.getSpaceWeatherCacheDirectory()) : null;
+            final CachedSpaceWeatherData cswd = CachedSpaceWeatherData.getInstance(CssiSpaceWeatherData.DEFAULT_SUPPORTED_NAMES, swCache);
+            atmosphere   = new NRLMSISE00(cswd, CelestialBodyFactory.getSun(), centralBody);
+            spaceWeather = cswd.getChecksum();
+        } else {
+            atmosphere   = null;
+            spaceWeather = 0L;
+        }
+
+        // Physics of the models
+        final StringBuilder physics = new StringBuilder();
+        physics.append(gravityField.getMaxDegree()).append('x').append(gravityField.getMaxOrder()).append(';');
+        physics.append(gravityField.getMu()).append(';').append(gravityField.getAe()).append(';');
+        physics.append(gravityFieldDigest(gravityField, initialOrbit.getDate())).append(';');
+        physics.append(centralBody.getEquatorialRadius()).append(';').append(centralBody.getFlattening()).append(';');
+        physics.append(centralBody.getBodyFrame().getName()).append(';');
+        if (inputData.getForceModels().getThirdBody() != null) {
+            for (final ThirdBodyConfiguration thirdBody : inputData.getForceModels().getThirdBody()) {
+                physics.append(thirdBody.getName()).append(thirdBody.isWithSolidTides() ? " with tides" : "").append(',');
+            }
+        }
+        physics.append(';');
+        if (drag != null) {
+            physics.append("Cd ").append(drag.getCd()).append(", area ").append(drag.getArea());
+        }
+        physics.append(';');
+        final SolarRadiationPressureConfiguration srp = inputData.getForceModels().getSolarRadiationPressure();
+        if (srp != null) {
+            physics.append("Cr ").append(srp.getCr()).append(", area ").append(srp.getArea());
+            if (isCentralBodyOcculting(srp)) {
+                physics.append(", occulted by ").append(EARTH);
+            }
+            for (final String name : getOtherOccultingBodies(srp)) {
+                physics.append(", occulted by ").append(name);
+            }
+        }
+        physics.append(';');
+        physics.append(Propagator.DEFAULT_MASS).append(';');
+        physics.append(Long.toHexString(spaceWeather));
+
+        // Key of the reference trajectory
+        final String description = initialOrbit.getDate() + ";" + initialOrbit.getFrame().getName() + ";" +
+                                   initialOrbit.getPVCoordinates() + ";" + duration + ";" +
+                                   physics + ";" +
+                                   positionError + ";" + segmentDuration + ";" + degree;
+        final String key = ReferenceTrajectoryStore.key(description);
+        final ReferenceTrajectoryStore store = new ReferenceTrajectoryStore(new File(directory));
+
+        // Load or compute the reference trajectory
+        final boolean stored = store.contains(key);
+        final ChebyshevTrajectory reference;
+        final double t0 = System.currentTimeMillis();
+        if (stored) {
+            reference = store.load(key, initialOrbit.getFrame());
         } else {
+            final ODEIntegrator integrator = new DormandPrince853IntegratorBuilder(DEFAULT_REFERENCE_MIN_STEP, initialOrbit.getKeplerianPeriod(), positionError).
+                                             buildIntegrator(initialOrbit, OrbitType.EQUINOCTIAL);
+            final ForceModelOptions options = ForceModelOptions.of(inputData.getForceModels()).
+                                              withEphemerisSource(DE_EPHEMERIS).
+                                              withParallel(null).
+                                              withEngine(HOLMES_FEATHERSTONE_ENGINE);
+            final NumericalPropagator propagator = initializeNumericalPropagator(inputData, integrator, initialOrbit, centralBody, gravityField,
+                                                                                 atmosphere, null, null, options, false);
+            final ChebyshevTrajectoryBuilder builder = new ChebyshevTrajectoryBuilder(initialOrbit.getFrame(), initialOrbit.getDate(),
+                                                                                      duration, segmentDuration, degree);
+            propagator.getMultiplexer().add(builder);
+            try {
+                propagator.propagate(initialOrbit.getDate().shiftedBy(duration));
+            } finally {
+                shutdownParallelForceModels(propagator);
+            }
+            reference = builder.build();
+            store.store(key, reference);
+            System.out.println("");
+            System.out.println("   Reference trajectory fit");
+            System.out.println("      Max fit error (m): " + builder.getMaxFitError());
+        }
+        final double t1 = System.currentTimeMillis();
+
+        // Random-time lookups
+        final RandomGenerator random = new Well19937a(REFERENCE_LOOKUP_SEED);
+        double sink = 0.0;
+        final long t2 = System.nanoTime();
+        for (int i = 0; i < REFERENCE_LOOKUPS; i++) {
+            sink += reference.getPVCoordinates(initialOrbit.getDate().shiftedBy(random.nextDouble() * duration)).getPosition().getX();
+        }
+        final long t3 = System.nanoTime();
+
+        final AbsoluteDate end = initialOrbit.getDate().shiftedBy(duration);
+        final Vector3D referencePosition = reference.getPVCoordinates(end).getPosition();
+        System.out.println("");
+        System.out.println("   Comparison with the reference trajectory");
+        System.out.println("      Key:               " + key);
+        System.out.println("      File:              " + store.getFile(key).getAbsolutePath() + (stored ? " (loaded)" : " (computed)"));
+        System.out.println("      Size (bytes):      " + store.getFile(key).length());
+        System.out.println("      Segments:          " + reference.getSegments() + " x degree " + reference.getDegree());
+        System.out.println("      " + (stored ? "Loading " : "Computation ") + WALL_CLOCK_RUN_TIME + (0.001 * (t1 - t0)));
+        System.out.println("      Lookup (ns):       " + ((double) (t3 - t2) / REFERENCE_LOOKUPS) + (Double.isNaN(sink) ? " (NaN)" : ""));
+        System.out.println("      Numerical (m):     " + Vector3D.distance(numericalState.getPVCoordinates(reference.getFrame()).getPosition(), referencePosition));
+        System.out.println("      DSST (m):          " + Vector3D.distance(dsstState.getPVCoordinates(reference.getFrame()).getPosition(), referencePosition));
+
+    }
+
+    /**
+     * Compute the SHA-256 digest of a gravity field, identifying the model.
+     * @param provider gravity field provider
+     * @param date date at which time-dependent terms of the field are evaluated
+     * @return the hexadecimal digest of the degree, order, mu, equatorial radius and coefficients
+     */
+    private static String gravityFieldDigest(final NormalizedSphericalHarmonicsProvider provider, final AbsoluteDate date) {
+        final StringBuilder builder = new StringBuilder();
+        for (final byte b : GriddedGravity.getFieldDigest(provider, date)) {
+            builder.append(String.format("%02x", b));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Benchmark the indexed ephemeris against the ephemeris generated by the numerical propagator.
+     * <p>
+     * The same numerical propagation is performed twice: once with the indexed
+     * ephemeris builder as step handler, and once with the Orekit ephemeris generator.
+     * Both ephemerides are then queried at the same random dates, to compare their
+     * query latency, their heap usage per day of ephemeris and their positions.
+     * </p>
+     * @param inputData input data
+     * @param initialOrbit initial orbit
+     * @param centralBody central body
+     * @param gravityField gravity field
+     * @param atmosphere atmosphere model (null if drag is not used)
+     * @param shadows shadow intervals for each occulting body (null if exact eclipse computation is used)
+     * @param gravityGrid precomputed gravity acceleration grid (null if the exact model is used)
+     * @param duration propagation duration (s)
+     */
+    private static void benchmarkEphemeris(final OrbitComparatorInputs inputData,
+                                           final Orbit initialOrbit,
+                                           final OneAxisEllipsoid centralBody,
+                                           final NormalizedSphericalHarmonicsProvider gravityField,
+                                           final Atmosphere atmosphere,
+                                           final Map<String, ShadowIntervals> shadows,
+                                           final GriddedGravity gravityGrid,
+                                           final double duration) {
+
+        final EphemerisConfiguration ephemerisData = inputData.getEphemeris();
+        final double segmentDuration = ephemerisData.getSegmentDuration() != NULL_DOUBLE ?
+                                       ephemerisData.getSegmentDuration() : DEFAULT_EPHEMERIS_SEGMENT_FRACTION * initialOrbit.getKeplerianPeriod();
+        final int    degree          = ephemerisData.getDegree() != 0 ? ephemerisData.getDegree() : DEFAULT_EPHEMERIS_DEGREE;
+        final int    queries         = ephemerisData.getQueries() != 0 ? ephemerisData.getQueries() : DEFAULT_EPHEMERIS_QUERIES;
+        final AbsoluteDate target    = initialOrbit.getDate().shiftedBy(duration);
+        final double days            = duration / Constants.JULIAN_DAY;
+
+        // Indexed ephemeris
+        final NumericalPropagator indexedPropagator = initializeNumericalPropagator(inputData,
+                                                                                    initializeIntegratorBuilder(inputData.getNumericalIntegrator()).buildIntegrator(initialOrbit, OrbitType.EQUINOCTIAL),
+                                                                                    initialOrbit, centralBody, gravityField, atmosphere, shadows, gravityGrid);
+        final IndexedEphemerisBuilder builder = new IndexedEphemerisBuilder(initialOrbit.getFrame(), segmentDuration, degree);
+        indexedPropagator.getMultiplexer().add(builder);
+        final long   heap0 = usedHeap();
+        final double t0    = System.currentTimeMillis();
+        try {
+            indexedPropagator.propagate(target);
+        } finally {
+            shutdownParallelForceModels(indexedPropagator);
+        }
+        final IndexedEphemeris indexed = builder.build();
+        final double t1    = System.currentTimeMillis();
+        final long   heap1 = usedHeap();
+
+        // Generated ephemeris
+        final NumericalPropagator generatedPropagator = initializeNumericalPropagator(inputData,
+                                                                                      initializeIntegratorBuilder(inputData.getNumericalIntegrator()).buildIntegrator(initialOrbit, OrbitType.EQUINOCTIAL),
+                                                                                      initialOrbit, centralBody, gravityField, atmosphere, shadows, gravityGrid);
+        final EphemerisGenerator generator = generatedPropagator.getEphemerisGenerator();
+        final long   heap2 = usedHeap();
+        final double t2    = System.currentTimeMillis();
+        try {
+            generatedPropagator.propagate(target);
+        } finally {
+            shutdownParallelForceModels(generatedPropagator);
+        }
+        final BoundedPropagator generated = generator.getGeneratedEphemeris();
+        final double t3    = System.currentTimeMillis();
+        final long   heap3 = usedHeap();
+
+        // Random query dates
+        final RandomGenerator random = new Well19937a(EPHEMERIS_QUERY_SEED);
+        final AbsoluteDate[] dates = new AbsoluteDate[queries];
+        for (int i = 0; i < queries; i++) {
+            dates[i] = initialOrbit.getDate().shiftedBy(random.nextDouble() * duration);
+        }
+
+        // Query latency
+        double sink = 0.0;
+        final long q0 = System.nanoTime();
+        for (final AbsoluteDate date : dates) {
+            sink += indexed.getPVCoordinates(date).getPosition().getX();
+        }
+        final long q1 = System.nanoTime();
+        for (final AbsoluteDate date : dates) {
+            sink += generated.getPVCoordinates(date, initialOrbit.getFrame()).getPosition().getX();
+        }
+        final long q2 = System.nanoTime();
+
+        // Differences between the ephemerides
+        double maxDifference = 0.0;
+        for (final AbsoluteDate date : dates) {
+            maxDifference = FastMath.max(maxDifference,
+                                         Vector3D.distance(indexed.getPVCoordinates(date).getPosition(),
+                                                           generated.getPVCoordinates(date, initialOrbit.getFrame()).getPosition()));
+        }
+
+        System.out.println("");
+        System.out.println("   Indexed ephemeris vs. generated ephemeris");
+        System.out.println("      Segments:          " + indexed.getSegments() + " x degree " + degree);
+        System.out.println("      Max error bound (m):   " + indexed.getMaxErrorBound());
+        System.out.println("      Indexed " + WALL_CLOCK_RUN_TIME + (0.001 * (t1 - t0)));
+        System.out.println("      Generated " + WALL_CLOCK_RUN_TIME + (0.001 * (t3 - t2)));
+        System.out.println("      Indexed arrays (bytes/day):  " + (indexed.getMemorySize() / days));
+        System.out.println("      Indexed heap (bytes/day):    " + ((heap1 - heap0) / days));
+        System.out.println("      Generated heap (bytes/day):  " + ((heap3 - heap2) / days));
+        System.out.println("      Indexed query (ns):    " + ((double) (q1 - q0) / queries) + (Double.isNaN(sink) ? " (NaN)" : ""));
+        System.out.println("      Generated query (ns):  " + ((double) (q2 - q1) / queries));
+        System.out.println("      Max difference (m):    " + maxDifference);
+
+    }
+
+    /**
+     * Generate bounded-memory ephemerides with the numerical and DSST propagators.
+     * @param inputData input data
+     * @param initialOrbit initial orbit
+     * @param centralBody central body
+     * @param normalizedGravityField gravity field of the numerical propagator
+     * @param unnormalizedGravityField gravity field of the DSST propagator
+     * @param atmosphere atmosphere model (null if drag is not used)
+     * @param shadows shadow intervals for each occulting body (null if exact eclipse computation is used)
+     * @param gravityGrid precomputed gravity acceleration grid (null if the exact model is used)
+     * @param duration propagation duration (s)
+     * @throws IOException if the ephemeris files cannot be written or read
+     */
+    private static void generateBoundedEphemerides(final OrbitComparatorInputs inputData,
+                                                   final Orbit initialOrbit,
+                                                   final OneAxisEllipsoid centralBody,
+                                                   final NormalizedSphericalHarmonicsProvider normalizedGravityField,
+                                                   final UnnormalizedSphericalHarmonicsProvider unnormalizedGravityField,
+                                                   final Atmosphere atmosphere,
+                                                   final Map<String, ShadowIntervals> shadows,
+                                                   final GriddedGravity gravityGrid,
+                                                   final double duration) throws IOException {
+
+        final File directory = new File(inputData.getBoundedEphemeris().getDirectory() != null ?
+                                        inputData.getBoundedEphemeris().getDirectory() : DEFAULT_BOUNDED_EPHEMERIS_DIRECTORY);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create ephemeris directory " + directory.getAbsolutePath());
+        }
+
+        generateBoundedEphemeris(inputData, "Numerical", new File(directory, "numerical-ephemeris.bin"), initialOrbit, duration,
+            () -> initializeNumericalPropagator(inputData,
+                                                initializeIntegratorBuilder(inputData.getNumericalIntegrator()).buildIntegrator(initialOrbit, OrbitType.EQUINOCTIAL),
+                                                initialOrbit, centralBody, normalizedGravityField, atmosphere, shadows, gravityGrid));
+        generateBoundedEphemeris(inputData, "DSST", new File(directory, "dsst-ephemeris.bin"), initialOrbit, duration,
+            () -> initializeDSSTPropagator(inputData,
+                                           initializeIntegratorBuilder(inputData.getDsstIntegrator()).buildIntegrator(initialOrbit, OrbitType.EQUINOCTIAL),
+                                           initialOrbit, centralBody, unnormalizedGravityField, atmosphere, shadows));
+
+    }
+
+    /**
+     * Generate a bounded-memory ephemeris and query it.
+     * <p>
+     * The steps of the propagator are streamed to a {@link BoundedEphemerisBuilder},
+     * which down-samples them to the configured tolerance and spills the segments to
+     * the ephemeris file. The ephemeris is then opened as a memory-mapped file with an
+     * in-heap cache of the most recently used segments, and queried at random dates.
+     * If requested, the same propagation is performed with the Orekit ephemeris
+     * generator to compare the upper bounds of the peak heap usages and the positions.
+     * </p>
+     * @param inputData input data
+     * @param name name of the propagator
+     * @param file ephemeris file
+     * @param initialOrbit initial orbit
+     * @param duration propagation duration (s)
+     * @param factory factory building a new propagator
+     * @throws IOException if the ephemeris file cannot be written or read
+     */
+    private static void generateBoundedEphemeris(final OrbitComparatorInputs inputData,
+                                                 final String name,
+                                                 final File file,
+                                                 final Orbit initialOrbit,
+                                                 final double duration,
+                                                 final Supplier<Propagator> factory) throws IOException {
+
+        final BoundedEphemerisConfiguration boundedData = inputData.getBoundedEphemeris();
+        final double tolerance   = boundedData.getTolerance() != NULL_DOUBLE ? boundedData.getTolerance() : DEFAULT_BOUNDED_EPHEMERIS_TOLERANCE;
+        final int    degree      = boundedData.getDegree() != 0 ? boundedData.getDegree() : DEFAULT_BOUNDED_EPHEMERIS_DEGREE;
+        final double minSegment  = boundedData.getMinSegmentDuration() != NULL_DOUBLE ?
+                                   boundedData.getMinSegmentDuration() : DEFAULT_BOUNDED_EPHEMERIS_MIN_SEGMENT;
+        final double maxSegment  = boundedData.getMaxSegmentDuration() != NULL_DOUBLE ?
+                                   boundedData.getMaxSegmentDuration() : DEFAULT_BOUNDED_EPHEMERIS_MAX_SEGMENT_FRACTION * initialOrbit.getKeplerianPeriod();
+        final int    cacheSize   = boundedData.getCacheSize() != 0 ? boundedData.getCacheSize() : DEFAULT_BOUNDED_EPHEMERIS_CACHE_SIZE;
+        final int    queries     = boundedData.getQueries() != 0 ? boundedData.getQueries() : DEFAULT_EPHEMERIS_QUERIES;
+        final AbsoluteDate target = initialOrbit.getDate().shiftedBy(duration);
+
+        // Bounded ephemeris
+        final Propagator bounded = factory.get();
+        final BoundedEphemerisBuilder builder = new BoundedEphemerisBuilder(file, initialOrbit.getFrame(), degree, tolerance, minSegment, maxSegment);
+        bounded.getMultiplexer().add(builder);
+        final long   heap0 = usedHeap();
+        resetPeakHeap();
+        final double t0    = System.currentTimeMillis();
+        try {
+            bounded.propagate(target);
+        } finally {
+            builder.close();
+            if (bounded instanceof NumericalPropagator) {
+                shutdownParallelForceModels((NumericalPropagator) bounded);
+            }
+        }
+        final double t1    = System.currentTimeMillis();
+        final long   peak  = peakHeapBound();
+
+        // Random query dates
+        final RandomGenerator random = new Well19937a(EPHEMERIS_QUERY_SEED);
+        final AbsoluteDate[] dates = new AbsoluteDate[queries];
+        for (int i = 0; i < queries; i++) {
+            dates[i] = initialOrbit.getDate().shiftedBy(random.nextDouble() * duration);
+        }
+
+        try (MappedEphemeris ephemeris = builder.open(cacheSize)) {
+
+            // Random queries
+            double sink = 0.0;
+            final long q0 = System.nanoTime();
+            for (final AbsoluteDate date : dates) {
+                sink += ephemeris.getPVCoordinates(date).getPosition().getX();
+            }
+            final long q1 = System.nanoTime();
+
+            // Sequential queries, benefiting from the cache
+            final long   hits = ephemeris.getCacheHits();
+            final double step = duration / queries;
+            for (int i = 0; i < queries; i++) {
+                sink += ephemeris.getPVCoordinates(initialOrbit.getDate().shiftedBy(i * step)).getPosition().getX();
+            }
+            final long q2 = System.nanoTime();
+
+            System.out.println("");
+            System.out.println("   " + name + " bounded-memory ephemeris");
+            System.out.println("      File:              " + file.getAbsolutePath());
+            System.out.println("      Segments:          " + ephemeris.getSegments() + " x degree " + degree);
+            System.out.println("      File size (bytes): " + ephemeris.getFileSize());
+            System.out.println("      Max error bound (m):   " + ephemeris.getMaxErrorBound());
+            System.out.println("      Generation " + WALL_CLOCK_RUN_TIME + (0.001 * (t1 - t0)));
+            System.out.println("      Peak heap bound (bytes): " + peak + " (" + (peak - heap0) + " above the initial heap)");
+            System.out.println("      Random query (ns):     " + ((double) (q1 - q0) / queries) + (Double.isNaN(sink) ? " (NaN)" : ""));
+            System.out.println("      Sequential query (ns): " + ((double) (q2 - q1) / queries) +
+                               " (cache hits: " + (ephemeris.getCacheHits() - hits) + "/" + queries + ")");
+
+            // Comparison with the Orekit generated ephemeris
+            if (boundedData.isCompareWithGenerated()) {
+                final Propagator generated = factory.get();
+                final EphemerisGenerator generator = generated.getEphemerisGenerator();
+                final long heap1 = usedHeap();
+                resetPeakHeap();
+                try {
+                    generated.propagate(target);
+                } finally {
+                    if (generated instanceof NumericalPropagator) {
+                        shutdownParallelForceModels((NumericalPropagator) generated);
+                    }
+                }
+                final BoundedPropagator reference = generator.getGeneratedEphemeris();
+                final long generatedPeak = peakHeapBound();
+                double maxDifference = 0.0;
+                for (final AbsoluteDate date : dates) {
+                    maxDifference = FastMath.max(maxDifference,
+                                                 Vector3D.distance(ephemeris.getPVCoordinates(date).getPosition(),
+                                                                   reference.getPVCoordinates(date, initialOrbit.getFrame()).getPosition()));
+                }
+                System.out.println("      Generated peak heap bound (bytes): " + generatedPeak + " (" + (generatedPeak - heap1) + " above the initial heap)");
+                System.out.println("      Max difference (m):    " + maxDifference);
+            }
+
+        }
+
+    }
+
+    /**
+     * Write the residual of a propagated state with respect to the truth ephemeris.
+     * @param writer writer of the residuals
+     * @param propagator name of the propagator
+     * @param state propagated state
+     * @param truth truth ephemeris
+     * @param statistics statistics of the position residuals, updated by the method
+     */
+    private static void writeTruthResidual(final PrintWriter writer, final String propagator, final SpacecraftState state,
+                                           final TruthEphemeris truth, final StreamingStatistics statistics) {
+
+        final PVCoordinates reference = truth.getPVCoordinates(state.getDate(), state.getFrame());
+        final Vector3D      delta     = state.getPVCoordinates().getPosition().subtract(reference.getPosition());
+
+        // Local orbital frame of the truth
+        final Vector3D radial     = reference.getPosition().normalize();
+        final Vector3D crossTrack = reference.getMomentum().normalize();
+        final Vector3D alongTrack = Vector3D.crossProduct(crossTrack, radial);
+
+        statistics.addValue(delta.getNorm());
+        writer.println(propagator + "," + state.getDate() + "," + Vector3D.dotProduct(delta, radial) + "," +
+                       Vector3D.dotProduct(delta, alongTrack) + "," + Vector3D.dotProduct(delta, crossTrack) + "," + delta.getNorm());
+
+    }
+
+    /**
+     * Initialize the initial orbit defined by a TLE.
+     * @param propagator SGP4/SDP4 propagator of the TLE
+     * @param frame inertial frame of the orbit
+     * @param mu central attraction coefficient (m³/s²)
+     * @return the initial orbit
+     */
+    private static Orbit initializeTLEOrbit(final TLEPropagator propagator, final Frame frame, final double mu) {
+
+        final AbsoluteDate initDate = propagator.getTLE().getDate();
+        final SpacecraftState initialState = propagator.getInitialState();
+
+        //Transformation from TEME to frame.
+        return new CartesianOrbit(initialState.getPVCoordinates(frame),
+                                  frame, initDate, mu);
+
+    }
+
+    /**
+     * Initialize integrator data.
+     * <p>
+     * Can be null for analytical orbit determination.
+     * </p>
+     * @param inputData input data
+     * @param orbit initial orbit
+     * @param propagatorName name of the orbit propagator
+     * @return a configured integrator
+     */
+    private static ODEIntegrator initializeIntegrator(final IntegratorConfiguration integratorData, final Orbit initialOrbit,
+                                                      final String propagatorName) {
+        return initializeIntegrator(integratorData, initialOrbit, propagatorName, false);
+    }
+
+    /**
+     * Initialize integrator data.
+     * <p>
+     * Can be null for analytical orbit determination.
+     * </p>
+     * @param integratorData integrator data
+     * @param initialOrbit initial orbit
+     * @param propagatorName name of the orbit propagator
+     * @param quiet if true, the integrator configuration is not printed
+     * @return a configured integrator
+     */
+    private static ODEIntegrator initializeIntegrator(final IntegratorConfiguration integratorData, final Orbit initialOrbit,
+                                                      final String propagatorName, final boolean quiet) {
+
+        final PrintStream out = quiet ? QUIET_OUTPUT : System.out;
+        if (integratorData != null) {
+
+            out.println("");
+            out.println("   Integrator data for: " + propagatorName);
+
+            // Fixed step
+            if (integratorData.getFixedStep() != NULL_DOUBLE) {
+
+                // RK4 integrator
+                out.println("      RK 4th order   ");
+                out.println("      Fixed step:        " + integratorData.getFixedStep());
+                return new ClassicalRungeKuttaIntegrator(integratorData.getFixedStep());
+
+            } else {
+
+                // Variable step integrator
+                out.println("      Dormand-Prince 8(5,3)");
+                out.println("      Min step:          " + integratorData.getMinStep());
+                out.println("      Max step:          " + integratorData.getMaxStep());
+                out.println("      Position error:    " + integratorData.getPositionError());
+                final double[][] tolerances =
+                                NumericalPropagator.tolerances(integratorData.getPositionError(), initialOrbit, OrbitType.EQUINOCTIAL);
+                return new DormandPrince853Integrator(integratorData.getMinStep(),
+                                                      integratorData.getMaxStep(),
+                                                      tolerances[0], tolerances[1]);
+
+            }
+
+        } else {
+
+            // Integrator shall be defined
+            throw new IllegalArgumentException("Integrator shall be defined for: " + propagatorName);
+
+        }
+
+    }
+
+    /**
+     * Initialize the propagator builder.
+     * @param inputData input data
+     * @param integrator integrator builder
+     * @param orbit initial guess
+     * @param centralBody central body
+     * @param gravityField gravity field
+     * @param atmosphere atmosphere model (null if drag is not used)
+     * @param shadows shadow intervals for each occulting body (null if exact eclipse computation is used)
+     * @param gravityGrid precomputed gravity acceleration grid (null if the exact model is used)
+     * @return a configured propagator builder
+     */
+    private static NumericalPropagator initializeNumericalPropagator(final OrbitComparatorInputs inputData,
+                                                                     final ODEIntegrator integrator,
+                                                                     final Orbit orbit,
+                                                                     final OneAxisEllipsoid centralBody,
+                                                                     final NormalizedSphericalHarmonicsProvider gravityField,
+                                                                     final Atmosphere atmosphere,
+                                                                     final Map<String, ShadowIntervals> shadows,
+                                                                     final GriddedGravity gravityGrid) {
+        return initializeNumericalPropagator(inputData, integrator, orbit, centralBody, gravityField, atmosphere, shadows, gravityGrid, false);
+    }
+
+    /**
+     * Initialize the propagator builder.
+     * @param inputData input data
+     * @param integrator integrator builder
+     * @param orbit initial guess
+     * @param centralBody central body
+     * @param gravityField gravity field
+     * @param atmosphere atmosphere model (null if drag is not used)
+     * @param shadows shadow intervals for each occulting body (null if exact eclipse computation is used)
+     * @param gravityGrid precomputed gravity acceleration grid (null if the exact model is used)
+     * @param quiet if true, the force models configuration is not printed
+     * @return a configured propagator builder
+     */
+    private static NumericalPropagator initializeNumericalPropagator(final OrbitComparatorInputs inputData,
+                                                                     final ODEIntegrator integrator,
+                                                                     final Orbit orbit,
+                                                                     final OneAxisEllipsoid centralBody,
+                                                                     final NormalizedSphericalHarmonicsProvider gravityField,
+                                                                     final Atmosphere atmosphere,
+                                                                     final Map<String, ShadowIntervals> shadows,
+                                                                     final GriddedGravity gravityGrid,
+                                                                     final boolean quiet) {
+        return initializeNumericalPropagator(inputData, integrator, orbit, centralBody, gravityField, atmosphere, shadows, gravityGrid,
+                                             ForceModelOptions.of(inputData.getForceModels()), quiet);
+    }
+
+    /**
+     * Initialize the propagator builder.
+     * @param inputData input data
+     * @param integrator integrator builder
+     * @param orbit initial guess
+     * @param centralBody central body
+     * @param gravityField gravity field
+     * @param atmosphere atmosphere model (null if drag is not used)
+     * @param shadows shadow intervals for each occulting body (null if exact eclipse computation is used)
+     * @param gravityGrid precomputed gravity acceleration grid (null if the exact model is used)
+     * @param options options overriding the force model configuration
+     * @param quiet if true, the force models configuration is not printed
+     * @return a configured propagator builder
+     */
+    private static NumericalPropagator initializeNumericalPropagator(final OrbitComparatorInputs inputData,
+                                                                     final ODEIntegrator integrator,
+                                                                     final Orbit orbit,
+                                                                     final OneAxisEllipsoid centralBody,
+                                                                     final NormalizedSphericalHarmonicsProvider gravityField,
+                                                                     final Atmosphere atmosphere,
+                                                                     final Map<String, ShadowIntervals> shadows,
+                                                                     final GriddedGravity gravityGrid,
+                                                                     final ForceModelOptions options,
+                                                                     final boolean quiet) {
+
+        // Force model configuration
+        final ForceModelConfiguration forceModels = inputData.getForceModels();
+
+        final PrintStream out = quiet ? QUIET_OUTPUT : System.out;
+        out.println("");
+        out.println("   Numerical model       ");
+        // Initialize the numerical builder
+        final NumericalPropagator numPropagator = new NumericalPropagator(integrator);
+        numPropagator.setOrbitType(OrbitType.EQUINOCTIAL);
+
+        // Add force models to the numerical propagator
+        addNumericalForceModels(forceModels, numPropagator, centralBody, gravityField, atmosphere, shadows, gravityGrid, options, out);
+
+        // Update
+        numPropagator.setInitialState(new SpacecraftState(orbit));
+
+        // Return
+        return numPropagator;
+
+    }
+
+    /**
+     * Initialize the DSST propagator builder.
+     * @param inputData input data
+     * @param integrator integrator builder
+     * @param orbit initial guess
+     * @param centralBody central body
+     * @param gravityField gravity field
+     * @param atmosphere atmosphere model (null if drag is not used)
+     * @param shadows shadow intervals for each occulting body (null if exact eclipse computation is used)
+     * @return a configured propagator builder
+     */
+    private static DSSTPropagator initializeDSSTPropagator(final OrbitComparatorInputs inputData,
+                                                           final ODEIntegrator integrator,
+                                                           final Orbit orbit,
+                                                           final OneAxisEllipsoid centralBody,
+                                                           final UnnormalizedSphericalHarmonicsProvider gravityField,
+                                                           final Atmosphere atmosphere,
+                                                           final Map<String, ShadowIntervals> shadows) {
+        return initializeDSSTPropagator(inputData, integrator, orbit, centralBody, gravityField, atmosphere, shadows, false);
+    }
+
+    /**
+     * Initialize the DSST propagator builder.
+     * @param inputData input data
+     * @param integrator integrator builder
+     * @param orbit initial guess
+     * @param centralBody central body
+     * @param gravityField gravity field
+     * @param atmosphere atmosphere model (null if drag is not used)
+     * @param shadows shadow intervals for each occulting body (null if exact eclipse computation is used)
+     * @param quiet if true, the force models configuration is not printed
+     * @return a configured propagator builder
+     */
+    private static DSSTPropagator initializeDSSTPropagator(final OrbitComparatorInputs inputData,
+                                                           final ODEIntegrator integrator,
+                                                           final Orbit orbit,
+                                                           final OneAxisEllipsoid centralBody,
+                                                           final UnnormalizedSphericalHarmonicsProvider gravityField,
+                                                           final Atmosphere atmosphere,
+                                                           final Map<String, ShadowIntervals> shadows,
+                                                           final boolean quiet) {
+        return initializeDSSTPropagator(inputData, integrator, orbit, centralBody, gravityField, atmosphere, shadows,
+                                        ForceModelOptions.of(inputData.getForceModels()), quiet);
+    }
+
+    /**
+     * Initialize the DSST propagator builder.
+     * @param inputData input data
+     * @param integrator integrator builder
+     * @param orbit initial guess
+     * @param centralBody central body
+     * @param gravityField gravity field
+     * @param atmosphere atmosphere model (null if drag is not used)
+     * @param shadows shadow intervals for each occulting body (null if exact eclipse computation is used)
+     * @param options options overriding the force model configuration
+     * @param quiet if true, the force models configuration is not printed
+     * @return a configured propagator builder
+     */
+    private static DSSTPropagator initializeDSSTPropagator(final OrbitComparatorInputs inputData,
+                                                           final ODEIntegrator integrator,
+                                                           final Orbit orbit,
+                                                           final OneAxisEllipsoid centralBody,
+                                                           final UnnormalizedSphericalHarmonicsProvider gravityField,
+                                                           final Atmosphere atmosphere,
+                                                           final Map<String, ShadowIntervals> shadows,
+                                                           final ForceModelOptions options,
+                                                           final boolean quiet) {
+
+        // Force model configuration
+        final ForceModelConfiguration forceModels = inputData.getForceModels();
+
+        final PrintStream out = quiet ? QUIET_OUTPUT : System.out;
+        out.println("");
+        out.println("   DSST model            ");
+        // Initialize the numerical builder
+        final DSSTPropagator dsstPropagator = new DSSTPropagator(integrator, PropagationType.OSCULATING);
+
+        // Add force models to the DSST propagator
+        addDSSTForceModels(forceModels, dsstPropagator, centralBody, gravityField, atmosphere, shadows, options, out);
+
+        // Update
+        dsstPropagator.setInitialState(new SpacecraftState(orbit), PropagationType.OSCULATING);
+        dsstPropagator.setInterpolationGridToMaxTimeGap(86400.0);
+
+        // Return
+        return dsstPropagator;
+
+    }
+
+    /**
+     * Add the force models to the numerical propagator.
+     * @param forceModelData force model data
+     * @param propagator propagator
+     * @param centralBody central body
+     * @param gravityField gravity field
+     * @param atmosphere atmosphere model (null if drag is not used)
+     * @param shadows shadow intervals for each occulting body (null if exact eclipse computation is used)
+     * @param gravityGrid precomputed gravity acceleration grid (null if the exact model is used)
+     * @param options options overriding the force model configuration
+     * @param out output of the force models configuration
+     */
+    private static void addNumericalForceModels(final ForceModelConfiguration forceModelData,
+                                                final NumericalPropagator propagator,
+                                                final OneAxisEllipsoid centralBody,
+                                                final NormalizedSphericalHarmonicsProvider gravityField,
+                                                final Atmosphere atmosphere,
+                                                final Map<String, ShadowIntervals> shadows,
+                                                final GriddedGravity gravityGrid,
+                                                final ForceModelOptions options,
+                                                final PrintStream out) {
+
+        // Force models (without the central attraction)
+        final List<ForceModel> forces = new ArrayList<>();
+
+        // Drag
+        if (forceModelData.getDrag() != null) {
+
+            out.println("      Adding drag        ");
+            // Drag data
+            final DragConfiguration drag   = forceModelData.getDrag();
+            final double       cd          = drag.getCd();
+            final double       area        = drag.getArea();
+
+            out.println("         Cd value:       " + cd);
+            out.println("         Area:           " + area);
+
+            // Atmosphere model
+            out.println("         Atmosphere:     " + (drag.getAtmosphereGrid() != null ? "NRLMSISE00 (gridded)" : "NRLMSISE00"));
+
+            // Add the force model
+            final ForceModel force = new DragForce(atmosphere, new IsotropicDrag(area, cd));
+            forces.add(force);
+
+        }
+
+        // Third bodies
+        final List<CelestialBody> solidTidesBodies = new ArrayList<>();
+        if (forceModelData.getThirdBody() != null) {
+            for (ThirdBodyConfiguration thirdBody : forceModelData.getThirdBody()) {
+                final CelestialBody body = initializeThirdBody(thirdBody, options);
+                out.println("      Adding 3rd body:   " + body.getName());
+                out.println("        Source:          " + getEphemerisSource(thirdBody, options));
+                forces.add(new ThirdBodyAttraction(body));
+                if (thirdBody.isWithSolidTides()) {
+                    out.println("        With tides:      true");
+                    out.println("        Ephemeris:       " + DataContext.getDefault().getDataProvidersManager().getLoadedDataNames().toArray()[4]);
+                    solidTidesBodies.add(body);
+                }
+                
+
+            }
+        }
+
+        // Solid tides
+        if (!solidTidesBodies.isEmpty()) {
+            forces.add(new SolidTides(centralBody.getBodyFrame(),
+                                      gravityField.getAe(), gravityField.getMu(),
+                                      gravityField.getTideSystem(), IERSConventions.IERS_2010,
+                                      TimeScalesFactory.getUT1(IERSConventions.IERS_2010, true),
+                                      solidTidesBodies.toArray(new CelestialBody[solidTidesBodies.size()])));
+        }
+
+        // Solar radiation pressure
+        if (forceModelData.getSolarRadiationPressure() != null) {
+
+            out.println("      Adding SRP         ");
+
+            // Solar radiation pressure data
+            final SolarRadiationPressureConfiguration srp = forceModelData.getSolarRadiationPressure();
+            final double  cr                         = srp.getCr();
+            final double  area                       = srp.getArea();
+
+            out.println("         Cr value:       " + cr);
+            out.println("         Area:           " + area);
+
+            // Satellite model (spherical)
+            final RadiationSensitive spacecraft = new IsotropicRadiationSingleCoefficient(area, cr);
+
+            // Solar radiation pressure
+            final boolean centralBodyOcculting = isCentralBodyOcculting(srp);
+            final SolarRadiationPressure force;
+            if (shadows != null) {
+                out.println("         Eclipses:       shadow intervals");
+                force = new ShadowedSolarRadiationPressure(CelestialBodyFactory.getSun(), gravityField.getAe(), spacecraft, centralBodyOcculting,
+                                                           ShadowIntervals.union(new ArrayList<>(shadows.values())));
+            } else {
+                out.println("         Eclipses:       exact");
+                force = new SelectiveSolarRadiationPressure(CelestialBodyFactory.getSun(), gravityField.getAe(), spacecraft, centralBodyOcculting);
+            }
+
+            // Occulting bodies
+            if (centralBodyOcculting) {
+                out.println("         Occulting body: " + EARTH);
+            }
+            for (final String name : getOtherOccultingBodies(srp)) {
+                out.println("         Occulting body: " + name);
+                force.addOccultingBody(CelestialBodyFactory.getBody(name), Constants.MOON_EQUATORIAL_RADIUS);
+            }
+
+            // Add the force model
+            forces.add(force);
+
+        }
+
+        // Potential
+        if (forceModelData.getGravity().getDegree() != 0) {
+            out.println("      Adding Earth harmonics");
+            out.println("         Degree:         " + gravityField.getMaxDegree());
+            out.println("         Order:          " + gravityField.getMaxOrder());
+            out.println("         Mu:             " + gravityField.getMu());
+            final String engine = options.engine != null ? options.engine : forceModelData.getGravity().getEngine();
+            final ForceModel potential;
+            if (gravityGrid != null) {
+                potential = gravityGrid;
+            } else if (engine == null || HOLMES_FEATHERSTONE_ENGINE.equals(engine)) {
+                potential = new HolmesFeatherstoneAttractionModel(centralBody.getBodyFrame(), gravityField);
+            } else if (FLAT_ENGINE.equals(engine)) {
+                potential = new FlatHolmesFeatherstoneAttractionModel(centralBody.getBodyFrame(), gravityField);
+            } else {
+                throw new IllegalArgumentException("Unsupported spherical harmonics engine: " + engine);
+            }
+            out.println("         Model:          " + (gravityGrid != null ? "Gridded Holmes-Featherstone" :
+                                                              potential instanceof FlatHolmesFeatherstoneAttractionModel ? "Flat Holmes-Featherstone" : "Holmes-Featherstone"));
+            out.println("         Gravity file:   " + DataContext.getDefault().getDataProvidersManager().getLoadedDataNames().toArray()[3]);
+            forces.add(potential);
+        }
+
+        // Add the force models, evaluated concurrently if configured
+        final ParallelForceModelsConfiguration parallel = options.parallel;
+        if (parallel != null) {
+            final int    threads   = parallel.getThreads() != 0 ? parallel.getThreads() : DEFAULT_PARALLEL_THREADS;
+            final double threshold = parallel.getThreshold() != NULL_DOUBLE ? parallel.getThreshold() : DEFAULT_PARALLEL_THRESHOLD;
+            out.println("      Parallel force models");
+            out.println("         Threads:        " + threads);
+            out.println("         Threshold (us): " + threshold);
+            propagator.addForceModel(new ParallelForceModel(forces, threads, threshold * 1000.0));
+        } else {
+            for (final ForceModel force : forces) {
+                propagator.addForceModel(force);
+            }
+        }
+
+        // Newton
+        propagator.addForceModel(new NewtonianAttraction(gravityField.getMu()));
+
+    }
+
+    /**
+     * Add the force models to the DSST propagator.
+     * @param forceModelData force model data
+     * @param propagator propagator
+     * @param centralBody central body
+     * @param gravityField gravity field
+     * @param atmosphere atmosphere model (null if drag is not used)
+     * @param shadows shadow intervals for each occulting body (null if exact eclipse computation is used)
+     * @param options options overriding the force model configuration
+     * @param out output of the force models configuration
+     */
+    private static void addDSSTForceModels(final ForceModelConfiguration forceModelData,
+                                           final DSSTPropagator propagator,
+                                           final OneAxisEllipsoid centralBody,
+                                           final UnnormalizedSphericalHarmonicsProvider gravityField,
+                                           final Atmosphere atmosphere,
+                                           final Map<String, ShadowIntervals> shadows,
+                                           final ForceModelOptions options,
+                                           final PrintStream out) {
+
+        // Drag
+        if (forceModelData.getDrag() != null) {
+
+            out.println("      Adding drag        ");
+
+            // Drag data
+            final DragConfiguration drag   = forceModelData.getDrag();
+            final double       cd          = drag.getCd();
+            final double       area        = drag.getArea();
+
+            out.println("         Cd value:       " + cd);
+            out.println("         Area:           " + area);
+
+            // Atmosphere model
+            out.println("         Atmosphere:     " + (drag.getAtmosphereGrid() != null ? "NRLMSISE00 (gridded)" : "NRLMSISE00"));
+
+            // Drag force - Assuming spherical satellite
+            // Add the force model
+            propagator.addForceModel(new DSSTAtmosphericDrag(new DragForce(atmosphere, new IsotropicDrag(area, cd)), gravityField.getMu()));
+
+        }
+
+        // Solar radiation pressure
+        if (forceModelData.getSolarRadiationPressure() != null) {
+
+            out.println("      Adding SRP         ");
+
+            // Solar radiation pressure data
+            final SolarRadiationPressureConfiguration srp = forceModelData.getSolarRadiationPressure();
+            final double  cr                              = srp.getCr();
+            final double  area                            = srp.getArea();
+
+            out.println("         Cr value:       " + cr);
+            out.println("         Area:           " + area);
+
+            // Satellite model (spherical)
+            final RadiationSensitive spacecraft = new IsotropicRadiationSingleCoefficient(area, cr);
+
+            // DSST only models the shadow of the central body
+            final boolean centralBodyOcculting = isCentralBodyOcculting(srp);
+            if (centralBodyOcculting) {
+                out.println("         Occulting body: " + EARTH);
+            }
+            for (final String name : getOtherOccultingBodies(srp)) {
+                out.println("         Occulting body: " + name + " (ignored by DSST)");
+            }
+
+            // Solar radiation pressure
+            if (!centralBodyOcculting) {
+                out.println("         Eclipses:       none");
+                propagator.addForceModel(new ShadowedDSSTSolarRadiationPressure(CelestialBodyFactory.getSun(), gravityField.getAe(), spacecraft, gravityField.getMu(),
+                                                                                null, 0.0));
+            } else if (shadows != null) {
+                out.println("         Eclipses:       shadow intervals");
+                final ShadowIntervalsConfiguration config = srp.getShadowIntervals();
+                propagator.addForceModel(new ShadowedDSSTSolarRadiationPressure(CelestialBodyFactory.getSun(), gravityField.getAe(), spacecraft, gravityField.getMu(),
+                                                                                shadows.get(EARTH),
+                                                                                config.getMargin() != NULL_DOUBLE ? config.getMargin() : DEFAULT_SHADOW_MARGIN));
+            } else {
+                out.println("         Eclipses:       exact");
+                propagator.addForceModel(new DSSTSolarRadiationPressure(CelestialBodyFactory.getSun(), gravityField.getAe(), spacecraft, gravityField.getMu()));
+            }
+
+        }
+
+        // Third bodies
+        for (ThirdBodyConfiguration thirdBody : forceModelData.getThirdBody()) {
+            final CelestialBody body = initializeThirdBody(thirdBody, options);
+            out.println("      Adding 3rd body:   " + body.getName());
+            out.println("        Source:          " + getEphemerisSource(thirdBody, options));
+            propagator.addForceModel(new DSSTThirdBody(body, gravityField.getMu()));
+            out.println("        With tides:      false");
+        }
+
+        // Potential
+        out.println("      Adding Earth harmonics");
+        out.println("         Degree:         " + gravityField.getMaxDegree());
+        out.println("         Order:          " + gravityField.getMaxOrder());
+        out.println("         Mu:             " + gravityField.getMu());
+        propagator.addForceModel(new DSSTTesseral(centralBody.getBodyFrame(), Constants.WGS84_EARTH_ANGULAR_VELOCITY, gravityField));
+        propagator.addForceModel(new DSSTZonal(gravityField));
+
+        // Newton
+        propagator.addForceModel(new DSSTNewtonianAttraction(gravityField.getMu()));
+
+    }
+
+    /**
+     * Initialize a third body.
+     * @param thirdBody third body configuration
+     * @param options options overriding the force model configuration
+     * @return the celestial body, using the selected ephemeris source
+     */
+    private static CelestialBody initializeThirdBody(final ThirdBodyConfiguration thirdBody, final ForceModelOptions options) {
+        if (ANALYTICAL_EPHEMERIS.equals(getEphemerisSource(thirdBody, options))) {
+            if (CelestialBodyFactory.SUN.equals(thirdBody.getName())) {
+                return new AnalyticalSun();
+            } else if (CelestialBodyFactory.MOON.equals(thirdBody.getName())) {
+                return new AnalyticalMoon();
+            } else {
+                throw new IllegalArgumentException("No analytical ephemeris for: " + thirdBody.getName());
+            }
+        }
+        return CelestialBodyFactory.getBody(thirdBody.getName());
+    }
+
+    /**
+     * Get the ephemeris source of a third body.
+     * @param thirdBody third body configuration
+     * @param options options overriding the force model configuration
+     * @return the ephemeris source ("DE" or "ANALYTICAL")
+     */
+    private static String getEphemerisSource(final ThirdBodyConfiguration thirdBody, final ForceModelOptions options) {
+        if (options.ephemerisSource != null &&
+            (CelestialBodyFactory.SUN.equals(thirdBody.getName()) || CelestialBodyFactory.MOON.equals(thirdBody.getName()))) {
+            return options.ephemerisSource;
+        } else if (thirdBody.getEphemeris() == null || DE_EPHEMERIS.equals(thirdBody.getEphemeris())) {
+            return DE_EPHEMERIS;
+        } else if (ANALYTICAL_EPHEMERIS.equals(thirdBody.getEphemeris())) {
+            return ANALYTICAL_EPHEMERIS;
+        } else {
+            throw new IllegalArgumentException("Unknown ephemeris source: " + thirdBody.getEphemeris());
+        }
+    }
+
+    /** Options overriding the force model configuration, without modifying the shared configuration. */
+    private static class ForceModelOptions {
+
+        /** Ephemeris source of the Sun and the Moon (null for the configured source of each body). */
+        private final String ephemerisSource;
+
+        /** Concurrent evaluation of the force models (null for serial evaluation). */
+        private final ParallelForceModelsConfiguration parallel;
+
+        /** Spherical harmonics engine of the numerical propagator (null for the configured engine). */
+        private final String engine;
+
+        /**
+         * Constructor.
+         * @param ephemerisSource ephemeris source of the Sun and the Moon (null for the configured source of each body)
+         * @param parallel concurrent evaluation of the force models (null for serial evaluation)
+         * @param engine spherical harmonics engine of the numerical propagator (null for the configured engine)
+         */
+        ForceModelOptions(final String ephemerisSource,
+                          final ParallelForceModelsConfiguration parallel,
+                          final String engine) {
+            this.ephemerisSource = ephemerisSource;
+            this.parallel        = parallel;
+            this.engine          = engine;
+        }
+
+        /**
+         * Get the options using the configuration as is.
+         * @param forceModels force model configuration
+         * @return the options using the configuration as is
+         */
+        static ForceModelOptions of(final ForceModelConfiguration forceModels) {
+            return new ForceModelOptions(null, forceModels.getParallelForceModels(), null);
+        }
+
+        /**
+         * Get a copy of the options with another ephemeris source.
+         * @param source ephemeris source of the Sun and the Moon (null for the configured source of each body)
+         * @return a copy of the options
+         */
+        ForceModelOptions withEphemerisSource(final String source) {
+            return new ForceModelOptions(source, parallel, engine);
+        }
+
+        /**
+         * Get a copy of the options with another concurrent evaluation of the force models.
+         * @param configuration concurrent evaluation of the force models (null for serial evaluation)
+         * @return a copy of the options
+         */
+        ForceModelOptions withParallel(final ParallelForceModelsConfiguration configuration) {
+            return new ForceModelOptions(ephemerisSource, configuration, engine);
+        }
+
+        /**
+         * Get a copy of the options with another spherical harmonics engine.
+         * @param name spherical harmonics engine of the numerical propagator (null for the configured engine)
+         * @return a copy of the options
+         */
+        ForceModelOptions withEngine(final String name) {
+            return new ForceModelOptions(ephemerisSource, parallel, name);
+        }
+
+    }
+
+    /**
+     * Compare the DE and analytical third body ephemerides.
+     * <p>
+     * The Sun and the Moon are first compared directly over the propagation span
+     * (position difference and evaluation cost). Then, both propagators are run
+     * with all the Sun and Moon third bodies using DE ephemerides and with all of
+     * them using analytical ephemerides.
+     * </p>
+     * @param inputData input data
+     * @param initialOrbit initial orbit
+     * @param centralBody central body
+     * @param normalizedGravityField normalized gravity field (numerical propagator)
+     * @param unnormalizedGravityField unnormalized gravity field (DSST propagator)
+     * @param atmosphere atmosphere model (null if drag is not used)
+     * @param shadows shadow intervals for each occulting body (null if exact eclipse computation is used)
+     * @param gravityGrid precomputed gravity acceleration grid (null if the exact model is used)
+     * @param numericalIntegrator integrator of the numerical propagator
+     * @param dsstIntegrator integrator of the DSST propagator
+     * @param duration propagation duration (s)
+     */
+    private static void compareThirdBodyEphemerides(final OrbitComparatorInputs inputData,
+                                                    final Orbit initialOrbit,
+                                                    final OneAxisEllipsoid centralBody,
+                                                    final NormalizedSphericalHarmonicsProvider normalizedGravityField,
+                                                    final UnnormalizedSphericalHarmonicsProvider unnormalizedGravityField,
+                                                    final Atmosphere atmosphere,
+                                                    final Map<String, ShadowIntervals> shadows,
+                                                    final GriddedGravity gravityGrid,
+                                                    final ODEIntegrator numericalIntegrator,
+                                                    final ODEIntegrator dsstIntegrator,
+                                                    final double duration) {
+
+        // Third bodies having an analytical ephemeris
+        final List<ThirdBodyConfiguration> bodies = new ArrayList<>();
+        for (final ThirdBodyConfiguration thirdBody : inputData.getForceModels().getThirdBody()) {
+            if (CelestialBodyFactory.SUN.equals(thirdBody.getName()) || CelestialBodyFactory.MOON.equals(thirdBody.getName())) {
+                bodies.add(thirdBody);
+            }
+        }
+
+        System.out.println("");
+        System.out.println("   DE vs. analytical ephemerides");
+
+        // Direct comparison of the ephemerides
+        final Frame frame = initialOrbit.getFrame();
+        for (final ThirdBodyConfiguration thirdBody : bodies) {
+            final CelestialBody de         = CelestialBodyFactory.getBody(thirdBody.getName());
+            final CelestialBody analytical = thirdBody.getName().equals(CelestialBodyFactory.SUN) ? new AnalyticalSun() : new AnalyticalMoon();
+            double maxDelta = 0.0;
+            long   deTime         = 0L;
+            long   analyticalTime = 0L;
+            int    samples        = 0;
+            for (double dt = 0.0; dt <= duration; dt += EPHEMERIS_COMPARISON_STEP) {
+                final AbsoluteDate date = initialOrbit.getDate().shiftedBy(dt);
+                final long t0 = System.nanoTime();
+                final Vector3D pDe = de.getPVCoordinates(date, frame).getPosition();
+                final long t1 = System.nanoTime();
+                final Vector3D pAnalytical = analytical.getPVCoordinates(date, frame).getPosition();
+                final long t2 = System.nanoTime();
+                deTime         += t1 - t0;
+                analyticalTime += t2 - t1;
+                maxDelta        = FastMath.max(maxDelta, Vector3D.distance(pDe, pAnalytical));
+                samples++;
+            }
+            System.out.println("      " + thirdBody.getName() + " max delta (m): " + maxDelta);
+            System.out.println("      " + thirdBody.getName() + " DE call (ns): " + (deTime / samples));
+            System.out.println("      " + thirdBody.getName() + " analytical call (ns): " + (analyticalTime / samples));
+        }
+
+        // Propagation with each ephemeris source
+        final String[] sources = {DE_EPHEMERIS, ANALYTICAL_EPHEMERIS};
+        final SpacecraftState[] numericalStates = new SpacecraftState[sources.length];
+        final SpacecraftState[] dsstStates      = new SpacecraftState[sources.length];
+        final double[] numericalTimes = new double[sources.length];
+        final double[] dsstTimes      = new double[sources.length];
+        for (int i = 0; i < sources.length; i++) {
+            final ForceModelOptions options = ForceModelOptions.of(inputData.getForceModels()).withEphemerisSource(sources[i]);
+            final NumericalPropagator numericalPropagator = initializeNumericalPropagator(inputData, numericalIntegrator, initialOrbit, centralBody, normalizedGravityField,
+                                                                                          atmosphere, shadows, gravityGrid, options, false);
+            final DSSTPropagator      dsstPropagator      = initializeDSSTPropagator(inputData, dsstIntegrator, initialOrbit, centralBody, unnormalizedGravityField,
+                                                                                     atmosphere, shadows, options, false);
+            try {
+                final long t0Num = System.nanoTime();
+                numericalStates[i] = numericalPropagator.propagate(initialOrbit.getDate().shiftedBy(duration));
+                final long t1Num = System.nanoTime();
+                numericalTimes[i] = 1.0e-9 * (t1Num - t0Num);
+                final long t0Dsst = System.nanoTime();
+                dsstStates[i] = dsstPropagator.propagate(initialOrbit.getDate().shiftedBy(duration));
+                final long t1Dsst = System.nanoTime();
+                dsstTimes[i] = 1.0e-9 * (t1Dsst - t0Dsst);
+            } finally {
+                shutdownParallelForceModels(numericalPropagator);
+            }
+        }
+
+        System.out.println("");
+        System.out.println("   DE vs. analytical propagation");
+        for (int i = 0; i < sources.length; i++) {
+            System.out.println("      Numerical " + sources[i] + " " + WALL_CLOCK_RUN_TIME + numericalTimes[i]);
+            System.out.println("      DSST " + sources[i] + " " + WALL_CLOCK_RUN_TIME + dsstTimes[i]);
+        }
+        System.out.println("      Numerical delta (m): " + positionDifference(numericalStates[1], numericalStates[0]));
+        System.out.println("      DSST delta (m):    " + positionDifference(dsstStates[1], dsstStates[0]));
+
+    }
+
+    /**
+     * Benchmark the concurrent evaluation of the numerical force models.
+     * <p>
+     * The numerical propagator is run with serial force models, with force
+     * models always evaluated concurrently (null threshold) and with the
+     * configured threshold.
+     * </p>
+     * @param inputData input data
+     * @param initialOrbit initial orbit
+     * @param centralBody central body
+     * @param gravityField gravity field
+     * @param atmosphere atmosphere model (null if drag is not used)
+     * @param shadows shadow intervals for each occulting body (null if exact eclipse computation is used)
+     * @param gravityGrid precomputed gravity acceleration grid (null if the exact model is used)
+     * @param integrator integrator of the numerical propagator
+     * @param duration propagation duration (s)
+     */
+    private static void benchmarkParallelForceModels(final OrbitComparatorInputs inputData,
+                                                     final Orbit initialOrbit,
+                                                     final OneAxisEllipsoid centralBody,
+                                                     final NormalizedSphericalHarmonicsProvider gravityField,
+                                                     final Atmosphere atmosphere,
+                                                     final Map<String, ShadowIntervals> shadows,
+                                                     final GriddedGravity gravityGrid,
+                                                     final ODEIntegrator integrator,
+                                                     final double duration) {
+
+        final ParallelForceModelsConfiguration configured = inputData.getForceModels().getParallelForceModels();
+
+        // Benchmarked configurations
+        final ParallelForceModelsConfiguration always = new ParallelForceModelsConfiguration();
+        always.setThreads(configured.getThreads());
+        always.setThreshold(Double.MIN_VALUE);
+        final String[] names = {"serial", "always concurrent", "threshold"};
+        final ParallelForceModelsConfiguration[] configurations = {null, always, configured};
+
+        // Benchmarked runs
+        final SpacecraftState[] states = new SpacecraftState[names.length];
+        final double[]          times  = new double[names.length];
+        final ParallelForceModel[] models = new ParallelForceModel[names.length];
+        for (int i = 0; i < names.length; i++) {
+            final ForceModelOptions options = ForceModelOptions.of(inputData.getForceModels()).withParallel(configurations[i]);
+            final NumericalPropagator propagator = initializeNumericalPropagator(inputData, integrator, initialOrbit, centralBody, gravityField,
+                                                                                 atmosphere, shadows, gravityGrid, options, false);
+            try {
+                final long t0 = System.nanoTime();
+                states[i] = propagator.propagate(initialOrbit.getDate().shiftedBy(duration));
+                final long t1 = System.nanoTime();
+                times[i] = 1.0e-9 * (t1 - t0);
+            } finally {
+                for (final ForceModel force : propagator.getAllForceModels()) {
+                    if (force instanceof ParallelForceModel) {
+                        models[i] = (ParallelForceModel) force;
+                        models[i].shutdown();
+                    }
+                }
+            }
+        }
+
+        System.out.println("");
+        System.out.println("   Parallel force models benchmark");
+        for (int i = 0; i < names.length; i++) {
+            System.out.println("      " + names[i] + " " + WALL_CLOCK_RUN_TIME + times[i]);
+            if (models[i] != null) {
+                System.out.println("         Members:        " + models[i].getMembers().size());
+                System.out.println("         Cost (us):      " + (0.001 * models[i].getCombinedCost()));
+                System.out.println("         Concurrent:     " + models[i].isConcurrent());
+                System.out.println("         Speedup:        " + speedup(times[0], times[i]));
+                System.out.println("         Delta (m):      " + positionDifference(states[i], states[0]));
+            }
+        }
+
+    }
+
+    /**
+     * Propagate the covariance with both propagators.
+     * <p>
+     * Each propagator is run twice, without and with the computation of the state
+     * transition matrix and of the Jacobians with respect to the considered drag and
+     * reflection coefficients, in order to measure the overhead of the matrices
+     * computation. The covariance is mapped with these matrices, the considered
+     * coefficients being uncorrelated with the orbit at the initial date.
+     * </p>
+     * @param inputData input data
+     * @param initialOrbit initial orbit
+     * @param centralBody central body
+     * @param normalizedGravityField gravity field of the numerical propagator
+     * @param unnormalizedGravityField gravity field of the DSST propagator
+     * @param atmosphere atmosphere model (null if drag is not used)
+     * @param shadows shadow intervals for each occulting body (null if exact eclipse computation is used)
+     * @param gravityGrid precomputed gravity acceleration grid (null if the exact model is used)
+     * @param numericalIntegrator integrator of the numerical propagator
+     * @param dsstIntegrator integrator of the DSST propagator
+     * @param duration propagation duration (s)
+     */
+    private static void propagateCovariance(final OrbitComparatorInputs inputData,
+                                            final Orbit initialOrbit,
+                                            final OneAxisEllipsoid centralBody,
+                                            final NormalizedSphericalHarmonicsProvider normalizedGravityField,
+                                            final UnnormalizedSphericalHarmonicsProvider unnormalizedGravityField,
+                                            final Atmosphere atmosphere,
+                                            final Map<String, ShadowIntervals> shadows,
+                                            final GriddedGravity gravityGrid,
+                                            final ODEIntegrator numericalIntegrator,
+                                            final ODEIntegrator dsstIntegrator,
+                                            final double duration) {
+
+        // Initial covariance
+        final CovarianceConfiguration covarianceData = inputData.getCovariance();
+        final List<List<Double>> cartesian = covarianceData.getCartesian();
+        if (cartesian == null || cartesian.size() != ORBIT_SIZE) {
+            throw new IllegalArgumentException("Initial Cartesian covariance must be a 6x6 matrix");
+        }
+        final RealMatrix initialMatrix = MatrixUtils.createRealMatrix(ORBIT_SIZE, ORBIT_SIZE);
+        for (int i = 0; i < ORBIT_SIZE; i++) {
+            if (cartesian.get(i).size() != ORBIT_SIZE) {
+                throw new IllegalArgumentException("Initial Cartesian covariance must be a 6x6 matrix");
+            }
+            for (int j = 0; j < ORBIT_SIZE; j++) {
+                initialMatrix.setEntry(i, j, cartesian.get(i).get(j));
+            }
+        }
+        final StateCovariance initialCovariance = new StateCovariance(initialMatrix, initialOrbit.getDate(), initialOrbit.getFrame(),
+                                                                      OrbitType.CARTESIAN, PositionAngle.TRUE);
+
+        // Considered parameters
+        final Map<String, Double> sigmas = new LinkedHashMap<>();
+        if (covarianceData.getDragCoefficientSigma() != NULL_DOUBLE) {
+            sigmas.put(DragSensitive.DRAG_COEFFICIENT, covarianceData.getDragCoefficientSigma());
+        }
+        if (covarianceData.getReflectionCoefficientSigma() != NULL_DOUBLE) {
+            sigmas.put(RadiationSensitive.REFLECTION_COEFFICIENT, covarianceData.getReflectionCoefficientSigma());
+        }
+
+        final AbsoluteDate target = initialOrbit.getDate().shiftedBy(duration);
+
+        // Numerical propagator without and with matrices
+        final NumericalPropagator plainNumerical = initializeNumericalPropagator(inputData, numericalIntegrator, initialOrbit, centralBody, normalizedGravityField, atmosphere, shadows, gravityGrid);
+        final double t0Num = System.currentTimeMillis();
+        plainNumerical.propagate(target);
+        final double t1Num = System.currentTimeMillis();
+        shutdownParallelForceModels(plainNumerical);
+
+        final NumericalPropagator numerical = initializeNumericalPropagator(inputData, numericalIntegrator, initialOrbit, centralBody, normalizedGravityField, atmosphere, shadows, gravityGrid);
+        for (final ForceModel force : numerical.getAllForceModels()) {
+            selectParameters(force.getParametersDrivers(), sigmas);
+        }
+        final MatricesHarvester numericalHarvester = numerical.setupMatricesComputation(STM_NAME, null, null);
+        final double t0NumStm = System.currentTimeMillis();
+        final SpacecraftState numericalState = numerical.propagate(target);
+        final double t1NumStm = System.currentTimeMillis();
+        shutdownParallelForceModels(numerical);
+        final StateCovariance numericalCovariance =
+                        mapCovariance(initialCovariance.changeCovarianceType(initialOrbit, numerical.getOrbitType(), numerical.getPositionAngleType()),
+                                      sigmas, numericalHarvester, numericalState);
+
+        // DSST propagator without and with matrices
+        final DSSTPropagator plainDsst = initializeDSSTPropagator(inputData, dsstIntegrator, initialOrbit, centralBody, unnormalizedGravityField, atmosphere, shadows);
+        final double t0Dsst = System.currentTimeMillis();
+        plainDsst.propagate(target);
+        final double t1Dsst = System.currentTimeMillis();
+
+        final DSSTPropagator dsst = initializeDSSTPropagator(inputData, dsstIntegrator, initialOrbit, centralBody, unnormalizedGravityField, atmosphere, shadows);
+        for (final DSSTForceModel force : dsst.getAllForceModels()) {
+            selectParameters(force.getParametersDrivers(), sigmas);
+        }
+        final DSSTHarvester dsstHarvester = (DSSTHarvester) dsst.setupMatricesComputation(STM_NAME, null, null);
+        final double t0DsstStm = System.currentTimeMillis();
+        // The matrices are referenced to the mean initial state. The short period terms are not initialized
+        // because their Gaussian contributions cannot be differentiated with respect to the selected parameters
+        final SpacecraftState meanState = DSSTPropagator.computeMeanState(dsst.getInitialState(), dsst.getAttitudeProvider(), dsst.getAllForceModels());
+        dsstHarvester.setReferenceState(meanState);
+        final SpacecraftState dsstState = dsst.propagate(target);
+        final double t1DsstStm = System.currentTimeMillis();
+        final StateCovariance dsstCovariance =
+                        mapCovariance(initialCovariance.changeCovarianceType(initialOrbit, OrbitType.EQUINOCTIAL, PositionAngle.MEAN),
+                                      sigmas, dsstHarvester, dsstState);
+
+        // Comparison in Cartesian coordinates
+        final RealMatrix numericalMatrix = numericalCovariance.changeCovarianceType(numericalState.getOrbit(), OrbitType.CARTESIAN, PositionAngle.TRUE).getMatrix();
+        final RealMatrix dsstMatrix      = dsstCovariance.changeCovarianceType(dsstState.getOrbit(), OrbitType.CARTESIAN, PositionAngle.TRUE).getMatrix();
+
+        System.out.println("");
+        System.out.println("   Covariance propagation");
+        System.out.println("      Parameters:        " + sigmas.keySet());
+        System.out.println("      Numerical " + WALL_CLOCK_RUN_TIME + (0.001 * (t1Num - t0Num)));
+        System.out.println("      Numerical with matrices " + WALL_CLOCK_RUN_TIME + (0.001 * (t1NumStm - t0NumStm)));
+        System.out.println("      Numerical overhead:  " + ((t1NumStm - t0NumStm) / (t1Num - t0Num)));
+        System.out.println("      Numerical position sigma (m):  " + getRootTrace(numericalMatrix, 0));
+        System.out.println("      Numerical velocity sigma (m/s): " + getRootTrace(numericalMatrix, 3));
+        System.out.println("      DSST " + WALL_CLOCK_RUN_TIME + (0.001 * (t1Dsst - t0Dsst)));
+        System.out.println("      DSST with matrices " + WALL_CLOCK_RUN_TIME + (0.001 * (t1DsstStm - t0DsstStm)));
+        System.out.println("      DSST overhead:     " + ((t1DsstStm - t0DsstStm) / (t1Dsst - t0Dsst)));
+        System.out.println("      DSST position sigma (m):  " + getRootTrace(dsstMatrix, 0));
+        System.out.println("      DSST velocity sigma (m/s): " + getRootTrace(dsstMatrix, 3));
+        System.out.println("      Relative difference: " + (numericalMatrix.subtract(dsstMatrix).getFrobeniusNorm() / numericalMatrix.getFrobeniusNorm()));
+        System.out.println("      Numerical covariance:");
+        printMatrix(numericalMatrix);
+        System.out.println("      DSST covariance:");
+        printMatrix(dsstMatrix);
+
+    }
+
+    /**
+     * Select the parameter drivers of the considered parameters.
+     * @param drivers parameter drivers of a force model
+     * @param sigmas standard deviations of the considered parameters, sorted by name
+     */
+    private static void selectParameters(final List<ParameterDriver> drivers, final Map<String, Double> sigmas) {
+        for (final ParameterDriver driver : drivers) {
+            if (sigmas.containsKey(driver.getName())) {
+                driver.setSelected(true);
+            }
+        }
+    }
+
+    /**
+     * Map the initial covariance to the final state.
+     * <p>
+     * The covariance is augmented with the variances of the considered parameters
+     * and mapped with the state transition matrix, augmented with the Jacobians
+     * with respect to the parameters. A considered parameter not used by the
+     * force models has a zero Jacobian.
+     * </p>
+     * @param initialCovariance initial orbital covariance, in the orbit type of the propagator
+     * @param sigmas standard deviations of the considered parameters, sorted by name
+     * @param harvester harvester of the matrices
+     * @param finalState final state
+     * @return the final orbital covariance, in the orbit type of the propagator
+     */
+    private static StateCovariance mapCovariance(final StateCovariance initialCovariance,
+                                                 final Map<String, Double> sigmas,
+                                                 final MatricesHarvester harvester,
+                                                 final SpacecraftState finalState) {
+
+        // Augmented initial covariance
+        final int size = ORBIT_SIZE + sigmas.size();
+        final RealMatrix initial = MatrixUtils.createRealMatrix(size, size);
+        initial.setSubMatrix(initialCovariance.getMatrix().getData(), 0, 0);
+
+        // Augmented state transition matrix
+        final RealMatrix phi = MatrixUtils.createRealIdentityMatrix(size);
+        phi.setSubMatrix(harvester.getStateTransitionMatrix(finalState).getData(), 0, 0);
+        final RealMatrix jacobian = harvester.getParametersJacobian(finalState);
+        final List<String> columns = harvester.getJacobiansColumnsNames();
+        int index = ORBIT_SIZE;
+        for (final Map.Entry<String, Double> entry : sigmas.entrySet()) {
+            initial.setEntry(index, index, entry.getValue() * entry.getValue());
+            final int column = columns.indexOf(entry.getKey());
+            if (column >= 0) {
+                for (int i = 0; i < ORBIT_SIZE; i++) {
+                    phi.setEntry(i, index, jacobian.getEntry(i, column));
+                }
+            }
+            index++;
+        }
+
+        // Final covariance
+        final RealMatrix mapped = phi.multiply(initial).multiplyTransposed(phi);
+        return new StateCovariance(mapped.getSubMatrix(0, ORBIT_SIZE - 1, 0, ORBIT_SIZE - 1), finalState.getDate(),
+                                   initialCovariance.getFrame(), initialCovariance.getOrbitType(), initialCovariance.getPositionAngle());
+
+    }
+
+    /**
+     * Get the square root of the trace of a 3x3 diagonal block of a covariance.
+     * @param covariance Cartesian covariance
+     * @param start index of the first row and column of the block
+     * @return the square root of the trace of the block
+     */
+    private static double getRootTrace(final RealMatrix covariance, final int start) {
+        return FastMath.sqrt(covariance.getSubMatrix(start, start + 2, start, start + 2).getTrace());
+    }
+
+    /**
+     * Print a covariance matrix.
+     * @param covariance covariance matrix
+     */
+    private static void printMatrix(final RealMatrix covariance) {
+        for (int i = 0; i < covariance.getRowDimension(); i++) {
+            final StringBuilder line = new StringBuilder("         ");
+            for (int j = 0; j < covariance.getColumnDimension(); j++) {
+                line.append(String.format(" %14.6e", covariance.getEntry(i, j)));
+            }
+            System.out.println(line);
+        }
+    }
+
+    /**
+     * Compute the sensitivities of the final state with both propagators.
+     * <p>
+     * For each propagator, the Jacobian of the final Cartesian state with respect
+     * to the initial Cartesian state and to the considered parameters is computed
+     * by a single field propagation on {@link Gradient} variables, and by forward
+     * finite differences. The linearized dispersion of the final state is computed
+     * from the gradient Jacobian and, optionally, checked by Monte Carlo samples.
+     * </p>
+     * <p>
+     * The eclipses and the gravity field are computed exactly: the shadow intervals
+     * are predicted along the nominal trajectory only, and the interpolation error of
+     * the gravity grid would bias the finite differences.
+     * </p>
+     * @param inputData input data
+     * @param initialOrbit initial orbit
+     * @param centralBody central body
+     * @param normalizedGravityField gravity field of the numerical propagator
+     * @param unnormalizedGravityField gravity field of the DSST propagator
+     * @param atmosphere atmosphere model (null if drag is not used)
+     * @param numericalIntegrator integrator of the numerical propagator
+     * @param dsstIntegrator integrator of the DSST propagator
+     * @param duration propagation duration (s)
+     */
+    private static void computeSensitivities(final OrbitComparatorInputs inputData,
+                                             final Orbit initialOrbit,
+                                             final OneAxisEllipsoid centralBody,
+                                             final NormalizedSphericalHarmonicsProvider normalizedGravityField,
+                                             final UnnormalizedSphericalHarmonicsProvider unnormalizedGravityField,
+                                             final Atmosphere atmosphere,
+                                             final ODEIntegrator numericalIntegrator,
+                                             final ODEIntegrator dsstIntegrator,
+                                             final double duration) {
+
+        final SensitivityConfiguration sensitivity = inputData.getSensitivity();
+
+        // Gradient variables: initial Cartesian state, then considered parameters
+        final Map<String, Integer> variables = new LinkedHashMap<>();
+        if (sensitivity.isDragCoefficient()) {
+            variables.put(DragSensitive.DRAG_COEFFICIENT, ORBIT_SIZE + variables.size());
+        }
+        if (sensitivity.isReflectionCoefficient()) {
+            variables.put(RadiationSensitive.REFLECTION_COEFFICIENT, ORBIT_SIZE + variables.size());
+        }
+        final int size = ORBIT_SIZE + variables.size();
+
+        // Finite difference steps and standard deviations
+        final double positionStep  = sensitivity.getPositionStep()  != NULL_DOUBLE ? sensitivity.getPositionStep()  : DEFAULT_SENSITIVITY_POSITION_STEP;
+        final double velocityStep  = sensitivity.getVelocityStep()  != NULL_DOUBLE ? sensitivity.getVelocityStep()  : DEFAULT_SENSITIVITY_VELOCITY_STEP;
+        final double parameterStep = sensitivity.getParameterStep() != NULL_DOUBLE ? sensitivity.getParameterStep() : DEFAULT_SENSITIVITY_PARAMETER_STEP;
+        final double[] sigmas = new double[size];
+        Arrays.fill(sigmas, 0, 3, sensitivity.getPositionSigma());
+        Arrays.fill(sigmas, 3, ORBIT_SIZE, sensitivity.getVelocitySigma());
+        if (sensitivity.isDragCoefficient()) {
+            sigmas[variables.get(DragSensitive.DRAG_COEFFICIENT)] = sensitivity.getDragCoefficientSigma();
+        }
+        if (sensitivity.isReflectionCoefficient()) {
+            sigmas[variables.get(RadiationSensitive.REFLECTION_COEFFICIENT)] = sensitivity.getReflectionCoefficientSigma();
+        }
+        boolean dispersed = false;
+        for (final double sigma : sigmas) {
+            dispersed = dispersed || sigma != NULL_DOUBLE;
+        }
+
+        final PropagatorPool propagatorPool = inputData.isPoolPropagators() ? new PropagatorPool() : null;
+        final String[]     names       = {"Numerical", "DSST"};
+        final double[]     tGradient   = new double[names.length];
+        final double[]     tDifference = new double[names.length];
+        final double[]     tMonteCarlo = new double[names.length];
+        final RealMatrix[] gradients   = new RealMatrix[names.length];
+        final RealMatrix[] differences = new RealMatrix[names.length];
+        final RealMatrix[] samples     = new RealMatrix[names.length];
+        for (int k = 0; k < names.length; k++) {
+
+            final boolean numerical = k == 0;
+            final ODEIntegrator integrator = numerical ? numericalIntegrator : dsstIntegrator;
+
+            // Single gradient propagation
+            final double[] nominal = new double[size];
+            final double t0 = System.currentTimeMillis();
+            gradients[k] = numerical ?
+                           propagateNumericalGradient(inputData, initialOrbit, centralBody, normalizedGravityField, atmosphere,
+                                                      integrator, duration, variables, nominal) :
+                           propagateDSSTGradient(inputData, initialOrbit, centralBody, unnormalizedGravityField, atmosphere,
+                                                 integrator, duration, variables, nominal);
+            final double t1 = System.currentTimeMillis();
+            tGradient[k] = 0.001 * (t1 - t0);
+
+            // Forward finite differences
+            final double t2 = System.currentTimeMillis();
+            final double[] reference = propagateFinalState(inputData, initialOrbit, centralBody, normalizedGravityField, unnormalizedGravityField,
+                                                           atmosphere, integrator, propagatorPool, numerical, duration, variables, new double[size], false);
+            differences[k] = MatrixUtils.createRealMatrix(ORBIT_SIZE, size);
+            for (int j = 0; j < size; j++) {
+                final double[] delta = new double[size];
+                delta[j] = j < 3 ? positionStep : (j < ORBIT_SIZE ? velocityStep : parameterStep * FastMath.max(FastMath.abs(nominal[j]), 1.0));
+                final double[] perturbed = propagateFinalState(inputData, initialOrbit, centralBody, normalizedGravityField, unnormalizedGravityField,
+                                                               atmosphere, integrator, propagatorPool, numerical, duration, variables, delta, true);
+                for (int i = 0; i < ORBIT_SIZE; i++) {
+                    differences[k].setEntry(i, j, (perturbed[i] - reference[i]) / delta[j]);
+                }
+            }
+            final double t3 = System.currentTimeMillis();
+            tDifference[k] = 0.001 * (t3 - t2);
+
+            // Monte Carlo samples of the final state
+            if (dispersed && sensitivity.getMonteCarloSamples() > 0) {
+                final RandomGenerator random = new Well19937a(MONTE_CARLO_SEED);
+                final double t4 = System.currentTimeMillis();
+                samples[k] = MatrixUtils.createRealMatrix(sensitivity.getMonteCarloSamples(), ORBIT_SIZE);
+                for (int n = 0; n < sensitivity.getMonteCarloSamples(); n++) {
+                    final double[] delta = new double[size];
+                    for (int j = 0; j < size; j++) {
+                        delta[j] = sigmas[j] * random.nextGaussian();
+                    }
+                    samples[k].setRow(n, propagateFinalState(inputData, initialOrbit, centralBody, normalizedGravityField, unnormalizedGravityField,
+                                                             atmosphere, integrator, propagatorPool, numerical, duration, variables, delta, true));
+                }
+                final double t5 = System.currentTimeMillis();
+                tMonteCarlo[k] = 0.001 * (t5 - t4);
+            }
+
+        }
+
+        System.out.println("");
+        System.out.println("   Sensitivities (gradient propagation vs. finite differences)");
+        System.out.println("      Variables:         " + size + " " + variables.keySet());
+        final RealMatrix initialCovariance = MatrixUtils.createRealMatrix(size, size);
+        for (int j = 0; j < size; j++) {
+            initialCovariance.setEntry(j, j, sigmas[j] * sigmas[j]);
+        }
+        for (int k = 0; k < names.length; k++) {
+            System.out.println("      " + names[k] + " gradient " + WALL_CLOCK_RUN_TIME + tGradient[k]);
+            System.out.println("      " + names[k] + " finite differences " + WALL_CLOCK_RUN_TIME + tDifference[k]);
+            System.out.println("         Speedup:        " + speedup(tDifference[k], tGradient[k]));
+            System.out.println("         Relative difference: " + (gradients[k].subtract(differences[k]).getFrobeniusNorm() / gradients[k].getFrobeniusNorm()));
+            System.out.println("         Jacobian:");
+            printMatrix(gradients[k]);
+            if (dispersed) {
+                final RealMatrix linearized = gradients[k].multiply(initialCovariance).multiplyTransposed(gradients[k]);
+                System.out.println("         Linearized position sigma (m):   " + getRootTrace(linearized, 0));
+                System.out.println("         Linearized velocity sigma (m/s): " + getRootTrace(linearized, 3));
+                if (samples[k] != null) {
+                    final RealMatrix sampled = new Covariance(samples[k]).getCovarianceMatrix();
+                    System.out.println("         Monte Carlo " + WALL_CLOCK_RUN_TIME + tMonteCarlo[k]);
+                    System.out.println("         Monte Carlo position sigma (m):   " + getRootTrace(sampled, 0));
+                    System.out.println("         Monte Carlo velocity sigma (m/s): " + getRootTrace(sampled, 3));
+                }
+            }
+        }
+        if (propagatorPool != null) {
+            printPropagatorPool(propagatorPool);
+            releasePropagatorPool(propagatorPool);
+        }
+
+    }
+
+    /**
+     * Propagate the Jacobian of the final state with a field numerical propagator.
+     * @param inputData input data
+     * @param initialOrbit initial orbit
+     * @param centralBody central body
+     * @param gravityField gravity field
+     * @param atmosphere atmosphere model (null if drag is not used)
+     * @param integrator integrator of the numerical propagator
+     * @param duration propagation duration (s)
+     * @param variables index of the gradient variable of each considered parameter, sorted by parameter name
+     * @param nominal nominal values of the variables, filled by the method
+     * @return the Jacobian of the final Cartesian state with respect to the variables
+     */
+    private static RealMatrix propagateNumericalGradient(final OrbitComparatorInputs inputData,
+                                                         final Orbit initialOrbit,
+                                                         final OneAxisEllipsoid centralBody,
+                                                         final NormalizedSphericalHarmonicsProvider gravityField,
+                                                         final Atmosphere atmosphere,
+                                                         final ODEIntegrator integrator,
+                                                         final double duration,
+                                                         final Map<String, Integer> variables,
+                                                         final double[] nominal) {
+
+        // Force models of the double propagator (exact eclipses and gravity field)
+        final NumericalPropagator reference = initializeNumericalPropagator(inputData, integrator, initialOrbit, centralBody, gravityField, atmosphere, null, null);
+
+        // Field propagator
+        final GradientField field = GradientField.getField(nominal.length);
+        final FieldNumericalPropagator<Gradient> propagator =
+                        new FieldNumericalPropagator<>(field, initializeFieldIntegrator(inputData.getNumericalIntegrator(), initialOrbit, field));
+        propagator.setOrbitType(reference.getOrbitType());
+        propagator.setPositionAngleType(reference.getPositionAngleType());
+        for (final ForceModel force : reference.getAllForceModels()) {
+            final boolean considered = getParameterValues(force.getParametersDrivers(), variables, nominal);
+            propagator.addForceModel(considered ? new GradientParametersForceModel(force, variables) : force);
+        }
+        final FieldOrbit<Gradient> orbit = toGradientOrbit(initialOrbit, field, nominal);
+        propagator.setInitialState(new FieldSpacecraftState<>(orbit));
+
+        // Propagate
+        final FieldSpacecraftState<Gradient> state = propagator.propagate(orbit.getDate().shiftedBy(duration));
+        shutdownParallelForceModels(reference);
+        return getCartesianJacobian(state, initialOrbit.getFrame());
+
+    }
+
+    /**
+     * Propagate the Jacobian of the final state with a field DSST propagator.
+     * @param inputData input data
+     * @param initialOrbit initial orbit
+     * @param centralBody central body
+     * @param gravityField gravity field
+     * @param atmosphere atmosphere model (null if drag is not used)
+     * @param integrator integrator of the DSST propagator
+     * @param duration propagation duration (s)
+     * @param variables index of the gradient variable of each considered parameter, sorted by parameter name
+     * @param nominal nominal values of the variables, filled by the method
+     * @return the Jacobian of the final Cartesian state with respect to the variables
+     */
+    private static RealMatrix propagateDSSTGradient(final OrbitComparatorInputs inputData,
+                                                    final Orbit initialOrbit,
+                                                    final OneAxisEllipsoid centralBody,
+                                                    final UnnormalizedSphericalHarmonicsProvider gravityField,
+                                                    final Atmosphere atmosphere,
+                                                    final ODEIntegrator integrator,
+                                                    final double duration,
+                                                    final Map<String, Integer> variables,
+                                                    final double[] nominal) {
+
+        // Force models of the double propagator (exact eclipses)
+        final DSSTPropagator reference = initializeDSSTPropagator(inputData, integrator, initialOrbit, centralBody, gravityField, atmosphere, null);
+
+        // Field propagator
+        final GradientField field = GradientField.getField(nominal.length);
+        final FieldDSSTPropagator<Gradient> propagator =
+                        new FieldDSSTPropagator<>(field, initializeFieldIntegrator(inputData.getDsstIntegrator(), initialOrbit, field), PropagationType.OSCULATING);
+        for (final DSSTForceModel force : reference.getAllForceModels()) {
+            final boolean considered = getParameterValues(force.getParametersDrivers(), variables, nominal);
+            propagator.addForceModel(considered ? new GradientParametersDSSTForceModel(force, variables) : force);
+        }
+        final FieldOrbit<Gradient> orbit = OrbitType.EQUINOCTIAL.convertType(toGradientOrbit(initialOrbit, field, nominal));
+        propagator.setInitialState(new FieldSpacecraftState<>(orbit), PropagationType.OSCULATING);
+        propagator.setInterpolationGridToMaxTimeGap(field.getZero().add(86400.0));
+
+        // Propagate
+        final FieldSpacecraftState<Gradient> state = propagator.propagate(orbit.getDate().shiftedBy(duration));
+        return getCartesianJacobian(state, initialOrbit.getFrame());
+
+    }
+
+    /**
+     * Propagate the final state with a perturbed initial state and perturbed parameters.
+     * <p>
+     * The eclipses and the gravity field are computed exactly.
+     * </p>
+     * @param inputData input data
+     * @param initialOrbit initial orbit
+     * @param centralBody central body
+     * @param normalizedGravityField gravity field of the numerical propagator
+     * @param unnormalizedGravityField gravity field of the DSST propagator
+     * @param atmosphere atmosphere model (null if drag is not used)
+     * @param integrator integrator of the propagator (not used if the propagator is pooled)
+     * @param propagatorPool propagator pool (null if the propagators are not pooled)
+     * @param numerical if true, the numerical propagator is used, otherwise the DSST propagator is used
+     * @param duration propagation duration (s)
+     * @param variables index of the perturbation of each considered parameter, sorted by parameter name
+     * @param delta perturbations of the initial Cartesian state and of the considered parameters
+     * @param quiet if true, the force models configuration is not printed
+     * @return the final Cartesian state
+     */
+    private static double[] propagateFinalState(final OrbitComparatorInputs inputData,
+                                                final Orbit initialOrbit,
+                                                final OneAxisEllipsoid centralBody,
+                                                final NormalizedSphericalHarmonicsProvider normalizedGravityField,
+                                                final UnnormalizedSphericalHarmonicsProvider unnormalizedGravityField,
+                                                final Atmosphere atmosphere,
+                                                final ODEIntegrator integrator,
+                                                final PropagatorPool propagatorPool,
+                                                final boolean numerical,
+                                                final double duration,
+                                                final Map<String, Integer> variables,
+                                                final double[] delta,
+                                                final boolean quiet) {
+
+        // Perturbed initial state
+        final PVCoordinates pv = initialOrbit.getPVCoordinates();
+        final Orbit orbit = new CartesianOrbit(new PVCoordinates(pv.getPosition().add(new Vector3D(delta[0], delta[1], delta[2])),
+                                                                 pv.getVelocity().add(new Vector3D(delta[3], delta[4], delta[5]))),
+                                               initialOrbit.getFrame(), initialOrbit.getDate(), initialOrbit.getMu());
+
+        // Propagator with perturbed parameters
+        final Propagator propagator;
+        if (propagatorPool != null) {
+            propagator = acquirePropagator(propagatorPool, inputData, numerical ? inputData.getNumericalIntegrator() : inputData.getDsstIntegrator(),
+                                           numerical, orbit, centralBody, normalizedGravityField, unnormalizedGravityField, atmosphere, null, null, quiet);
+        } else if (numerical) {
+            propagator = initializeNumericalPropagator(inputData, integrator, orbit, centralBody, normalizedGravityField, atmosphere, null, null, quiet);
+        } else {
+            propagator = initializeDSSTPropagator(inputData, integrator, orbit, centralBody, unnormalizedGravityField, atmosphere, null, quiet);
+        }
+        final List<ParameterDriver> drivers = new ArrayList<>();
+        if (numerical) {
+            for (final ForceModel force : ((NumericalPropagator) propagator).getAllForceModels()) {
+                drivers.addAll(force.getParametersDrivers());
+            }
+        } else {
+            for (final DSSTForceModel force : ((DSSTPropagator) propagator).getAllForceModels()) {
+                drivers.addAll(force.getParametersDrivers());
+            }
+        }
+        final double[] values = new double[drivers.size()];
+        for (int i = 0; i < drivers.size(); i++) {
+            values[i] = drivers.get(i).getValue();
+            final Integer index = variables.get(drivers.get(i).getName());
+            if (index != null) {
+                drivers.get(i).setValue(values[i] + delta[index]);
+            }
+        }
+
+        // Propagate (the nominal parameters are restored as the force models may be pooled)
+        final SpacecraftState state;
+        try {
+            state = propagator.propagate(orbit.getDate().shiftedBy(duration));
+        } finally {
+            for (int i = 0; i < drivers.size(); i++) {
+                drivers.get(i).setValue(values[i]);
+            }
+            if (numerical && propagatorPool == null) {
+                shutdownParallelForceModels((NumericalPropagator) propagator);
+            }
+        }
+        final PVCoordinates finalPV = state.getPVCoordinates(initialOrbit.getFrame());
+        return new double[] {
+            finalPV.getPosition().getX(), finalPV.getPosition().getY(), finalPV.getPosition().getZ(),
+            finalPV.getVelocity().getX(), finalPV.getVelocity().getY(), finalPV.getVelocity().getZ()
+        };
+
+    }
+
+    /**
+     * Get the values of the considered parameters of a force model.
+     * @param drivers parameter drivers of the force model
+     * @param variables index of the gradient variable of each considered parameter, sorted by parameter name
+     * @param nominal nominal values of the variables, updated by the method
+     * @return true if the force model depends on at least one of the considered parameters
+     */
+    private static boolean getParameterValues(final List<ParameterDriver> drivers,
+                                              final Map<String, Integer> variables,
+                                              final double[] nominal) {
+        boolean considered = false;
+        for (final ParameterDriver driver : drivers) {
+            final Integer index = variables.get(driver.getName());
+            if (index != null) {
+                nominal[index] = driver.getValue();
+                considered     = true;
+            }
+        }
+        return considered;
+    }
+
+    /**
+     * Convert the initial orbit to a Cartesian orbit on gradient variables.
+     * @param initialOrbit initial orbit
+     * @param field gradient field
+     * @param nominal nominal values of the variables, updated by the method with the Cartesian state
+     * @return the Cartesian orbit, its position and velocity being the first six variables
+     */
+    private static FieldOrbit<Gradient> toGradientOrbit(final Orbit initialOrbit, final GradientField field, final double[] nominal) {
+        final PVCoordinates pv = initialOrbit.getPVCoordinates();
+        System.arraycopy(pv.getPosition().toArray(), 0, nominal, 0, 3);
+        System.arraycopy(pv.getVelocity().toArray(), 0, nominal, 3, 3);
+        final int n = field.getZero().getFreeParameters();
+        final FieldVector3D<Gradient> position = new FieldVector3D<>(Gradient.variable(n, 0, nominal[0]),
+                                                                     Gradient.variable(n, 1, nominal[1]),
+                                                                     Gradient.variable(n, 2, nominal[2]));
+        final FieldVector3D<Gradient> velocity = new FieldVector3D<>(Gradient.variable(n, 3, nominal[3]),
+                                                                     Gradient.variable(n, 4, nominal[4]),
+                                                                     Gradient.variable(n, 5, nominal[5]));
+        return new FieldCartesianOrbit<>(new TimeStampedFieldPVCoordinates<>(new FieldAbsoluteDate<>(field, initialOrbit.getDate()),
+                                                                             position, velocity, FieldVector3D.getZero(field)),
+                                         initialOrbit.getFrame(), field.getZero().add(initialOrbit.getMu()));
+    }
+
+    /**
+     * Get the Jacobian of the Cartesian state from a state on gradient variables.
+     * @param state state on gradient variables
+     * @param frame frame of the Cartesian state
+     * @return the Jacobian of the Cartesian state with respect to the variables
+     */
+    private static RealMatrix getCartesianJacobian(final FieldSpacecraftState<Gradient> state, final Frame frame) {
+        final FieldPVCoordinates<Gradient> pv = state.getPVCoordinates(frame);
+        final Gradient[] coordinates = {
+            pv.getPosition().getX(), pv.getPosition().getY(), pv.getPosition().getZ(),
+            pv.getVelocity().getX(), pv.getVelocity().getY(), pv.getVelocity().getZ()
+        };
+        final RealMatrix jacobian = MatrixUtils.createRealMatrix(ORBIT_SIZE, coordinates[0].getFreeParameters());
+        for (int i = 0; i < ORBIT_SIZE; i++) {
+            jacobian.setRow(i, coordinates[i].getGradient());
+        }
+        return jacobian;
+    }
+
+    /**
+     * Initialize a field integrator equivalent to the configured integrator.
+     * @param <T> type of the field elements
+     * @param integratorData integrator data
+     * @param initialOrbit initial orbit
+     * @param field field of the integrator
+     * @return a configured field integrator
+     */
+    private static <T extends CalculusFieldElement<T>> FieldODEIntegrator<T> initializeFieldIntegrator(final IntegratorConfiguration integratorData,
+                                                                                                      final Orbit initialOrbit,
+                                                                                                      final Field<T> field) {
+        if (integratorData.getFixedStep() != NULL_DOUBLE) {
+            return new ClassicalRungeKuttaFieldIntegrator<>(field, field.getZero().add(integratorData.getFixedStep()));
+        }
+        final double[][] tolerances = NumericalPropagator.tolerances(integratorData.getPositionError(), initialOrbit, OrbitType.EQUINOCTIAL);
+        return new DormandPrince853FieldIntegrator<>(field, integratorData.getMinStep(), integratorData.getMaxStep(), tolerances[0], tolerances[1]);
+    }
+
+    /**
+     * Benchmark the orbit determination with both propagators.
+     * <p>
+     * PV measurements are simulated from a reference numerical propagation using
+     * the exact gravity and eclipse models and a tight integrator tolerance. They
+     * are fitted by a batch least squares estimator, starting from a perturbed
+     * initial guess, with numerical and DSST propagator builders configured with
+     * the same force models as the comparison. Only the orbit is estimated.
+     * </p>
+     * @param inputData input data
+     * @param initialOrbit initial orbit
+     * @param centralBody central body
+     * @param normalizedGravityField gravity field of the numerical propagator
+     * @param unnormalizedGravityField gravity field of the DSST propagator
+     * @param atmosphere atmosphere model (null if drag is not used)
+     * @param shadows shadow intervals for each occulting body (null if exact eclipse computation is used)
+     * @param gravityGrid precomputed gravity acceleration grid (null if the exact model is used)
+     */
+    private static void benchmarkOrbitDetermination(final OrbitComparatorInputs inputData,
+                                                    final Orbit initialOrbit,
+                                                    final OneAxisEllipsoid centralBody,
+                                                    final NormalizedSphericalHarmonicsProvider normalizedGravityField,
+                                                    final UnnormalizedSphericalHarmonicsProvider unnormalizedGravityField,
+                                                    final Atmosphere atmosphere,
+                                                    final Map<String, ShadowIntervals> shadows,
+                                                    final GriddedGravity gravityGrid) {
+
+        final OrbitDeterminationConfiguration od = inputData.getOrbitDetermination();
+        final double arcDuration          = (od.getArcDuration() != NULL_DOUBLE ? od.getArcDuration() : inputData.getPropagationDuration()) * Constants.JULIAN_DAY;
+        final double measurementStep      = od.getMeasurementStep()        != NULL_DOUBLE ? od.getMeasurementStep()        : DEFAULT_OD_MEASUREMENT_STEP;
+        final double positionSigma        = od.getPositionSigma()          != NULL_DOUBLE ? od.getPositionSigma()          : DEFAULT_OD_POSITION_SIGMA;
+        final double velocitySigma        = od.getVelocitySigma()          != NULL_DOUBLE ? od.getVelocitySigma()          : DEFAULT_OD_VELOCITY_SIGMA;
+        final double positionOffset       = od.getInitialPositionOffset()  != NULL_DOUBLE ? od.getInitialPositionOffset()  : DEFAULT_OD_INITIAL_POSITION_OFFSET;
+        final double velocityOffset       = od.getInitialVelocityOffset()  != NULL_DOUBLE ? od.getInitialVelocityOffset()  : DEFAULT_OD_INITIAL_VELOCITY_OFFSET;
+        final double referenceError       = od.getReferencePositionError() != NULL_DOUBLE ? od.getReferencePositionError() : DEFAULT_OD_REFERENCE_POSITION_ERROR;
+        final double positionScale        = od.getPositionScale()          != NULL_DOUBLE ? od.getPositionScale()          : DEFAULT_OD_POSITION_SCALE;
+        final double convergenceThreshold = od.getConvergenceThreshold()   != NULL_DOUBLE ? od.getConvergenceThreshold()   : DEFAULT_OD_CONVERGENCE_THRESHOLD;
+        final int    maxIterations        = od.getMaxIterations()  != 0 ? od.getMaxIterations()  : DEFAULT_OD_MAX_ITERATIONS;
+        final int    maxEvaluations       = od.getMaxEvaluations() != 0 ? od.getMaxEvaluations() : DEFAULT_OD_MAX_EVALUATIONS;
+        if (inputData.getNumericalIntegrator().getFixedStep() != NULL_DOUBLE) {
+            throw new IllegalArgumentException("Orbit determination benchmark requires a variable step numerical integrator");
+        }
+
+        // Reference numerical propagation
+        final IntegratorConfiguration referenceData = new IntegratorConfiguration();
+        referenceData.setMinStep(inputData.getNumericalIntegrator().getMinStep());
+        referenceData.setMaxStep(inputData.getNumericalIntegrator().getMaxStep());
+        referenceData.setPositionError(referenceError);
+        final NumericalPropagator reference = initializeNumericalPropagator(inputData, initializeIntegrator(referenceData, initialOrbit, "orbit determination reference"),
+                                                                            initialOrbit, centralBody, normalizedGravityField, atmosphere, null, null);
+
+        // Simulated measurements
+        final ObservableSatellite satellite = new ObservableSatellite(0);
+        final RandomGenerator random = new Well19937a(OD_NOISE_SEED);
+        final List<PV> measurements = new ArrayList<>();
+        for (double dt = 0.0; dt <= arcDuration; dt += measurementStep) {
+            final PVCoordinates pv = reference.propagate(initialOrbit.getDate().shiftedBy(dt)).getPVCoordinates(initialOrbit.getFrame());
+            Vector3D position = pv.getPosition();
+            Vector3D velocity = pv.getVelocity();
+            if (od.isNoise()) {
+                position = position.add(new Vector3D(random.nextGaussian(), random.nextGaussian(), random.nextGaussian()).scalarMultiply(positionSigma));
+                velocity = velocity.add(new Vector3D(random.nextGaussian(), random.nextGaussian(), random.nextGaussian()).scalarMultiply(velocitySigma));
+            }
+            measurements.add(new PV(initialOrbit.getDate().shiftedBy(dt), position, velocity, positionSigma, velocitySigma, 1.0, satellite));
+        }
+        shutdownParallelForceModels(reference);
+
+        // Perturbed initial guess
+        final PVCoordinates initialPV = initialOrbit.getPVCoordinates();
+        final Orbit guess = OrbitType.EQUINOCTIAL.convertType(new CartesianOrbit(new PVCoordinates(initialPV.getPosition().add(positionOffset, initialPV.getPosition().normalize()),
+                                                                                                   initialPV.getVelocity().add(velocityOffset, initialPV.getVelocity().normalize())),
+                                                                                 initialOrbit.getFrame(), initialOrbit.getDate(), initialOrbit.getMu()));
+
+        // Propagator builders sharing the force models of the comparison
+        final NumericalPropagator numericalModel = initializeNumericalPropagator(inputData, initializeIntegrator(inputData.getNumericalIntegrator(), guess, "numerical propagator"),
+                                                                                 guess, centralBody, normalizedGravityField, atmosphere, shadows, gravityGrid);
+        final NumericalPropagatorBuilder numericalBuilder = new NumericalPropagatorBuilder(guess, initializeIntegratorBuilder(inputData.getNumericalIntegrator()),
+                                                                                           numericalModel.getPositionAngleType(), positionScale);
+        for (final ForceModel force : numericalModel.getAllForceModels()) {
+            numericalBuilder.addForceModel(force);
+        }
+        final DSSTPropagator dsstModel = initializeDSSTPropagator(inputData, initializeIntegrator(inputData.getDsstIntegrator(), guess, "DSST propagator"),
+                                                                  guess, centralBody, unnormalizedGravityField, atmosphere, shadows);
+        final DSSTPropagatorBuilder dsstBuilder = new DSSTPropagatorBuilder(guess, initializeIntegratorBuilder(inputData.getDsstIntegrator()), positionScale,
+                                                                            PropagationType.OSCULATING, PropagationType.OSCULATING);
+        for (final DSSTForceModel force : dsstModel.getAllForceModels()) {
+            dsstBuilder.addForceModel(force);
+        }
+
+        // Fits
+        final String[] names = {"Numerical", "DSST"};
+        final OrbitDeterminationPropagatorBuilder[] builders = {numericalBuilder, dsstBuilder};
+        final int[]    iterations     = new int[names.length];
+        final int[]    evaluations    = new int[names.length];
+        final double[] times          = new double[names.length];
+        final double[] positionErrors = new double[names.length];
+        final double[] velocityErrors = new double[names.length];
+        final double[] residuals      = new double[names.length];
+        for (int k = 0; k < names.length; k++) {
+
+            final BatchLSEstimator estimator = new BatchLSEstimator(new LevenbergMarquardtOptimizer(), builders[k]);
+            estimator.setParametersConvergenceThreshold(convergenceThreshold);
+            estimator.setMaxIterations(maxIterations);
+            estimator.setMaxEvaluations(maxEvaluations);
+            for (final PV measurement : measurements) {
+                estimator.addMeasurement(measurement);
+            }
+
+            final long t0 = System.nanoTime();
+            final Propagator[] estimated = estimator.estimate();
+            final long t1 = System.nanoTime();
+
+            iterations[k]  = estimator.getIterationsCount();
+            evaluations[k] = estimator.getEvaluationsCount();
+            times[k]       = 1.0e-9 * (t1 - t0);
+            final PVCoordinates fitted = estimated[0].getInitialState().getPVCoordinates(initialOrbit.getFrame());
+            positionErrors[k] = Vector3D.distance(fitted.getPosition(), initialPV.getPosition());
+            velocityErrors[k] = Vector3D.distance(fitted.getVelocity(), initialPV.getVelocity());
+            double sum = 0.0;
+            for (final EstimatedMeasurement<?> estimation : estimator.getLastEstimations().values()) {
+                final double[] estimatedValue = estimation.getEstimatedValue();
+                final double[] observedValue  = estimation.getObservedMeasurement().getObservedValue();
+                for (int i = 0; i < 3; i++) {
+                    sum += (estimatedValue[i] - observedValue[i]) * (estimatedValue[i] - observedValue[i]);
+                }
+            }
+            residuals[k] = FastMath.sqrt(sum / measurements.size());
+
+        }
+        shutdownParallelForceModels(numericalModel);
+
+        System.out.println("");
+        System.out.println("   Orbit determination benchmark (batch least squares)");
+        System.out.println("      Measurements:      " + measurements.size());
+        for (int k = 0; k < names.length; k++) {
+            System.out.println("      " + names[k] + " " + WALL_CLOCK_RUN_TIME + times[k]);
+            System.out.println("         Iterations:     " + iterations[k]);
+            System.out.println("         Evaluations:    " + evaluations[k]);
+            System.out.println("         Time per iteration (s): " + (times[k] / iterations[k]));
+            System.out.println("         Position error at epoch (m):   " + positionErrors[k]);
+            System.out.println("         Velocity error at epoch (m/s): " + velocityErrors[k]);
+            System.out.println("         Position residuals RMS (m):    " + residuals[k]);
+        }
+        System.out.println("      DSST speedup:      " + speedup(times[0], times[1]));
+
+    }
+
+    /**
+     * Initialize an integrator builder equivalent to the configured integrator.
+     * @param integratorData integrator data
+     * @return a configured integrator builder
+     */
+    private static ODEIntegratorBuilder initializeIntegratorBuilder(final IntegratorConfiguration integratorData) {
+        if (integratorData.getFixedStep() != NULL_DOUBLE) {
+            return new ClassicalRungeKuttaIntegratorBuilder(integratorData.getFixedStep());
+        }
+        return new DormandPrince853IntegratorBuilder(integratorData.getMinStep(), integratorData.getMaxStep(), integratorData.getPositionError());
+    }
+
+    /**
+     * Propagate the initial orbit with the Encke propagator and benchmark it against the Cowell formulation.
+     * <p>
+     * The Cowell propagator is a numerical propagator integrating the Cartesian
+     * coordinates. Both propagators use the force models of {@link #addNumericalForceModels}
+     * and the same integrator settings (Cartesian tolerances), so that the numbers
+     * of steps and acceleration evaluations can be compared directly.
+     * </p>
+     * @param inputData input data
+     * @param initialOrbit initial orbit
+     * @param centralBody central body
+     * @param gravityField gravity field
+     * @param atmosphere atmosphere model (null if drag is not used)
+     * @param shadows shadow intervals for each occulting body (null if exact eclipse computation is used)
+     * @param gravityGrid precomputed gravity acceleration grid (null if the exact model is used)
+     * @param duration propagation duration (s)
+     * @param numericalState final state of the numerical propagation
+     */
+    private static void propagateEncke(final OrbitComparatorInputs inputData,
+                                       final Orbit initialOrbit,
+                                       final OneAxisEllipsoid centralBody,
+                                       final NormalizedSphericalHarmonicsProvider gravityField,
+                                       final Atmosphere atmosphere,
+                                       final Map<String, ShadowIntervals> shadows,
+                                       final GriddedGravity gravityGrid,
+                                       final double duration,
+                                       final SpacecraftState numericalState) {
+
+        final EnckeConfiguration      encke          = inputData.getEncke();
+        final IntegratorConfiguration integratorData = encke.getIntegrator() != null ? encke.getIntegrator() : inputData.getNumericalIntegrator();
+        final double                  threshold      = encke.getRectificationThreshold() != NULL_DOUBLE ?
+                                                       encke.getRectificationThreshold() : DEFAULT_ENCKE_RECTIFICATION_THRESHOLD;
+        final AbsoluteDate            target         = initialOrbit.getDate().shiftedBy(duration);
+
+        // Cowell propagator
+        final ODEIntegrator       cowellIntegrator = initializeIntegratorBuilder(integratorData).buildIntegrator(initialOrbit, OrbitType.CARTESIAN);
+        final NumericalPropagator cowell           = initializeNumericalPropagator(inputData, cowellIntegrator, initialOrbit, centralBody,
+                                                                                   gravityField, atmosphere, shadows, gravityGrid);
+        cowell.setOrbitType(OrbitType.CARTESIAN);
+        final int[] cowellSteps = new int[1];
+        cowell.getMultiplexer().add(interpolator -> cowellSteps[0]++);
+
+        try {
+
+            final double t0Cowell = System.currentTimeMillis();
+            final SpacecraftState cowellState = cowell.propagate(target);
+            final double t1Cowell = System.currentTimeMillis();
+            final double cowellTime = 0.001 * (t1Cowell - t0Cowell);
+
+            // Encke propagator, sharing the force models of the Cowell propagator
+            final ODEIntegrator enckeIntegrator;
+            if (integratorData.getFixedStep() != NULL_DOUBLE) {
+                enckeIntegrator = new ClassicalRungeKuttaIntegrator(integratorData.getFixedStep());
+            } else {
+                final double[][] tolerances = NumericalPropagator.tolerances(integratorData.getPositionError(), initialOrbit, OrbitType.CARTESIAN);
+                enckeIntegrator = new DormandPrince853Integrator(integratorData.getMinStep(), integratorData.getMaxStep(),
+                                                                 Arrays.copyOf(tolerances[0], 6), Arrays.copyOf(tolerances[1], 6));
+            }
+            final EnckePropagator propagator = new EnckePropagator(cowell.getAllForceModels(), initialOrbit,
+                                                                   cowell.getInitialState().getMass(), enckeIntegrator, threshold);
+            final double t0Encke = System.currentTimeMillis();
+            final SpacecraftState enckeState = propagator.propagate(target);
+            final double t1Encke = System.currentTimeMillis();
+            final double enckeTime = 0.001 * (t1Encke - t0Encke);
+
+            System.out.println("");
+            System.out.println("Encke " + WALL_CLOCK_RUN_TIME + enckeTime);
+            System.out.println(enckeState);
+            System.out.println("");
+            System.out.println("   Encke vs. Cowell");
+            System.out.println("      Rectification threshold: " + threshold);
+            System.out.println("      Rectifications:    " + propagator.getRectifications());
+            System.out.println("      Cowell steps:      " + cowellSteps[0]);
+            System.out.println("      Cowell evaluations: " + cowellIntegrator.getEvaluations());
+            System.out.println("      Cowell " + WALL_CLOCK_RUN_TIME + cowellTime);
+            System.out.println("      Encke steps:       " + propagator.getSteps());
+            System.out.println("      Encke evaluations: " + propagator.getEvaluations());
+            System.out.println("      Encke " + WALL_CLOCK_RUN_TIME + enckeTime);
+            System.out.println("      Speedup:           " + speedup(cowellTime, enckeTime));
+            System.out.println("      Delta vs. Cowell (m):    " + positionDifference(enckeState, cowellState));
+            System.out.println("      Delta vs. numerical (m): " + positionDifference(enckeState, numericalState));
+
+        } finally {
+            shutdownParallelForceModels(cowell);
+        }
+
+    }
+
+    /**
+     * Propagate the initial orbit with the regularized (Kustaanheimo-Stiefel) propagator
+     * and benchmark it against the standard formulation.
+     * <p>
+     * The standard formulation is the numerical propagator. Both propagators use the
+     * force models of {@link #addNumericalForceModels} and the same integrator settings,
+     * the steps of the regularized propagator being scaled to fictitious time.
+     * </p>
+     * @param inputData input data
+     * @param initialOrbit initial orbit
+     * @param centralBody central body
+     * @param gravityField gravity field
+     * @param atmosphere atmosphere model (null if drag is not used)
+     * @param shadows shadow intervals for each occulting body (null if exact eclipse computation is used)
+     * @param gravityGrid precomputed gravity acceleration grid (null if the exact model is used)
+     * @param duration propagation duration (s)
+     */
+    private static void propagateRegularized(final OrbitComparatorInputs inputData,
+                                             final Orbit initialOrbit,
+                                             final OneAxisEllipsoid centralBody,
+                                             final NormalizedSphericalHarmonicsProvider gravityField,
+                                             final Atmosphere atmosphere,
+                                             final Map<String, ShadowIntervals> shadows,
+                                             final GriddedGravity gravityGrid,
+                                             final double duration) {
+
+        final RegularizedConfiguration regularized    = inputData.getRegularized();
+        final IntegratorConfiguration  integratorData = regularized.getIntegrator() != null ?
+                                                        regularized.getIntegrator() : inputData.getNumericalIntegrator();
+        final AbsoluteDate             target         = initialOrbit.getDate().shiftedBy(duration);
+
+        // Standard propagator
+        final ODEIntegrator       standardIntegrator = initializeIntegratorBuilder(integratorData).buildIntegrator(initialOrbit, OrbitType.EQUINOCTIAL);
+        final NumericalPropagator standard           = initializeNumericalPropagator(inputData, standardIntegrator, initialOrbit, centralBody,
+                                                                                     gravityField, atmosphere, shadows, gravityGrid);
+        final int[] standardSteps = new int[1];
+        standard.getMultiplexer().add(interpolator -> standardSteps[0]++);
+
+        try {
+
+            final double t0Standard = System.currentTimeMillis();
+            final SpacecraftState standardState = standard.propagate(target);
+            final double t1Standard = System.currentTimeMillis();
+            final double standardTime = 0.001 * (t1Standard - t0Standard);
+
+            // Regularized propagator, sharing the force models of the standard propagator
+            final double scale = KustaanheimoStiefelPropagator.getFictitiousTimeScale(initialOrbit);
+            final ODEIntegrator regularizedIntegrator;
+            if (integratorData.getFixedStep() != NULL_DOUBLE) {
+                regularizedIntegrator = new ClassicalRungeKuttaIntegrator(integratorData.getFixedStep() / scale);
+            } else {
+                final double[][] tolerances = KustaanheimoStiefelPropagator.tolerances(integratorData.getPositionError(), initialOrbit);
+                regularizedIntegrator = new DormandPrince853Integrator(integratorData.getMinStep() / scale, integratorData.getMaxStep() / scale,
+                                                                       tolerances[0], tolerances[1]);
+            }
+            final KustaanheimoStiefelPropagator propagator = new KustaanheimoStiefelPropagator(standard.getAllForceModels(), initialOrbit,
+                                                                                               standard.getInitialState().getMass(),
+                                                                                               regularizedIntegrator);
+            final double t0Regularized = System.currentTimeMillis();
+            final SpacecraftState regularizedState = propagator.propagate(target);
+            final double t1Regularized = System.currentTimeMillis();
+            final double regularizedTime = 0.001 * (t1Regularized - t0Regularized);
+
+            System.out.println("");
+            System.out.println("KS " + WALL_CLOCK_RUN_TIME + regularizedTime);
+            System.out.println(regularizedState);
+            System.out.println("");
+            System.out.println("   KS regularized vs. standard formulation");
+            System.out.println("      Standard steps:    " + standardSteps[0]);
+            System.out.println("      Standard evaluations: " + standardIntegrator.getEvaluations());
+            System.out.println("      Standard " + WALL_CLOCK_RUN_TIME + standardTime);
+            System.out.println("      KS steps:          " + propagator.getSteps());
+            System.out.println("      KS evaluations:    " + propagator.getEvaluations());
+            System.out.println("      KS " + WALL_CLOCK_RUN_TIME + regularizedTime);
+            System.out.println("      Step reduction:    " + (1.0 - (double) propagator.getSteps() / standardSteps[0]));
+            System.out.println("      Runtime reduction: " + (1.0 - regularizedTime / standardTime));
+            System.out.println("      Delta (m):         " + positionDifference(regularizedState, standardState));
+
+        } finally {
+            shutdownParallelForceModels(standard);
+        }
+
+    }
+
+    /**
+     * Propagate the initial orbit with the modified Chebyshev-Picard iteration propagator.
+     * <p>
+     * The dynamics are the force models of the numerical propagator (the members
+     * of the parallel force models being used directly, as the nodes are already
+     * evaluated concurrently).
+     * </p>
+     * @param inputData input data
+     * @param initialOrbit initial orbit
+     * @param numericalPropagator numerical propagator
+     * @param duration propagation duration (s)
+     * @param numericalState final state of the numerical propagation
+     * @param numericalTime wall clock run time of the numerical propagation (s)
+     */
+    private static void propagatePicard(final OrbitComparatorInputs inputData,
+                                        final Orbit initialOrbit,
+                                        final NumericalPropagator numericalPropagator,
+                                        final double duration,
+                                        final SpacecraftState numericalState,
+                                        final double numericalTime) {
+
+        final PicardConfiguration picard = inputData.getPicard();
+        final double segment       = picard.getSegmentDuration() != NULL_DOUBLE ?
+                                     picard.getSegmentDuration() : DEFAULT_PICARD_SEGMENT_FRACTION * initialOrbit.getKeplerianPeriod();
+        final int    order         = picard.getOrder() != 0 ? picard.getOrder() : DEFAULT_PICARD_ORDER;
+        final double tolerance     = picard.getTolerance() != NULL_DOUBLE ? picard.getTolerance() : DEFAULT_PICARD_TOLERANCE;
+        final int    maxIterations = picard.getMaxIterations() != 0 ? picard.getMaxIterations() : DEFAULT_PICARD_MAX_ITERATIONS;
+        final int    threads       = picard.getThreads() != 0 ? picard.getThreads() : Runtime.getRuntime().availableProcessors();
+
+        // Force models of the numerical propagator
+        final List<ForceModel> forceModels = new ArrayList<>();
+        for (final ForceModel force : numericalPropagator.getAllForceModels()) {
+            if (force instanceof ParallelForceModel) {
+                forceModels.addAll(((ParallelForceModel) force).getMembers());
+            } else {
+                forceModels.add(force);
+            }
+        }
+
+        // Propagate
+        final ExecutorService pool = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+        final ChebyshevPicardPropagator propagator;
+        final SpacecraftState state;
+        final double t0 = System.currentTimeMillis();
+        try {
+            propagator = new ChebyshevPicardPropagator(forceModels, initialOrbit, numericalPropagator.getInitialState().getMass(),
+                                                       segment, order, tolerance, maxIterations, pool, threads);
+            state = propagator.propagate(initialOrbit.getDate().shiftedBy(duration));
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+        final double t1 = System.currentTimeMillis();
+        final double picardTime = 0.001 * (t1 - t0);
+
+        System.out.println("");
+        System.out.println("MCPI " + WALL_CLOCK_RUN_TIME + picardTime);
+        System.out.println(state);
+        System.out.println("");
+        System.out.println("   Chebyshev-Picard vs. numerical");
+        System.out.println("      Segment duration:  " + segment);
+        System.out.println("      Order:             " + order);
+        System.out.println("      Threads:           " + threads);
+        System.out.println("      Segments:          " + propagator.getSegments());
+        System.out.println("      Iterations:        " + propagator.getIterations());
+        System.out.println("      Evaluations:       " + propagator.getEvaluations());
+        System.out.println("      Speedup:           " + speedup(numericalTime, picardTime));
+        System.out.println("      Delta (m):         " + positionDifference(state, numericalState));
+
+    }
+
+    /**
+     * Propagate the initial orbit with the Parareal scheme.
+     * <p>
+     * The propagation duration is split in K slices. The initial states of the
+     * slices are first predicted by a serial sweep of the coarse solver (DSST).
+     * Each iteration then propagates the slices concurrently with the fine solver
+     * (numerical) and corrects the initial states with a new serial coarse sweep:
+     * U<sub>k+1</sub> = G(U<sub>k</sub>) + F(U<sub>k</sub><sup>old</sup>) - G(U<sub>k</sub><sup>old</sup>),
+     * the corrections being applied to the Cartesian coordinates. After iteration j,
+     * the first j slices are exact, so that they are not propagated again. The
+     * iterations stop when the largest update of the slice boundaries is below the
+     * position tolerance. The coarse and fine propagators are taken from a propagator
+     * pool, so that each thread builds them only once.
+     * </p>
+     * @param inputData input data
+     * @param initialOrbit initial orbit
+     * @param centralBody central body
+     * @param normalizedGravityField gravity field of the numerical propagator
+     * @param unnormalizedGravityField gravity field of the DSST propagator
+     * @param atmosphere atmosphere model (null if drag is not used)
+     * @param shadows shadow intervals for each occulting body (null if exact eclipse computation is used)
+     * @param gravityGrid precomputed gravity acceleration grid (null if the exact model is used)
+     * @param duration propagation duration (s)
+     * @param numericalState final state of the serial numerical propagation
+     * @param numericalTime wall clock run time of the serial numerical propagation (s)
+     * @throws IOException if a fine propagation fails
+     */
+    private static void propagateParareal(final OrbitComparatorInputs inputData,
+                                          final Orbit initialOrbit,
+                                          final OneAxisEllipsoid centralBody,
+                                          final NormalizedSphericalHarmonicsProvider normalizedGravityField,
+                                          final UnnormalizedSphericalHarmonicsProvider unnormalizedGravityField,
+                                          final Atmosphere atmosphere,
+                                          final Map<String, ShadowIntervals> shadows,
+                                          final GriddedGravity gravityGrid,
+                                          final double duration,
+                                          final SpacecraftState numericalState,
+                                          final double numericalTime) throws IOException {
+
+        final PararealConfiguration parareal = inputData.getParareal();
+        final int    threads       = parareal.getThreads() != 0 ? parareal.getThreads() : Runtime.getRuntime().availableProcessors();
+        final int    slices        = parareal.getSlices() != 0 ? parareal.getSlices() : threads;
+        final double tolerance     = parareal.getTolerance() != NULL_DOUBLE ? parareal.getTolerance() : DEFAULT_PARAREAL_TOLERANCE;
+        final int    maxIterations = parareal.getMaxIterations() != 0 ? FastMath.min(parareal.getMaxIterations(), slices) : slices;
+        if (slices < 1) {
+            throw new IllegalArgumentException("Number of Parareal slices must be positive: " + slices);
+        }
+        final Frame        frame = initialOrbit.getFrame();
+        final AbsoluteDate start = initialOrbit.getDate();
+        final double       step  = duration / slices;
+
+        final double t0 = System.currentTimeMillis();
+        final PropagatorPool propagatorPool = new PropagatorPool();
+
+        // Initial prediction by the coarse solver
+        final Orbit[]           states = new Orbit[slices + 1];
+        final PVCoordinates[]   coarse = new PVCoordinates[slices];
+        final PVCoordinates[]   fine   = new PVCoordinates[slices];
+        states[0] = initialOrbit;
+        for (int k = 0; k < slices; k++) {
+            coarse[k]     = propagatePararealSlice(propagatorPool, inputData, false, states[k], start.shiftedBy((k + 1) * step),
+                                                   centralBody, normalizedGravityField, unnormalizedGravityField, atmosphere, shadows, gravityGrid,
+                                                   k > 0);
+            states[k + 1] = new CartesianOrbit(coarse[k], frame, start.shiftedBy((k + 1) * step), initialOrbit.getMu());
+        }
+
+        // Iterations
+        final ExecutorService pool = Executors.newFixedThreadPool(threads);
+        final List<Double> updates = new ArrayList<>();
+        try {
+            for (int iteration = 1; iteration <= maxIterations; iteration++) {
+
+                // Fine solver on the slices which are not yet exact
+                final int first = iteration - 1;
+                final List<Future<?>> futures = new ArrayList<>();
+                for (int k = first; k < slices; k++) {
+                    final int     slice = k;
+                    final Orbit   orbit = states[k];
+                    final boolean quiet = iteration > 1 || k > first;
+                    futures.add(pool.submit(() -> {
+                        fine[slice] = propagatePararealSlice(propagatorPool, inputData, true, orbit, start.shiftedBy((slice + 1) * step),
+                                                             centralBody, normalizedGravityField, unnormalizedGravityField, atmosphere, shadows, gravityGrid,
+                                                             quiet);
+                        return null;
+                    }));
+                }
+                awaitAll(futures);
+
+                // Serial correction by the coarse solver
+                double update = 0.0;
+                for (int k = first; k < slices; k++) {
+                    final AbsoluteDate  date       = start.shiftedBy((k + 1) * step);
+                    final PVCoordinates prediction = k == first ?
+                                                     coarse[k] :
+                                                     propagatePararealSlice(propagatorPool, inputData, false, states[k], date,
+                                                                            centralBody, normalizedGravityField, unnormalizedGravityField,
+                                                                            atmosphere, shadows, gravityGrid, true);
+                    final PVCoordinates corrected = new PVCoordinates(prediction.getPosition().add(fine[k].getPosition()).subtract(coarse[k].getPosition()),
+                                                                      prediction.getVelocity().add(fine[k].getVelocity()).subtract(coarse[k].getVelocity()));
+                    update = FastMath.max(update, Vector3D.distance(corrected.getPosition(), states[k + 1].getPVCoordinates().getPosition()));
+                    coarse[k]     = prediction;
+                    states[k + 1] = new CartesianOrbit(corrected, frame, date, initialOrbit.getMu());
+                }
+                updates.add(update);
+                if (update <= tolerance) {
+                    break;
+                }
+
+            }
+        } finally {
+            pool.shutdown();
+            releasePropagatorPool(propagatorPool);
+        }
+
+        final double t1 = System.currentTimeMillis();
+        final double pararealTime = 0.001 * (t1 - t0);
+
+        System.out.println("");
+        System.out.println("   Parareal propagation (DSST coarse, numerical fine)");
+        System.out.println("      Slices:            " + slices);
+        System.out.println("      Threads:           " + threads);
+        System.out.println("      Iterations:        " + updates.size());
+        for (int j = 0; j < updates.size(); j++) {
+            System.out.println("         Iteration " + (j + 1) + " max update (m): " + updates.get(j));
+        }
+        System.out.println("      Converged:         " + (updates.get(updates.size() - 1) <= tolerance));
+        System.out.println("      " + WALL_CLOCK_RUN_TIME + pararealTime);
+        System.out.println("      Serial numerical " + WALL_CLOCK_RUN_TIME + numericalTime);
+        System.out.println("      Speedup:           " + speedup(numericalTime, pararealTime));
+        System.out.println("      Final delta vs. serial numerical (m): " +
+                           Vector3D.distance(states[slices].getPVCoordinates().getPosition(),
+                                             numericalState.getPVCoordinates(frame).getPosition()));
+
+    }
+
+    /**
+     * Propagate one slice of the Parareal scheme.
+     * @param propagatorPool propagator pool
+     * @param inputData input data
+     * @param numerical if true, the numerical propagator is used, otherwise the DSST propagator is used
+     * @param orbit initial orbit of the slice
+     * @param target end date of the slice
+     * @param centralBody central body
+     * @param normalizedGravityField gravity field of the numerical propagator
+     * @param unnormalizedGravityField gravity field of the DSST propagator
+     * @param atmosphere atmosphere model (null if drag is not used)
+     * @param shadows shadow intervals for each occulting body (null if exact eclipse computation is used)
+     * @param gravityGrid precomputed gravity acceleration grid (null if the exact model is used)
+     * @param quiet if true, the force models configuration is not printed
+     * @return the position-velocity at the end of the slice, in the frame of the initial orbit
+     */
+    private static PVCoordinates propagatePararealSlice(final PropagatorPool propagatorPool,
+                                                        final OrbitComparatorInputs inputData,
+                                                        final boolean numerical,
+                                                        final Orbit orbit,
+                                                        final AbsoluteDate target,
+                                                        final OneAxisEllipsoid centralBody,
+                                                        final NormalizedSphericalHarmonicsProvider normalizedGravityField,
+                                                        final UnnormalizedSphericalHarmonicsProvider unnormalizedGravityField,
+                                                        final Atmosphere atmosphere,
+                                                        final Map<String, ShadowIntervals> shadows,
+                                                        final GriddedGravity gravityGrid,
+                                                        final boolean quiet) {
+        final Propagator propagator = acquirePropagator(propagatorPool, inputData,
+                                                        numerical ? inputData.getNumericalIntegrator() : inputData.getDsstIntegrator(),
+                                                        numerical, orbit, centralBody, normalizedGravityField, unnormalizedGravityField,
+                                                        atmosphere, shadows, gravityGrid, quiet);
+        return propagator.propagate(target).getPVCoordinates(orbit.getFrame());
+    }
+
+    /**
+     * Get a configured propagator from the pool, for the current thread.
+     * <p>
+     * Propagators are keyed by the values of their integrator configuration and by
+     * their force configuration (configuration objects and shared models being
+     * compared by identity). The first request for a key builds the propagator.
+     * The next ones reuse it by clearing its step handlers and events detectors,
+     * setting the integrator tolerances for the new initial orbit and resetting
+     * its initial state, which saves the construction of the force models.
+     * </p>
+     * @param propagatorPool propagator pool
+     * @param inputData input data
+     * @param integratorData integrator configuration of the propagator
+     * @param numerical if true, a numerical propagator is returned, otherwise a DSST propagator is returned
+     * @param orbit initial orbit
+     * @param centralBody central body
+     * @param normalizedGravityField gravity field of the numerical propagator
+     * @param unnormalizedGravityField gravity field of the DSST propagator
+     * @param atmosphere atmosphere model (null if drag is not used)
+     * @param shadows shadow intervals for each occulting body (null if exact eclipse computation is used)
+     * @param gravityGrid precomputed gravity acceleration grid (null if the exact model is used)
+     * @param quiet if true, the configuration of a new propagator is not printed
+     * @return a configured propagator starting from the initial orbit
+     */
+    private static Propagator acquirePropagator(final PropagatorPool propagatorPool,
+                                                final OrbitComparatorInputs inputData,
+                                                final IntegratorConfiguration integratorData,
+                                                final boolean numerical,
+                                                final Orbit orbit,
+                                                final OneAxisEllipsoid centralBody,
+                                                final NormalizedSphericalHarmonicsProvider normalizedGravityField,
+                                                final UnnormalizedSphericalHarmonicsProvider unnormalizedGravityField,
+                                                final Atmosphere atmosphere,
+                                                final Map<String, ShadowIntervals> shadows,
+                                                final GriddedGravity gravityGrid,
+                                                final boolean quiet) {
+
+        final List<Object> key = Arrays.asList(numerical,
+                                               integratorData.getFixedStep(), integratorData.getMinStep(),
+                                               integratorData.getMaxStep(), integratorData.getPositionError(),
+                                               inputData.getForceModels(), centralBody,
+                                               numerical ? normalizedGravityField : unnormalizedGravityField,
+                                               atmosphere, shadows, numerical ? gravityGrid : null);
+        final Map<List<Object>, PooledPropagator> pool = propagatorPool.getPropagators();
+        final long t0 = System.nanoTime();
+        final PooledPropagator pooled = pool.get(key);
+        if (pooled == null) {
+            // Build a new propagator
+            final String        name       = numerical ? "numerical propagator" : "DSST propagator";
+            final ODEIntegrator integrator = initializeIntegrator(integratorData, orbit, name, quiet);
+            final Propagator    propagator = numerical ?
+                                             initializeNumericalPropagator(inputData, integrator, orbit, centralBody, normalizedGravityField, atmosphere, shadows, gravityGrid, quiet) :
+                                             initializeDSSTPropagator(inputData, integrator, orbit, centralBody, unnormalizedGravityField, atmosphere, shadows, quiet);
+            pool.put(key, new PooledPropagator(propagator, integrator, System.nanoTime() - t0));
+            return propagator;
+        }
+
+        // Reset the pooled propagator (the tolerances of a variable step integrator depend on the orbit)
+        final Propagator propagator = pooled.propagator;
+        propagator.clearStepHandlers();
+        propagator.clearEventsDetectors();
+        if (pooled.integrator instanceof AdaptiveStepsizeIntegrator) {
+            final double[][] tolerances = NumericalPropagator.tolerances(integratorData.getPositionError(), orbit, OrbitType.EQUINOCTIAL);
+            ((AdaptiveStepsizeIntegrator) pooled.integrator).setStepSizeControl(integratorData.getMinStep(), integratorData.getMaxStep(),
+                                                                                tolerances[0], tolerances[1]);
+        }
+        if (numerical) {
+            ((NumericalPropagator) propagator).setInitialState(new SpacecraftState(orbit));
+        } else {
+            ((DSSTPropagator) propagator).setInitialState(new SpacecraftState(orbit), PropagationType.OSCULATING);
+        }
+        pooled.resets++;
+        pooled.resetTime += System.nanoTime() - t0;
+        return propagator;
+
+    }
+
+    /**
+     * Print the statistics of a propagator pool, cumulated over its threads.
+     * @param propagatorPool propagator pool
+     */
+    private static void printPropagatorPool(final PropagatorPool propagatorPool) {
+        long builds     = 0L;
+        long buildTime  = 0L;
+        long resets     = 0L;
+        long resetTime  = 0L;
+        for (final Map<List<Object>, PooledPropagator> pool : propagatorPool.propagators.values()) {
+            for (final PooledPropagator pooled : pool.values()) {
+                builds++;
+                buildTime += pooled.buildTime;
+                resets    += pooled.resets;
+                resetTime += pooled.resetTime;
+            }
+        }
+        final double meanBuild = builds == 0 ? Double.NaN : 1.0e-6 * buildTime / builds;
+        final double meanReset = resets == 0 ? Double.NaN : 1.0e-6 * resetTime / resets;
+        System.out.println("      Propagator pool");
+        System.out.println("         Built:          " + builds);
+        System.out.println("         Reused:         " + resets);
+        System.out.println("         Mean build time (ms): " + meanBuild);
+        System.out.println("         Mean reset time (ms): " + meanReset);
+        System.out.println("         Setup time saved per scenario (ms): " + (meanBuild - meanReset));
+    }
+
+    /**
+     * Release the propagators of a propagator pool.
+     * <p>
+     * The pool shall no longer be used by its threads.
+     * </p>
+     * @param propagatorPool propagator pool
+     */
+    private static void releasePropagatorPool(final PropagatorPool propagatorPool) {
+        for (final Map<List<Object>, PooledPropagator> pool : propagatorPool.propagators.values()) {
+            for (final PooledPropagator pooled : pool.values()) {
+                if (pooled.propagator instanceof NumericalPropagator) {
+                    shutdownParallelForceModels((NumericalPropagator) pooled.propagator);
+                }
+            }
+        }
+        propagatorPool.propagators.clear();
+    }
+
+    /**
+     * Pool of configured propagators of a study.
+     * <p>
+     * Propagators are not thread-safe, so each thread has its own propagators.
+     * </p>
+     */
+    private static class PropagatorPool {
+
+        /** Propagators of each thread, keyed by configuration. */
+        private final Map<Thread, Map<List<Object>, PooledPropagator>> propagators = new ConcurrentHashMap<>();
+
+        /**
+         * Get the propagators of the current thread.
+         * @return the propagators of the current thread, keyed by configuration
+         */
+        Map<List<Object>, PooledPropagator> getPropagators() {
+            return propagators.computeIfAbsent(Thread.currentThread(), thread -> new HashMap<>());
+        }
+
+    }
+
+    /**
+     * Configuration banner of the propagators of a concurrent study.
+     * <p>
+     * The configuration of the numerical and DSST propagators is printed by the
+     * first build of each, the next builds being quiet.
+     * </p>
+     */
+    private static class ConfigurationBanner {
+
+        /** Flag for the printed configuration of the numerical propagator. */
+        private boolean numericalPrinted;
+
+        /** Flag for the printed configuration of the DSST propagator. */
+        private boolean dsstPrinted;
+
+        /**
+         * Check if a propagator shall be built quietly.
+         * <p>
+         * The first call for each propagator marks its configuration as printed.
+         * </p>
+         * @param numerical if true, the numerical propagator is built, otherwise the DSST propagator is built
+         * @return false for the first build of the propagator, true for the next ones
+         */
+        synchronized boolean isQuiet(final boolean numerical) {
+            final boolean quiet = numerical ? numericalPrinted : dsstPrinted;
+            if (numerical) {
+                numericalPrinted = true;
+            } else {
+                dsstPrinted = true;
+            }
+            return quiet;
+        }
+
+    }
+
+    /** Propagator of the pool. */
+    private static class PooledPropagator {
+
+        /** Configured propagator. */
+        private final Propagator propagator;
+
+        /** Integrator of the propagator. */
+        private final ODEIntegrator integrator;
+
+        /** Time spent to build the propagator (ns). */
+        private final long buildTime;
+
+        /** Number of times the propagator was reused. */
+        private long resets;
+
+        /** Cumulated time spent to reset the propagator (ns). */
+        private long resetTime;
+
+        /**
+         * Constructor.
+         * @param propagator configured propagator
+         * @param integrator integrator of the propagator
+         * @param buildTime time spent to build the propagator (ns)
+         */
+        PooledPropagator(final Propagator propagator, final ODEIntegrator integrator, final long buildTime) {
+            this.propagator = propagator;
+            this.integrator = integrator;
+            this.buildTime  = buildTime;
+            this.resets     = 0L;
+            this.resetTime  = 0L;
+        }
+
+    }
+
+    /**
+     * Shut down the parallel force models of a numerical propagator.
+     * @param propagator numerical propagator
+     */
+    private static void shutdownParallelForceModels(final NumericalPropagator propagator) {
+        for (final ForceModel force : propagator.getAllForceModels()) {
+            if (force instanceof ParallelForceModel) {
+                ((ParallelForceModel) force).shutdown();
+            }
+        }
+    }
+
+    /**
+     * Get the CPU time consumed by the pools of the parallel force models of a numerical propagator.
+     * @param propagator numerical propagator
+     * @return the CPU time consumed by the pools of the parallel force models (ns)
+     */
+    private static long getParallelForceModelsCpuTime(final NumericalPropagator propagator) {
+        long total = 0L;
+        for (final ForceModel force : propagator.getAllForceModels()) {
+            if (force instanceof ParallelForceModel) {
+                total += ((ParallelForceModel) force).getWorkersCpuTime();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Benchmark the spherical harmonics engines.
+     * <p>
+     * The Orekit Holmes-Featherstone model and the allocation-free model are
+     * evaluated on states sampled over one Keplerian period of the initial
+     * orbit, for several degrees of the gravity field. After a warm-up, the
+     * engines are measured alternately over several iterations, and the mean
+     * and standard deviation of the evaluation time over the iterations are
+     * reported with the mean allocated memory. All the accelerations are
+     * accumulated in a printed sink, so that the evaluations cannot be removed
+     * as dead code. The largest difference between the two models is reported.
+     * </p>
+     * @param initialOrbit initial orbit
+     * @param centralBody central body
+     */
+    private static void benchmarkGravityEngines(final Orbit initialOrbit, final OneAxisEllipsoid centralBody) {
+
+        // States
+        final KeplerianPropagator keplerian = new KeplerianPropagator(initialOrbit);
+        final SpacecraftState[] states = new SpacecraftState[ENGINE_BENCHMARK_STATES];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = keplerian.propagate(initialOrbit.getDate().shiftedBy(i * initialOrbit.getKeplerianPeriod() / states.length));
+        }
+
+        System.out.println("");
+        System.out.println("   Spherical harmonics engines benchmark");
+        for (final int degree : ENGINE_BENCHMARK_DEGREES) {
+
+            // Gravity field
+            final NormalizedSphericalHarmonicsProvider provider;
+            try {
+                provider = GravityFieldFactory.getNormalizedProvider(degree, degree);
+            } catch (OrekitException oe) {
+                System.out.println("      Degree " + degree + ": " + oe.getLocalizedMessage());
+                continue;
+            }
+            final ForceModel[] engines = {
+                new HolmesFeatherstoneAttractionModel(centralBody.getBodyFrame(), provider),
+                new FlatHolmesFeatherstoneAttractionModel(centralBody.getBodyFrame(), provider)
+            };
+            final double[] parameters = {provider.getMu()};
+
+            // Largest difference between the engines
+            double maxDelta = 0.0;
+            for (final SpacecraftState state : states) {
+                maxDelta = FastMath.max(maxDelta, Vector3D.distance(engines[0].acceleration(state, parameters),
+                                                                    engines[1].acceleration(state, parameters)));
+            }
+
+            // Warm-up
+            double sink = 0.0;
+            for (final ForceModel engine : engines) {
+                for (int pass = 0; pass < ENGINE_BENCHMARK_WARMUP; pass++) {
+                    for (final SpacecraftState state : states) {
+                        sink += engine.acceleration(state, parameters).getX();
+                    }
+                }
+            }
+
+            // Measured iterations, alternating the engines
+            final StreamingStatistics[] times = new StreamingStatistics[engines.length];
+            final long[] allocated = new long[engines.length];
+            for (int k = 0; k < engines.length; k++) {
+                times[k] = new StreamingStatistics();
+            }
+            final double evaluations = ENGINE_BENCHMARK_PASSES * states.length;
+            for (int iteration = 0; iteration < ENGINE_BENCHMARK_ITERATIONS; iteration++) {
+                for (int k = 0; k < engines.length; k++) {
+                    final long b0 = getAllocatedBytes();
+                    final long t0 = System.nanoTime();
+                    for (int pass = 0; pass < ENGINE_BENCHMARK_PASSES; pass++) {
+                        for (final SpacecraftState state : states) {
+                            final Vector3D acceleration = engines[k].acceleration(state, parameters);
+                            sink += acceleration.getX() + acceleration.getY() + acceleration.getZ();
+                        }
+                    }
+                    final long t1 = System.nanoTime();
+                    final long b1 = getAllocatedBytes();
+                    times[k].addValue((t1 - t0) / evaluations);
+                    allocated[k] = b0 < 0 || allocated[k] < 0 ? -1L : allocated[k] + (b1 - b0);
+                }
+            }
+
+            System.out.println("      Degree " + degree);
+            for (int k = 0; k < engines.length; k++) {
+                System.out.println("         " + engines[k].getClass().getSimpleName());
+                System.out.println("            Time (ns/eval):  " + times[k].getMean() + " ± " + times[k].getStandardDeviation() +
+                                   " (" + ENGINE_BENCHMARK_ITERATIONS + " iterations)");
+                System.out.println("            Alloc (B/eval):  " + (allocated[k] < 0 ? Double.NaN : allocated[k] / (ENGINE_BENCHMARK_ITERATIONS * evaluations)));
+            }
+            System.out.println("         Max delta (m/s²): " + maxDelta);
+            System.out.println("         Sink:           " + sink);
+
+        }
+
+    }
+
+    /**
+     * Run the scaling study.
+     * <p>
+     * Each axis (propagation duration, gravity field degree and semi-major axis)
+     * is swept independently around the configured scenario, with the configured
+     * force models. The runs are executed concurrently, and the cost of each
+     * propagation is its CPU time, which is less sensitive than the wall clock
+     * time to the concurrent runs. A power law cost = c × x<sup>p</sup> is then
+     * fitted along each axis for each propagator.
+     * </p>
+     * <p>
+     * The gravity fields and atmospheres are shared by the runs with the same
+     * degree and order, and the same duration. If the propagators are pooled,
+     * each thread reuses its propagators for the runs sharing these models. The
+     * shadow intervals are then not used, as they are specific to the orbit and
+     * duration of each run: the eclipses are computed exactly.
+     * </p>
+     * @param inputData input data
+     * @param initialOrbit initial orbit
+     * @param centralBody central body
+     * @throws IOException if the output file cannot be written
+     */
+    private static void runScalingStudy(final OrbitComparatorInputs inputData,
+                                        final Orbit initialOrbit,
+                                        final OneAxisEllipsoid centralBody) throws IOException {
+
+        final ScalingStudyConfiguration study = inputData.getScalingStudy();
+        final List<Double>  durations     = study.getDurations()     != null ? study.getDurations()     : DEFAULT_SCALING_DURATIONS;
+        final List<Integer> degrees       = study.getDegrees()       != null ? study.getDegrees()       : DEFAULT_SCALING_DEGREES;
+        final List<Double>  semiMajorAxes = study.getSemiMajorAxes() != null ? study.getSemiMajorAxes() : DEFAULT_SCALING_SEMI_MAJOR_AXES;
+        final int           threads       = study.getThreads() != 0 ? study.getThreads() : Runtime.getRuntime().availableProcessors();
+        final File          output        = new File(study.getOutputFile() != null ? study.getOutputFile() : DEFAULT_SCALING_OUTPUT);
+
+        // Reference scenario
+        final double duration      = inputData.getPropagationDuration();
+        final int    degree        = inputData.getForceModels().getGravity().getDegree();
+        final int    order         = FastMath.min(degree, inputData.getForceModels().getGravity().getOrder());
+        final double semiMajorAxis = initialOrbit.getA();
+        if (degree == 0 && !degrees.isEmpty()) {
+            throw new IllegalArgumentException("Scaling study on gravity field degree requires the gravity field");
+        }
+        if (study.getOrders() != null && study.getOrders().size() != degrees.size()) {
+            throw new IllegalArgumentException("Scaling study requires one gravity field order for each degree");
+        }
+
+        // Runs
+        final List<ScalingRun> runs = new ArrayList<>();
+        for (final double value : durations) {
+            runs.add(new ScalingRun(DURATION_AXIS, value, value, degree, order, semiMajorAxis));
+        }
+        for (int i = 0; i < degrees.size(); i++) {
+            final int value = degrees.get(i);
+            runs.add(new ScalingRun(DEGREE_AXIS, value, duration, value,
+                                    study.getOrders() != null ? FastMath.min(value, study.getOrders().get(i)) : value, semiMajorAxis));
+        }
+        for (final double value : semiMajorAxes) {
+            runs.add(new ScalingRun(SEMI_MAJOR_AXIS_AXIS, value, duration, degree, order, value));
+        }
+
+        // Models shared by the runs
+        final Map<List<Integer>, NormalizedSphericalHarmonicsProvider>   normalized   = new HashMap<>();
+        final Map<List<Integer>, UnnormalizedSphericalHarmonicsProvider> unnormalized = new HashMap<>();
+        final Map<Double, Atmosphere>                                    atmospheres  = new HashMap<>();
+        for (final ScalingRun run : runs) {
+            final List<Integer> field = Arrays.asList(run.degree, run.order);
+            if (!normalized.containsKey(field)) {
+                normalized.put(field, GravityFieldFactory.getNormalizedProvider(run.degree, run.order));
+                unnormalized.put(field, GravityFieldFactory.getUnnormalizedProvider(run.degree, run.order));
+            }
+            if (!atmospheres.containsKey(run.duration)) {
+                atmospheres.put(run.duration, initializeAtmosphere(inputData, centralBody, initialOrbit.getDate(), run.duration * Constants.JULIAN_DAY));
+            }
+        }
+        final PropagatorPool      propagatorPool = inputData.isPoolPropagators() ? new PropagatorPool() : null;
+        final ConfigurationBanner banner         = new ConfigurationBanner();
+
+        // Concurrent execution
+        final double t0 = System.currentTimeMillis();
+        final ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (final ScalingRun run : runs) {
+                final List<Integer> field = Arrays.asList(run.degree, run.order);
+                futures.add(pool.submit(() -> {
+                    executeScalingRun(inputData, initialOrbit, centralBody, normalized.get(field), unnormalized.get(field),
+                                      atmospheres.get(run.duration), propagatorPool, banner, run);
+                    return null;
+                }));
+            }
+            awaitAll(futures);
+        } finally {
+            pool.shutdown();
+        }
+        final double t1 = System.currentTimeMillis();
+        if (propagatorPool != null) {
+            releasePropagatorPool(propagatorPool);
+        }
+
+        // Curves
+        try (PrintWriter writer = new PrintWriter(output, "UTF-8")) {
+            writer.println("axis,value,durationDays,degree,order,semiMajorAxisM,numericalCpuS,numericalWallS,dsstCpuS,dsstWallS");
+            for (final ScalingRun run : runs) {
+                writer.println(run.axis + "," + run.value + "," + run.duration + "," + run.degree + "," + run.order + "," + run.semiMajorAxis + "," +
+                               run.numericalCpu + "," + run.numericalWall + "," + run.dsstCpu + "," + run.dsstWall);
+            }
+        }
+
+        // Fits
+        final File fitsOutput = new File(output.getParentFile(), output.getName().replaceFirst("(\\.csv)?$", "-fits.csv"));
+        System.out.println("");
+        System.out.println("   Scaling study (cost = c * x^p)");
+        System.out.println("      Runs:              " + runs.size());
+        System.out.println("      Threads:           " + threads);
+        System.out.println("      " + WALL_CLOCK_RUN_TIME + (0.001 * (t1 - t0)));
+        try (PrintWriter writer = new PrintWriter(fitsOutput, "UTF-8")) {
+            writer.println("axis,propagator,coefficient,exponent,rSquare");
+            for (final String axis : new String[] {DURATION_AXIS, DEGREE_AXIS, SEMI_MAJOR_AXIS_AXIS}) {
+                for (final boolean numerical : new boolean[] {true, false}) {
+                    final SimpleRegression regression = new SimpleRegression();
+                    for (final ScalingRun run : runs) {
+                        final double cost = numerical ? run.numericalCpu : run.dsstCpu;
+                        if (run.axis.equals(axis) && run.value > 0.0 && cost > 0.0) {
+                            regression.addData(FastMath.log(run.value), FastMath.log(cost));
+                        }
+                    }
+                    final String propagator  = numerical ? "numerical" : "DSST";
+                    final double coefficient = FastMath.exp(regression.getIntercept());
+                    final double exponent    = regression.getSlope();
+                    writer.println(axis + "," + propagator + "," + coefficient + "," + exponent + "," + regression.getRSquare());
+                    System.out.println("      " + axis + " " + propagator + ": c = " + coefficient + ", p = " + exponent +
+                                       " (R² = " + regression.getRSquare() + ")");
+                }
+            }
+        }
+        System.out.println("      Curves:            " + output.getAbsolutePath());
+        System.out.println("      Fits:              " + fitsOutput.getAbsolutePath());
+        if (propagatorPool != null) {
+            printPropagatorPool(propagatorPool);
+        }
+
+    }
+
+    /**
+     * Wait for the completion of concurrent tasks.
+     * @param futures results of the tasks
+     * @throws IOException if a task failed to read or write a file
+     */
+    private static void awaitAll(final List<? extends Future<?>> futures) throws IOException {
+        try {
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new OrekitException(ie, LocalizedCoreFormats.SIMPLE_MESSAGE, ie.getMessage());
+        } catch (ExecutionException ee) {
+            if (ee.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ee.getCause();
+            }
+            if (ee.getCause() instanceof IOException) {
+                throw (IOException) ee.getCause();
+            }
+            throw new OrekitException(ee.getCause(), LocalizedCoreFormats.SIMPLE_MESSAGE, ee.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Execute one run of the scaling study.
+     * @param inputData input data
+     * @param initialOrbit initial orbit of the configured scenario
+     * @param centralBody central body
+     * @param normalizedGravityField gravity field of the numerical propagator, with the degree and order of the run
+     * @param unnormalizedGravityField gravity field of the DSST propagator, with the degree and order of the run
+     * @param atmosphere atmosphere model over the duration of the run (null if drag is not used)
+     * @param propagatorPool propagator pool (null if the propagators are not pooled)
+     * @param banner configuration banner of the study
+     * @param run run to execute, updated with the measured costs
+     */
+    private static void executeScalingRun(final OrbitComparatorInputs inputData,
+                                          final Orbit initialOrbit,
+                                          final OneAxisEllipsoid centralBody,
+                                          final NormalizedSphericalHarmonicsProvider normalizedGravityField,
+                                          final UnnormalizedSphericalHarmonicsProvider unnormalizedGravityField,
+                                          final Atmosphere atmosphere,
+                                          final PropagatorPool propagatorPool,
+                                          final ConfigurationBanner banner,
+                                          final ScalingRun run) {
+
+        // Initial orbit with the semi-major axis of the run
+        final KeplerianOrbit keplerian = (KeplerianOrbit) OrbitType.KEPLERIAN.convertType(initialOrbit);
+        if (run.semiMajorAxis * (1.0 - keplerian.getE()) <= centralBody.getEquatorialRadius()) {
+            throw new IllegalArgumentException("Scaling study perigee is below the surface for semi-major axis " + run.semiMajorAxis);
+        }
+        final Orbit orbit = new KeplerianOrbit(run.semiMajorAxis, keplerian.getE(), keplerian.getI(),
+                                               keplerian.getPerigeeArgument(), keplerian.getRightAscensionOfAscendingNode(),
+                                               keplerian.getMeanAnomaly(), PositionAngle.MEAN,
+                                               keplerian.getFrame(), keplerian.getDate(), keplerian.getMu());
+        final double duration = run.duration * Constants.JULIAN_DAY;
+
+        // Propagators of the run (built one run at a time, as they share data loaders)
+        final NumericalPropagator numerical;
+        final DSSTPropagator      dsst;
+        synchronized (ScalingRun.class) {
+            final boolean quietNumerical = banner.isQuiet(true);
+            final boolean quietDsst      = banner.isQuiet(false);
+            if (propagatorPool != null) {
+                numerical = (NumericalPropagator) acquirePropagator(propagatorPool, inputData, inputData.getNumericalIntegrator(), true, orbit,
+                                                                    centralBody, normalizedGravityField, unnormalizedGravityField,
+                                                                    atmosphere, null, null, quietNumerical);
+                dsst      = (DSSTPropagator) acquirePropagator(propagatorPool, inputData, inputData.getDsstIntegrator(), false, orbit,
+                                                               centralBody, normalizedGravityField, unnormalizedGravityField,
+                                                               atmosphere, null, null, quietDsst);
+            } else {
+                final Map<String, ShadowIntervals> shadows = initializeShadowIntervals(inputData, orbit, centralBody, unnormalizedGravityField, atmosphere, duration);
+                numerical = initializeNumericalPropagator(inputData, initializeIntegrator(inputData.getNumericalIntegrator(), orbit, "numerical propagator", quietNumerical),
+                                                          orbit, centralBody, normalizedGravityField, atmosphere, shadows, null, quietNumerical);
+                dsst      = initializeDSSTPropagator(inputData, initializeIntegrator(inputData.getDsstIntegrator(), orbit, "DSST propagator", quietDsst),
+                                                     orbit, centralBody, unnormalizedGravityField, atmosphere, shadows, quietDsst);
+            }
+        }
+
+        // Propagations (the CPU time of the numerical propagator includes the parallel force models pools)
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        final long   c0;
+        final long   c1;
+        final long   c2;
+        final long   p0;
+        final long   p1;
+        final double w0;
+        final double w1;
+        final double w2;
+        try {
+            p0 = getParallelForceModelsCpuTime(numerical);
+            c0 = bean.getCurrentThreadCpuTime();
+            w0 = System.currentTimeMillis();
+            numerical.propagate(orbit.getDate().shiftedBy(duration));
+            c1 = bean.getCurrentThreadCpuTime();
+            w1 = System.currentTimeMillis();
+            p1 = getParallelForceModelsCpuTime(numerical);
+            dsst.propagate(orbit.getDate().shiftedBy(duration));
+            c2 = bean.getCurrentThreadCpuTime();
+            w2 = System.currentTimeMillis();
+        } finally {
+            if (propagatorPool == null) {
+                shutdownParallelForceModels(numerical);
+            }
+        }
+
+        run.numericalCpu  = 1.0e-9 * (c1 - c0 + p1 - p0);
+        run.numericalWall = 0.001 * (w1 - w0);
+        run.dsstCpu       = 1.0e-9 * (c2 - c1);
+        run.dsstWall      = 0.001 * (w2 - w1);
+
+    }
+
+    /**
+     * Run the orbit lifetime study.
+     * <p>
+     * For each solar flux scenario, the numerical and DSST propagators are run until
+     * the altitude above the central body falls below the reentry altitude, or until
+     * the maximum duration (limited to the end of the space weather data) is reached.
+     * The scenarios are propagated concurrently. The precomputed gravity and density
+     * grids are not used, as they do not cover the lifetime duration.
+     * </p>
+     * <p>
+     * Each thread has one atmosphere model, whose solar flux scale is set for each
+     * scenario. If the propagators are pooled, each thread therefore reuses its
+     * numerical and DSST propagators from one scenario to the next.
+     * </p>
+     * @param inputData input data
+     * @param initialOrbit initial orbit
+     * @param centralBody central body
+     * @param normalizedGravityField gravity field of the numerical propagator
+     * @param unnormalizedGravityField gravity field of the DSST propagator
+     * @throws IOException if the space weather cache cannot be read or written
+     */
+    private static void runLifetimeStudy(final OrbitComparatorInputs inputData,
+                                         final Orbit initialOrbit,
+                                         final OneAxisEllipsoid centralBody,
+                                         final NormalizedSphericalHarmonicsProvider normalizedGravityField,
+                                         final UnnormalizedSphericalHarmonicsProvider unnormalizedGravityField) throws IOException {
+
+        final LifetimeConfiguration lifetime = inputData.getLifetime();
+        final DragConfiguration     drag     = inputData.getForceModels().getDrag();
+        if (drag == null) {
+            throw new IllegalArgumentException("Orbit lifetime study requires the drag force model");
+        }
+        final double       altitude    = lifetime.getAltitude() != NULL_DOUBLE ? lifetime.getAltitude() : DEFAULT_LIFETIME_ALTITUDE;
+        final double       maxDuration = (lifetime.getMaxDuration() != NULL_DOUBLE ? lifetime.getMaxDuration() : DEFAULT_LIFETIME_MAX_DURATION) *
+                                         Constants.JULIAN_DAY;
+        final List<Double> fluxScales  = lifetime.getFluxScales() != null ? lifetime.getFluxScales() : DEFAULT_LIFETIME_FLUX_SCALES;
+        final int          threads     = lifetime.getThreads() != 0 ? lifetime.getThreads() : FastMath.min(fluxScales.size(), Runtime.getRuntime().availableProcessors());
+
+        // End of the propagations, limited to the end of the space weather data
+        final File swCache = drag.getSpaceWeatherCacheDirectory() != null ? new File(drag.getSpaceWeatherCacheDirectory()) : null;
+        final CachedSpaceWeatherData cswd = CachedSpaceWeatherData.getInstance(CssiSpaceWeatherData.DEFAULT_SUPPORTED_NAMES, swCache);
+        final AbsoluteDate start = initialOrbit.getDate();
+        final AbsoluteDate end   = start.shiftedBy(FastMath.min(maxDuration, cswd.getMaxDate().durationFrom(start)));
+
+        // Models of each thread
+        final ThreadLocal<ScaledSolarActivity> activities  = ThreadLocal.withInitial(() -> new ScaledSolarActivity(cswd, 1.0));
+        final ThreadLocal<Atmosphere>          atmospheres = ThreadLocal.withInitial(() -> new NRLMSISE00(activities.get(), CelestialBodyFactory.getSun(), centralBody));
+        final PropagatorPool      propagatorPool = inputData.isPoolPropagators() ? new PropagatorPool() : null;
+        final ConfigurationBanner banner         = new ConfigurationBanner();
+
+        // Concurrent execution
+        final List<LifetimeRun> runs = new ArrayList<>();
+        for (final double scale : fluxScales) {
+            runs.add(new LifetimeRun(scale));
+        }
+        final double t0 = System.currentTimeMillis();
+        final ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (final LifetimeRun run : runs) {
+                futures.add(pool.submit(() -> {
+                    executeLifetimeRun(inputData, initialOrbit, centralBody, normalizedGravityField, unnormalizedGravityField,
+                                       activities, atmospheres, propagatorPool, banner, altitude, end, run);
+                    return null;
+                }));
+            }
+            awaitAll(futures);
+        } finally {
+            pool.shutdown();
+        }
+        final double t1 = System.currentTimeMillis();
+        if (propagatorPool != null) {
+            releasePropagatorPool(propagatorPool);
+        }
+
+        System.out.println("");
+        System.out.println("   Orbit lifetime study");
+        System.out.println("      Reentry altitude:  " + altitude);
+        System.out.println("      Propagation end:   " + end);
+        System.out.println("      Scenarios:         " + runs.size());
+        System.out.println("      Threads:           " + threads);
+        System.out.println("      " + WALL_CLOCK_RUN_TIME + (0.001 * (t1 - t0)));
+        for (final LifetimeRun run : runs) {
+            System.out.println("      Solar flux scale " + run.scale);
+            System.out.println("         Numerical reentry: " + describeReentry(start, run.numericalReentry, run.numericalError));
+            System.out.println("         Numerical " + WALL_CLOCK_RUN_TIME + run.numericalTime);
+            System.out.println("         DSST reentry:      " + describeReentry(start, run.dsstReentry, run.dsstError));
+            System.out.println("         DSST " + WALL_CLOCK_RUN_TIME + run.dsstTime);
+            if (run.numericalReentry != null && run.dsstReentry != null) {
+                System.out.println("         DSST - numerical (days): " + (run.dsstReentry.durationFrom(run.numericalReentry) / Constants.JULIAN_DAY));
+            }
+        }
+        if (propagatorPool != null) {
+            printPropagatorPool(propagatorPool);
+        }
+
+    }
+
+    /**
+     * Execute one scenario of the orbit lifetime study.
+     * @param inputData input data
+     * @param initialOrbit initial orbit
+     * @param centralBody central body
+     * @param normalizedGravityField gravity field of the numerical propagator
+     * @param unnormalizedGravityField gravity field of the DSST propagator
+     * @param activities solar activity of the atmosphere model of each thread
+     * @param atmospheres atmosphere model of each thread
+     * @param propagatorPool propagator pool (null if the propagators are not pooled)
+     * @param banner configuration banner of the study
+     * @param altitude reentry altitude (m)
+     * @param end end of the propagations
+     * @param run scenario to execute, updated with the results
+     */
+    private static void executeLifetimeRun(final OrbitComparatorInputs inputData,
+                                           final Orbit initialOrbit,
+                                           final OneAxisEllipsoid centralBody,
+                                           final NormalizedSphericalHarmonicsProvider normalizedGravityField,
+                                           final UnnormalizedSphericalHarmonicsProvider unnormalizedGravityField,
+                                           final ThreadLocal<ScaledSolarActivity> activities,
+                                           final ThreadLocal<Atmosphere> atmospheres,
+                                           final PropagatorPool propagatorPool,
+                                           final ConfigurationBanner banner,
+                                           final double altitude,
+                                           final AbsoluteDate end,
+                                           final LifetimeRun run) {
+
+        // Propagators of the scenario (built one scenario at a time, as they share data loaders)
+        // The shadow intervals are predicted without drag, so the eclipses are computed exactly
+        // over the decaying orbit
+        final NumericalPropagator numerical;
+        final DSSTPropagator      dsst;
+        synchronized (LifetimeRun.class) {
+            final boolean quietNumerical = banner.isQuiet(true);
+            final boolean quietDsst      = banner.isQuiet(false);
+            activities.get().setScale(run.scale);
+            final Atmosphere atmosphere = atmospheres.get();
+            if (propagatorPool != null) {
+                numerical = (NumericalPropagator) acquirePropagator(propagatorPool, inputData, inputData.getNumericalIntegrator(), true, initialOrbit,
+                                                                    centralBody, normalizedGravityField, unnormalizedGravityField,
+                                                                    atmosphere, null, null, quietNumerical);
+                dsst      = (DSSTPropagator) acquirePropagator(propagatorPool, inputData, inputData.getDsstIntegrator(), false, initialOrbit,
+                                                               centralBody, normalizedGravityField, unnormalizedGravityField,
+                                                               atmosphere, null, null, quietDsst);
+            } else {
+                numerical = initializeNumericalPropagator(inputData, initializeIntegrator(inputData.getNumericalIntegrator(), initialOrbit, "numerical propagator", quietNumerical),
+                                                          initialOrbit, centralBody, normalizedGravityField, atmosphere, null, null, quietNumerical);
+                dsst      = initializeDSSTPropagator(inputData, initializeIntegrator(inputData.getDsstIntegrator(), initialOrbit, "DSST propagator", quietDsst),
+                                                     initialOrbit, centralBody, unnormalizedGravityField, atmosphere, null, quietDsst);
+            }
+        }
+        final double maxCheck = LIFETIME_CHECK_FRACTION * initialOrbit.getKeplerianPeriod();
+        numerical.addEventDetector(new AltitudeDetector(maxCheck, LIFETIME_EVENT_THRESHOLD, altitude, centralBody));
+        dsst.addEventDetector(new AltitudeDetector(maxCheck, LIFETIME_EVENT_THRESHOLD, altitude, centralBody));
+
+        // Propagations (stopped at reentry)
+        try {
+            final double t0 = System.currentTimeMillis();
+            try {
+                final SpacecraftState state = numerical.propagate(end);
+                run.numericalReentry = state.getDate().compareTo(end) < 0 ? state.getDate() : null;
+            } catch (OrekitException | MathRuntimeException e) {
+                run.numericalError = e.getMessage();
+            }
+            final double t1 = System.currentTimeMillis();
+            try {
+                final SpacecraftState state = dsst.propagate(end);
+                run.dsstReentry = state.getDate().compareTo(end) < 0 ? state.getDate() : null;
+            } catch (OrekitException | MathRuntimeException e) {
+                run.dsstError = e.getMessage();
+            }
+            final double t2 = System.currentTimeMillis();
+            run.numericalTime = 0.001 * (t1 - t0);
+            run.dsstTime      = 0.001 * (t2 - t1);
+        } finally {
+            if (propagatorPool == null) {
+                shutdownParallelForceModels(numerical);
+            }
+        }
+
+    }
+
+    /**
+     * Describe a predicted reentry.
+     * @param start initial date
+     * @param reentry reentry date (null if the reentry altitude is not reached)
+     * @param error error message of the propagation (null if the propagation succeeded)
+     * @return the description of the reentry
+     */
+    private static String describeReentry(final AbsoluteDate start, final AbsoluteDate reentry, final String error) {
+        if (error != null) {
+            return "propagation failed (" + error + ")";
+        }
+        if (reentry == null) {
+            return "not reached";
+        }
+        return reentry + " (lifetime " + (reentry.durationFrom(start) / Constants.JULIAN_DAY) + " days)";
+    }
+
+    /** Scenario of the orbit lifetime study. */
+    private static class LifetimeRun {
+
+        /** Solar flux scale factor. */
+        private final double scale;
+
+        /** Reentry date predicted by the numerical propagator (null if not reached). */
+        private AbsoluteDate numericalReentry;
+
+        /** Error message of the numerical propagation (null if the propagation succeeded). */
+        private String numericalError;
+
+        /** Wall clock time of the numerical propagation (s). */
+        private double numericalTime;
+
+        /** Reentry date predicted by the DSST propagator (null if not reached). */
+        private AbsoluteDate dsstReentry;
+
+        /** Error message of the DSST propagation (null if the propagation succeeded). */
+        private String dsstError;
+
+        /** Wall clock time of the DSST propagation (s). */
+        private double dsstTime;
+
+        /**
+         * Constructor.
+         * @param scale solar flux scale factor
+         */
+        LifetimeRun(final double scale) {
+            this.scale = scale;
+        }
+
+    }
+
+    /** Run of the scaling study. */
+    private static class ScalingRun {
+
+        /** Swept axis. */
+        private final String axis;
+
+        /** Value of the swept parameter. */
+        private final double value;
+
+        /** Propagation duration (days). */
+        private final double duration;
+
+        /** Gravity field degree. */
+        private final int degree;
+
+        /** Gravity field order. */
+        private final int order;
+
+        /** Semi-major axis (m). */
+        private final double semiMajorAxis;
+
+        /** CPU time of the numerical propagation (s). */
+        private double numericalCpu;
+
+        /** Wall clock time of the numerical propagation (s). */
+        private double numericalWall;
+
+        /** CPU time of the DSST propagation (s). */
+        private double dsstCpu;
 
-            // Orbit must be defined
-            throw new IllegalArgumentException("Orbit must be defined!");
+        /** Wall clock time of the DSST propagation (s). */
+        private double dsstWall;
 
+        /**
+         * Constructor.
+         * @param axis swept axis
+         * @param value value of the swept parameter
+         * @param duration propagation duration (days)
+         * @param degree gravity field degree
+         * @param order gravity field order
+         * @param semiMajorAxis semi-major axis (m)
+         */
+        ScalingRun(final String axis, final double value, final double duration, final int degree, final int order,
+                   final double semiMajorAxis) {
+            this.axis          = axis;
+            this.value         = value;
+            this.duration      = duration;
+            this.degree        = degree;
+            this.order         = order;
+            this.semiMajorAxis = semiMajorAxis;
         }
 
     }
 
     /**
-     * Initialize integrator data.
+     * Compute the DSST vs. numerical crossover map.
      * <p>
-     * Can be null for analytical orbit determination.
+     * The semi-major axis, eccentricity and inclination of the initial orbit are
+     * swept over a grid. In each cell, a tight numerical propagation is the
+     * reference, and each propagator is run with integrator position errors going
+     * from the loosest to the tightest. For each duration and target accuracy,
+     * the cost of a propagator is the CPU time of the first (i.e. cheapest) run
+     * meeting the target. The cells are computed in parallel on a fork-join pool.
+     * </p>
+     * <p>
+     * If the propagators are pooled, each thread reuses its propagators from one
+     * cell to the next (one propagator per integrator position error). The shadow
+     * intervals are then not used, as they are specific to the orbit of each cell:
+     * the eclipses are computed exactly.
      * </p>
      * @param inputData input data
-     * @param orbit initial orbit
-     * @param propagatorName name of the orbit propagator
-     * @return a configured integrator
+     * @param initialOrbit initial orbit
+     * @param centralBody central body
+     * @param normalizedGravityField gravity field of the numerical propagator
+     * @param unnormalizedGravityField gravity field of the DSST propagator
+     * @throws IOException if the output file cannot be written
      */
-    private static ODEIntegrator initializeIntegrator(final IntegratorConfiguration integratorData, final Orbit initialOrbit,
-                                                      final String propagatorName) {
-
-        if (integratorData != null) {
-
-            System.out.println("");
-            System.out.println("   Integrator data for: " + propagatorName);
+    private static void computeCrossoverMap(final OrbitComparatorInputs inputData,
+                                            final Orbit initialOrbit,
+                                            final OneAxisEllipsoid centralBody,
+                                            final NormalizedSphericalHarmonicsProvider normalizedGravityField,
+                                            final UnnormalizedSphericalHarmonicsProvider unnormalizedGravityField) throws IOException {
 
-            // Fixed step
-            if (integratorData.getFixedStep() != NULL_DOUBLE) {
-
-                // RK4 integrator
-                System.out.println("      RK 4th order   ");
-                System.out.println("      Fixed step:        " + integratorData.getFixedStep());
-                return new ClassicalRungeKuttaIntegrator(integratorData.getFixedStep());
-
-            } else {
-
-                // Variable step integrator
-                System.out.println("      Dormand-Prince 8(5,3)");
-                System.out.println("      Min step:          " + integratorData.getMinStep());
-                System.out.println("      Max step:          " + integratorData.getMaxStep());
-                System.out.println("      Position error:    " + integratorData.getPositionError());
-                final double[][] tolerances =
-                                NumericalPropagator.tolerances(integratorData.getPositionError(), initialOrbit, OrbitType.EQUINOCTIAL);
-                return new DormandPrince853Integrator(integratorData.getMinStep(),
-                                                      integratorData.getMaxStep(),
-                                                      tolerances[0], tolerances[1]);
+        final CrossoverMapConfiguration map = inputData.getCrossoverMap();
+        final List<Double> zero = Collections.singletonList(0.0);
+        final List<Double> aOffsets = map.getSemiMajorAxisOffsets() != null ? map.getSemiMajorAxisOffsets() : zero;
+        final List<Double> eOffsets = map.getEccentricityOffsets()  != null ? map.getEccentricityOffsets()  : zero;
+        final List<Double> iOffsets = map.getInclinationOffsets()   != null ? map.getInclinationOffsets()   : zero;
+        final List<Double> durations = new ArrayList<>(map.getDurations() != null ?
+                                                        map.getDurations() : Collections.singletonList(inputData.getPropagationDuration()));
+        Collections.sort(durations);
+        final List<Double> targets = map.getTargetAccuracies() != null ? map.getTargetAccuracies() : DEFAULT_CROSSOVER_TARGETS;
+        final List<Double> positionErrors = new ArrayList<>(map.getPositionErrors() != null ?
+                                                            map.getPositionErrors() : DEFAULT_CROSSOVER_POSITION_ERRORS);
+        positionErrors.sort(Collections.reverseOrder());
+        final double referencePositionError = map.getReferencePositionError() != NULL_DOUBLE ?
+                                              map.getReferencePositionError() : DEFAULT_CROSSOVER_REFERENCE_POSITION_ERROR;
+        final int    parallelism = map.getParallelism() != 0 ? map.getParallelism() : Runtime.getRuntime().availableProcessors();
+        final File   output      = new File(map.getOutputFile() != null ? map.getOutputFile() : DEFAULT_CROSSOVER_OUTPUT);
+        if (inputData.getNumericalIntegrator().getFixedStep() != NULL_DOUBLE || inputData.getDsstIntegrator().getFixedStep() != NULL_DOUBLE) {
+            throw new IllegalArgumentException("Crossover map requires variable step integrators");
+        }
 
+        // Grid cells
+        final KeplerianOrbit nominal = (KeplerianOrbit) OrbitType.KEPLERIAN.convertType(initialOrbit);
+        final List<CrossoverCell> cells = new ArrayList<>();
+        for (final double da : aOffsets) {
+            for (final double de : eOffsets) {
+                for (final double di : iOffsets) {
+                    cells.add(new CrossoverCell(nominal.getA() + da, nominal.getE() + de, nominal.getI() + FastMath.toRadians(di),
+                                                durations.size(), targets.size()));
+                }
             }
+        }
 
-        } else {
+        // Models shared by the cells (same initial date and longest duration)
+        final Atmosphere          atmosphere     = initializeAtmosphere(inputData, centralBody, nominal.getDate(),
+                                                                        durations.get(durations.size() - 1) * Constants.JULIAN_DAY);
+        final PropagatorPool      propagatorPool = inputData.isPoolPropagators() ? new PropagatorPool() : null;
+        final ConfigurationBanner banner         = new ConfigurationBanner();
 
-            // Integrator shall be defined
-            throw new IllegalArgumentException("Integrator shall be defined for: " + propagatorName);
+        // Parallel computation of the cells
+        final double t0 = System.currentTimeMillis();
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            final List<Future<?>> tasks = new ArrayList<>();
+            for (final CrossoverCell cell : cells) {
+                tasks.add(pool.submit(() -> {
+                    computeCrossoverCell(inputData, nominal, centralBody, normalizedGravityField, unnormalizedGravityField,
+                                         atmosphere, propagatorPool, banner, durations, targets, positionErrors, referencePositionError, cell);
+                    return null;
+                }));
+            }
+            awaitAll(tasks);
+        } finally {
+            pool.shutdown();
+        }
+        final double t1 = System.currentTimeMillis();
+        if (propagatorPool != null) {
+            releasePropagatorPool(propagatorPool);
+        }
 
+        // Map
+        System.out.println("");
+        System.out.println("   DSST vs. numerical crossover map (cheaper propagator per target accuracy)");
+        try (PrintWriter writer = new PrintWriter(output, "UTF-8")) {
+            writer.println("semiMajorAxisM,eccentricity,inclinationDeg,durationDays,targetM," +
+                           "numericalCpuS,numericalPositionErrorM,dsstCpuS,dsstPositionErrorM,cheaper");
+            for (final CrossoverCell cell : cells) {
+                System.out.println("      a = " + (0.001 * cell.a) + " km, e = " + cell.e + ", i = " + FastMath.toDegrees(cell.i) + "°" +
+                                   (cell.valid ? "" : ": invalid orbit"));
+                if (!cell.valid) {
+                    continue;
+                }
+                for (int k = 0; k < durations.size(); k++) {
+                    final StringBuilder line = new StringBuilder("         " + durations.get(k) + " days:");
+                    for (int t = 0; t < targets.size(); t++) {
+                        final String cheaper = getCheaperPropagator(cell.numericalCost[k][t], cell.dsstCost[k][t]);
+                        line.append(' ').append(targets.get(t)).append(" m ").append(cheaper).append(';');
+                        writer.println(cell.a + "," + cell.e + "," + FastMath.toDegrees(cell.i) + "," + durations.get(k) + "," + targets.get(t) + "," +
+                                       cell.numericalCost[k][t] + "," + cell.numericalPositionError[k][t] + "," +
+                                       cell.dsstCost[k][t] + "," + cell.dsstPositionError[k][t] + "," + cheaper);
+                    }
+                    System.out.println(line);
+                }
+            }
+        }
+        System.out.println("      Cells:             " + cells.size());
+        System.out.println("      Parallelism:       " + parallelism);
+        System.out.println("      " + WALL_CLOCK_RUN_TIME + (0.001 * (t1 - t0)));
+        System.out.println("      Map:               " + output.getAbsolutePath());
+        if (propagatorPool != null) {
+            printPropagatorPool(propagatorPool);
         }
 
     }
 
     /**
-     * Initialize the propagator builder.
+     * Compute one cell of the crossover map.
      * @param inputData input data
-     * @param integrator integrator builder
-     * @param orbit initial guess
+     * @param nominal nominal initial orbit
      * @param centralBody central body
-     * @param gravityField gravity field
-     * @return a configured propagator builder
+     * @param normalizedGravityField gravity field of the numerical propagator
+     * @param unnormalizedGravityField gravity field of the DSST propagator
+     * @param atmosphere atmosphere model (null if drag is not used)
+     * @param propagatorPool propagator pool (null if the propagators are not pooled)
+     * @param banner configuration banner of the map
+     * @param durations propagation durations, sorted (days)
+     * @param targets target position accuracies (m)
+     * @param positionErrors integrator position errors, from the loosest to the tightest (m)
+     * @param referencePositionError integrator position error of the reference propagation (m)
+     * @param cell cell to compute, updated with the costs
+     * @throws IOException if the space weather or density grid caches cannot be read or written
      */
-    private static NumericalPropagator initializeNumericalPropagator(final OrbitComparatorInputs inputData,
-                                                                     final ODEIntegrator integrator,
-                                                                     final Orbit orbit,
-                                                                     final OneAxisEllipsoid centralBody,
-                                                                     final NormalizedSphericalHarmonicsProvider gravityField) {
-
-        // Force model configuration
-        final ForceModelConfiguration forceModels = inputData.getForceModels();
+    private static void computeCrossoverCell(final OrbitComparatorInputs inputData,
+                                             final KeplerianOrbit nominal,
+                                             final OneAxisEllipsoid centralBody,
+                                             final NormalizedSphericalHarmonicsProvider normalizedGravityField,
+                                             final UnnormalizedSphericalHarmonicsProvider unnormalizedGravityField,
+                                             final Atmosphere atmosphere,
+                                             final PropagatorPool propagatorPool,
+                                             final ConfigurationBanner banner,
+                                             final List<Double> durations,
+                                             final List<Double> targets,
+                                             final List<Double> positionErrors,
+                                             final double referencePositionError,
+                                             final CrossoverCell cell) throws IOException {
 
-        System.out.println("");
-        System.out.println("   Numerical model       ");
-        // Initialize the numerical builder
-        final NumericalPropagator numPropagator = new NumericalPropagator(integrator);
-        numPropagator.setOrbitType(OrbitType.EQUINOCTIAL);
+        // Initial orbit of the cell
+        if (cell.e < 0.0 || cell.e >= 1.0 || cell.a * (1.0 - cell.e) <= centralBody.getEquatorialRadius()) {
+            cell.valid = false;
+            return;
+        }
+        final Orbit orbit = new KeplerianOrbit(cell.a, cell.e, cell.i,
+                                               nominal.getPerigeeArgument(), nominal.getRightAscensionOfAscendingNode(),
+                                               nominal.getMeanAnomaly(), PositionAngle.MEAN,
+                                               nominal.getFrame(), nominal.getDate(), nominal.getMu());
 
-        // Add force models to the numerical propagator
-        addNumericalForceModels(forceModels, numPropagator, centralBody, gravityField);
+        // Shadow intervals shared by the runs of the cell (built one cell at a time, as they share data loaders)
+        final double duration = durations.get(durations.size() - 1) * Constants.JULIAN_DAY;
+        final Map<String, ShadowIntervals> shadows;
+        if (propagatorPool != null) {
+            shadows = null;
+        } else {
+            synchronized (CrossoverCell.class) {
+                shadows = initializeShadowIntervals(inputData, orbit, centralBody, unnormalizedGravityField, atmosphere, duration);
+            }
+        }
 
-        // Update
-        numPropagator.setInitialState(new SpacecraftState(orbit));
+        // Reference
+        final Vector3D[] reference = new Vector3D[durations.size()];
+        runCrossoverPropagation(inputData, orbit, centralBody, normalizedGravityField, unnormalizedGravityField,
+                                atmosphere, shadows, propagatorPool, banner, true, referencePositionError, durations, reference, new double[durations.size()]);
+        if (reference[0] == null) {
+            cell.valid = false;
+            return;
+        }
 
-        // Return
-        return numPropagator;
+        // Cheapest run meeting each target, for each propagator
+        for (final boolean numerical : new boolean[] {true, false}) {
+            final double[][] cost          = numerical ? cell.numericalCost : cell.dsstCost;
+            final double[][] positionError = numerical ? cell.numericalPositionError : cell.dsstPositionError;
+            for (final double error : positionErrors) {
+                final Vector3D[] positions = new Vector3D[durations.size()];
+                final double[]   cpu       = new double[durations.size()];
+                runCrossoverPropagation(inputData, orbit, centralBody, normalizedGravityField, unnormalizedGravityField,
+                                        atmosphere, shadows, propagatorPool, banner, numerical, error, durations, positions, cpu);
+                boolean met = true;
+                for (int k = 0; k < durations.size(); k++) {
+                    for (int t = 0; t < targets.size(); t++) {
+                        if (Double.isNaN(cost[k][t])) {
+                            if (positions[k] != null && Vector3D.distance(positions[k], reference[k]) <= targets.get(t)) {
+                                cost[k][t]          = cpu[k];
+                                positionError[k][t] = error;
+                            } else {
+                                met = false;
+                            }
+                        }
+                    }
+                }
+                if (met) {
+                    break;
+                }
+            }
+        }
 
     }
 
     /**
-     * Initialize the DSST propagator builder.
+     * Run one propagation of the crossover map.
      * @param inputData input data
-     * @param integrator integrator builder
-     * @param orbit initial guess
+     * @param orbit initial orbit
      * @param centralBody central body
-     * @param gravityField gravity field
-     * @return a configured propagator builder
+     * @param normalizedGravityField gravity field of the numerical propagator
+     * @param unnormalizedGravityField gravity field of the DSST propagator
+     * @param atmosphere atmosphere model (null if drag is not used)
+     * @param shadows shadow intervals for each occulting body (null if exact eclipse computation is used)
+     * @param propagatorPool propagator pool (null if the propagators are not pooled)
+     * @param banner configuration banner of the map
+     * @param numerical if true, the numerical propagator is used, otherwise the DSST propagator is used
+     * @param positionError integrator position error (m)
+     * @param durations propagation durations, sorted (days)
+     * @param positions positions at the end of each duration, filled by the method (null after a failure)
+     * @param cpu CPU time needed to reach the end of each duration, filled by the method (s)
      */
-    private static DSSTPropagator initializeDSSTPropagator(final OrbitComparatorInputs inputData,
-                                                           final ODEIntegrator integrator,
-                                                           final Orbit orbit,
-                                                           final OneAxisEllipsoid centralBody,
-                                                           final UnnormalizedSphericalHarmonicsProvider gravityField) {
-
-        // Force model configuration
-        final ForceModelConfiguration forceModels = inputData.getForceModels();
-
-        System.out.println("");
-        System.out.println("   DSST model            ");
-        // Initialize the numerical builder
-        final DSSTPropagator dsstPropagator = new DSSTPropagator(integrator, PropagationType.OSCULATING);
+    private static void runCrossoverPropagation(final OrbitComparatorInputs inputData,
+                                                final Orbit orbit,
+                                                final OneAxisEllipsoid centralBody,
+                                                final NormalizedSphericalHarmonicsProvider normalizedGravityField,
+                                                final UnnormalizedSphericalHarmonicsProvider unnormalizedGravityField,
+                                                final Atmosphere atmosphere,
+                                                final Map<String, ShadowIntervals> shadows,
+                                                final PropagatorPool propagatorPool,
+                                                final ConfigurationBanner banner,
+                                                final boolean numerical,
+                                                final double positionError,
+                                                final List<Double> durations,
+                                                final Vector3D[] positions,
+                                                final double[] cpu) {
 
-        // Add force models to the DSST propagator
-        addDSSTForceModels(forceModels, dsstPropagator, centralBody, gravityField);
+        // Integrator with the tried position error
+        final IntegratorConfiguration configured = numerical ? inputData.getNumericalIntegrator() : inputData.getDsstIntegrator();
+        final IntegratorConfiguration integratorData = new IntegratorConfiguration();
+        integratorData.setMinStep(configured.getMinStep());
+        integratorData.setMaxStep(configured.getMaxStep());
+        integratorData.setPositionError(positionError);
 
-        // Update
-        dsstPropagator.setInitialState(new SpacecraftState(orbit), PropagationType.OSCULATING);
-        dsstPropagator.setInterpolationGridToMaxTimeGap(86400.0);
+        // Propagator (built one propagator at a time, so that the printed configuration is not interleaved)
+        final Propagator propagator;
+        synchronized (CrossoverCell.class) {
+            final boolean quiet = banner.isQuiet(numerical);
+            if (propagatorPool != null) {
+                propagator = acquirePropagator(propagatorPool, inputData, integratorData, numerical, orbit, centralBody,
+                                               normalizedGravityField, unnormalizedGravityField, atmosphere, shadows, null, quiet);
+            } else if (numerical) {
+                propagator = initializeNumericalPropagator(inputData, initializeIntegrator(integratorData, orbit, "numerical propagator", quiet),
+                                                           orbit, centralBody, normalizedGravityField, atmosphere, shadows, null, quiet);
+            } else {
+                propagator = initializeDSSTPropagator(inputData, initializeIntegrator(integratorData, orbit, "DSST propagator", quiet),
+                                                      orbit, centralBody, unnormalizedGravityField, atmosphere, shadows, quiet);
+            }
+        }
 
-        // Return
-        return dsstPropagator;
+        // Propagation through the durations
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        final long c0 = bean.getCurrentThreadCpuTime();
+        try {
+            for (int k = 0; k < durations.size(); k++) {
+                final SpacecraftState state = propagator.propagate(orbit.getDate().shiftedBy(durations.get(k) * Constants.JULIAN_DAY));
+                positions[k] = state.getPVCoordinates(orbit.getFrame()).getPosition();
+                cpu[k]       = 1.0e-9 * (bean.getCurrentThreadCpuTime() - c0);
+            }
+        } catch (OrekitException | MathRuntimeException e) {
+            // Integration failure (e.g. step size below the minimum), the run does not meet any target
+            Arrays.fill(positions, null);
+        } finally {
+            if (propagator instanceof NumericalPropagator && propagatorPool == null) {
+                shutdownParallelForceModels((NumericalPropagator) propagator);
+            }
+        }
 
     }
 
     /**
-     * Add the force models to the numerical propagator.
-     * @param forceModelData force model data
-     * @param propagator propagator
-     * @param centralBody central body
-     * @param gravityField gravity field
+     * Get the cheaper propagator.
+     * @param numericalCost cost of the numerical propagator (NaN if the target is not met)
+     * @param dsstCost cost of the DSST propagator (NaN if the target is not met)
+     * @return the name of the cheaper propagator
      */
-    private static void addNumericalForceModels(final ForceModelConfiguration forceModelData,
-                                                final NumericalPropagator propagator,
-                                                final OneAxisEllipsoid centralBody,
-                                                final NormalizedSphericalHarmonicsProvider gravityField) {
+    private static String getCheaperPropagator(final double numericalCost, final double dsstCost) {
+        if (Double.isNaN(numericalCost)) {
+            return Double.isNaN(dsstCost) ? "none" : "DSST";
+        }
+        return Double.isNaN(dsstCost) || numericalCost <= dsstCost ? "numerical" : "DSST";
+    }
 
-        // Drag
-        if (forceModelData.getDrag() != null) {
+    /** Cell of the crossover map. */
+    private static class CrossoverCell {
 
-            System.out.println("      Adding drag        ");
-            // Drag data
-            final DragConfiguration drag   = forceModelData.getDrag();
-            final double       cd          = drag.getCd();
-            final double       area        = drag.getArea();
+        /** Semi-major axis (m). */
+        private final double a;
 
-            System.out.println("         Cd value:       " + cd);
-            System.out.println("         Area:           " + area);
+        /** Eccentricity. */
+        private final double e;
 
-            // Atmosphere model
-            final CssiSpaceWeatherData cswd = new CssiSpaceWeatherData(CssiSpaceWeatherData.DEFAULT_SUPPORTED_NAMES);
-            final Atmosphere atmosphere = new NRLMSISE00(cswd, CelestialBodyFactory.getSun(), centralBody);
-            System.out.println("         Atmosphere:     " + "NRLMSISE00");
+        /** Inclination (rad). */
+        private final double i;
 
-            // Add the force model
-            final ForceModel force = new DragForce(atmosphere, new IsotropicDrag(area, cd));
-            propagator.addForceModel(force);
+        /** CPU time of the cheapest numerical run meeting each target, for each duration (s, NaN if not met). */
+        private final double[][] numericalCost;
 
-        }
+        /** Integrator position error of the cheapest numerical run meeting each target, for each duration (m). */
+        private final double[][] numericalPositionError;
 
-        // Third bodies
-        final List<CelestialBody> solidTidesBodies = new ArrayList<>();
-        if (forceModelData.getThirdBody() != null) {
-            for (ThirdBodyConfiguration thirdBody : forceModelData.getThirdBody()) {
-                final CelestialBody body = CelestialBodyFactory.getBody(thirdBody.getName());
-                System.out.println("      Adding 3rd body:   " + body.getName());
-                propagator.addForceModel(new ThirdBodyAttraction(body));
-                if (thirdBody.isWithSolidTides()) {
-                    System.out.println("        With tides:      true");
-                    System.out.println("        Ephemeris:       " + DataContext.getDefault().getDataProvidersManager().getLoadedDataNames().toArray()[4]);
-                    solidTidesBodies.add(body);
-                }
-                
+        /** CPU time of the cheapest DSST run meeting each target, for each duration (s, NaN if not met). */
+        private final double[][] dsstCost;
 
+        /** Integrator position error of the cheapest DSST run meeting each target, for each duration (m). */
+        private final double[][] dsstPositionError;
+
+        /** Flag indicating if the orbit of the cell is valid. */
+        private boolean valid;
+
+        /**
+         * Constructor.
+         * @param a semi-major axis (m)
+         * @param e eccentricity
+         * @param i inclination (rad)
+         * @param nbDurations number of propagation durations
+         * @param nbTargets number of target accuracies
+         */
+        CrossoverCell(final double a, final double e, final double i, final int nbDurations, final int nbTargets) {
+            this.a                      = a;
+            this.e                      = e;
+            this.i                      = i;
+            this.numericalCost          = new double[nbDurations][nbTargets];
+            this.numericalPositionError = new double[nbDurations][nbTargets];
+            this.dsstCost               = new double[nbDurations][nbTargets];
+            this.dsstPositionError      = new double[nbDurations][nbTargets];
+            for (int k = 0; k < nbDurations; k++) {
+                Arrays.fill(numericalCost[k], Double.NaN);
+                Arrays.fill(numericalPositionError[k], Double.NaN);
+                Arrays.fill(dsstCost[k], Double.NaN);
+                Arrays.fill(dsstPositionError[k], Double.NaN);
             }
+            this.valid = true;
         }
 
-        // Solid tides
-        if (!solidTidesBodies.isEmpty()) {
-            propagator.addForceModel(new SolidTides(centralBody.getBodyFrame(),
-                                                    gravityField.getAe(), gravityField.getMu(),
-                                                    gravityField.getTideSystem(), IERSConventions.IERS_2010,
-                                                    TimeScalesFactory.getUT1(IERSConventions.IERS_2010, true),
-                                                    solidTidesBodies.toArray(new CelestialBody[solidTidesBodies.size()])));
-        }
+    }
 
-        // Solar radiation pressure
-        if (forceModelData.getSolarRadiationPressure() != null) {
+    /**
+     * Compare the propagators on a TLE catalog.
+     * <p>
+     * The catalog is streamed one TLE pair at a time, so that its size is not
+     * limited by the memory. Each object is converted to an initial orbit as the
+     * TLE of the configured orbit (i.e. from TEME to the inertial frame), then
+     * propagated by SGP4/SDP4, numerical and DSST propagators. The objects are
+     * processed on a bounded executor: when its queue is full, the reading thread
+     * processes the object itself, which pauses the reading of the catalog.
+     * </p>
+     * <p>
+     * One line per object is written as soon as it is processed, with the CPU
+     * time of each propagator and the final position differences. Objects which
+     * cannot be parsed or propagated are reported with their failure instead of
+     * stopping the comparison.
+     * </p>
+     * <p>
+     * If the propagators are pooled, each thread reuses its numerical and DSST
+     * propagators from one object to the next. The shadow intervals are then not
+     * used, as they are specific to the orbit of each object: the eclipses are
+     * computed exactly.
+     * </p>
+     * @param inputData input data
+     * @param frame inertial frame of the initial orbits
+     * @param centralBody central body
+     * @param normalizedGravityField gravity field of the numerical propagator
+     * @param unnormalizedGravityField gravity field of the DSST propagator
+     * @throws IOException if the catalog cannot be read or the output file cannot be written
+     */
+    private static void compareCatalog(final OrbitComparatorInputs inputData,
+                                       final Frame frame,
+                                       final OneAxisEllipsoid centralBody,
+                                       final NormalizedSphericalHarmonicsProvider normalizedGravityField,
+                                       final UnnormalizedSphericalHarmonicsProvider unnormalizedGravityField) throws IOException {
 
-            System.out.println("      Adding SRP         ");
+        final CatalogConfiguration catalog = inputData.getCatalog();
+        if (catalog.getFile() == null) {
+            throw new IllegalArgumentException("TLE catalog file shall be defined");
+        }
+        final DragConfiguration drag = inputData.getForceModels().getDrag();
+        if (drag != null && drag.getAtmosphereGrid() != null) {
+            throw new IllegalArgumentException("TLE catalog comparison does not support the atmosphere density grid");
+        }
+        final File   input         = new File(catalog.getFile());
+        final double duration      = (catalog.getDuration() != NULL_DOUBLE ? catalog.getDuration() : inputData.getPropagationDuration()) * Constants.JULIAN_DAY;
+        final int    maxObjects    = catalog.getMaxObjects() != 0 ? catalog.getMaxObjects() : Integer.MAX_VALUE;
+        final int    threads       = catalog.getThreads() != 0 ? catalog.getThreads() : Runtime.getRuntime().availableProcessors();
+        final int    queueCapacity = catalog.getQueueCapacity() != 0 ? catalog.getQueueCapacity() : DEFAULT_CATALOG_QUEUE_PER_THREAD * threads;
+        final File   output        = new File(catalog.getOutputFile() != null ? catalog.getOutputFile() : DEFAULT_CATALOG_OUTPUT);
 
-            // Solar radiation pressure data
-            final SolarRadiationPressureConfiguration srp = forceModelData.getSolarRadiationPressure();
-            final double  cr                         = srp.getCr();
-            final double  area                       = srp.getArea();
+        // Statistics
+        final AtomicInteger processed    = new AtomicInteger();
+        final AtomicInteger failed       = new AtomicInteger();
+        final DoubleAdder   sgp4Cpu      = new DoubleAdder();
+        final DoubleAdder   numericalCpu = new DoubleAdder();
+        final DoubleAdder   dsstCpu      = new DoubleAdder();
+        final AtomicReference<Exception> failure = new AtomicReference<>();
 
-            System.out.println("         Cr value:       " + cr);
-            System.out.println("         Area:           " + area);
+        // Models shared by the objects (the atmosphere does not depend on the propagation span without density grid)
+        final Atmosphere          atmosphere     = initializeAtmosphere(inputData, centralBody, AbsoluteDate.J2000_EPOCH, duration);
+        final PropagatorPool      propagatorPool = inputData.isPoolPropagators() ? new PropagatorPool() : null;
+        final ConfigurationBanner banner         = new ConfigurationBanner();
 
-            // Satellite model (spherical)
-            final RadiationSensitive spacecraft = new IsotropicRadiationSingleCoefficient(area, cr);
+        final double t0 = System.currentTimeMillis();
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                                                                   new ArrayBlockingQueue<>(queueCapacity),
+                                                                   new ThreadPoolExecutor.CallerRunsPolicy());
+        int objects = 0;
+        try (BufferedReader reader = Files.newBufferedReader(input.toPath(), StandardCharsets.US_ASCII);
+             PrintWriter writer = new PrintWriter(output, "UTF-8")) {
 
-            // Solar radiation pressure
-            final SolarRadiationPressure force = new SolarRadiationPressure(CelestialBodyFactory.getSun(), gravityField.getAe(), spacecraft);
-            //force.addOccultingBody(CelestialBodyFactory.getMoon(), Constants.MOON_EQUATORIAL_RADIUS);
+            writer.println("index,satelliteNumber,epoch,semiMajorAxisM,eccentricity,inclinationDeg," +
+                           "sgp4CpuS,numericalCpuS,dsstCpuS,numericalDsstM,sgp4NumericalM,status");
 
-            // Add the force model
-            propagator.addForceModel(force);
+            try {
+                // Stream the TLE pairs (name lines are ignored)
+                String line1 = null;
+                for (String line = reader.readLine(); line != null && objects < maxObjects && failure.get() == null; line = reader.readLine()) {
+                    if (line.startsWith("1 ")) {
+                        line1 = line;
+                    } else if (line.startsWith("2 ") && line1 != null) {
+                        final CatalogObject object = new CatalogObject(objects++);
+                        final String        first  = line1;
+                        final String        second = line;
+                        line1 = null;
+                        executor.execute(() -> {
+                            try {
+                                processCatalogObject(inputData, frame, centralBody, normalizedGravityField, unnormalizedGravityField,
+                                                     atmosphere, propagatorPool, banner, duration, first, second, object);
+                                if (CATALOG_OK.equals(object.status)) {
+                                    sgp4Cpu.add(object.sgp4Cpu);
+                                    numericalCpu.add(object.numericalCpu);
+                                    dsstCpu.add(object.dsstCpu);
+                                } else {
+                                    failed.incrementAndGet();
+                                }
+                                synchronized (writer) {
+                                    writer.println(object.toCsv());
+                                }
+                                processed.incrementAndGet();
+                            } catch (IOException | RuntimeException e) {
+                                failure.compareAndSet(null, e);
+                            }
+                        });
+                    }
+                }
+            } finally {
+                executor.shutdown();
+                try {
+                    executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException ie) {
+                    executor.shutdownNow();
+                    Thread.currentThread().interrupt();
+                    throw new OrekitException(ie, LocalizedCoreFormats.SIMPLE_MESSAGE, ie.getMessage());
+                }
+            }
 
         }
+        final double t1 = System.currentTimeMillis();
+        if (propagatorPool != null) {
+            releasePropagatorPool(propagatorPool);
+        }
 
-        // Potential
-        if (forceModelData.getGravity().getDegree() != 0) {
-            System.out.println("      Adding Earth harmonics");
-            System.out.println("         Degree:         " + gravityField.getMaxDegree());
-            System.out.println("         Order:          " + gravityField.getMaxOrder());
-            System.out.println("         Mu:             " + gravityField.getMu());
-            System.out.println("         Model:          " + "Holmes-Featherstone");
-            System.out.println("         Gravity file:   " + DataContext.getDefault().getDataProvidersManager().getLoadedDataNames().toArray()[3]);
-            propagator.addForceModel(new HolmesFeatherstoneAttractionModel(centralBody.getBodyFrame(), (NormalizedSphericalHarmonicsProvider) gravityField));
+        // Unexpected failure of a task
+        if (failure.get() instanceof IOException) {
+            throw (IOException) failure.get();
+        } else if (failure.get() != null) {
+            throw (RuntimeException) failure.get();
         }
 
-        // Newton
-        propagator.addForceModel(new NewtonianAttraction(gravityField.getMu()));
+        final int succeeded = processed.get() - failed.get();
+        System.out.println("");
+        System.out.println("   TLE catalog comparison");
+        System.out.println("      Catalog:           " + input.getAbsolutePath());
+        System.out.println("      Objects:           " + objects);
+        System.out.println("      Failed:            " + failed.get());
+        System.out.println("      Threads:           " + threads);
+        System.out.println("      Queue capacity:    " + queueCapacity);
+        System.out.println("      " + WALL_CLOCK_RUN_TIME + (0.001 * (t1 - t0)));
+        System.out.println("      Mean SGP4 CPU time (s):      " + (sgp4Cpu.sum() / succeeded));
+        System.out.println("      Mean numerical CPU time (s): " + (numericalCpu.sum() / succeeded));
+        System.out.println("      Mean DSST CPU time (s):      " + (dsstCpu.sum() / succeeded));
+        System.out.println("      Results:           " + output.getAbsolutePath());
+        if (propagatorPool != null) {
+            printPropagatorPool(propagatorPool);
+        }
 
     }
 
     /**
-     * Add the force models to the DSST propagator.
-     * @param forceModelData force model data
-     * @param propagator propagator
+     * Process one object of the TLE catalog.
+     * @param inputData input data
+     * @param frame inertial frame of the initial orbit
      * @param centralBody central body
-     * @param gravityField gravity field
+     * @param normalizedGravityField gravity field of the numerical propagator
+     * @param unnormalizedGravityField gravity field of the DSST propagator
+     * @param atmosphere atmosphere model (null if drag is not used)
+     * @param propagatorPool propagator pool (null if the propagators are not pooled)
+     * @param banner configuration banner of the comparison
+     * @param duration propagation duration (s)
+     * @param line1 first line of the TLE
+     * @param line2 second line of the TLE
+     * @param object catalog object, updated with the results
+     * @throws IOException if the space weather cache cannot be read or written
      */
-    private static void addDSSTForceModels(final ForceModelConfiguration forceModelData,
-                                           final DSSTPropagator propagator,
-                                           final OneAxisEllipsoid centralBody,
-                                           final UnnormalizedSphericalHarmonicsProvider gravityField) {
+    private static void processCatalogObject(final OrbitComparatorInputs inputData,
+                                             final Frame frame,
+                                             final OneAxisEllipsoid centralBody,
+                                             final NormalizedSphericalHarmonicsProvider normalizedGravityField,
+                                             final UnnormalizedSphericalHarmonicsProvider unnormalizedGravityField,
+                                             final Atmosphere atmosphere,
+                                             final PropagatorPool propagatorPool,
+                                             final ConfigurationBanner banner,
+                                             final double duration,
+                                             final String line1,
+                                             final String line2,
+                                             final CatalogObject object) throws IOException {
 
-        // Drag
-        if (forceModelData.getDrag() != null) {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        NumericalPropagator numerical = null;
+        try {
 
-            System.out.println("      Adding drag        ");
+            // Initial orbit, as for the TLE of the configured orbit
+            final TLE tle = new TLE(line1, line2);
+            object.satelliteNumber = tle.getSatelliteNumber();
+            object.epoch           = tle.getDate();
+            final TLEPropagator sgp4  = TLEPropagator.selectExtrapolator(tle);
+            final Orbit         orbit = initializeTLEOrbit(sgp4, frame, normalizedGravityField.getMu());
+            object.a = orbit.getA();
+            object.e = orbit.getE();
+            object.i = orbit.getI();
+            if (orbit.getA() * (1.0 - orbit.getE()) <= centralBody.getEquatorialRadius()) {
+                object.status = "perigee below surface";
+                return;
+            }
+            final AbsoluteDate target = orbit.getDate().shiftedBy(duration);
 
-            // Drag data
-            final DragConfiguration drag   = forceModelData.getDrag();
-            final double       cd          = drag.getCd();
-            final double       area        = drag.getArea();
+            // Propagators of the object (built one object at a time, as they share data loaders and cache files)
+            final DSSTPropagator dsst;
+            synchronized (CatalogObject.class) {
+            final boolean quietNumerical = banner.isQuiet(true);
+            final boolean quietDsst      = banner.isQuiet(false);
+                if (propagatorPool != null) {
+                    numerical = (NumericalPropagator) acquirePropagator(propagatorPool, inputData, inputData.getNumericalIntegrator(), true, orbit,
+                                                                        centralBody, normalizedGravityField, unnormalizedGravityField,
+                                                                        atmosphere, null, null, quietNumerical);
+                    dsst      = (DSSTPropagator) acquirePropagator(propagatorPool, inputData, inputData.getDsstIntegrator(), false, orbit,
+                                                                   centralBody, normalizedGravityField, unnormalizedGravityField,
+                                                                   atmosphere, null, null, quietDsst);
+                } else {
+                    final Map<String, ShadowIntervals> shadows = initializeShadowIntervals(inputData, orbit, centralBody, unnormalizedGravityField, atmosphere, duration);
+                    numerical = initializeNumericalPropagator(inputData, initializeIntegrator(inputData.getNumericalIntegrator(), orbit, "numerical propagator", quietNumerical),
+                                                              orbit, centralBody, normalizedGravityField, atmosphere, shadows, null, quietNumerical);
+                    dsst      = initializeDSSTPropagator(inputData, initializeIntegrator(inputData.getDsstIntegrator(), orbit, "DSST propagator", quietDsst),
+                                                         orbit, centralBody, unnormalizedGravityField, atmosphere, shadows, quietDsst);
+                }
+            }
 
-            System.out.println("         Cd value:       " + cd);
-            System.out.println("         Area:           " + area);
+            // Propagations
+            final long c0 = bean.getCurrentThreadCpuTime();
+            final SpacecraftState sgp4State = sgp4.propagate(target);
+            final long c1 = bean.getCurrentThreadCpuTime();
+            final SpacecraftState numericalState = numerical.propagate(target);
+            final long c2 = bean.getCurrentThreadCpuTime();
+            final SpacecraftState dsstState = dsst.propagate(target);
+            final long c3 = bean.getCurrentThreadCpuTime();
 
-            // Atmosphere model
-            final CssiSpaceWeatherData cswd = new CssiSpaceWeatherData(CssiSpaceWeatherData.DEFAULT_SUPPORTED_NAMES);
-            final Atmosphere atmosphere = new NRLMSISE00(cswd, CelestialBodyFactory.getSun(), centralBody);
-            System.out.println("         Atmosphere:     " + "NRLMSISE00");
+            object.sgp4Cpu       = 1.0e-9 * (c1 - c0);
+            object.numericalCpu  = 1.0e-9 * (c2 - c1);
+            object.dsstCpu       = 1.0e-9 * (c3 - c2);
+            object.numericalDsst = positionDifference(numericalState, dsstState);
+            object.sgp4Numerical = positionDifference(numericalState, sgp4State);
+            object.status        = CATALOG_OK;
 
-            // Drag force - Assuming spherical satellite
-            // Add the force model
-            propagator.addForceModel(new DSSTAtmosphericDrag(new DragForce(atmosphere, new IsotropicDrag(area, cd)), gravityField.getMu()));
+        } catch (OrekitException | MathRuntimeException e) {
+            // Invalid TLE or propagation failure (e.g. decay), the object is reported as failed
+            object.status = e.getClass().getSimpleName();
+        } finally {
+            if (numerical != null && propagatorPool == null) {
+                shutdownParallelForceModels(numerical);
+            }
+        }
+
+    }
+
+    /** Object of the TLE catalog. */
+    private static class CatalogObject {
+
+        /** Index of the object in the catalog. */
+        private final int index;
+
+        /** Satellite number (-1 if the TLE cannot be parsed). */
+        private int satelliteNumber;
+
+        /** TLE epoch (null if the TLE cannot be parsed). */
+        private AbsoluteDate epoch;
+
+        /** Osculating semi-major axis of the initial orbit (m). */
+        private double a;
+
+        /** Osculating eccentricity of the initial orbit. */
+        private double e;
+
+        /** Osculating inclination of the initial orbit (rad). */
+        private double i;
+
+        /** CPU time of the SGP4/SDP4 propagation (s). */
+        private double sgp4Cpu;
+
+        /** CPU time of the numerical propagation (s). */
+        private double numericalCpu;
+
+        /** CPU time of the DSST propagation (s). */
+        private double dsstCpu;
+
+        /** Final position difference between the numerical and DSST propagators (m). */
+        private double numericalDsst;
+
+        /** Final position difference between the SGP4/SDP4 and numerical propagators (m). */
+        private double sgp4Numerical;
+
+        /** Processing status. */
+        private String status;
 
+        /**
+         * Constructor.
+         * @param index index of the object in the catalog
+         */
+        CatalogObject(final int index) {
+            this.index           = index;
+            this.satelliteNumber = -1;
+            this.a               = Double.NaN;
+            this.e               = Double.NaN;
+            this.i               = Double.NaN;
+            this.sgp4Cpu         = Double.NaN;
+            this.numericalCpu    = Double.NaN;
+            this.dsstCpu         = Double.NaN;
+            this.numericalDsst   = Double.NaN;
+            this.sgp4Numerical   = Double.NaN;
         }
 
-        // Solar radiation pressure
-        if (forceModelData.getSolarRadiationPressure() != null) {
+        /**
+         * Get the results of the object as a CSV line.
+         * @return the results of the object as a CSV line
+         */
+        String toCsv() {
+            return index + "," + satelliteNumber + "," + (epoch == null ? "" : epoch.toString()) + "," +
+                   a + "," + e + "," + FastMath.toDegrees(i) + "," +
+                   sgp4Cpu + "," + numericalCpu + "," + dsstCpu + "," + numericalDsst + "," + sgp4Numerical + "," + status;
+        }
 
-            System.out.println("      Adding SRP         ");
+    }
 
-            // Solar radiation pressure data
-            final SolarRadiationPressureConfiguration srp = forceModelData.getSolarRadiationPressure();
-            final double  cr                              = srp.getCr();
-            final double  area                            = srp.getArea();
+    /**
+     * Run the batch secular propagation.
+     * <p>
+     * The mean elements of the TLE catalog are loaded in a {@link SecularBatchPropagator}
+     * (J2 and J4 are taken from the gravity field of the DSST propagator) and the whole
+     * population is propagated from the latest TLE epoch to every output epoch. The
+     * population is partitioned in contiguous ranges propagated concurrently. A random
+     * sample of objects is then cross-checked at the last epoch with the SGP4/SDP4,
+     * numerical and DSST propagators. As the batch propagator only gives the positions
+     * of the mean orbits, the osculating states of these propagators are converted to
+     * Brouwer-Lyddane mean orbits with the same J2 and J4 before the comparison.
+     * </p>
+     * @param inputData input data
+     * @param frame inertial frame of the initial orbits
+     * @param centralBody central body
+     * @param normalizedGravityField gravity field of the numerical propagator
+     * @param unnormalizedGravityField gravity field of the DSST propagator
+     * @throws IOException if the catalog cannot be read
+     */
+    private static void runBatchPropagation(final OrbitComparatorInputs inputData,
+                                            final Frame frame,
+                                            final OneAxisEllipsoid centralBody,
+                                            final NormalizedSphericalHarmonicsProvider normalizedGravityField,
+                                            final UnnormalizedSphericalHarmonicsProvider unnormalizedGravityField) throws IOException {
+
+        final BatchPropagationConfiguration batch = inputData.getBatchPropagation();
+        if (batch.getFile() == null) {
+            throw new IllegalArgumentException("TLE catalog file of the batch propagation shall be defined");
+        }
+        final File   input      = new File(batch.getFile());
+        final double duration   = (batch.getDuration() != NULL_DOUBLE ? batch.getDuration() : inputData.getPropagationDuration()) * Constants.JULIAN_DAY;
+        final double step       = batch.getStep() != NULL_DOUBLE ? batch.getStep() : DEFAULT_BATCH_STEP;
+        final int    maxObjects = batch.getMaxObjects() != 0 ? batch.getMaxObjects() : Integer.MAX_VALUE;
+        final int    threads    = batch.getThreads() != 0 ? batch.getThreads() : Runtime.getRuntime().availableProcessors();
+        final int    samples    = batch.getSamples() != 0 ? batch.getSamples() : DEFAULT_BATCH_SAMPLES;
+        if (step <= 0.0) {
+            throw new IllegalArgumentException("Step of the batch propagation must be positive: " + step);
+        }
 
-            System.out.println("         Cr value:       " + cr);
-            System.out.println("         Area:           " + area);
+        // Zonal harmonics
+        final double mu = unnormalizedGravityField.getMu();
+        final int    maxDegree = unnormalizedGravityField.getMaxDegree();
 
-            // Satellite model (spherical)
-            final RadiationSensitive spacecraft = new IsotropicRadiationSingleCoefficient(area, cr);
+        // Population, with a reservoir sample of the objects to cross-check
+        final double t0Load = System.currentTimeMillis();
+        final RandomGenerator random = new Well19937a(BATCH_SAMPLE_SEED);
+        final List<TLE>     sampled        = new ArrayList<>();
+        final List<Integer> sampledIndices = new ArrayList<>();
+        SecularBatchPropagator propagator = null;
+        AbsoluteDate reference = null;
+        double j2 = 0.0;
+        double j4 = 0.0;
+        int rejected = 0;
+        try (BufferedReader reader = Files.newBufferedReader(input.toPath(), StandardCharsets.US_ASCII)) {
+            String line1 = null;
+            for (String line = reader.readLine(); line != null && (propagator == null || propagator.getSize() < maxObjects); line = reader.readLine()) {
+                if (line.startsWith("1 ")) {
+                    line1 = line;
+                } else if (line.startsWith("2 ") && line1 != null) {
+                    final TLE tle;
+                    try {
+                        tle = new TLE(line1, line);
+                    } catch (OrekitException oe) {
+                        rejected++;
+                        continue;
+                    } finally {
+                        line1 = null;
+                    }
+                    if (propagator == null) {
+                        reference = tle.getDate();
+                        final UnnormalizedSphericalHarmonicsProvider.UnnormalizedSphericalHarmonics harmonics = unnormalizedGravityField.onDate(reference);
+                        j2 = maxDegree >= 2 ? -harmonics.getUnnormalizedCnm(2, 0) : 0.0;
+                        j4 = maxDegree >= 4 ? -harmonics.getUnnormalizedCnm(4, 0) : 0.0;
+                        propagator = new SecularBatchPropagator(mu, unnormalizedGravityField.getAe(), j2, j4);
+                    }
+                    // Mean elements (ȧ = -2 a ṅ / 3 n)
+                    final double n = tle.getMeanMotion();
+                    final double a = FastMath.cbrt(mu / (n * n));
+                    final int index = propagator.addObject(tle.getDate().durationFrom(reference), a, tle.getE(), tle.getI(),
+                                                           tle.getRaan(), tle.getPerigeeArgument(), tle.getMeanAnomaly(),
+                                                           batch.isDrag() ? -2.0 * a * tle.getMeanMotionFirstDerivative() / (3.0 * n) : 0.0);
+                    if (sampled.size() < samples) {
+                        sampled.add(tle);
+                        sampledIndices.add(index);
+                    } else {
+                        final int replaced = random.nextInt(index + 1);
+                        if (replaced < samples) {
+                            sampled.set(replaced, tle);
+                            sampledIndices.set(replaced, index);
+                        }
+                    }
+                }
+            }
+        }
+        if (propagator == null) {
+            throw new IllegalArgumentException("No valid TLE in the catalog of the batch propagation: " + input.getAbsolutePath());
+        }
+        final double t1Load = System.currentTimeMillis();
 
-            // Solar radiation pressure
-            propagator.addForceModel(new DSSTSolarRadiationPressure(CelestialBodyFactory.getSun(), gravityField.getAe(), spacecraft, gravityField.getMu()));
+        // Output epochs, from the latest TLE epoch
+        final SecularBatchPropagator population = propagator;
+        final int size = population.getSize();
+        double start = Double.NEGATIVE_INFINITY;
+        for (int k = 0; k < size; k++) {
+            start = FastMath.max(start, population.getEpoch(k));
+        }
+        final int    epochs = (int) FastMath.floor(duration / step) + 1;
+        final double first  = start;
+        final double[] x = new double[size];
+        final double[] y = new double[size];
+        final double[] z = new double[size];
+
+        // JIT warm-up
+        population.propagate(first, 0, size, x, y, z);
 
+        // Propagation of the partitions
+        final double t0 = System.currentTimeMillis();
+        final ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final int from = (int) ((long) size * t / threads);
+                final int to   = (int) ((long) size * (t + 1) / threads);
+                futures.add(pool.submit(() -> {
+                    for (int k = 0; k < epochs; k++) {
+                        population.propagate(first + k * step, from, to, x, y, z);
+                    }
+                }));
+            }
+            awaitAll(futures);
+        } finally {
+            pool.shutdown();
         }
+        final double t1 = System.currentTimeMillis();
 
-        // Third bodies
-        for (ThirdBodyConfiguration thirdBody : forceModelData.getThirdBody()) {
-            final CelestialBody body = CelestialBodyFactory.getBody(thirdBody.getName());
-            System.out.println("      Adding 3rd body:   " + body.getName());
-            propagator.addForceModel(new DSSTThirdBody(body, gravityField.getMu()));
-            System.out.println("        With tides:      false");
+        // Cross-check of the sample at the last epoch
+        final AbsoluteDate target = reference.shiftedBy(first + (epochs - 1) * step);
+        final Frame        teme   = FramesFactory.getTEME();
+        double sumNumerical = 0.0;
+        double maxNumerical = 0.0;
+        double sumDsst      = 0.0;
+        double maxDsst      = 0.0;
+        double sumSgp4      = 0.0;
+        double maxSgp4      = 0.0;
+        int    checked      = 0;
+        boolean quiet       = false;
+        for (int k = 0; k < sampled.size(); k++) {
+            final int index = sampledIndices.get(k);
+            final Vector3D position = teme.getTransformTo(frame, target).transformPosition(new Vector3D(x[index], y[index], z[index]));
+            NumericalPropagator numerical = null;
+            try {
+                final TLEPropagator sgp4  = TLEPropagator.selectExtrapolator(sampled.get(k));
+                final Orbit         orbit = initializeTLEOrbit(sgp4, frame, normalizedGravityField.getMu());
+                if (orbit.getA() * (1.0 - orbit.getE()) <= centralBody.getEquatorialRadius()) {
+                    continue;
+                }
+                final double span = target.durationFrom(orbit.getDate());
+                final Atmosphere atmosphere = initializeAtmosphere(inputData, centralBody, orbit.getDate(), span);
+                final Map<String, ShadowIntervals> shadows = initializeShadowIntervals(inputData, orbit, centralBody, unnormalizedGravityField, atmosphere, span);
+                numerical = initializeNumericalPropagator(inputData, initializeIntegrator(inputData.getNumericalIntegrator(), orbit, "numerical propagator", quiet),
+                                                          orbit, centralBody, normalizedGravityField, atmosphere, shadows, null, quiet);
+                final DSSTPropagator dsst = initializeDSSTPropagator(inputData, initializeIntegrator(inputData.getDsstIntegrator(), orbit, "DSST propagator", quiet),
+                                                                     orbit, centralBody, unnormalizedGravityField, atmosphere, shadows, quiet);
+                quiet = true;
+                final double ae             = unnormalizedGravityField.getAe();
+                final double numericalDelta = Vector3D.distance(position, meanPosition(numerical.propagate(target), frame, ae, mu, j2, j4));
+                final double dsstDelta      = Vector3D.distance(position, meanPosition(dsst.propagate(target), frame, ae, mu, j2, j4));
+                final double sgp4Delta      = Vector3D.distance(position, meanPosition(sgp4.propagate(target), frame, ae, mu, j2, j4));
+                sumNumerical += numericalDelta;
+                maxNumerical  = FastMath.max(maxNumerical, numericalDelta);
+                sumDsst      += dsstDelta;
+                maxDsst       = FastMath.max(maxDsst, dsstDelta);
+                sumSgp4      += sgp4Delta;
+                maxSgp4       = FastMath.max(maxSgp4, sgp4Delta);
+                checked++;
+            } catch (OrekitException | MathRuntimeException e) {
+                // Propagation failure (e.g. decay), the object is not cross-checked
+            } finally {
+                if (numerical != null) {
+                    shutdownParallelForceModels(numerical);
+                }
+            }
         }
 
-        // Potential
-        System.out.println("      Adding Earth harmonics");
-        System.out.println("         Degree:         " + gravityField.getMaxDegree());
-        System.out.println("         Order:          " + gravityField.getMaxOrder());
-        System.out.println("         Mu:             " + gravityField.getMu());
-        propagator.addForceModel(new DSSTTesseral(centralBody.getBodyFrame(), Constants.WGS84_EARTH_ANGULAR_VELOCITY, gravityField));
-        propagator.addForceModel(new DSSTZonal(gravityField));
+        System.out.println("");
+        System.out.println("   Batch secular propagation (J2/J4" + (batch.isDrag() ? ", drag decay)" : ")"));
+        System.out.println("      Catalog:           " + input.getAbsolutePath());
+        System.out.println("      Objects:           " + size);
+        System.out.println("      Rejected TLE:      " + rejected);
+        System.out.println("      Loading " + WALL_CLOCK_RUN_TIME + (0.001 * (t1Load - t0Load)));
+        System.out.println("      Epochs:            " + epochs);
+        System.out.println("      Threads:           " + threads);
+        System.out.println("      " + WALL_CLOCK_RUN_TIME + (0.001 * (t1 - t0)));
+        System.out.println("      Throughput (objects x epochs / s): " + (1000.0 * size * epochs / (t1 - t0)));
+        System.out.println("      Cross-checked objects: " + checked + " at " + target);
+        if (checked > 0) {
+            System.out.println("      Mean/max delta vs. numerical mean orbit (m): " + (sumNumerical / checked) + " / " + maxNumerical);
+            System.out.println("      Mean/max delta vs. DSST mean orbit (m):      " + (sumDsst / checked) + " / " + maxDsst);
+            System.out.println("      Mean/max delta vs. SGP4 mean orbit (m):      " + (sumSgp4 / checked) + " / " + maxSgp4);
+        }
 
-        // Newton
-        propagator.addForceModel(new DSSTNewtonianAttraction(gravityField.getMu()));
+    }
+
+    /**
+     * Get the position of the Brouwer-Lyddane mean orbit of an osculating state.
+     * @param state osculating state
+     * @param frame inertial frame of the position
+     * @param ae equatorial radius of the central body (m)
+     * @param mu central attraction coefficient (m³/s²)
+     * @param j2 second zonal harmonic (J2 = -C20)
+     * @param j4 fourth zonal harmonic (J4 = -C40)
+     * @return the position of the mean orbit in the frame
+     */
+    private static Vector3D meanPosition(final SpacecraftState state, final Frame frame,
+                                         final double ae, final double mu, final double j2, final double j4) {
+        final Orbit osculating = new CartesianOrbit(state.getPVCoordinates(frame), frame, mu);
+        return BrouwerLyddanePropagator.computeMeanOrbit(osculating, ae, mu, -j2, 0.0, -j4, 0.0, BrouwerLyddanePropagator.M2,
+                                                         BATCH_MEAN_EPSILON, BATCH_MEAN_MAX_ITERATIONS).
+               getPVCoordinates(frame).getPosition();
+    }
 
+    /**
+     * Get the memory allocated by the current thread.
+     * @return the memory allocated by the current thread (bytes), -1 if not supported by the JVM
+     */
+    private static long getAllocatedBytes() {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1L;
     }
 
     /**
@@ -0,0 +1,291 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.analytical;
+
+import java.util.Arrays;
+
+import org.hipparchus.util.FastMath;
+import org.hipparchus.util.MathUtils;
+
+/**
+ * Analytical propagator advancing a whole population of mean orbits at once.
+ * <p>
+ * The mean elements of the objects are stored in structure-of-arrays columns
+ * and only their secular evolution is modelled: the Brouwer secular rates of
+ * the mean anomaly, argument of perigee and right ascension of the ascending
+ * node due to J2 (first and second order) and J4, and optionally a linear decay
+ * of the semi-major axis due to drag, with the corresponding quadratic term in
+ * the mean anomaly. The rates are computed once when an object is added, so that
+ * propagating a range of objects is a tight loop without branches, including the
+ * fixed-iteration solution of Kepler's equation.
+ * </p>
+ * <p>
+ * Short-period terms are not modelled: the positions are those of the mean
+ * orbits. This engine is intended for the first-pass screening of very large
+ * populations, not for accurate propagation. Distinct ranges of objects can be
+ * propagated concurrently.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class SecularBatchPropagator {
+
+    /** Initial capacity of the columns. */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /** Number of Newton iterations solving Kepler's equation. */
+    private static final int KEPLER_ITERATIONS = 6;
+
+    /** Central attraction coefficient (m³/s²). */
+    private final double mu;
+
+    /** Equatorial radius of the central body (m). */
+    private final double ae;
+
+    /** Second zonal harmonic (J2 = -C20). */
+    private final double j2;
+
+    /** Fourth zonal harmonic (J4 = -C40). */
+    private final double j4;
+
+    /** Number of objects. */
+    private int size;
+
+    /** Epochs of the mean elements, as offsets from the reference date (s). */
+    private double[] epoch;
+
+    /** Mean semi-major axes at epoch (m). */
+    private double[] a;
+
+    /** Semi-major axes decay rates (m/s). */
+    private double[] aRate;
+
+    /** Eccentricities. */
+    private double[] e;
+
+    /** Semi-minor to semi-major axis ratios (√(1 - e²)). */
+    private double[] eta;
+
+    /** Cosines of the inclinations. */
+    private double[] cosI;
+
+    /** Sines of the inclinations. */
+    private double[] sinI;
+
+    /** Right ascensions of the ascending nodes at epoch (rad). */
+    private double[] raan;
+
+    /** Right ascension of the ascending node rates (rad/s). */
+    private double[] raanRate;
+
+    /** Arguments of perigee at epoch (rad). */
+    private double[] pa;
+
+    /** Argument of perigee rates (rad/s). */
+    private double[] paRate;
+
+    /** Mean anomalies at epoch (rad). */
+    private double[] meanAnomaly;
+
+    /** Mean anomaly rates (rad/s). */
+    private double[] meanAnomalyRate;
+
+    /** Half of the mean motion derivatives due to the semi-major axis decay (rad/s²). */
+    private double[] meanAnomalyAcceleration;
+
+    /**
+     * Constructor.
+     * @param mu central attraction coefficient (m³/s²)
+     * @param ae equatorial radius of the central body (m)
+     * @param j2 second zonal harmonic (J2 = -C20)
+     * @param j4 fourth zonal harmonic (J4 = -C40)
+     */
+    public SecularBatchPropagator(final double mu, final double ae, final double j2, final double j4) {
+        this.mu                      = mu;
+        this.ae                      = ae;
+        this.j2                      = j2;
+        this.j4                      = j4;
+        this.size                    = 0;
+        this.epoch                   = new double[INITIAL_CAPACITY];
+        this.a                       = new double[INITIAL_CAPACITY];
+        this.aRate                   = new double[INITIAL_CAPACITY];
+        this.e                       = new double[INITIAL_CAPACITY];
+        this.eta                     = new double[INITIAL_CAPACITY];
+        this.cosI                    = new double[INITIAL_CAPACITY];
+        this.sinI                    = new double[INITIAL_CAPACITY];
+        this.raan                    = new double[INITIAL_CAPACITY];
+        this.raanRate                = new double[INITIAL_CAPACITY];
+        this.pa                      = new double[INITIAL_CAPACITY];
+        this.paRate                  = new double[INITIAL_CAPACITY];
+        this.meanAnomaly             = new double[INITIAL_CAPACITY];
+        this.meanAnomalyRate         = new double[INITIAL_CAPACITY];
+        this.meanAnomalyAcceleration = new double[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Add an object to the population.
+     * @param objectEpoch epoch of the mean elements, as an offset from the reference date (s)
+     * @param objectA mean semi-major axis (m)
+     * @param objectE mean eccentricity
+     * @param objectI mean inclination (rad)
+     * @param objectRaan mean right ascension of the ascending node (rad)
+     * @param objectPa mean argument of perigee (rad)
+     * @param objectMeanAnomaly mean anomaly (rad)
+     * @param objectARate semi-major axis decay rate (m/s, 0 if drag is not modelled)
+     * @return the index of the object
+     */
+    public int addObject(final double objectEpoch, final double objectA, final double objectE, final double objectI,
+                         final double objectRaan, final double objectPa, final double objectMeanAnomaly,
+                         final double objectARate) {
+
+        if (size == a.length) {
+            grow();
+        }
+
+        // Brouwer secular rates (γ2' = J2 Re² / (2 a² η⁴), γ4' = -3 J4 Re⁴ / (8 a⁴ η⁸))
+        final double n      = FastMath.sqrt(mu / (objectA * objectA * objectA));
+        final double eta1   = FastMath.sqrt(1.0 - objectE * objectE);
+        final double eta2   = eta1 * eta1;
+        final double eta4   = eta2 * eta2;
+        final double theta  = FastMath.cos(objectI);
+        final double theta2 = theta * theta;
+        final double theta4 = theta2 * theta2;
+        final double ratio2 = (ae / objectA) * (ae / objectA);
+        final double g2     = 0.5 * j2 * ratio2 / eta4;
+        final double g22    = g2 * g2;
+        final double g4     = -0.375 * j4 * ratio2 * ratio2 / (eta4 * eta4);
+
+        final double dl = 1.0 + 1.5 * g2 * eta1 * (3.0 * theta2 - 1.0) +
+                          3.0 / 32.0 * g22 * eta1 * (-15.0 + 16.0 * eta1 + 25.0 * eta2 +
+                                                     (30.0 - 96.0 * eta1 - 90.0 * eta2) * theta2 +
+                                                     (105.0 + 144.0 * eta1 + 25.0 * eta2) * theta4) +
+                          15.0 / 16.0 * g4 * eta1 * objectE * objectE * (3.0 - 30.0 * theta2 + 35.0 * theta4);
+        final double dg = 1.5 * g2 * (5.0 * theta2 - 1.0) +
+                          3.0 / 32.0 * g22 * (-35.0 + 24.0 * eta1 + 25.0 * eta2 +
+                                              (90.0 - 192.0 * eta1 - 126.0 * eta2) * theta2 +
+                                              (385.0 + 360.0 * eta1 + 45.0 * eta2) * theta4) +
+                          5.0 / 16.0 * g4 * (21.0 - 9.0 * eta2 + (-270.0 + 126.0 * eta2) * theta2 + (385.0 - 189.0 * eta2) * theta4);
+        final double dh = -3.0 * g2 * theta +
+                          3.0 / 8.0 * g22 * ((-5.0 + 12.0 * eta1 + 9.0 * eta2) * theta + (-35.0 - 36.0 * eta1 - 5.0 * eta2) * theta * theta2) +
+                          5.0 / 4.0 * g4 * (5.0 - 3.0 * eta2) * theta * (3.0 - 7.0 * theta2);
+
+        final int index = size++;
+        epoch[index]                   = objectEpoch;
+        a[index]                       = objectA;
+        aRate[index]                   = objectARate;
+        e[index]                       = objectE;
+        eta[index]                     = eta1;
+        cosI[index]                    = theta;
+        sinI[index]                    = FastMath.sin(objectI);
+        raan[index]                    = objectRaan;
+        raanRate[index]                = n * dh;
+        pa[index]                      = objectPa;
+        paRate[index]                  = n * dg;
+        meanAnomaly[index]             = objectMeanAnomaly;
+        meanAnomalyRate[index]         = n * dl;
+        // dn/dt = -3 n ȧ / (2 a), integrated twice
+        meanAnomalyAcceleration[index] = -0.75 * n * objectARate / objectA;
+        return index;
+
+    }
+
+    /**
+     * Get the number of objects.
+     * @return the number of objects
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Get the epoch of the mean elements of an object.
+     * @param index index of the object
+     * @return the epoch of the mean elements, as an offset from the reference date (s)
+     */
+    public double getEpoch(final int index) {
+        return epoch[index];
+    }
+
+    /**
+     * Propagate a range of objects.
+     * <p>
+     * The positions are expressed in the frame of the mean elements.
+     * </p>
+     * @param date target date, as an offset from the reference date (s)
+     * @param from index of the first object (included)
+     * @param to index of the last object (excluded)
+     * @param x X coordinates of the positions, filled by the method for the range (m)
+     * @param y Y coordinates of the positions, filled by the method for the range (m)
+     * @param z Z coordinates of the positions, filled by the method for the range (m)
+     */
+    public void propagate(final double date, final int from, final int to,
+                          final double[] x, final double[] y, final double[] z) {
+
+        for (int k = from; k < to; k++) {
+
+            // Secular evolution
+            final double dt  = date - epoch[k];
+            final double ak  = a[k] + aRate[k] * dt;
+            final double ek  = e[k];
+            final double o   = raan[k] + raanRate[k] * dt;
+            final double w   = pa[k] + paRate[k] * dt;
+            final double m   = MathUtils.normalizeAngle(meanAnomaly[k] + (meanAnomalyRate[k] + meanAnomalyAcceleration[k] * dt) * dt, 0.0);
+
+            // Kepler's equation, Danby starter and fixed number of Newton iterations
+            double ea = m + 0.85 * ek * FastMath.copySign(1.0, m);
+            for (int iteration = 0; iteration < KEPLER_ITERATIONS; iteration++) {
+                ea -= (ea - ek * FastMath.sin(ea) - m) / (1.0 - ek * FastMath.cos(ea));
+            }
+
+            // Position in the orbital plane
+            final double xp = ak * (FastMath.cos(ea) - ek);
+            final double yp = ak * eta[k] * FastMath.sin(ea);
+
+            // Rotation to the frame of the elements
+            final double cosO = FastMath.cos(o);
+            final double sinO = FastMath.sin(o);
+            final double cosW = FastMath.cos(w);
+            final double sinW = FastMath.sin(w);
+            final double ci   = cosI[k];
+            final double si   = sinI[k];
+            x[k] = xp * (cosO * cosW - sinO * sinW * ci) - yp * (cosO * sinW + sinO * cosW * ci);
+            y[k] = xp * (sinO * cosW + cosO * sinW * ci) - yp * (sinO * sinW - cosO * cosW * ci);
+            z[k] = xp * sinW * si + yp * cosW * si;
+
+        }
+
+    }
+
+    /**
+     * Grow the columns.
+     */
+    private void grow() {
+        final int capacity = 2 * a.length;
+        epoch                   = Arrays.copyOf(epoch, capacity);
+        a                       = Arrays.copyOf(a, capacity);
+        aRate                   = Arrays.copyOf(aRate, capacity);
+        e                       = Arrays.copyOf(e, capacity);
+        eta                     = Arrays.copyOf(eta, capacity);
+        cosI                    = Arrays.copyOf(cosI, capacity);
+        sinI                    = Arrays.copyOf(sinI, capacity);
+        raan                    = Arrays.copyOf(raan, capacity);
+        raanRate                = Arrays.copyOf(raanRate, capacity);
+        pa                      = Arrays.copyOf(pa, capacity);
+        paRate                  = Arrays.copyOf(paRate, capacity);
+        meanAnomaly             = Arrays.copyOf(meanAnomaly, capacity);
+        meanAnomalyRate         = Arrays.copyOf(meanAnomalyRate, capacity);
+        meanAnomalyAcceleration = Arrays.copyOf(meanAnomalyAcceleration, capacity);
+    }
+
+}
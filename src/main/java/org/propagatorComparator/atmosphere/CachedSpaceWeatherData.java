@@ -0,0 +1,723 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.atmosphere;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.hipparchus.util.FastMath;
+import org.orekit.data.DataContext;
+import org.orekit.data.DataLoader;
+import org.orekit.data.DataProvidersManager;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.models.earth.atmosphere.DTM2000InputParameters;
+import org.orekit.models.earth.atmosphere.NRLMSISE00InputParameters;
+import org.orekit.models.earth.atmosphere.data.CssiSpaceWeatherDataLoader;
+import org.orekit.models.earth.atmosphere.data.CssiSpaceWeatherDataLoader.LineParameters;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.DateComponents;
+import org.orekit.time.TimeScale;
+import org.orekit.time.TimeStamped;
+import org.orekit.utils.Constants;
+
+/**
+ * CSSI space weather data backed by a binary cache of the parsed file.
+ * <p>
+ * The raw CSSI files are located through the data providers manager and
+ * checksummed. If a binary cache with the same checksum exists, it is
+ * memory-mapped instead of parsing the text files again. Otherwise the
+ * files are parsed once by {@link CssiSpaceWeatherDataLoader} and the
+ * cache is written for later runs.
+ * </p>
+ * <p>
+ * The off-heap records are not serializable, so the instances are serialized
+ * through a data transfer object holding a copy of the records.
+ * </p>
+ * <p>
+ * The instances are shared through {@link #getInstance(String, File)}, so
+ * that all the scenarios run by the same JVM use the same data. Contrary
+ * to {@code CssiSpaceWeatherData}, the queries do not modify the state of
+ * the object, so the shared instance can be used by several threads.
+ * The values returned are the same as the ones of {@code CssiSpaceWeatherData}.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class CachedSpaceWeatherData implements NRLMSISE00InputParameters, DTM2000InputParameters {
+
+    /** Serializable UID. */
+    private static final long serialVersionUID = 20231018L;
+
+    /** Magic number identifying a space weather cache file. */
+    private static final int MAGIC = 0x4F504353;
+
+    /** Version of the space weather cache file format. */
+    private static final int VERSION = 1;
+
+    /** Offset of the checksum of the raw files in the header. */
+    private static final int CHECKSUM_OFFSET = 8;
+
+    /** Offset of the length of the raw files in the header. */
+    private static final int LENGTH_OFFSET = 16;
+
+    /** Offset of the number of records in the header. */
+    private static final int COUNT_OFFSET = 24;
+
+    /** Offset of the index of the last observed record in the header. */
+    private static final int LAST_OBSERVED_OFFSET = 28;
+
+    /** Offset of the index of the last daily predicted record in the header. */
+    private static final int LAST_DAILY_PREDICTED_OFFSET = 32;
+
+    /** Size of the file header (bytes, padded to keep records aligned). */
+    private static final int HEADER_SIZE = 40;
+
+    /** Number of three-hourly values per day. */
+    private static final int N_THREE_HOURLY = 8;
+
+    /** Column of the modified julian day. */
+    private static final int MJD = 0;
+
+    /** First column of the three-hourly Kp values. */
+    private static final int KP = 1;
+
+    /** Column of the sum of the Kp values. */
+    private static final int KP_SUM = KP + N_THREE_HOURLY;
+
+    /** First column of the three-hourly Ap values. */
+    private static final int AP = KP_SUM + 1;
+
+    /** Column of the arithmetic average of the Ap values. */
+    private static final int AP_AVG = AP + N_THREE_HOURLY;
+
+    /** Column of the adjusted solar radio flux. */
+    private static final int F107_ADJ = AP_AVG + 1;
+
+    /** Column of the flux qualifier. */
+    private static final int FLUX_QUALIFIER = F107_ADJ + 1;
+
+    /** Column of the centered 81-day arithmetic average of adjusted F10.7. */
+    private static final int CTR81_ADJ = FLUX_QUALIFIER + 1;
+
+    /** Column of the last 81-day arithmetic average of adjusted F10.7. */
+    private static final int LST81_ADJ = CTR81_ADJ + 1;
+
+    /** Column of the observed solar radio flux. */
+    private static final int F107_OBS = LST81_ADJ + 1;
+
+    /** Column of the centered 81-day arithmetic average of observed F10.7. */
+    private static final int CTR81_OBS = F107_OBS + 1;
+
+    /** Column of the last 81-day arithmetic average of observed F10.7. */
+    private static final int LST81_OBS = CTR81_OBS + 1;
+
+    /** Number of columns. */
+    private static final int N_COLUMNS = LST81_OBS + 1;
+
+    /** Shared instances, one per supported names and cache directory. */
+    private static final Map<String, CachedSpaceWeatherData> INSTANCES = new HashMap<>();
+
+    /** UTC time scale. */
+    private final TimeScale utc;
+
+    /** Dates of the records. */
+    private final AbsoluteDate[] dates;
+
+    /** Parsed records (off-heap, one row of {@link #N_COLUMNS} values per day). */
+    private final transient DoubleBuffer records;
+
+    /** Checksum of the raw files. */
+    private final long checksum;
+
+    /** Date of last observation. */
+    private final AbsoluteDate lastObservedDate;
+
+    /** Date of last daily prediction. */
+    private final AbsoluteDate lastDailyPredictedDate;
+
+    /** Flag indicating if the data were read from a cache file. */
+    private final boolean loadedFromCache;
+
+    /**
+     * Constructor.
+     * @param supportedNames regular expression for supported CSSI files names
+     * @param manager data providers manager
+     * @param utc UTC time scale
+     * @param cacheDirectory directory of the cache files (null if the cache is kept in memory only)
+     * @throws IOException if the cache file cannot be read or written
+     */
+    public CachedSpaceWeatherData(final String supportedNames, final DataProvidersManager manager,
+                                  final TimeScale utc, final File cacheDirectory)
+        throws IOException {
+
+        this.utc = utc;
+
+        // Read the raw files (no parsing)
+        final RawFilesLoader raw = new RawFilesLoader();
+        if (!manager.feed(supportedNames, raw)) {
+            throw new OrekitException(OrekitMessages.UNABLE_TO_FIND_FILE, supportedNames);
+        }
+        this.checksum = raw.getChecksum();
+
+        // Look for an existing cache
+        ByteBuffer buffer = null;
+        File file = null;
+        if (cacheDirectory != null) {
+            file = new File(cacheDirectory, "space-weather-" + Long.toHexString(raw.getChecksum()) + ".bin");
+            if (file.isFile()) {
+                try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                    buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+                }
+                if (!headerMatches(buffer, raw)) {
+                    buffer = null;
+                }
+            }
+        }
+        this.loadedFromCache = buffer != null;
+
+        // Parse the files and write the cache
+        if (buffer == null) {
+            buffer = parse(raw, file);
+        }
+
+        // Read the header
+        final int n = buffer.getInt(COUNT_OFFSET);
+        buffer.position(HEADER_SIZE);
+        this.records = buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+
+        // Dates of the records
+        this.dates = new AbsoluteDate[n];
+        for (int i = 0; i < n; ++i) {
+            dates[i] = new AbsoluteDate(new DateComponents(DateComponents.MODIFIED_JULIAN_EPOCH, (int) get(i, MJD)), utc);
+        }
+        final int lastObserved       = buffer.getInt(LAST_OBSERVED_OFFSET);
+        final int lastDailyPredicted = buffer.getInt(LAST_DAILY_PREDICTED_OFFSET);
+        this.lastObservedDate        = dates[lastObserved < 0 ? n - 1 : lastObserved];
+        this.lastDailyPredictedDate  = dates[lastDailyPredicted < 0 ? n - 1 : lastDailyPredicted];
+
+    }
+
+    /**
+     * Constructor used by the deserialization.
+     * @param utc UTC time scale
+     * @param dates dates of the records
+     * @param records parsed records (heap buffer)
+     * @param checksum checksum of the raw files
+     * @param lastObservedDate date of last observation
+     * @param lastDailyPredictedDate date of last daily prediction
+     * @param loadedFromCache flag indicating if the data were read from a cache file
+     */
+    private CachedSpaceWeatherData(final TimeScale utc, final AbsoluteDate[] dates, final DoubleBuffer records,
+                                   final long checksum, final AbsoluteDate lastObservedDate,
+                                   final AbsoluteDate lastDailyPredictedDate, final boolean loadedFromCache) {
+        this.utc                    = utc;
+        this.dates                  = dates;
+        this.records                = records;
+        this.checksum               = checksum;
+        this.lastObservedDate       = lastObservedDate;
+        this.lastDailyPredictedDate = lastDailyPredictedDate;
+        this.loadedFromCache        = loadedFromCache;
+    }
+
+    /**
+     * Get the shared instance for the default data context.
+     * <p>
+     * The instance is built the first time it is requested and then shared by all callers.
+     * </p>
+     * @param supportedNames regular expression for supported CSSI files names
+     * @param cacheDirectory directory of the cache files (null if the cache is kept in memory only)
+     * @return the shared instance
+     * @throws IOException if the cache file cannot be read or written
+     */
+    public static synchronized CachedSpaceWeatherData getInstance(final String supportedNames,
+                                                                  final File cacheDirectory)
+        throws IOException {
+        final String key = supportedNames + File.pathSeparator + cacheDirectory;
+        CachedSpaceWeatherData instance = INSTANCES.get(key);
+        if (instance == null) {
+            instance = new CachedSpaceWeatherData(supportedNames,
+                                                  DataContext.getDefault().getDataProvidersManager(),
+                                                  DataContext.getDefault().getTimeScales().getUTC(),
+                                                  cacheDirectory);
+            INSTANCES.put(key, instance);
+        }
+        return instance;
+    }
+
+    /**
+     * Get the flag indicating if the data were read from a cache file.
+     * @return true if the data were read from a cache file
+     */
+    public boolean isLoadedFromCache() {
+        return loadedFromCache;
+    }
+
+    /**
+     * Get the checksum of the raw files, identifying the data set.
+     * @return the checksum of the raw files
+     */
+    public long getChecksum() {
+        return checksum;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public AbsoluteDate getMinDate() {
+        return dates[0];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public AbsoluteDate getMaxDate() {
+        return dates[dates.length - 1];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getInstantFlux(final AbsoluteDate date) {
+        return getLinearInterpolation(date, bracket(date), F107_OBS);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getMeanFlux(final AbsoluteDate date) {
+        return getAverageFlux(date);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getThreeHourlyKP(final AbsoluteDate date) {
+        if (date.compareTo(lastObservedDate) <= 0) {
+            final int i = bracket(date);
+            return get(i, KP + threeHourlyIndex(date, i));
+        } else {
+            return get24HoursKp(date);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double get24HoursKp(final AbsoluteDate date) {
+        final int i = bracket(date);
+        if (date.compareTo(lastDailyPredictedDate) <= 0) {
+            return get(i, KP_SUM) / N_THREE_HOURLY;
+        } else {
+            return getLinearInterpolation(date, i, KP_SUM) / N_THREE_HOURLY;
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getDailyFlux(final AbsoluteDate date) {
+        return getDailyOrInterpolated(date.shiftedBy(-Constants.JULIAN_DAY), F107_OBS);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getAverageFlux(final AbsoluteDate date) {
+        return getDailyOrInterpolated(date, CTR81_OBS);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double[] getAp(final AbsoluteDate date) {
+        return new double[] {
+            getDailyOrInterpolated(date, AP_AVG),
+            getThreeHourlyAp(date),
+            getThreeHourlyAp(date.shiftedBy(-3.0 * 3600.0)),
+            getThreeHourlyAp(date.shiftedBy(-6.0 * 3600.0)),
+            getThreeHourlyAp(date.shiftedBy(-9.0 * 3600.0)),
+            get24HoursAverageAp(date.shiftedBy(-12.0 * 3600.0)),
+            get24HoursAverageAp(date.shiftedBy(-36.0 * 3600.0))
+        };
+    }
+
+    /**
+     * Get the three-hourly Ap value.
+     * @param date the current date
+     * @return the three-hourly Ap value
+     */
+    private double getThreeHourlyAp(final AbsoluteDate date) {
+        if (date.compareTo(lastObservedDate.shiftedBy(Constants.JULIAN_DAY)) < 0) {
+            final int i = bracket(date);
+            return get(i, AP + threeHourlyIndex(date, i));
+        } else {
+            return getDailyOrInterpolated(date, AP_AVG);
+        }
+    }
+
+    /**
+     * Get the average of the eight three-hourly Ap values preceding the date.
+     * @param date the current date
+     * @return the 24 hours average Ap value
+     */
+    private double get24HoursAverageAp(final AbsoluteDate date) {
+        if (date.compareTo(lastDailyPredictedDate) <= 0) {
+            double apSum = 0.0;
+            for (int i = 0; i < N_THREE_HOURLY; ++i) {
+                apSum += getThreeHourlyAp(date.shiftedBy(-3.0 * 3600.0 * i));
+            }
+            return apSum / N_THREE_HOURLY;
+        } else {
+            return getDailyOrInterpolated(date, AP_AVG);
+        }
+    }
+
+    /**
+     * Get the daily value of a column, interpolated after the last daily prediction.
+     * @param date the current date
+     * @param column column of the value
+     * @return the daily value
+     */
+    private double getDailyOrInterpolated(final AbsoluteDate date, final int column) {
+        final int i = bracket(date);
+        if (date.compareTo(lastDailyPredictedDate) <= 0) {
+            return get(i, column);
+        } else {
+            return getLinearInterpolation(date, i, column);
+        }
+    }
+
+    /**
+     * Get the index of the three-hourly value for the date.
+     * @param date the current date
+     * @param i index of the record preceding the date
+     * @return the index of the three-hourly value
+     */
+    private int threeHourlyIndex(final AbsoluteDate date, final int i) {
+        final double hours = date.offsetFrom(dates[i], utc) / 3600.0;
+        return FastMath.min((int) (hours / 3.0), N_THREE_HOURLY - 1);
+    }
+
+    /**
+     * Linear interpolation of a column between two consecutive records.
+     * @param date the current date
+     * @param i index of the record preceding the date
+     * @param column column of the value
+     * @return the interpolated value
+     */
+    private double getLinearInterpolation(final AbsoluteDate date, final int i, final int column) {
+        final double previous = get(i, column);
+        final double next     = get(i + 1, column);
+        final double ratio    = date.durationFrom(dates[i]) / dates[i + 1].durationFrom(dates[i]);
+        return previous + ratio * (next - previous);
+    }
+
+    /**
+     * Get the index of the record preceding the date.
+     * <p>
+     * The returned index always has a following record.
+     * </p>
+     * @param date the current date
+     * @return the index of the record preceding the date
+     */
+    private int bracket(final AbsoluteDate date) {
+
+        // Verify the date range
+        if (date.durationFrom(getMinDate()) < 0.0) {
+            throw new OrekitException(OrekitMessages.OUT_OF_RANGE_EPHEMERIDES_DATE_BEFORE,
+                                      date, getMinDate(), getMaxDate(), getMinDate().durationFrom(date));
+        }
+        if (date.durationFrom(getMaxDate()) > 0.0) {
+            throw new OrekitException(OrekitMessages.OUT_OF_RANGE_EPHEMERIDES_DATE_AFTER,
+                                      date, getMinDate(), getMaxDate(), date.durationFrom(getMaxDate()));
+        }
+
+        // Binary search
+        int low  = 0;
+        int high = dates.length - 1;
+        while (high - low > 1) {
+            final int middle = (low + high) >>> 1;
+            if (dates[middle].compareTo(date) <= 0) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+        return FastMath.min(low, dates.length - 2);
+
+    }
+
+    /**
+     * Get a value of the parsed records.
+     * @param i index of the record
+     * @param column column of the value
+     * @return the value
+     */
+    private double get(final int i, final int column) {
+        return records.get(i * N_COLUMNS + column);
+    }
+
+    /**
+     * Parse the raw files and write the cache.
+     * @param raw raw files
+     * @param file cache file (null if the cache is kept in memory only)
+     * @return a buffer containing the header and the records
+     * @throws IOException if the cache file cannot be written
+     */
+    private ByteBuffer parse(final RawFilesLoader raw, final File file) throws IOException {
+
+        // Parse the raw files
+        final CssiSpaceWeatherDataLoader loader = new CssiSpaceWeatherDataLoader(utc);
+        for (int k = 0; k < raw.getNames().size(); ++k) {
+            try {
+                loader.loadData(new ByteArrayInputStream(raw.getContents().get(k)), raw.getNames().get(k));
+            } catch (ParseException pe) {
+                throw new OrekitException(pe, OrekitMessages.UNABLE_TO_PARSE_LINE_IN_FILE,
+                                          pe.getErrorOffset(), raw.getNames().get(k), pe.getMessage());
+            }
+        }
+
+        // Storage
+        final List<TimeStamped> lines = new ArrayList<>(loader.getDataSet());
+        final int size = HEADER_SIZE + Double.BYTES * N_COLUMNS * lines.size();
+        final ByteBuffer buffer;
+        if (file == null) {
+            buffer = ByteBuffer.allocateDirect(size).order(ByteOrder.LITTLE_ENDIAN);
+        } else {
+            file.getParentFile().mkdirs();
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                                                        StandardOpenOption.TRUNCATE_EXISTING,
+                                                        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+
+        // Records
+        buffer.position(HEADER_SIZE);
+        for (final TimeStamped line : lines) {
+            final LineParameters parameters = (LineParameters) line;
+            buffer.putDouble(parameters.getDate().getComponents(utc).getDate().getMJD());
+            for (int j = 0; j < N_THREE_HOURLY; ++j) {
+                buffer.putDouble(parameters.getThreeHourlyKp(j));
+            }
+            buffer.putDouble(parameters.getKpSum());
+            for (int j = 0; j < N_THREE_HOURLY; ++j) {
+                buffer.putDouble(parameters.getThreeHourlyAp(j));
+            }
+            buffer.putDouble(parameters.getApAvg());
+            buffer.putDouble(parameters.getF107Adj());
+            buffer.putDouble(parameters.getFluxQualifier());
+            buffer.putDouble(parameters.getCtr81Adj());
+            buffer.putDouble(parameters.getLst81Adj());
+            buffer.putDouble(parameters.getF107Obs());
+            buffer.putDouble(parameters.getCtr81Obs());
+            buffer.putDouble(parameters.getLst81Obs());
+        }
+
+        // Header, written last (magic number at the very end) so that an interrupted write is not reused
+        int lastObserved       = -1;
+        int lastDailyPredicted = -1;
+        for (int i = 0; i < lines.size(); ++i) {
+            if (lines.get(i).getDate().equals(loader.getLastObservedDate())) {
+                lastObserved = i;
+            }
+            if (lines.get(i).getDate().equals(loader.getLastDailyPredictedDate())) {
+                lastDailyPredicted = i;
+            }
+        }
+        buffer.putInt(Integer.BYTES, VERSION);
+        buffer.putLong(CHECKSUM_OFFSET, raw.getChecksum());
+        buffer.putLong(LENGTH_OFFSET, raw.getLength());
+        buffer.putInt(COUNT_OFFSET, lines.size());
+        buffer.putInt(LAST_OBSERVED_OFFSET, lastObserved);
+        buffer.putInt(LAST_DAILY_PREDICTED_OFFSET, lastDailyPredicted);
+        buffer.putInt(0, MAGIC);
+
+        return buffer;
+
+    }
+
+    /**
+     * Replace the instance with a data transfer object for serialization.
+     * @return data transfer object that will be serialized
+     */
+    private Object writeReplace() {
+        final double[] values = new double[records.capacity()];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = records.get(i);
+        }
+        return new DataTransferObject(utc, dates, values, checksum, lastObservedDate, lastDailyPredictedDate, loadedFromCache);
+    }
+
+    /**
+     * Check if the header of an existing cache file matches the raw files.
+     * @param buffer buffer containing the cache file
+     * @param raw raw files
+     * @return true if the header matches
+     */
+    private static boolean headerMatches(final ByteBuffer buffer, final RawFilesLoader raw) {
+        return buffer.capacity() >= HEADER_SIZE &&
+               buffer.getInt(0) == MAGIC &&
+               buffer.getInt(Integer.BYTES) == VERSION &&
+               buffer.getLong(CHECKSUM_OFFSET) == raw.getChecksum() &&
+               buffer.getLong(LENGTH_OFFSET) == raw.getLength() &&
+               buffer.capacity() == HEADER_SIZE + Double.BYTES * N_COLUMNS * buffer.getInt(COUNT_OFFSET);
+    }
+
+    /** Internal class used only for serialization. */
+    private static class DataTransferObject implements Serializable {
+
+        /** Serializable UID. */
+        private static final long serialVersionUID = 20231018L;
+
+        /** UTC time scale. */
+        private final TimeScale utc;
+
+        /** Dates of the records. */
+        private final AbsoluteDate[] dates;
+
+        /** Parsed records (one row of {@link #N_COLUMNS} values per day). */
+        private final double[] records;
+
+        /** Checksum of the raw files. */
+        private final long checksum;
+
+        /** Date of last observation. */
+        private final AbsoluteDate lastObservedDate;
+
+        /** Date of last daily prediction. */
+        private final AbsoluteDate lastDailyPredictedDate;
+
+        /** Flag indicating if the data were read from a cache file. */
+        private final boolean loadedFromCache;
+
+        /**
+         * Constructor.
+         * @param utc UTC time scale
+         * @param dates dates of the records
+         * @param records parsed records
+         * @param checksum checksum of the raw files
+         * @param lastObservedDate date of last observation
+         * @param lastDailyPredictedDate date of last daily prediction
+         * @param loadedFromCache flag indicating if the data were read from a cache file
+         */
+        DataTransferObject(final TimeScale utc, final AbsoluteDate[] dates, final double[] records,
+                           final long checksum, final AbsoluteDate lastObservedDate,
+                           final AbsoluteDate lastDailyPredictedDate, final boolean loadedFromCache) {
+            this.utc                    = utc;
+            this.dates                  = dates;
+            this.records                = records;
+            this.checksum               = checksum;
+            this.lastObservedDate       = lastObservedDate;
+            this.lastDailyPredictedDate = lastDailyPredictedDate;
+            this.loadedFromCache        = loadedFromCache;
+        }
+
+        /**
+         * Replace the deserialized data transfer object with a {@link CachedSpaceWeatherData}.
+         * @return replacement {@link CachedSpaceWeatherData}, with the records in a heap buffer
+         */
+        private Object readResolve() {
+            return new CachedSpaceWeatherData(utc, dates, DoubleBuffer.wrap(records), checksum,
+                                              lastObservedDate, lastDailyPredictedDate, loadedFromCache);
+        }
+
+    }
+
+    /** Loader reading the raw content of the CSSI files, without parsing it. */
+    private static class RawFilesLoader implements DataLoader {
+
+        /** Names of the files, in loading order. */
+        private final List<String> names;
+
+        /** Contents of the files, in loading order. */
+        private final List<byte[]> contents;
+
+        /** Checksum of the contents. */
+        private final CRC32 crc;
+
+        /** Total length of the contents. */
+        private long length;
+
+        /** Constructor. */
+        RawFilesLoader() {
+            this.names    = new ArrayList<>();
+            this.contents = new ArrayList<>();
+            this.crc      = new CRC32();
+            this.length   = 0L;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean stillAcceptsData() {
+            return true;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void loadData(final InputStream input, final String name) throws IOException {
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            final byte[] chunk = new byte[8192];
+            for (int read = input.read(chunk); read >= 0; read = input.read(chunk)) {
+                output.write(chunk, 0, read);
+            }
+            final byte[] content = output.toByteArray();
+            crc.update(content, 0, content.length);
+            length += content.length;
+            names.add(name);
+            contents.add(content);
+        }
+
+        /**
+         * Get the names of the files.
+         * @return the names of the files
+         */
+        public List<String> getNames() {
+            return names;
+        }
+
+        /**
+         * Get the contents of the files.
+         * @return the contents of the files
+         */
+        public List<byte[]> getContents() {
+            return contents;
+        }
+
+        /**
+         * Get the checksum of the contents.
+         * @return the checksum of the contents
+         */
+        public long getChecksum() {
+            return crc.getValue();
+        }
+
+        /**
+         * Get the total length of the contents.
+         * @return the total length of the contents
+         */
+        public long getLength() {
+            return length;
+        }
+
+    }
+
+}
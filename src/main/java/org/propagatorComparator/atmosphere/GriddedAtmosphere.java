@@ -0,0 +1,511 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.atmosphere;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+import org.hipparchus.CalculusFieldElement;
+import org.hipparchus.geometry.euclidean.threed.FieldVector3D;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.util.FastMath;
+import org.hipparchus.util.MathUtils;
+import org.orekit.bodies.GeodeticPoint;
+import org.orekit.bodies.OneAxisEllipsoid;
+import org.orekit.frames.Frame;
+import org.orekit.models.earth.atmosphere.Atmosphere;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.FieldAbsoluteDate;
+import org.orekit.utils.PVCoordinatesProvider;
+
+/**
+ * Atmosphere model answering density queries from a precomputed grid.
+ * <p>
+ * The underlying model is sampled once over the scenario span on a
+ * time × altitude × geodetic latitude × local solar time grid. The logarithm
+ * of the density is stored off-heap, either in direct buffers or in a
+ * memory-mapped file that can be reused by later runs of the same scenario.
+ * The samples are split in chunks of whole time slices, each chunk being
+ * smaller than the 2 GB limit of a single buffer.
+ * Queries are answered by multilinear interpolation of the logarithm of the
+ * density, which does not allocate once the position is expressed in the body frame.
+ * </p>
+ * <p>
+ * Queries outside the sampled time span or altitude band are delegated
+ * to the underlying model.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class GriddedAtmosphere implements Atmosphere {
+
+    /** Serializable UID. */
+    private static final long serialVersionUID = 20231018L;
+
+    /** Magic number identifying a density grid file. */
+    private static final int MAGIC = 0x4F504347;
+
+    /** Version of the density grid file format. */
+    private static final int VERSION = 1;
+
+    /** Size of the file header (bytes). */
+    private static final int HEADER_SIZE = 6 * Integer.BYTES + 4 * Double.BYTES;
+
+    /** Number of iterations for the geodetic latitude computation. */
+    private static final int LATITUDE_ITERATIONS = 4;
+
+    /** Underlying atmosphere model, used outside the grid. */
+    private final Atmosphere model;
+
+    /** Body frame. */
+    private final Frame bodyFrame;
+
+    /** Equatorial radius of the body (m). */
+    private final double ae;
+
+    /** Squared eccentricity of the body. */
+    private final double e2;
+
+    /** Start date of the grid. */
+    private final AbsoluteDate start;
+
+    /** Time step between grid nodes (s). */
+    private final double timeStep;
+
+    /** Number of time nodes. */
+    private final int nTime;
+
+    /** Minimum altitude of the grid (m). */
+    private final double minAltitude;
+
+    /** Altitude step between grid nodes (m). */
+    private final double altitudeStep;
+
+    /** Number of altitude nodes. */
+    private final int nAltitude;
+
+    /** Latitude step between grid nodes (rad). */
+    private final double latitudeStep;
+
+    /** Number of latitude nodes. */
+    private final int nLatitude;
+
+    /** Local solar time step between grid nodes (rad). */
+    private final double localSolarTimeStep;
+
+    /** Number of local solar time nodes. */
+    private final int nLocalSolarTime;
+
+    /** Unwrapped longitude of the Sun in body frame at each time node (rad). */
+    private final double[] sunLongitude;
+
+    /** Number of time nodes per chunk of samples. */
+    private final int nodesPerChunk;
+
+    /** Logarithm of the density at grid nodes (off-heap, one buffer per chunk of time nodes). */
+    private final DoubleBuffer[] logDensity;
+
+    /** Flag indicating if the grid was read from a cache file. */
+    private final boolean loadedFromCache;
+
+    /**
+     * Constructor.
+     * @param model underlying atmosphere model to sample
+     * @param body central body
+     * @param sun Sun coordinates provider
+     * @param start start date of the grid
+     * @param duration duration covered by the grid (s)
+     * @param timeStep time step between grid nodes (s)
+     * @param minAltitude minimum altitude of the grid (m)
+     * @param maxAltitude maximum altitude of the grid (m)
+     * @param altitudePoints number of altitude nodes (at least 2)
+     * @param latitudePoints number of latitude nodes (at least 2)
+     * @param localSolarTimePoints number of local solar time nodes (at least 2)
+     * @param dataChecksum checksum of the input data of the underlying model (e.g. space weather files),
+     * used to identify the cache file
+     * @param cacheDirectory directory of the memory-mapped cache files (null for direct buffers)
+     * @throws IOException if the cache file cannot be read or written
+     */
+    public GriddedAtmosphere(final Atmosphere model, final OneAxisEllipsoid body, final PVCoordinatesProvider sun,
+                             final AbsoluteDate start, final double duration, final double timeStep,
+                             final double minAltitude, final double maxAltitude,
+                             final int altitudePoints, final int latitudePoints, final int localSolarTimePoints,
+                             final long dataChecksum, final File cacheDirectory)
+        throws IOException {
+
+        // Verify the grid definition
+        if (altitudePoints < 2 || latitudePoints < 2 || localSolarTimePoints < 2 || timeStep <= 0.0 || maxAltitude <= minAltitude) {
+            throw new IllegalArgumentException("Invalid atmosphere grid definition");
+        }
+
+        this.model              = model;
+        this.bodyFrame          = body.getBodyFrame();
+        this.ae                 = body.getEquatorialRadius();
+        this.e2                 = body.getEccentricitySquared();
+        this.start              = start;
+        this.timeStep           = timeStep;
+        this.nTime              = FastMath.max(2, (int) FastMath.ceil(duration / timeStep) + 1);
+        this.minAltitude        = minAltitude;
+        this.nAltitude          = altitudePoints;
+        this.altitudeStep       = (maxAltitude - minAltitude) / (altitudePoints - 1);
+        this.nLatitude          = latitudePoints;
+        this.latitudeStep       = FastMath.PI / (latitudePoints - 1);
+        this.nLocalSolarTime    = localSolarTimePoints;
+        this.localSolarTimeStep = MathUtils.TWO_PI / localSolarTimePoints;
+        this.sunLongitude       = new double[nTime];
+
+        // Storage, split in chunks of whole time slices
+        final long sliceSize = (long) Double.BYTES * nAltitude * nLatitude * nLocalSolarTime;
+        if (sliceSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Atmosphere grid time slice is too large: " + sliceSize + " bytes");
+        }
+        final int  headerSize = HEADER_SIZE + Double.BYTES * nTime;
+        final long size       = headerSize + sliceSize * nTime;
+        this.nodesPerChunk    = (int) (Integer.MAX_VALUE / sliceSize);
+        this.logDensity       = new DoubleBuffer[(nTime + nodesPerChunk - 1) / nodesPerChunk];
+
+        final ByteBuffer header;
+        if (cacheDirectory == null) {
+            // Direct buffers, not reused between runs
+            header = ByteBuffer.allocateDirect(headerSize).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < logDensity.length; ++i) {
+                final int nodes = FastMath.min(nodesPerChunk, nTime - i * nodesPerChunk);
+                logDensity[i] = ByteBuffer.allocateDirect((int) (nodes * sliceSize)).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+            }
+            this.loadedFromCache = false;
+        } else {
+            // Memory-mapped file, reused by later runs with the same grid and model data
+            final File file = new File(cacheDirectory, cacheFileName(model, maxAltitude, dataChecksum));
+            final boolean exists = file.isFile() && file.length() == size;
+            cacheDirectory.mkdirs();
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                                                        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                header = channel.map(FileChannel.MapMode.READ_WRITE, 0, headerSize).order(ByteOrder.LITTLE_ENDIAN);
+                for (int i = 0; i < logDensity.length; ++i) {
+                    final int nodes = FastMath.min(nodesPerChunk, nTime - i * nodesPerChunk);
+                    logDensity[i] = channel.map(FileChannel.MapMode.READ_WRITE,
+                                                headerSize + i * nodesPerChunk * sliceSize,
+                                                nodes * sliceSize).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+                }
+            }
+            this.loadedFromCache = exists && headerMatches(header);
+            if (!loadedFromCache) {
+                // Invalidate a stale header before overwriting the samples
+                header.putInt(0, 0);
+            }
+        }
+
+        // Off-heap samples
+        header.position(HEADER_SIZE);
+        final DoubleBuffer sunBuffer = header.slice().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        if (loadedFromCache) {
+            sunBuffer.get(sunLongitude);
+        } else {
+            // The header is written last, so that an interrupted sampling is not reused
+            sample(body, sun);
+            sunBuffer.put(sunLongitude);
+            writeHeader(header);
+        }
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Frame getFrame() {
+        return bodyFrame;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getDensity(final AbsoluteDate date, final Vector3D position, final Frame frame) {
+
+        // Time index
+        final double t = date.durationFrom(start) / timeStep;
+        if (t < 0.0 || t > nTime - 1) {
+            return model.getDensity(date, position, frame);
+        }
+
+        // Position in body frame
+        final Vector3D p = frame == bodyFrame ? position : frame.getStaticTransformTo(bodyFrame, date).transformPosition(position);
+        final double x = p.getX();
+        final double y = p.getY();
+        final double z = p.getZ();
+
+        // Geodetic latitude and altitude
+        final double r = FastMath.sqrt(x * x + y * y);
+        double lat = FastMath.atan2(z, r * (1.0 - e2));
+        double alt = 0.0;
+        for (int i = 0; i < LATITUDE_ITERATIONS; ++i) {
+            final double sin = FastMath.sin(lat);
+            final double w   = FastMath.sqrt(1.0 - e2 * sin * sin);
+            final double n   = ae / w;
+            alt = r * FastMath.cos(lat) + z * sin - ae * w;
+            lat = FastMath.atan2(z, r * (1.0 - e2 * n / (n + alt)));
+        }
+
+        // Altitude index
+        final double a = (alt - minAltitude) / altitudeStep;
+        if (a < 0.0 || a > nAltitude - 1) {
+            return model.getDensity(date, position, frame);
+        }
+
+        // Local solar time
+        final int    it  = FastMath.min((int) t, nTime - 2);
+        final double ft  = t - it;
+        final double sun = sunLongitude[it] + ft * (sunLongitude[it + 1] - sunLongitude[it]);
+        final double lst = MathUtils.normalizeAngle(FastMath.atan2(y, x) - sun + FastMath.PI, FastMath.PI);
+
+        // Cell indices
+        final int    ia = FastMath.min((int) a, nAltitude - 2);
+        final double l  = (lat + 0.5 * FastMath.PI) / latitudeStep;
+        final int    il = FastMath.max(0, FastMath.min((int) l, nLatitude - 2));
+        final double s  = lst / localSolarTimeStep;
+        final int    is = FastMath.min((int) s, nLocalSolarTime - 1);
+
+        return FastMath.exp(interpolate(it, ft, ia, a - ia, il, l - il, is, s - is));
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T extends CalculusFieldElement<T>> T getDensity(final FieldAbsoluteDate<T> date,
+                                                            final FieldVector3D<T> position,
+                                                            final Frame frame) {
+
+        // Time index
+        final T t = date.durationFrom(start).divide(timeStep);
+        if (t.getReal() < 0.0 || t.getReal() > nTime - 1) {
+            return model.getDensity(date, position, frame);
+        }
+
+        // Position in body frame
+        final FieldVector3D<T> p = frame.getTransformTo(bodyFrame, date).transformPosition(position);
+        final T x = p.getX();
+        final T y = p.getY();
+        final T z = p.getZ();
+
+        // Geodetic latitude and altitude
+        final T r = x.multiply(x).add(y.multiply(y)).sqrt();
+        T lat = z.atan2(r.multiply(1.0 - e2));
+        T alt = r.getField().getZero();
+        for (int i = 0; i < LATITUDE_ITERATIONS; ++i) {
+            final T sin = lat.sin();
+            final T w   = sin.multiply(sin).multiply(-e2).add(1.0).sqrt();
+            final T n   = w.reciprocal().multiply(ae);
+            alt = r.multiply(lat.cos()).add(z.multiply(sin)).subtract(w.multiply(ae));
+            lat = z.atan2(r.multiply(n.divide(n.add(alt)).multiply(-e2).add(1.0)));
+        }
+
+        // Altitude index
+        final T a = alt.subtract(minAltitude).divide(altitudeStep);
+        if (a.getReal() < 0.0 || a.getReal() > nAltitude - 1) {
+            return model.getDensity(date, position, frame);
+        }
+
+        // Local solar time
+        final int it  = FastMath.min((int) t.getReal(), nTime - 2);
+        final T   ft  = t.subtract(it);
+        final T   sun = ft.multiply(sunLongitude[it + 1] - sunLongitude[it]).add(sunLongitude[it]);
+        final T   raw = y.atan2(x).subtract(sun).add(FastMath.PI);
+        final T   lst = raw.subtract(MathUtils.TWO_PI * FastMath.floor(raw.getReal() / MathUtils.TWO_PI));
+
+        // Cell indices
+        final int ia = FastMath.min((int) a.getReal(), nAltitude - 2);
+        final T   l  = lat.add(0.5 * FastMath.PI).divide(latitudeStep);
+        final int il = FastMath.max(0, FastMath.min((int) l.getReal(), nLatitude - 2));
+        final T   s  = lst.divide(localSolarTimeStep);
+        final int is = FastMath.min((int) s.getReal(), nLocalSolarTime - 1);
+
+        // Multilinear interpolation
+        final T fa = a.subtract(ia);
+        final T fl = l.subtract(il);
+        final T fs = s.subtract(is);
+        T result = t.getField().getZero();
+        for (int dt = 0; dt < 2; ++dt) {
+            final T wt = dt == 0 ? ft.negate().add(1.0) : ft;
+            for (int da = 0; da < 2; ++da) {
+                final T wa = wt.multiply(da == 0 ? fa.negate().add(1.0) : fa);
+                for (int dl = 0; dl < 2; ++dl) {
+                    final T wl = wa.multiply(dl == 0 ? fl.negate().add(1.0) : fl);
+                    for (int ds = 0; ds < 2; ++ds) {
+                        final T ws = wl.multiply(ds == 0 ? fs.negate().add(1.0) : fs);
+                        result = result.add(ws.multiply(logDensity(it + dt, ia + da, il + dl, (is + ds) % nLocalSolarTime)));
+                    }
+                }
+            }
+        }
+        return result.exp();
+
+    }
+
+    /**
+     * Get the number of density samples stored in the grid.
+     * @return the number of density samples
+     */
+    public int getSampleCount() {
+        return nTime * nAltitude * nLatitude * nLocalSolarTime;
+    }
+
+    /**
+     * Get the flag indicating if the grid was read from a cache file.
+     * @return true if the grid was read from a cache file
+     */
+    public boolean isLoadedFromCache() {
+        return loadedFromCache;
+    }
+
+    /**
+     * Multilinear interpolation of the logarithm of the density.
+     * @param it time index
+     * @param ft time fraction within the cell
+     * @param ia altitude index
+     * @param fa altitude fraction within the cell
+     * @param il latitude index
+     * @param fl latitude fraction within the cell
+     * @param is local solar time index
+     * @param fs local solar time fraction within the cell
+     * @return the interpolated logarithm of the density
+     */
+    private double interpolate(final int it, final double ft, final int ia, final double fa,
+                               final int il, final double fl, final int is, final double fs) {
+        final int is1 = (is + 1) % nLocalSolarTime;
+        double result = 0.0;
+        for (int dt = 0; dt < 2; ++dt) {
+            final double wt = dt == 0 ? 1.0 - ft : ft;
+            for (int da = 0; da < 2; ++da) {
+                final double wa = wt * (da == 0 ? 1.0 - fa : fa);
+                for (int dl = 0; dl < 2; ++dl) {
+                    final double wl = wa * (dl == 0 ? 1.0 - fl : fl);
+                    result += wl * ((1.0 - fs) * logDensity(it + dt, ia + da, il + dl, is) +
+                                    fs * logDensity(it + dt, ia + da, il + dl, is1));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the logarithm of the density at a grid node.
+     * @param it time index
+     * @param ia altitude index
+     * @param il latitude index
+     * @param is local solar time index
+     * @return the logarithm of the density at the node
+     */
+    private double logDensity(final int it, final int ia, final int il, final int is) {
+        return logDensity[it / nodesPerChunk].get(index(it % nodesPerChunk, ia, il, is));
+    }
+
+    /**
+     * Get the index of a grid node in the off-heap buffer of its chunk.
+     * @param it time index within the chunk
+     * @param ia altitude index
+     * @param il latitude index
+     * @param is local solar time index
+     * @return the index of the node
+     */
+    private int index(final int it, final int ia, final int il, final int is) {
+        return ((it * nAltitude + ia) * nLatitude + il) * nLocalSolarTime + is;
+    }
+
+    /**
+     * Sample the underlying model on the grid.
+     * @param body central body
+     * @param sun Sun coordinates provider
+     */
+    private void sample(final OneAxisEllipsoid body, final PVCoordinatesProvider sun) {
+
+        // Longitude of the Sun in body frame, unwrapped to allow linear interpolation
+        for (int it = 0; it < nTime; ++it) {
+            final Vector3D sunPosition = sun.getPVCoordinates(start.shiftedBy(it * timeStep), bodyFrame).getPosition();
+            final double   longitude   = sunPosition.getAlpha();
+            sunLongitude[it] = it == 0 ? longitude : MathUtils.normalizeAngle(longitude, sunLongitude[it - 1]);
+        }
+
+        // Time slices are independent
+        IntStream.range(0, nTime).parallel().forEach(it -> {
+            final AbsoluteDate date  = start.shiftedBy(it * timeStep);
+            final DoubleBuffer chunk = logDensity[it / nodesPerChunk];
+            for (int ia = 0; ia < nAltitude; ++ia) {
+                final double altitude = minAltitude + ia * altitudeStep;
+                for (int il = 0; il < nLatitude; ++il) {
+                    final double latitude = il * latitudeStep - 0.5 * FastMath.PI;
+                    for (int is = 0; is < nLocalSolarTime; ++is) {
+                        final double   longitude = is * localSolarTimeStep - FastMath.PI + sunLongitude[it];
+                        final Vector3D point     = body.transform(new GeodeticPoint(latitude, longitude, altitude));
+                        final double   density   = model.getDensity(date, point, bodyFrame);
+                        chunk.put(index(it % nodesPerChunk, ia, il, is), FastMath.log(FastMath.max(density, Double.MIN_NORMAL)));
+                    }
+                }
+            }
+        });
+
+    }
+
+    /**
+     * Write the file header.
+     * @param buffer buffer in which the header is written
+     */
+    private void writeHeader(final ByteBuffer buffer) {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, nTime);
+        buffer.putInt(12, nAltitude);
+        buffer.putInt(16, nLatitude);
+        buffer.putInt(20, nLocalSolarTime);
+        buffer.putDouble(24, start.durationFrom(AbsoluteDate.J2000_EPOCH));
+        buffer.putDouble(32, timeStep);
+        buffer.putDouble(40, minAltitude);
+        buffer.putDouble(48, altitudeStep);
+    }
+
+    /**
+     * Check if the header of an existing cache file matches the grid definition.
+     * @param buffer buffer containing the header
+     * @return true if the header matches
+     */
+    private boolean headerMatches(final ByteBuffer buffer) {
+        return buffer.getInt(0) == MAGIC &&
+               buffer.getInt(4) == VERSION &&
+               buffer.getInt(8) == nTime &&
+               buffer.getInt(12) == nAltitude &&
+               buffer.getInt(16) == nLatitude &&
+               buffer.getInt(20) == nLocalSolarTime &&
+               buffer.getDouble(24) == start.durationFrom(AbsoluteDate.J2000_EPOCH) &&
+               buffer.getDouble(32) == timeStep &&
+               buffer.getDouble(40) == minAltitude &&
+               buffer.getDouble(48) == altitudeStep;
+    }
+
+    /**
+     * Get the name of the cache file for the grid.
+     * @param atmosphere underlying atmosphere model
+     * @param maxAltitude maximum altitude of the grid (m)
+     * @param dataChecksum checksum of the input data of the underlying model
+     * @return the name of the cache file
+     */
+    private String cacheFileName(final Atmosphere atmosphere, final double maxAltitude, final long dataChecksum) {
+        final int key = Objects.hash(start.durationFrom(AbsoluteDate.J2000_EPOCH), timeStep, nTime,
+                                     minAltitude, maxAltitude, nAltitude, nLatitude, nLocalSolarTime, dataChecksum);
+        return "density-grid-" + atmosphere.getClass().getSimpleName() + "-" + Integer.toHexString(key) + ".bin";
+    }
+
+}
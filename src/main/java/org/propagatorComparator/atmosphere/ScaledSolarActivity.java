@@ -0,0 +1,103 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.atmosphere;
+
+import org.orekit.models.earth.atmosphere.NRLMSISE00InputParameters;
+import org.orekit.time.AbsoluteDate;
+
+/**
+ * Solar activity scenario scaling the solar flux of space weather data.
+ * <p>
+ * The daily and 81-day average F10.7 fluxes of the underlying data are
+ * multiplied by a constant factor, the geomagnetic indices being unchanged.
+ * This is a simple way to bracket orbit lifetime predictions between low and
+ * high solar activity scenarios. The scale factor can be changed between two
+ * propagations, so that the same atmosphere model serves several scenarios.
+ * The instances are thread-safe if the underlying data are and if the scale
+ * factor is not changed during a propagation.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class ScaledSolarActivity implements NRLMSISE00InputParameters {
+
+    /** Serializable UID. */
+    private static final long serialVersionUID = 20231019L;
+
+    /** Underlying space weather data. */
+    private final NRLMSISE00InputParameters data;
+
+    /** Solar flux scale factor. */
+    private double scale;
+
+    /**
+     * Constructor.
+     * @param data underlying space weather data
+     * @param scale solar flux scale factor
+     */
+    public ScaledSolarActivity(final NRLMSISE00InputParameters data, final double scale) {
+        this.data = data;
+        setScale(scale);
+    }
+
+    /**
+     * Get the solar flux scale factor.
+     * @return the solar flux scale factor
+     */
+    public double getScale() {
+        return scale;
+    }
+
+    /**
+     * Set the solar flux scale factor.
+     * @param scale solar flux scale factor
+     */
+    public void setScale(final double scale) {
+        if (scale <= 0.0) {
+            throw new IllegalArgumentException("Solar flux scale factor must be positive: " + scale);
+        }
+        this.scale = scale;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public AbsoluteDate getMinDate() {
+        return data.getMinDate();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public AbsoluteDate getMaxDate() {
+        return data.getMaxDate();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getDailyFlux(final AbsoluteDate date) {
+        return scale * data.getDailyFlux(date);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getAverageFlux(final AbsoluteDate date) {
+        return scale * data.getAverageFlux(date);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double[] getAp(final AbsoluteDate date) {
+        return data.getAp(date);
+    }
+
+}
@@ -0,0 +1,175 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.bodies;
+
+import org.hipparchus.CalculusFieldElement;
+import org.hipparchus.analysis.differentiation.FieldUnivariateDerivative2;
+import org.hipparchus.analysis.differentiation.UnivariateDerivative2;
+import org.hipparchus.geometry.euclidean.threed.FieldVector3D;
+import org.hipparchus.util.FastMath;
+import org.orekit.bodies.CelestialBody;
+import org.orekit.frames.FieldTransform;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.frames.Transform;
+import org.orekit.frames.TransformProvider;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.FieldAbsoluteDate;
+import org.orekit.utils.Constants;
+import org.orekit.utils.TimeStampedFieldPVCoordinates;
+import org.orekit.utils.TimeStampedPVCoordinates;
+
+/**
+ * Celestial body whose position is given by a low precision analytical series.
+ * <p>
+ * The series are written once for any {@link CalculusFieldElement}. They are
+ * evaluated with time derivatives to get velocity and acceleration, both for
+ * the double and the field versions.
+ * </p>
+ * <p>
+ * Analytical bodies have no rotation model: the body oriented frame is the
+ * inertially oriented frame, which is aligned with EME2000.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public abstract class AnalyticalCelestialBody implements CelestialBody {
+
+    /** Serializable UID. */
+    private static final long serialVersionUID = 20231018L;
+
+    /** Julian century (s). */
+    private static final double JULIAN_CENTURY = 36525.0 * Constants.JULIAN_DAY;
+
+    /** Name of the body. */
+    private final String name;
+
+    /** Attraction coefficient of the body (m³/s²). */
+    private final double gm;
+
+    /** EME2000 frame. */
+    private final Frame eme2000;
+
+    /** Inertially oriented frame. */
+    private final Frame inertialFrame;
+
+    /**
+     * Constructor.
+     * @param name name of the body
+     * @param gm attraction coefficient of the body (m³/s²)
+     */
+    protected AnalyticalCelestialBody(final String name, final double gm) {
+        this.name          = name;
+        this.gm            = gm;
+        this.eme2000       = FramesFactory.getEME2000();
+        this.inertialFrame = new Frame(eme2000, new CenterProvider(), name + "/inertial (analytical)", true);
+    }
+
+    /**
+     * Compute the position of the body in EME2000.
+     * @param <S> type of the field elements
+     * @param t Julian centuries (TT) since J2000.0
+     * @return the position of the body in EME2000 (m)
+     */
+    protected abstract <S extends CalculusFieldElement<S>> FieldVector3D<S> getEME2000Position(S t);
+
+    /**
+     * Convert ecliptic spherical coordinates to EME2000 Cartesian coordinates.
+     * @param <S> type of the field elements
+     * @param longitude ecliptic longitude (rad)
+     * @param latitude ecliptic latitude (rad)
+     * @param distance distance (m)
+     * @return the position in EME2000 (m)
+     */
+    protected static <S extends CalculusFieldElement<S>> FieldVector3D<S> fromEcliptic(final S longitude, final S latitude, final S distance) {
+        // Obliquity of the ecliptic at J2000.0
+        final double epsilon = FastMath.toRadians(23.43929111);
+        final double cosEps  = FastMath.cos(epsilon);
+        final double sinEps  = FastMath.sin(epsilon);
+        final S rCosB = distance.multiply(FastMath.cos(latitude));
+        final S x  = rCosB.multiply(FastMath.cos(longitude));
+        final S ye = rCosB.multiply(FastMath.sin(longitude));
+        final S ze = distance.multiply(FastMath.sin(latitude));
+        return new FieldVector3D<>(x,
+                                   ye.multiply(cosEps).subtract(ze.multiply(sinEps)),
+                                   ye.multiply(sinEps).add(ze.multiply(cosEps)));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public TimeStampedPVCoordinates getPVCoordinates(final AbsoluteDate date, final Frame frame) {
+        final double t = date.durationFrom(AbsoluteDate.J2000_EPOCH) / JULIAN_CENTURY;
+        final FieldVector3D<UnivariateDerivative2> position =
+                        getEME2000Position(new UnivariateDerivative2(t, 1.0 / JULIAN_CENTURY, 0.0));
+        final TimeStampedPVCoordinates pv = new TimeStampedPVCoordinates(date, position);
+        return frame == eme2000 ? pv : eme2000.getTransformTo(frame, date).transformPVCoordinates(pv);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T extends CalculusFieldElement<T>> TimeStampedFieldPVCoordinates<T> getPVCoordinates(final FieldAbsoluteDate<T> date,
+                                                                                                final Frame frame) {
+        final T t    = date.durationFrom(AbsoluteDate.J2000_EPOCH).divide(JULIAN_CENTURY);
+        final T zero = t.getField().getZero();
+        final FieldVector3D<FieldUnivariateDerivative2<T>> position =
+                        getEME2000Position(new FieldUnivariateDerivative2<>(t, zero.add(1.0 / JULIAN_CENTURY), zero));
+        final TimeStampedFieldPVCoordinates<T> pv = new TimeStampedFieldPVCoordinates<>(date, position);
+        return frame == eme2000 ? pv : eme2000.getTransformTo(frame, date).transformPVCoordinates(pv);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Frame getInertiallyOrientedFrame() {
+        return inertialFrame;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Frame getBodyOrientedFrame() {
+        return inertialFrame;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getGM() {
+        return gm;
+    }
+
+    /** Provider for the translation from EME2000 to the body centered frame. */
+    private class CenterProvider implements TransformProvider {
+
+        /** Serializable UID. */
+        private static final long serialVersionUID = 20231018L;
+
+        /** {@inheritDoc} */
+        @Override
+        public Transform getTransform(final AbsoluteDate date) {
+            return new Transform(date, getPVCoordinates(date, eme2000).negate());
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public <T extends CalculusFieldElement<T>> FieldTransform<T> getTransform(final FieldAbsoluteDate<T> date) {
+            return new FieldTransform<>(date, getPVCoordinates(date, eme2000).negate());
+        }
+
+    }
+
+}
@@ -0,0 +1,124 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.bodies;
+
+import org.hipparchus.CalculusFieldElement;
+import org.hipparchus.geometry.euclidean.threed.FieldVector3D;
+import org.hipparchus.util.FastMath;
+import org.orekit.utils.Constants;
+
+/**
+ * Low precision analytical Moon.
+ * <p>
+ * The series is taken from O. Montenbruck and E. Gill, Satellite Orbits,
+ * section 3.3.2. It keeps the main perturbations of the lunar orbit and has
+ * an accuracy of a few arc-minutes in longitude and about 500 km in distance.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class AnalyticalMoon extends AnalyticalCelestialBody {
+
+    /** Serializable UID. */
+    private static final long serialVersionUID = 20231018L;
+
+    /** Arc-second (rad). */
+    private static final double ARC_SECOND = FastMath.toRadians(1.0 / 3600.0);
+
+    /** Constructor. */
+    public AnalyticalMoon() {
+        super("Moon", Constants.JPL_SSD_MOON_GM);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected <S extends CalculusFieldElement<S>> FieldVector3D<S> getEME2000Position(final S t) {
+
+        // Fundamental arguments (mean longitude referred to the J2000 equinox)
+        final S l0 = angle(t, 218.31617, 481267.88088 - 1.3972);
+        final S l  = angle(t, 134.96292, 477198.86753);
+        final S lp = angle(t, 357.52543, 35999.04944);
+        final S f  = angle(t, 93.27283,  483202.01873);
+        final S d  = angle(t, 297.85027, 445267.11135);
+
+        // Ecliptic longitude
+        S dl = sinTerm(t.getField().getZero(), 22640.0, l);
+        dl = sinTerm(dl, 769.0,   l.multiply(2.0));
+        dl = sinTerm(dl, -4586.0, l.subtract(d.multiply(2.0)));
+        dl = sinTerm(dl, 2370.0,  d.multiply(2.0));
+        dl = sinTerm(dl, -668.0,  lp);
+        dl = sinTerm(dl, -412.0,  f.multiply(2.0));
+        dl = sinTerm(dl, -212.0,  l.multiply(2.0).subtract(d.multiply(2.0)));
+        dl = sinTerm(dl, -206.0,  l.add(lp).subtract(d.multiply(2.0)));
+        dl = sinTerm(dl, 192.0,   l.add(d.multiply(2.0)));
+        dl = sinTerm(dl, -165.0,  lp.subtract(d.multiply(2.0)));
+        dl = sinTerm(dl, 148.0,   l.subtract(lp));
+        dl = sinTerm(dl, -125.0,  d);
+        dl = sinTerm(dl, -110.0,  l.add(lp));
+        dl = sinTerm(dl, -55.0,   f.multiply(2.0).subtract(d.multiply(2.0)));
+        final S longitude = l0.add(dl);
+
+        // Ecliptic latitude
+        final S argument = f.add(dl).
+                           add(FastMath.sin(f.multiply(2.0)).multiply(412.0 * ARC_SECOND)).
+                           add(FastMath.sin(lp).multiply(541.0 * ARC_SECOND));
+        S latitude = sinTerm(t.getField().getZero(), 18520.0, argument);
+        latitude = sinTerm(latitude, -526.0, f.subtract(d.multiply(2.0)));
+        latitude = sinTerm(latitude, 44.0,   l.add(f).subtract(d.multiply(2.0)));
+        latitude = sinTerm(latitude, -31.0,  l.negate().add(f).subtract(d.multiply(2.0)));
+        latitude = sinTerm(latitude, -25.0,  l.multiply(-2.0).add(f));
+        latitude = sinTerm(latitude, -23.0,  lp.add(f).subtract(d.multiply(2.0)));
+        latitude = sinTerm(latitude, 21.0,   l.negate().add(f));
+        latitude = sinTerm(latitude, 11.0,   lp.negate().add(f).subtract(d.multiply(2.0)));
+
+        // Distance (km)
+        final S distance = FastMath.cos(l).multiply(-20905.0).
+                           add(FastMath.cos(d.multiply(2.0).subtract(l)).multiply(-3699.0)).
+                           add(FastMath.cos(d.multiply(2.0)).multiply(-2956.0)).
+                           add(FastMath.cos(l.multiply(2.0)).multiply(-570.0)).
+                           add(FastMath.cos(l.multiply(2.0).subtract(d.multiply(2.0))).multiply(246.0)).
+                           add(FastMath.cos(lp.subtract(d.multiply(2.0))).multiply(-205.0)).
+                           add(FastMath.cos(l.add(d.multiply(2.0))).multiply(-171.0)).
+                           add(FastMath.cos(l.add(lp).subtract(d.multiply(2.0))).multiply(-152.0)).
+                           add(385000.0);
+
+        return fromEcliptic(longitude, latitude, distance.multiply(1000.0));
+
+    }
+
+    /**
+     * Compute a linear angle.
+     * @param <S> type of the field elements
+     * @param t Julian centuries since J2000.0
+     * @param a0 value at J2000.0 (deg)
+     * @param a1 rate (deg per Julian century)
+     * @return the angle (rad)
+     */
+    private static <S extends CalculusFieldElement<S>> S angle(final S t, final double a0, final double a1) {
+        return t.multiply(FastMath.toRadians(a1)).add(FastMath.toRadians(a0));
+    }
+
+    /**
+     * Add a sine term to a sum.
+     * @param <S> type of the field elements
+     * @param sum current sum (rad)
+     * @param amplitude amplitude of the term (arc-seconds)
+     * @param argument argument of the term (rad)
+     * @return the updated sum (rad)
+     */
+    private static <S extends CalculusFieldElement<S>> S sinTerm(final S sum, final double amplitude, final S argument) {
+        return sum.add(FastMath.sin(argument).multiply(amplitude * ARC_SECOND));
+    }
+
+}
@@ -0,0 +1,64 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.bodies;
+
+import org.hipparchus.CalculusFieldElement;
+import org.hipparchus.geometry.euclidean.threed.FieldVector3D;
+import org.hipparchus.util.FastMath;
+import org.orekit.utils.Constants;
+
+/**
+ * Low precision analytical Sun.
+ * <p>
+ * The series is taken from O. Montenbruck and E. Gill, Satellite Orbits,
+ * section 3.3.2. It assumes an unperturbed solar orbit and has an accuracy
+ * of about 0.1-0.2% in position, which is enough for third body attraction
+ * on most Earth orbits.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class AnalyticalSun extends AnalyticalCelestialBody {
+
+    /** Serializable UID. */
+    private static final long serialVersionUID = 20231018L;
+
+    /** Arc-second (rad). */
+    private static final double ARC_SECOND = FastMath.toRadians(1.0 / 3600.0);
+
+    /** Constructor. */
+    public AnalyticalSun() {
+        super("Sun", Constants.JPL_SSD_SUN_GM);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected <S extends CalculusFieldElement<S>> FieldVector3D<S> getEME2000Position(final S t) {
+
+        // Mean anomaly
+        final S m = t.multiply(FastMath.toRadians(35999.049)).add(FastMath.toRadians(357.5256));
+
+        // Ecliptic longitude and distance
+        final S longitude = m.add(FastMath.toRadians(282.9400)).
+                            add(FastMath.sin(m).multiply(6892.0 * ARC_SECOND)).
+                            add(FastMath.sin(m.multiply(2.0)).multiply(72.0 * ARC_SECOND));
+        final S distance  = FastMath.cos(m).multiply(-2.499e9).
+                            add(FastMath.cos(m.multiply(2.0)).multiply(-0.021e9)).
+                            add(149.619e9);
+
+        return fromEcliptic(longitude, t.getField().getZero(), distance);
+
+    }
+
+}
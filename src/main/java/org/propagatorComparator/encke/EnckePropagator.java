@@ -0,0 +1,365 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.encke;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.ode.ODEIntegrator;
+import org.hipparchus.ode.ODEState;
+import org.hipparchus.ode.ODEStateAndDerivative;
+import org.hipparchus.ode.OrdinaryDifferentialEquation;
+import org.hipparchus.ode.events.Action;
+import org.hipparchus.ode.events.ODEEventHandler;
+import org.hipparchus.util.FastMath;
+import org.hipparchus.util.MathUtils;
+import org.orekit.forces.ForceModel;
+import org.orekit.forces.gravity.NewtonianAttraction;
+import org.orekit.frames.Frame;
+import org.orekit.orbits.CartesianOrbit;
+import org.orekit.orbits.Orbit;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.PVCoordinates;
+
+/**
+ * Encke propagator for the Cartesian dynamics.
+ * <p>
+ * Instead of the full acceleration (Cowell formulation), the integrator only
+ * handles the deviation δ = r - ρ from a Keplerian reference orbit ρ, which is
+ * computed analytically with the Lagrange coefficients. Using Battin's
+ * formulation, the deviation obeys δ'' = μ / ρ³ (f(q) r - δ) + a<sub>p</sub>,
+ * with q = δ.(δ + 2ρ) / ρ² and f(q) = 1 - (1 + q)<sup>-3/2</sup> evaluated
+ * without cancellation, a<sub>p</sub> being the perturbing accelerations. As the deviation is small and smooth for
+ * weakly perturbed orbits, the integrator can take larger steps than with the
+ * Cowell formulation for the same tolerances.
+ * </p>
+ * <p>
+ * The reference orbit is rectified, i.e. reset to the osculating orbit with a
+ * null deviation, when the ratio between the deviation and the reference
+ * position norms exceeds a threshold. The rectifications are located by an
+ * event handler of the integrator.
+ * </p>
+ * <p>
+ * The perturbing accelerations are the sum of the force models, the Newtonian
+ * attractions being removed as the central attraction is handled by the reference
+ * orbit. The event detectors of the force models are ignored, so that
+ * discontinuities (e.g. eclipse transitions) are only handled by the step size
+ * control of the integrator.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class EnckePropagator {
+
+    /** Maximum check interval of the rectification criterion, as a fraction of the Keplerian period. */
+    private static final double RECTIFICATION_CHECK_FRACTION = 0.05;
+
+    /** Convergence threshold of the rectification dates (s). */
+    private static final double RECTIFICATION_CONVERGENCE = 1.0e-3;
+
+    /** Maximum number of iterations locating the rectification dates. */
+    private static final int RECTIFICATION_MAX_ITERATIONS = 100;
+
+    /** Maximum number of Newton iterations solving Kepler's equation. */
+    private static final int KEPLER_MAX_ITERATIONS = 50;
+
+    /** Convergence threshold of Kepler's equation (rad). */
+    private static final double KEPLER_CONVERGENCE = 1.0e-14;
+
+    /** Perturbing force models. */
+    private final List<ForceModel> forceModels;
+
+    /** Parameters of the force models. */
+    private final double[][] parameters;
+
+    /** Initial orbit. */
+    private final Orbit initialOrbit;
+
+    /** Spacecraft mass (kg). */
+    private final double mass;
+
+    /** Integrator of the deviation. */
+    private final ODEIntegrator integrator;
+
+    /** Rectification threshold on the deviation to reference position norms ratio. */
+    private final double threshold;
+
+    /** Position of the reference orbit at its epoch (m). */
+    private Vector3D referencePosition;
+
+    /** Velocity of the reference orbit at its epoch (m/s). */
+    private Vector3D referenceVelocity;
+
+    /** Semi-major axis of the reference orbit (m). */
+    private double referenceA;
+
+    /** Mean motion of the reference orbit (rad/s). */
+    private double referenceMeanMotion;
+
+    /** Offset of the reference orbit epoch from the initial date (s). */
+    private double referenceTime;
+
+    /** Number of rectifications. */
+    private int rectifications;
+
+    /** Number of integration steps. */
+    private int steps;
+
+    /** Number of acceleration evaluations. */
+    private int evaluations;
+
+    /**
+     * Constructor.
+     * @param forceModels force models
+     * @param initialOrbit initial orbit (in an inertial frame)
+     * @param mass spacecraft mass (kg)
+     * @param integrator integrator of the deviation (the state dimension is 6)
+     * @param threshold rectification threshold on the deviation to reference position norms ratio
+     */
+    public EnckePropagator(final List<ForceModel> forceModels, final Orbit initialOrbit, final double mass,
+                           final ODEIntegrator integrator, final double threshold) {
+        if (threshold <= 0.0) {
+            throw new IllegalArgumentException("Rectification threshold of the Encke propagator must be positive: " + threshold);
+        }
+        this.forceModels = new ArrayList<>();
+        for (final ForceModel force : forceModels) {
+            if (!(force instanceof NewtonianAttraction)) {
+                this.forceModels.add(force);
+            }
+        }
+        this.parameters = new double[this.forceModels.size()][];
+        for (int f = 0; f < parameters.length; f++) {
+            parameters[f] = this.forceModels.get(f).getParameters();
+        }
+        this.initialOrbit   = initialOrbit;
+        this.mass           = mass;
+        this.integrator     = integrator;
+        this.threshold      = threshold;
+        this.rectifications = 0;
+        this.steps          = 0;
+        this.evaluations    = 0;
+    }
+
+    /**
+     * Propagate the initial orbit.
+     * @param target target date
+     * @return the state at the target date
+     */
+    public SpacecraftState propagate(final AbsoluteDate target) {
+
+        final SpacecraftState initialState = new SpacecraftState(initialOrbit, mass);
+        for (final ForceModel force : forceModels) {
+            force.init(initialState, target);
+        }
+
+        setReference(0.0, initialOrbit.getPVCoordinates());
+        rectifications = 0;
+        steps          = 0;
+
+        integrator.clearEventHandlers();
+        integrator.clearStepHandlers();
+        integrator.addEventHandler(new Rectification(),
+                                   RECTIFICATION_CHECK_FRACTION * initialOrbit.getKeplerianPeriod(),
+                                   RECTIFICATION_CONVERGENCE, RECTIFICATION_MAX_ITERATIONS);
+        integrator.addStepHandler(interpolator -> steps++);
+
+        final ODEStateAndDerivative end = integrator.integrate(new DeviationEquations(), new ODEState(0.0, new double[6]),
+                                                               target.durationFrom(initialOrbit.getDate()));
+        evaluations = integrator.getEvaluations();
+
+        return new SpacecraftState(new CartesianOrbit(osculatingPV(end.getTime(), end.getPrimaryState()), initialOrbit.getFrame(),
+                                                      initialOrbit.getDate().shiftedBy(end.getTime()), initialOrbit.getMu()),
+                                   mass);
+
+    }
+
+    /**
+     * Get the number of rectifications of the last propagation.
+     * @return the number of rectifications
+     */
+    public int getRectifications() {
+        return rectifications;
+    }
+
+    /**
+     * Get the number of integration steps of the last propagation.
+     * @return the number of integration steps
+     */
+    public int getSteps() {
+        return steps;
+    }
+
+    /**
+     * Get the number of acceleration evaluations of the last propagation.
+     * @return the number of acceleration evaluations
+     */
+    public int getEvaluations() {
+        return evaluations;
+    }
+
+    /**
+     * Set the reference orbit.
+     * @param t offset of the reference orbit epoch from the initial date (s)
+     * @param pv position-velocity of the reference orbit at its epoch
+     */
+    private void setReference(final double t, final PVCoordinates pv) {
+        final double mu = initialOrbit.getMu();
+        final double a  = 1.0 / (2.0 / pv.getPosition().getNorm() - pv.getVelocity().getNormSq() / mu);
+        if (a <= 0.0) {
+            throw new IllegalArgumentException("Reference orbit of the Encke propagator must be elliptic: a = " + a);
+        }
+        referencePosition   = pv.getPosition();
+        referenceVelocity   = pv.getVelocity();
+        referenceA          = a;
+        referenceMeanMotion = FastMath.sqrt(mu / (a * a * a));
+        referenceTime       = t;
+    }
+
+    /**
+     * Get the position-velocity of the reference orbit.
+     * <p>
+     * The Keplerian motion is computed with the Lagrange coefficients, Kepler's
+     * equation being solved for the eccentric anomaly difference from the epoch
+     * of the reference orbit.
+     * </p>
+     * @param t offset from the initial date (s)
+     * @return the position-velocity of the reference orbit
+     */
+    private PVCoordinates referencePV(final double t) {
+
+        final double dt    = t - referenceTime;
+        final double a     = referenceA;
+        final double r0    = referencePosition.getNorm();
+        final double sqrtA = FastMath.sqrt(a);
+        final double sigma = Vector3D.dotProduct(referencePosition, referenceVelocity) / FastMath.sqrt(initialOrbit.getMu());
+
+        // Kepler's equation: ΔM = ΔE + σ₀ / √a (1 - cos ΔE) - (1 - r₀ / a) sin ΔE,
+        // the complete revolutions being removed from ΔM and ΔE
+        final double revolutions = FastMath.rint(referenceMeanMotion * dt / MathUtils.TWO_PI);
+        final double dM = referenceMeanMotion * dt - revolutions * MathUtils.TWO_PI;
+        final double c1 = sigma / sqrtA;
+        final double c2 = 1.0 - r0 / a;
+        double dE = dM;
+        for (int iteration = 0; iteration < KEPLER_MAX_ITERATIONS; iteration++) {
+            final double sin  = FastMath.sin(dE);
+            final double cos  = FastMath.cos(dE);
+            final double step = (dE + c1 * (1.0 - cos) - c2 * sin - dM) / (1.0 + c1 * sin - c2 * cos);
+            dE -= step;
+            if (FastMath.abs(step) <= KEPLER_CONVERGENCE) {
+                break;
+            }
+        }
+
+        // Lagrange coefficients
+        final double sin  = FastMath.sin(dE);
+        final double cos  = FastMath.cos(dE);
+        final double r    = a + (r0 - a) * cos + sigma * sqrtA * sin;
+        final double f    = 1.0 - a / r0 * (1.0 - cos);
+        final double g    = dt + (sin - dE - revolutions * MathUtils.TWO_PI) / referenceMeanMotion;
+        final double fDot = -a * referenceMeanMotion * a * sin / (r * r0);
+        final double gDot = 1.0 - a / r * (1.0 - cos);
+
+        return new PVCoordinates(new Vector3D(f, referencePosition, g, referenceVelocity),
+                                 new Vector3D(fDot, referencePosition, gDot, referenceVelocity));
+
+    }
+
+    /**
+     * Get the osculating position-velocity.
+     * @param t offset from the initial date (s)
+     * @param deviation position and velocity deviations from the reference orbit
+     * @return the osculating position-velocity
+     */
+    private PVCoordinates osculatingPV(final double t, final double[] deviation) {
+        final PVCoordinates pv = referencePV(t);
+        return new PVCoordinates(pv.getPosition().add(new Vector3D(deviation[0], deviation[1], deviation[2])),
+                                 pv.getVelocity().add(new Vector3D(deviation[3], deviation[4], deviation[5])));
+    }
+
+    /** Equations of the deviation from the reference orbit. */
+    private class DeviationEquations implements OrdinaryDifferentialEquation {
+
+        /** {@inheritDoc} */
+        @Override
+        public int getDimension() {
+            return 6;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public double[] computeDerivatives(final double t, final double[] y) {
+
+            final PVCoordinates pv    = referencePV(t);
+            final Vector3D      rho   = pv.getPosition();
+            final Vector3D      delta = new Vector3D(y[0], y[1], y[2]);
+            final Vector3D      r     = rho.add(delta);
+            final Vector3D      v     = pv.getVelocity().add(new Vector3D(y[3], y[4], y[5]));
+
+            // Central attraction difference (Battin)
+            final double rho2 = rho.getNormSq();
+            final double q    = Vector3D.dotProduct(delta, delta.add(2.0, rho)) / rho2;
+            final double p    = FastMath.pow(1.0 + q, 1.5);
+            final double f    = q * (3.0 + q * (3.0 + q)) / ((1.0 + p) * p);
+            final double mu   = initialOrbit.getMu();
+            Vector3D acceleration = new Vector3D(f, r, -1.0, delta).scalarMultiply(mu / (rho2 * FastMath.sqrt(rho2)));
+
+            // Perturbing accelerations
+            if (!forceModels.isEmpty()) {
+                final Frame           frame = initialOrbit.getFrame();
+                final SpacecraftState state = new SpacecraftState(new CartesianOrbit(new PVCoordinates(r, v), frame,
+                                                                                     initialOrbit.getDate().shiftedBy(t), mu),
+                                                                  mass);
+                for (int i = 0; i < forceModels.size(); i++) {
+                    acceleration = acceleration.add(forceModels.get(i).acceleration(state, parameters[i]));
+                }
+            }
+
+            return new double[] {
+                y[3], y[4], y[5], acceleration.getX(), acceleration.getY(), acceleration.getZ()
+            };
+
+        }
+
+    }
+
+    /** Rectification of the reference orbit. */
+    private class Rectification implements ODEEventHandler {
+
+        /** {@inheritDoc} */
+        @Override
+        public double g(final ODEStateAndDerivative state) {
+            final double[] y = state.getPrimaryState();
+            final double deviation = FastMath.sqrt(y[0] * y[0] + y[1] * y[1] + y[2] * y[2]);
+            return threshold - deviation / referencePV(state.getTime()).getPosition().getNorm();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Action eventOccurred(final ODEStateAndDerivative state, final boolean increasing) {
+            return increasing ? Action.CONTINUE : Action.RESET_STATE;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public ODEState resetState(final ODEStateAndDerivative state) {
+            setReference(state.getTime(), osculatingPV(state.getTime(), state.getPrimaryState()));
+            rectifications++;
+            return new ODEState(state.getTime(), new double[6]);
+        }
+
+    }
+
+}
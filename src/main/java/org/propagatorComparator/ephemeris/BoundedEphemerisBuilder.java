@@ -0,0 +1,421 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.ephemeris;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.util.FastMath;
+import org.orekit.frames.Frame;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.sampling.OrekitStepHandler;
+import org.orekit.propagation.sampling.OrekitStepInterpolator;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.PVCoordinates;
+
+/**
+ * Step handler streaming the propagator steps to a {@link MappedEphemeris} file.
+ * <p>
+ * The steps are not kept: the trajectory is sampled window after window, each
+ * window being fitted at the same time by one Chebyshev segment covering the
+ * whole window and by two segments covering its halves. If the single segment
+ * meets the position tolerance at the check samples of the window, it is
+ * written and the next window is longer, otherwise the two halves are written
+ * and the next window is shortened. The segments are therefore down-sampled to
+ * the tolerance whatever the propagator steps, and the only memory used is the
+ * samples of the current window and a small write buffer. The tolerance cannot
+ * be met below the interpolation noise of the propagator steps: the segments
+ * exceeding it are written with their actual error bound.
+ * </p>
+ * <p>
+ * The propagation must be forward and reach its target date: a window which
+ * is not completed when the propagation ends is not written.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class BoundedEphemerisBuilder implements OrekitStepHandler, Closeable {
+
+    /** Number of segments in the write buffer. */
+    private static final int WRITE_BUFFER_SEGMENTS = 64;
+
+    /** Tolerance on the dates of the samples at the end of a step (s). */
+    private static final double DATE_TOLERANCE = 1.0e-6;
+
+    /** Check samples, as fractions of the window length. */
+    private static final double[] CHECKS = {0.0, 0.125, 0.25, 0.375, 0.5, 0.625, 0.75, 0.875, 1.0};
+
+    /** Growth factor of the windows after a segment meeting the tolerance. */
+    private static final double GROWTH = 1.25;
+
+    /** Ephemeris file. */
+    private final File file;
+
+    /** Frame of the ephemeris. */
+    private final Frame frame;
+
+    /** Chebyshev series of the segments. */
+    private final ChebyshevSeries series;
+
+    /** Position tolerance of the segments (m). */
+    private final double tolerance;
+
+    /** Minimum duration of the segments (s). */
+    private final double minSegmentDuration;
+
+    /** Maximum duration of the segments (s). */
+    private final double maxSegmentDuration;
+
+    /** Sample times, as fractions of the window length (full nodes, first half nodes, second half nodes, checks). */
+    private final double[] fractions;
+
+    /** Sample indices sorted by increasing time. */
+    private final int[] order;
+
+    /** Values of the components at the samples. */
+    private final double[][] values;
+
+    /** Values of a component at the nodes of a segment. */
+    private final double[] nodeValues;
+
+    /** Coefficients of the segment covering the window. */
+    private final double[] full;
+
+    /** Coefficients of the segment covering the first half of the window. */
+    private final double[] first;
+
+    /** Coefficients of the segment covering the second half of the window. */
+    private final double[] second;
+
+    /** Write buffer. */
+    private final ByteBuffer buffer;
+
+    /** File channel (closed when the propagation is finished or the builder is closed). */
+    private final FileChannel channel;
+
+    /** Indicator for a finished propagation (the header of the file is written). */
+    private boolean finished;
+
+    /** Reference date of the segment boundaries. */
+    private AbsoluteDate reference;
+
+    /** Target date of the propagation, as an offset from the reference date (s). */
+    private double end;
+
+    /** Start of the current window, as an offset from the reference date (s, NaN if there is no window). */
+    private double windowStart;
+
+    /** Length of the current window (s). */
+    private double windowLength;
+
+    /** Index in {@link #order} of the next sample of the current window. */
+    private int next;
+
+    /** Number of segments written. */
+    private int segments;
+
+    /** Largest position error of the segments (m). */
+    private double maxErrorBound;
+
+    /**
+     * Constructor.
+     * @param file ephemeris file (overwritten)
+     * @param frame frame of the ephemeris
+     * @param degree degree of the Chebyshev series
+     * @param tolerance position tolerance of the segments (m)
+     * @param minSegmentDuration minimum duration of the segments (s)
+     * @param maxSegmentDuration maximum duration of the segments (s)
+     * @throws IOException if the file cannot be created
+     */
+    public BoundedEphemerisBuilder(final File file, final Frame frame, final int degree, final double tolerance,
+                                   final double minSegmentDuration, final double maxSegmentDuration) throws IOException {
+        if (minSegmentDuration <= 0.0 || maxSegmentDuration < minSegmentDuration) {
+            throw new IllegalArgumentException("Inconsistent segment durations of the bounded ephemeris: " +
+                                               minSegmentDuration + ", " + maxSegmentDuration);
+        }
+        this.file               = file;
+        this.frame              = frame;
+        this.series             = new ChebyshevSeries(degree);
+        this.tolerance          = tolerance;
+        this.minSegmentDuration = minSegmentDuration;
+        this.maxSegmentDuration = maxSegmentDuration;
+
+        // Samples: nodes of the three segments, then check samples
+        final int size = series.getSize();
+        this.fractions = new double[3 * size + CHECKS.length];
+        for (int j = 0; j < size; j++) {
+            final double x = 0.5 * (series.getNode(j) + 1.0);
+            fractions[j]            = x;
+            fractions[size + j]     = 0.5 * x;
+            fractions[2 * size + j] = 0.5 + 0.5 * x;
+        }
+        System.arraycopy(CHECKS, 0, fractions, 3 * size, CHECKS.length);
+
+        // As the sample times are proportional to the window length, their order never changes
+        this.order = new int[fractions.length];
+        for (int i = 0; i < order.length; i++) {
+            int j = i;
+            while (j > 0 && fractions[order[j - 1]] > fractions[i]) {
+                order[j] = order[j - 1];
+                j--;
+            }
+            order[j] = i;
+        }
+
+        this.values      = new double[MappedEphemeris.COMPONENTS][fractions.length];
+        this.nodeValues  = new double[size];
+        this.full        = new double[MappedEphemeris.COMPONENTS * size];
+        this.first       = new double[MappedEphemeris.COMPONENTS * size];
+        this.second      = new double[MappedEphemeris.COMPONENTS * size];
+        this.buffer      = ByteBuffer.allocateDirect(WRITE_BUFFER_SEGMENTS * MappedEphemeris.recordSize(degree));
+        this.channel     = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                            StandardOpenOption.TRUNCATE_EXISTING);
+        this.windowStart = Double.NaN;
+        this.finished    = false;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void init(final SpacecraftState s0, final AbsoluteDate t) {
+        reference = s0.getDate();
+        end       = t.durationFrom(reference);
+        if (end <= 0.0) {
+            throw new IllegalArgumentException("Bounded ephemeris requires a forward propagation");
+        }
+        openWindow(0.0, FastMath.min(maxSegmentDuration, FastMath.max(minSegmentDuration, 0.25 * maxSegmentDuration)));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void handleStep(final OrekitStepInterpolator interpolator) {
+        final double current = interpolator.getCurrentState().getDate().durationFrom(reference);
+        while (!Double.isNaN(windowStart)) {
+            final int    sample = order[next];
+            final double t      = windowStart + fractions[sample] * windowLength;
+            if (t > current + DATE_TOLERANCE) {
+                return;
+            }
+            final PVCoordinates pv = interpolator.getInterpolatedState(reference.shiftedBy(FastMath.min(t, current))).
+                                     getPVCoordinates(frame);
+            values[0][sample] = pv.getPosition().getX();
+            values[1][sample] = pv.getPosition().getY();
+            values[2][sample] = pv.getPosition().getZ();
+            values[3][sample] = pv.getVelocity().getX();
+            values[4][sample] = pv.getVelocity().getY();
+            values[5][sample] = pv.getVelocity().getZ();
+            if (++next == order.length) {
+                closeWindow();
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void finish(final SpacecraftState finalState) {
+        try {
+            flush();
+            final ByteBuffer header = ByteBuffer.allocate(MappedEphemeris.HEADER_SIZE);
+            MappedEphemeris.writeHeader(header, frame, reference, series.getDegree(), segments, maxErrorBound);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.close();
+            finished = true;
+        } catch (IOException ioe) {
+            throw new UncheckedIOException(ioe);
+        }
+    }
+
+    /**
+     * Close the file channel.
+     * <p>
+     * This method releases the file if the propagation fails before it is finished,
+     * in which case the ephemeris cannot be opened. It does nothing if the channel
+     * is already closed, in particular after {@link #finish(SpacecraftState)}.
+     * </p>
+     * @throws IOException if the file channel cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel.isOpen()) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Open the ephemeris written by the builder.
+     * @param cacheSize number of segments kept in the in-heap cache
+     * @return the ephemeris
+     * @throws IOException if the ephemeris cannot be opened
+     */
+    public MappedEphemeris open(final int cacheSize) throws IOException {
+        if (!finished) {
+            throw new IllegalStateException("Bounded ephemeris " + file.getAbsolutePath() + " is not finished");
+        }
+        return MappedEphemeris.open(file, frame, cacheSize);
+    }
+
+    /**
+     * Open a sampling window.
+     * @param start start of the window, as an offset from the reference date (s)
+     * @param length length of the window (s)
+     */
+    private void openWindow(final double start, final double length) {
+        if (start >= end - DATE_TOLERANCE) {
+            windowStart = Double.NaN;
+        } else {
+            windowStart  = start;
+            windowLength = FastMath.min(length, end - start);
+            next         = 0;
+        }
+    }
+
+    /**
+     * Fit the segments of the completed window, write the selected ones and open the next window.
+     */
+    private void closeWindow() {
+
+        final int size = series.getSize();
+        for (int c = 0; c < MappedEphemeris.COMPONENTS; c++) {
+            fitSegment(c, 0, full);
+            fitSegment(c, size, first);
+            fitSegment(c, 2 * size, second);
+        }
+
+        final double fullError   = error(full, 0.0, 1.0);
+        final double firstError  = error(first, 0.0, 0.5);
+        final double secondError = error(second, 0.5, 0.5);
+
+        final double nextLength;
+        if (fullError <= tolerance || windowLength < 2.0 * minSegmentDuration) {
+            write(windowStart, windowStart + windowLength, fullError, full);
+            nextLength = fullError <= tolerance ? GROWTH * windowLength : windowLength;
+        } else {
+            write(windowStart, windowStart + 0.5 * windowLength, firstError, first);
+            write(windowStart + 0.5 * windowLength, windowStart + windowLength, secondError, second);
+            nextLength = FastMath.max(firstError, secondError) <= tolerance ? 0.5 * windowLength : 0.25 * windowLength;
+        }
+
+        openWindow(windowStart + windowLength,
+                   FastMath.max(minSegmentDuration, FastMath.min(maxSegmentDuration, nextLength)));
+
+    }
+
+    /**
+     * Fit a component of a segment.
+     * @param component index of the component
+     * @param offset index of the first node sample of the segment
+     * @param coefficients array where the coefficients are stored
+     */
+    private void fitSegment(final int component, final int offset, final double[] coefficients) {
+        System.arraycopy(values[component], offset, nodeValues, 0, nodeValues.length);
+        series.fit(nodeValues, coefficients, component * series.getSize());
+    }
+
+    /**
+     * Estimate the position error of a fitted segment.
+     * <p>
+     * The estimate is the largest of the position differences at the check
+     * samples covered by the segment and of the magnitude of the two highest
+     * degree coefficients, which bounds the truncation error of the series
+     * between the samples.
+     * </p>
+     * @param coefficients coefficients of the segment
+     * @param start start of the segment, as a fraction of the window length
+     * @param length length of the segment, as a fraction of the window length
+     * @return the estimated position error of the segment (m)
+     */
+    private double error(final double[] coefficients, final double start, final double length) {
+
+        // Differences at the check samples
+        double error = 0.0;
+        for (int i = 0; i < CHECKS.length; i++) {
+            if (CHECKS[i] >= start && CHECKS[i] <= start + length) {
+                final int      sample = 3 * series.getSize() + i;
+                final Vector3D check  = new Vector3D(values[0][sample], values[1][sample], values[2][sample]);
+                error = FastMath.max(error, Vector3D.distance(check, position(coefficients, 2.0 * (CHECKS[i] - start) / length - 1.0)));
+            }
+        }
+
+        // Truncation error
+        double tail = 0.0;
+        for (int c = 0; c < 3; c++) {
+            final double t = series.truncationError(coefficients, c * series.getSize());
+            tail += t * t;
+        }
+
+        return FastMath.max(error, FastMath.sqrt(tail));
+
+    }
+
+    /**
+     * Evaluate the fitted position of a segment.
+     * @param coefficients coefficients of the segment
+     * @param x normalized time in the segment
+     * @return the fitted position
+     */
+    private Vector3D position(final double[] coefficients, final double x) {
+        return new Vector3D(series.evaluate(coefficients, 0, x),
+                            series.evaluate(coefficients, series.getSize(), x),
+                            series.evaluate(coefficients, 2 * series.getSize(), x));
+    }
+
+    /**
+     * Append a segment to the write buffer.
+     * @param start start of the segment, as an offset from the reference date (s)
+     * @param stop end of the segment, as an offset from the reference date (s)
+     * @param errorBound position error bound of the segment (m)
+     * @param coefficients coefficients of the segment
+     */
+    private void write(final double start, final double stop, final double errorBound, final double[] coefficients) {
+        if (buffer.remaining() < MappedEphemeris.recordSize(series.getDegree())) {
+            try {
+                flush();
+            } catch (IOException ioe) {
+                throw new UncheckedIOException(ioe);
+            }
+        }
+        buffer.putDouble(start);
+        buffer.putDouble(stop);
+        buffer.putDouble(errorBound);
+        for (final double coefficient : coefficients) {
+            buffer.putDouble(coefficient);
+        }
+        maxErrorBound = FastMath.max(maxErrorBound, errorBound);
+        segments++;
+    }
+
+    /**
+     * Write the buffered segments in the file.
+     * @throws IOException if the file cannot be written
+     */
+    private void flush() throws IOException {
+        buffer.flip();
+        long position = MappedEphemeris.HEADER_SIZE +
+                        (long) (segments - buffer.remaining() / MappedEphemeris.recordSize(series.getDegree())) *
+                        MappedEphemeris.recordSize(series.getDegree());
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        buffer.clear();
+    }
+
+}
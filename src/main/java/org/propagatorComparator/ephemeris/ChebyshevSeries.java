@@ -0,0 +1,135 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.ephemeris;
+
+import org.hipparchus.util.FastMath;
+
+/**
+ * Chebyshev series of fixed degree fitted at the Chebyshev-Gauss nodes.
+ * <p>
+ * The series are defined on the normalized interval [-1, 1] and their
+ * coefficients are stored in primitive arrays provided by the caller, so
+ * that the segments of an ephemeris can be packed in a single array.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class ChebyshevSeries {
+
+    /** Degree of the series. */
+    private final int degree;
+
+    /** Normalized times of the nodes, in increasing order. */
+    private final double[] nodes;
+
+    /** Chebyshev polynomials at the nodes (polynomialsAtNodes[j][k] = T_k(x_j)). */
+    private final double[][] polynomialsAtNodes;
+
+    /**
+     * Constructor.
+     * @param degree degree of the series
+     */
+    public ChebyshevSeries(final int degree) {
+        if (degree < 2) {
+            throw new IllegalArgumentException("Degree of the Chebyshev series must be at least 2: " + degree);
+        }
+        this.degree             = degree;
+        this.nodes              = new double[degree + 1];
+        this.polynomialsAtNodes = new double[degree + 1][degree + 1];
+
+        // Chebyshev-Gauss nodes (roots of T_{N+1}), in increasing order
+        for (int j = 0; j <= degree; j++) {
+            final double theta = FastMath.PI * (degree - j + 0.5) / (degree + 1);
+            nodes[j] = FastMath.cos(theta);
+            for (int k = 0; k <= degree; k++) {
+                polynomialsAtNodes[j][k] = FastMath.cos(k * theta);
+            }
+        }
+    }
+
+    /**
+     * Get the degree of the series.
+     * @return the degree of the series
+     */
+    public int getDegree() {
+        return degree;
+    }
+
+    /**
+     * Get the number of coefficients of a series.
+     * @return the number of coefficients of a series (degree + 1)
+     */
+    public int getSize() {
+        return degree + 1;
+    }
+
+    /**
+     * Get a node.
+     * @param j index of the node (nodes are sorted in increasing order)
+     * @return the normalized time of the node, within ]-1, 1[
+     */
+    public double getNode(final int j) {
+        return nodes[j];
+    }
+
+    /**
+     * Fit a series by discrete orthogonality at the nodes.
+     * @param values values at the nodes
+     * @param coefficients array where the coefficients are stored
+     * @param offset index of the first coefficient in the array
+     */
+    public void fit(final double[] values, final double[] coefficients, final int offset) {
+        final double scale = 2.0 / (degree + 1);
+        for (int k = 0; k <= degree; k++) {
+            double sum = 0.0;
+            for (int j = 0; j <= degree; j++) {
+                sum += values[j] * polynomialsAtNodes[j][k];
+            }
+            coefficients[offset + k] = k == 0 ? 0.5 * scale * sum : scale * sum;
+        }
+    }
+
+    /**
+     * Evaluate a series with the Clenshaw recurrence.
+     * @param coefficients array containing the coefficients
+     * @param offset index of the first coefficient in the array
+     * @param x normalized time, within [-1, 1]
+     * @return the value of the series
+     */
+    public double evaluate(final double[] coefficients, final int offset, final double x) {
+        double b1 = 0.0;
+        double b2 = 0.0;
+        for (int k = degree; k > 0; k--) {
+            final double b0 = 2.0 * x * b1 - b2 + coefficients[offset + k];
+            b2 = b1;
+            b1 = b0;
+        }
+        return x * b1 - b2 + coefficients[offset];
+    }
+
+    /**
+     * Estimate the truncation error of a series.
+     * <p>
+     * The magnitude of the two highest degree coefficients bounds the
+     * contribution of the neglected terms when the coefficients decay quickly.
+     * </p>
+     * @param coefficients array containing the coefficients
+     * @param offset index of the first coefficient in the array
+     * @return the estimated truncation error of the series
+     */
+    public double truncationError(final double[] coefficients, final int offset) {
+        return FastMath.abs(coefficients[offset + degree]) + FastMath.abs(coefficients[offset + degree - 1]);
+    }
+
+}
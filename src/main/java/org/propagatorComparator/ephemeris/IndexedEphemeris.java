@@ -0,0 +1,195 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.ephemeris;
+
+import java.util.Arrays;
+
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.util.FastMath;
+import org.orekit.frames.Frame;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.TimeStampedPVCoordinates;
+
+/**
+ * Ephemeris made of contiguous Chebyshev segments indexed by time.
+ * <p>
+ * The segment boundaries are stored as offsets from a reference date in a
+ * sorted primitive array, so that the segment containing a date is found by
+ * binary search. The Chebyshev coefficients of the six Cartesian coordinates
+ * of all the segments are packed in a single primitive array, and each
+ * segment carries a bound of its position interpolation error.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class IndexedEphemeris {
+
+    /** Number of interpolated components (position and velocity). */
+    static final int COMPONENTS = 6;
+
+    /** Frame of the ephemeris. */
+    private final Frame frame;
+
+    /** Reference date of the segment boundaries. */
+    private final AbsoluteDate reference;
+
+    /** Chebyshev series of the segments. */
+    private final ChebyshevSeries series;
+
+    /** Number of segments. */
+    private final int segments;
+
+    /** Segment boundaries, as offsets from the reference date (s). */
+    private final double[] boundaries;
+
+    /** Chebyshev coefficients, indexed by segment, component and degree. */
+    private final double[] coefficients;
+
+    /** Position interpolation error bounds of the segments (m). */
+    private final double[] errorBounds;
+
+    /**
+     * Constructor.
+     * @param frame frame of the ephemeris
+     * @param reference reference date of the segment boundaries
+     * @param series Chebyshev series of the segments
+     * @param segments number of segments
+     * @param boundaries segment boundaries, as offsets from the reference date (s, segments + 1 sorted values)
+     * @param coefficients Chebyshev coefficients, indexed by segment, component and degree
+     * @param errorBounds position interpolation error bounds of the segments (m)
+     */
+    IndexedEphemeris(final Frame frame, final AbsoluteDate reference, final ChebyshevSeries series, final int segments,
+                     final double[] boundaries, final double[] coefficients, final double[] errorBounds) {
+        if (segments < 1) {
+            throw new IllegalArgumentException("Indexed ephemeris must contain at least one segment");
+        }
+        this.frame        = frame;
+        this.reference    = reference;
+        this.series       = series;
+        this.segments     = segments;
+        this.boundaries   = boundaries;
+        this.coefficients = coefficients;
+        this.errorBounds  = errorBounds;
+    }
+
+    /**
+     * Get the frame of the ephemeris.
+     * @return the frame of the ephemeris
+     */
+    public Frame getFrame() {
+        return frame;
+    }
+
+    /**
+     * Get the first date of the ephemeris.
+     * @return the first date of the ephemeris
+     */
+    public AbsoluteDate getMinDate() {
+        return reference.shiftedBy(boundaries[0]);
+    }
+
+    /**
+     * Get the last date of the ephemeris.
+     * @return the last date of the ephemeris
+     */
+    public AbsoluteDate getMaxDate() {
+        return reference.shiftedBy(boundaries[segments]);
+    }
+
+    /**
+     * Get the number of segments.
+     * @return the number of segments
+     */
+    public int getSegments() {
+        return segments;
+    }
+
+    /**
+     * Get the position interpolation error bound of a segment.
+     * <p>
+     * The bound is estimated by the largest of the position differences between
+     * the fitted series and the propagator interpolator at the segment boundaries,
+     * where the error of a fit at the Chebyshev-Gauss nodes is usually the largest,
+     * and of the magnitude of the two highest degree coefficients, which bounds the
+     * truncation error of the series inside the segment.
+     * </p>
+     * @param segment index of the segment
+     * @return the position interpolation error bound of the segment (m)
+     */
+    public double getErrorBound(final int segment) {
+        return errorBounds[segment];
+    }
+
+    /**
+     * Get the largest position interpolation error bound of the segments.
+     * @return the largest position interpolation error bound of the segments (m)
+     */
+    public double getMaxErrorBound() {
+        double max = 0.0;
+        for (int i = 0; i < segments; i++) {
+            max = FastMath.max(max, errorBounds[i]);
+        }
+        return max;
+    }
+
+    /**
+     * Get the memory used by the primitive arrays of the ephemeris.
+     * @return the memory used by the primitive arrays of the ephemeris (bytes)
+     */
+    public long getMemorySize() {
+        return Double.BYTES * ((long) boundaries.length + coefficients.length + errorBounds.length);
+    }
+
+    /**
+     * Find the segment containing a date.
+     * @param date date
+     * @return the index of the segment containing the date (first or last segment if the date is outside the ephemeris)
+     */
+    public int findSegment(final AbsoluteDate date) {
+        final int index = Arrays.binarySearch(boundaries, 0, segments + 1, date.durationFrom(reference));
+        final int segment = index >= 0 ? index : -index - 2;
+        return FastMath.max(0, FastMath.min(segments - 1, segment));
+    }
+
+    /**
+     * Get the position-velocity coordinates at a date.
+     * @param date date (must be within the ephemeris)
+     * @return the position-velocity coordinates in the ephemeris frame
+     */
+    public TimeStampedPVCoordinates getPVCoordinates(final AbsoluteDate date) {
+
+        final double dt      = date.durationFrom(reference);
+        final int    segment = findSegment(date);
+        if (dt < boundaries[0] || dt > boundaries[segments]) {
+            throw new IllegalArgumentException("Date " + date + " is outside the indexed ephemeris [" +
+                                               getMinDate() + ", " + getMaxDate() + "]");
+        }
+
+        // Normalized time in the segment
+        final double start = boundaries[segment];
+        final double x     = 2.0 * (dt - start) / (boundaries[segment + 1] - start) - 1.0;
+
+        final int size   = series.getSize();
+        final int offset = segment * COMPONENTS * size;
+        return new TimeStampedPVCoordinates(date,
+                                            new Vector3D(series.evaluate(coefficients, offset, x),
+                                                         series.evaluate(coefficients, offset + size, x),
+                                                         series.evaluate(coefficients, offset + 2 * size, x)),
+                                            new Vector3D(series.evaluate(coefficients, offset + 3 * size, x),
+                                                         series.evaluate(coefficients, offset + 4 * size, x),
+                                                         series.evaluate(coefficients, offset + 5 * size, x)));
+
+    }
+
+}
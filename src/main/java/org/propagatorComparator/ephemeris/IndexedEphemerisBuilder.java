@@ -0,0 +1,197 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.ephemeris;
+
+import java.util.Arrays;
+
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.util.FastMath;
+import org.orekit.frames.Frame;
+import org.orekit.propagation.sampling.OrekitStepHandler;
+import org.orekit.propagation.sampling.OrekitStepInterpolator;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.PVCoordinates;
+
+/**
+ * Step handler building an {@link IndexedEphemeris} from the propagator steps.
+ * <p>
+ * Each step is divided in the smallest number of segments of equal duration
+ * not exceeding the maximum segment duration, and each segment is fitted by
+ * Chebyshev series at the Chebyshev-Gauss nodes, the states at the nodes being
+ * given by the step interpolator. The propagation must be forward.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class IndexedEphemerisBuilder implements OrekitStepHandler {
+
+    /** Initial capacity of the arrays (segments). */
+    private static final int INITIAL_CAPACITY = 256;
+
+    /** Frame of the ephemeris. */
+    private final Frame frame;
+
+    /** Maximum duration of the segments (s). */
+    private final double maxSegmentDuration;
+
+    /** Chebyshev series of the segments. */
+    private final ChebyshevSeries series;
+
+    /** Values of the components at the nodes of the current segment. */
+    private final double[][] values;
+
+    /** Reference date of the segment boundaries. */
+    private AbsoluteDate reference;
+
+    /** Number of segments. */
+    private int segments;
+
+    /** Segment boundaries, as offsets from the reference date (s). */
+    private double[] boundaries;
+
+    /** Chebyshev coefficients, indexed by segment, component and degree. */
+    private double[] coefficients;
+
+    /** Position interpolation error bounds of the segments (m). */
+    private double[] errorBounds;
+
+    /**
+     * Constructor.
+     * @param frame frame of the ephemeris
+     * @param maxSegmentDuration maximum duration of the segments (s)
+     * @param degree degree of the Chebyshev series
+     */
+    public IndexedEphemerisBuilder(final Frame frame, final double maxSegmentDuration, final int degree) {
+        if (maxSegmentDuration <= 0.0) {
+            throw new IllegalArgumentException("Segment duration of the indexed ephemeris must be positive: " + maxSegmentDuration);
+        }
+        this.frame              = frame;
+        this.maxSegmentDuration = maxSegmentDuration;
+        this.series             = new ChebyshevSeries(degree);
+        this.values             = new double[IndexedEphemeris.COMPONENTS][degree + 1];
+        this.segments           = 0;
+        this.boundaries         = new double[INITIAL_CAPACITY + 1];
+        this.coefficients       = new double[INITIAL_CAPACITY * IndexedEphemeris.COMPONENTS * (degree + 1)];
+        this.errorBounds        = new double[INITIAL_CAPACITY];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void handleStep(final OrekitStepInterpolator interpolator) {
+
+        if (!interpolator.isForward()) {
+            throw new IllegalArgumentException("Indexed ephemeris requires a forward propagation");
+        }
+
+        final AbsoluteDate previous = interpolator.getPreviousState().getDate();
+        final double       duration = interpolator.getCurrentState().getDate().durationFrom(previous);
+        if (reference == null) {
+            reference     = previous;
+            boundaries[0] = 0.0;
+        }
+        if (duration <= 0.0) {
+            return;
+        }
+
+        // Split the step in segments of equal duration
+        final int    count  = (int) FastMath.ceil(duration / maxSegmentDuration);
+        final double length = duration / count;
+        final double offset = previous.durationFrom(reference);
+        for (int i = 0; i < count; i++) {
+            final AbsoluteDate start = previous.shiftedBy(i * length);
+            addSegment(interpolator, start, length, i == count - 1 ? offset + duration : offset + (i + 1) * length);
+        }
+
+    }
+
+    /**
+     * Get the indexed ephemeris.
+     * @return the indexed ephemeris built from the steps handled so far
+     */
+    public IndexedEphemeris build() {
+        if (segments == 0) {
+            throw new IllegalStateException("No step has been handled by the indexed ephemeris builder");
+        }
+        final int size = IndexedEphemeris.COMPONENTS * series.getSize();
+        return new IndexedEphemeris(frame, reference, series, segments,
+                                    Arrays.copyOf(boundaries, segments + 1),
+                                    Arrays.copyOf(coefficients, segments * size),
+                                    Arrays.copyOf(errorBounds, segments));
+    }
+
+    /**
+     * Fit a segment and append it to the ephemeris.
+     * @param interpolator step interpolator
+     * @param start start date of the segment
+     * @param length duration of the segment (s)
+     * @param end end of the segment, as an offset from the reference date (s)
+     */
+    private void addSegment(final OrekitStepInterpolator interpolator, final AbsoluteDate start,
+                            final double length, final double end) {
+
+        // Grow the arrays if needed
+        final int size = IndexedEphemeris.COMPONENTS * series.getSize();
+        if (segments == errorBounds.length) {
+            boundaries   = Arrays.copyOf(boundaries, 2 * segments + 1);
+            coefficients = Arrays.copyOf(coefficients, 2 * segments * size);
+            errorBounds  = Arrays.copyOf(errorBounds, 2 * segments);
+        }
+
+        // Values at the nodes
+        for (int j = 0; j < series.getSize(); j++) {
+            final PVCoordinates pv = interpolator.getInterpolatedState(start.shiftedBy(0.5 * (series.getNode(j) + 1.0) * length)).
+                                     getPVCoordinates(frame);
+            values[0][j] = pv.getPosition().getX();
+            values[1][j] = pv.getPosition().getY();
+            values[2][j] = pv.getPosition().getZ();
+            values[3][j] = pv.getVelocity().getX();
+            values[4][j] = pv.getVelocity().getY();
+            values[5][j] = pv.getVelocity().getZ();
+        }
+
+        // Coefficients
+        final int offset = segments * size;
+        for (int c = 0; c < IndexedEphemeris.COMPONENTS; c++) {
+            series.fit(values[c], coefficients, offset + c * series.getSize());
+        }
+
+        // Error bound: differences at the segment boundaries and truncation error
+        final Vector3D first = interpolator.getInterpolatedState(start).getPVCoordinates(frame).getPosition();
+        final Vector3D last  = interpolator.getInterpolatedState(start.shiftedBy(length)).getPVCoordinates(frame).getPosition();
+        double tail = 0.0;
+        for (int c = 0; c < 3; c++) {
+            final double t = series.truncationError(coefficients, offset + c * series.getSize());
+            tail += t * t;
+        }
+        errorBounds[segments] = FastMath.max(FastMath.max(Vector3D.distance(first, position(offset, -1.0)),
+                                                          Vector3D.distance(last, position(offset, 1.0))),
+                                             FastMath.sqrt(tail));
+
+        boundaries[++segments] = end;
+
+    }
+
+    /**
+     * Evaluate the fitted position of a segment.
+     * @param offset index of the first coefficient of the segment
+     * @param x normalized time in the segment
+     * @return the fitted position
+     */
+    private Vector3D position(final int offset, final double x) {
+        return new Vector3D(series.evaluate(coefficients, offset, x),
+                            series.evaluate(coefficients, offset + series.getSize(), x),
+                            series.evaluate(coefficients, offset + 2 * series.getSize(), x));
+    }
+
+}
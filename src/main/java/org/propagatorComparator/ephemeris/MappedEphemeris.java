@@ -0,0 +1,373 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.ephemeris;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.util.FastMath;
+import org.orekit.frames.Frame;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.TimeStampedPVCoordinates;
+
+/**
+ * Ephemeris made of Chebyshev segments stored in a memory-mapped file.
+ * <p>
+ * The file contains a header followed by fixed-size segment records (start,
+ * end, position error bound and Chebyshev coefficients of the six Cartesian
+ * coordinates). The records are read through memory-mapped chunks, outside of
+ * the heap, the segment containing a date being found by binary search on the
+ * record starts. Only the coefficients of the most recently used segments are
+ * kept in the heap, in a least recently used cache of fixed size, so the heap
+ * used by the ephemeris does not depend on its length.
+ * </p>
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class MappedEphemeris implements Closeable {
+
+    /** Size of the file header (bytes). */
+    static final int HEADER_SIZE = 256;
+
+    /** Number of interpolated components (position and velocity). */
+    static final int COMPONENTS = 6;
+
+    /** Identifier of the binary file format. */
+    private static final int MAGIC = 0x42454d50;
+
+    /** Version of the binary file format. */
+    private static final int VERSION = 1;
+
+    /** Number of values preceding the coefficients in a record (start, end and error bound). */
+    private static final int RECORD_PREFIX = 3;
+
+    /** File channel. */
+    private final FileChannel channel;
+
+    /** Frame of the ephemeris. */
+    private final Frame frame;
+
+    /** Reference date of the segment boundaries. */
+    private final AbsoluteDate reference;
+
+    /** Chebyshev series of the segments. */
+    private final ChebyshevSeries series;
+
+    /** Number of segments. */
+    private final int segments;
+
+    /** Largest position error bound of the segments (m). */
+    private final double maxErrorBound;
+
+    /** Size of a record (bytes). */
+    private final int recordSize;
+
+    /** Number of records per mapped chunk. */
+    private final int recordsPerChunk;
+
+    /** Mapped chunks of records. */
+    private final MappedByteBuffer[] chunks;
+
+    /** Coefficients of the most recently used segments. */
+    private final Map<Integer, double[]> cache;
+
+    /** Number of queries answered from the cache. */
+    private long cacheHits;
+
+    /** Number of queries which required reading the mapped file. */
+    private long cacheMisses;
+
+    /**
+     * Constructor.
+     * @param channel file channel
+     * @param frame frame of the ephemeris
+     * @param reference reference date of the segment boundaries
+     * @param degree degree of the Chebyshev series
+     * @param segments number of segments
+     * @param maxErrorBound largest position error bound of the segments (m)
+     * @param cacheSize number of segments kept in the in-heap cache
+     * @throws IOException if the file cannot be mapped
+     */
+    private MappedEphemeris(final FileChannel channel, final Frame frame, final AbsoluteDate reference, final int degree,
+                            final int segments, final double maxErrorBound, final int cacheSize) throws IOException {
+        this.channel         = channel;
+        this.frame           = frame;
+        this.reference       = reference;
+        this.series          = new ChebyshevSeries(degree);
+        this.segments        = segments;
+        this.maxErrorBound   = maxErrorBound;
+        this.recordSize      = recordSize(degree);
+        this.recordsPerChunk = Integer.MAX_VALUE / recordSize;
+        this.chunks          = new MappedByteBuffer[(segments + recordsPerChunk - 1) / recordsPerChunk];
+        for (int i = 0; i < chunks.length; i++) {
+            final int records = FastMath.min(recordsPerChunk, segments - i * recordsPerChunk);
+            chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                                    HEADER_SIZE + (long) i * recordsPerChunk * recordSize,
+                                    (long) records * recordSize);
+        }
+        this.cache = new LinkedHashMap<Integer, double[]>(2 * cacheSize, 0.75f, true) {
+
+            /** Serializable UID. */
+            private static final long serialVersionUID = 20231019L;
+
+            /** {@inheritDoc} */
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Integer, double[]> eldest) {
+                return size() > cacheSize;
+            }
+
+        };
+    }
+
+    /**
+     * Open an ephemeris file.
+     * @param file ephemeris file
+     * @param frame frame of the ephemeris (its name must be the one stored in the file)
+     * @param cacheSize number of segments kept in the in-heap cache
+     * @return the ephemeris
+     * @throws IOException if the file cannot be read or is not an ephemeris file
+     */
+    public static MappedEphemeris open(final File file, final Frame frame, final int cacheSize) throws IOException {
+
+        if (cacheSize < 1) {
+            throw new IllegalArgumentException("Cache size of the mapped ephemeris must be positive: " + cacheSize);
+        }
+
+        final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            int read = 0;
+            while (header.hasRemaining() && read >= 0) {
+                read = channel.read(header, header.position());
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not a mapped ephemeris file: " + file.getAbsolutePath());
+            }
+            final byte[] name = new byte[header.getShort()];
+            header.get(name);
+            final String frameName = new String(name, StandardCharsets.UTF_8);
+            if (!frameName.equals(frame.getName())) {
+                throw new IllegalArgumentException("Mapped ephemeris " + file.getAbsolutePath() + " is defined in " +
+                                                   frameName + ", not in " + frame.getName());
+            }
+            final AbsoluteDate reference     = AbsoluteDate.J2000_EPOCH.shiftedBy(header.getLong()).shiftedBy(header.getDouble());
+            final int          degree        = header.getInt();
+            final int          segments      = header.getInt();
+            final double       maxErrorBound = header.getDouble();
+            if (segments < 1) {
+                throw new IllegalArgumentException("Mapped ephemeris " + file.getAbsolutePath() + " contains no segment");
+            }
+            return new MappedEphemeris(channel, frame, reference, degree, segments, maxErrorBound, cacheSize);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+
+    }
+
+    /**
+     * Write the header of an ephemeris file.
+     * @param header buffer of size {@link #HEADER_SIZE} receiving the header
+     * @param frame frame of the ephemeris
+     * @param reference reference date of the segment boundaries
+     * @param degree degree of the Chebyshev series
+     * @param segments number of segments
+     * @param maxErrorBound largest position error bound of the segments (m)
+     */
+    static void writeHeader(final ByteBuffer header, final Frame frame, final AbsoluteDate reference,
+                            final int degree, final int segments, final double maxErrorBound) {
+
+        // Reference date, split between whole seconds and fraction to preserve its accuracy
+        final long   whole    = (long) FastMath.floor(reference.durationFrom(AbsoluteDate.J2000_EPOCH));
+        final double fraction = reference.durationFrom(AbsoluteDate.J2000_EPOCH.shiftedBy(whole));
+        final byte[] name     = frame.getName().getBytes(StandardCharsets.UTF_8);
+
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putShort((short) name.length);
+        header.put(name);
+        header.putLong(whole);
+        header.putDouble(fraction);
+        header.putInt(degree);
+        header.putInt(segments);
+        header.putDouble(maxErrorBound);
+        header.position(HEADER_SIZE);
+
+    }
+
+    /**
+     * Get the size of a segment record.
+     * @param degree degree of the Chebyshev series
+     * @return the size of a segment record (bytes)
+     */
+    static int recordSize(final int degree) {
+        return Double.BYTES * (RECORD_PREFIX + COMPONENTS * (degree + 1));
+    }
+
+    /**
+     * Get the frame of the ephemeris.
+     * @return the frame of the ephemeris
+     */
+    public Frame getFrame() {
+        return frame;
+    }
+
+    /**
+     * Get the first date of the ephemeris.
+     * @return the first date of the ephemeris
+     */
+    public AbsoluteDate getMinDate() {
+        return reference.shiftedBy(read(0, 0));
+    }
+
+    /**
+     * Get the last date of the ephemeris.
+     * @return the last date of the ephemeris
+     */
+    public AbsoluteDate getMaxDate() {
+        return reference.shiftedBy(read(segments - 1, 1));
+    }
+
+    /**
+     * Get the number of segments.
+     * @return the number of segments
+     */
+    public int getSegments() {
+        return segments;
+    }
+
+    /**
+     * Get the largest position error bound of the segments.
+     * @return the largest position error bound of the segments (m)
+     */
+    public double getMaxErrorBound() {
+        return maxErrorBound;
+    }
+
+    /**
+     * Get the size of the ephemeris file.
+     * @return the size of the ephemeris file (bytes)
+     */
+    public long getFileSize() {
+        return HEADER_SIZE + (long) segments * recordSize;
+    }
+
+    /**
+     * Get the number of queries answered from the in-heap cache.
+     * @return the number of queries answered from the in-heap cache
+     */
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    /**
+     * Get the number of queries which required reading the mapped file.
+     * @return the number of queries which required reading the mapped file
+     */
+    public long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    /**
+     * Get the position-velocity coordinates at a date.
+     * @param date date (must be within the ephemeris)
+     * @return the position-velocity coordinates in the ephemeris frame
+     */
+    public TimeStampedPVCoordinates getPVCoordinates(final AbsoluteDate date) {
+
+        final double dt = date.durationFrom(reference);
+        if (dt < read(0, 0) || dt > read(segments - 1, 1)) {
+            throw new IllegalArgumentException("Date " + date + " is outside the mapped ephemeris [" +
+                                               getMinDate() + ", " + getMaxDate() + "]");
+        }
+
+        // Binary search of the last segment starting before the date
+        int low  = 0;
+        int high = segments - 1;
+        while (low < high) {
+            final int middle = (low + high + 1) >>> 1;
+            if (read(middle, 0) <= dt) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        // Normalized time in the segment
+        final double start = read(low, 0);
+        final double x     = 2.0 * (dt - start) / (read(low, 1) - start) - 1.0;
+
+        final double[] coefficients = coefficients(low);
+        final int      size         = series.getSize();
+        return new TimeStampedPVCoordinates(date,
+                                            new Vector3D(series.evaluate(coefficients, 0, x),
+                                                         series.evaluate(coefficients, size, x),
+                                                         series.evaluate(coefficients, 2 * size, x)),
+                                            new Vector3D(series.evaluate(coefficients, 3 * size, x),
+                                                         series.evaluate(coefficients, 4 * size, x),
+                                                         series.evaluate(coefficients, 5 * size, x)));
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() throws IOException {
+        cache.clear();
+        channel.close();
+    }
+
+    /**
+     * Get the coefficients of a segment, from the cache if possible.
+     * @param segment index of the segment
+     * @return the coefficients of the segment
+     */
+    private double[] coefficients(final int segment) {
+        double[] coefficients = cache.get(segment);
+        if (coefficients == null) {
+            coefficients = new double[COMPONENTS * series.getSize()];
+            for (int i = 0; i < coefficients.length; i++) {
+                coefficients[i] = read(segment, RECORD_PREFIX + i);
+            }
+            cache.put(segment, coefficients);
+            cacheMisses++;
+        } else {
+            cacheHits++;
+        }
+        return coefficients;
+    }
+
+    /**
+     * Read a value of a segment record.
+     * @param segment index of the segment
+     * @param index index of the value in the record
+     * @return the value
+     */
+    private double read(final int segment, final int index) {
+        return chunks[segment / recordsPerChunk].getDouble((segment % recordsPerChunk) * recordSize + Double.BYTES * index);
+    }
+
+}
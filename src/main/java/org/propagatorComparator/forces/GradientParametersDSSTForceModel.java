@@ -0,0 +1,162 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.forces;
+
+import java.util.List;
+import java.util.Map;
+
+import org.hipparchus.CalculusFieldElement;
+import org.hipparchus.Field;
+import org.orekit.attitudes.AttitudeProvider;
+import org.orekit.propagation.FieldSpacecraftState;
+import org.orekit.propagation.PropagationType;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.events.EventDetector;
+import org.orekit.propagation.events.FieldEventDetector;
+import org.orekit.propagation.semianalytical.dsst.forces.DSSTForceModel;
+import org.orekit.propagation.semianalytical.dsst.forces.FieldShortPeriodTerms;
+import org.orekit.propagation.semianalytical.dsst.forces.ShortPeriodTerms;
+import org.orekit.propagation.semianalytical.dsst.utilities.AuxiliaryElements;
+import org.orekit.propagation.semianalytical.dsst.utilities.FieldAuxiliaryElements;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.FieldAbsoluteDate;
+import org.orekit.utils.ParameterDriver;
+
+/**
+ * DSST force model exposing some of its parameters as gradient variables.
+ * <p>
+ * This is the DSST counterpart of {@link GradientParametersForceModel}: the
+ * field DSST propagator gets the parameters of the mean element rates and
+ * of the short period terms from the wrapper, the registered ones being
+ * replaced by independent variables of the gradient field.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class GradientParametersDSSTForceModel implements DSSTForceModel {
+
+    /** Wrapped force model. */
+    private final DSSTForceModel model;
+
+    /** Index of the gradient variable of each parameter, sorted by parameter name. */
+    private final Map<String, Integer> variables;
+
+    /**
+     * Constructor.
+     * @param model wrapped force model
+     * @param variables index of the gradient variable of each parameter, sorted by parameter name
+     */
+    public GradientParametersDSSTForceModel(final DSSTForceModel model, final Map<String, Integer> variables) {
+        this.model     = model;
+        this.variables = variables;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void init(final SpacecraftState initialState, final AbsoluteDate target) {
+        model.init(initialState, target);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T extends CalculusFieldElement<T>> void init(final FieldSpacecraftState<T> initialState,
+                                                         final FieldAbsoluteDate<T> target) {
+        model.init(initialState, target);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T extends CalculusFieldElement<T>> T[] getParameters(final Field<T> field) {
+        return GradientParametersForceModel.toVariables(model.getParameters(field), model.getParametersDrivers(), variables);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<ShortPeriodTerms> initializeShortPeriodTerms(final AuxiliaryElements auxiliaryElements,
+                                                             final PropagationType type,
+                                                             final double[] parameters) {
+        return model.initializeShortPeriodTerms(auxiliaryElements, type, parameters);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T extends CalculusFieldElement<T>> List<FieldShortPeriodTerms<T>> initializeShortPeriodTerms(final FieldAuxiliaryElements<T> auxiliaryElements,
+                                                                                                         final PropagationType type,
+                                                                                                         final T[] parameters) {
+        return model.initializeShortPeriodTerms(auxiliaryElements, type, parameters);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double[] getMeanElementRate(final SpacecraftState state,
+                                       final AuxiliaryElements auxiliaryElements,
+                                       final double[] parameters) {
+        return model.getMeanElementRate(state, auxiliaryElements, parameters);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T extends CalculusFieldElement<T>> T[] getMeanElementRate(final FieldSpacecraftState<T> state,
+                                                                      final FieldAuxiliaryElements<T> auxiliaryElements,
+                                                                      final T[] parameters) {
+        return model.getMeanElementRate(state, auxiliaryElements, parameters);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public EventDetector[] getEventsDetectors() {
+        return model.getEventsDetectors();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T extends CalculusFieldElement<T>> FieldEventDetector<T>[] getFieldEventsDetectors(final Field<T> field) {
+        return model.getFieldEventsDetectors(field);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void registerAttitudeProvider(final AttitudeProvider provider) {
+        model.registerAttitudeProvider(provider);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void updateShortPeriodTerms(final double[] parameters, final SpacecraftState... meanStates) {
+        model.updateShortPeriodTerms(parameters, meanStates);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends CalculusFieldElement<T>> void updateShortPeriodTerms(final T[] parameters,
+                                                                           final FieldSpacecraftState<T>... meanStates) {
+        model.updateShortPeriodTerms(parameters, meanStates);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<ParameterDriver> getParametersDrivers() {
+        return model.getParametersDrivers();
+    }
+
+    /**
+     * Get the wrapped force model.
+     * @return the wrapped force model
+     */
+    public DSSTForceModel getModel() {
+        return model;
+    }
+
+}
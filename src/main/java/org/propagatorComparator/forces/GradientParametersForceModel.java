@@ -0,0 +1,153 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.forces;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.hipparchus.CalculusFieldElement;
+import org.hipparchus.Field;
+import org.hipparchus.analysis.differentiation.Gradient;
+import org.hipparchus.geometry.euclidean.threed.FieldVector3D;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.orekit.forces.AbstractForceModel;
+import org.orekit.forces.ForceModel;
+import org.orekit.propagation.FieldSpacecraftState;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.events.EventDetector;
+import org.orekit.propagation.events.FieldEventDetector;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.FieldAbsoluteDate;
+import org.orekit.utils.ParameterDriver;
+
+/**
+ * Force model exposing some of its parameters as {@link Gradient} variables.
+ * <p>
+ * Field propagators evaluate the force models with constant parameters. This
+ * wrapper replaces the parameters whose names are registered by independent
+ * variables of the gradient field, so that a single field propagation gives
+ * the sensitivities of the final state with respect to these parameters.
+ * Non-gradient fields and double evaluations are simply delegated.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class GradientParametersForceModel extends AbstractForceModel {
+
+    /** Wrapped force model. */
+    private final ForceModel model;
+
+    /** Index of the gradient variable of each parameter, sorted by parameter name. */
+    private final Map<String, Integer> variables;
+
+    /**
+     * Constructor.
+     * @param model wrapped force model
+     * @param variables index of the gradient variable of each parameter, sorted by parameter name
+     */
+    public GradientParametersForceModel(final ForceModel model, final Map<String, Integer> variables) {
+        this.model     = model;
+        this.variables = variables;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void init(final SpacecraftState initialState, final AbsoluteDate target) {
+        model.init(initialState, target);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T extends CalculusFieldElement<T>> void init(final FieldSpacecraftState<T> initialState,
+                                                         final FieldAbsoluteDate<T> target) {
+        model.init(initialState, target);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T extends CalculusFieldElement<T>> T[] getParameters(final Field<T> field) {
+        return toVariables(model.getParameters(field), model.getParametersDrivers(), variables);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean dependsOnPositionOnly() {
+        return model.dependsOnPositionOnly();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Vector3D acceleration(final SpacecraftState s, final double[] parameters) {
+        return model.acceleration(s, parameters);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T extends CalculusFieldElement<T>> FieldVector3D<T> acceleration(final FieldSpacecraftState<T> s,
+                                                                             final T[] parameters) {
+        return model.acceleration(s, parameters);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Stream<EventDetector> getEventsDetectors() {
+        return model.getEventsDetectors();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T extends CalculusFieldElement<T>> Stream<FieldEventDetector<T>> getFieldEventsDetectors(final Field<T> field) {
+        return model.getFieldEventsDetectors(field);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<ParameterDriver> getParametersDrivers() {
+        return model.getParametersDrivers();
+    }
+
+    /**
+     * Get the wrapped force model.
+     * @return the wrapped force model
+     */
+    public ForceModel getModel() {
+        return model;
+    }
+
+    /**
+     * Replace the registered parameters by gradient variables.
+     * @param <T> type of the field elements
+     * @param parameters parameters of the model, modified in place
+     * @param drivers parameter drivers of the model
+     * @param variables index of the gradient variable of each parameter, sorted by parameter name
+     * @return the parameters
+     */
+    @SuppressWarnings("unchecked")
+    static <T extends CalculusFieldElement<T>> T[] toVariables(final T[] parameters,
+                                                               final List<ParameterDriver> drivers,
+                                                               final Map<String, Integer> variables) {
+        if (parameters.length > 0 && parameters[0] instanceof Gradient) {
+            final int freeParameters = ((Gradient) parameters[0]).getFreeParameters();
+            for (int i = 0; i < parameters.length; i++) {
+                final Integer index = variables.get(drivers.get(i).getName());
+                if (index != null) {
+                    parameters[i] = (T) Gradient.variable(freeParameters, index, drivers.get(i).getValue());
+                }
+            }
+        }
+        return parameters;
+    }
+
+}
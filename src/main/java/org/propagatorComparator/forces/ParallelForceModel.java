@@ -0,0 +1,371 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.forces;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import org.hipparchus.CalculusFieldElement;
+import org.hipparchus.Field;
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.hipparchus.geometry.euclidean.threed.FieldVector3D;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.util.FastMath;
+import org.hipparchus.util.MathArrays;
+import org.orekit.errors.OrekitException;
+import org.orekit.forces.AbstractForceModel;
+import org.orekit.forces.ForceModel;
+import org.orekit.propagation.FieldSpacecraftState;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.events.EventDetector;
+import org.orekit.propagation.events.FieldEventDetector;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.FieldAbsoluteDate;
+import org.orekit.utils.ParameterDriver;
+
+/**
+ * Composite force model evaluating its members concurrently.
+ * <p>
+ * At a given state, the members are independent of each other. They are
+ * split into groups of similar cost, one group being evaluated on the
+ * propagation thread and the others on a small dedicated pool, and their
+ * accelerations are summed.
+ * </p>
+ * <p>
+ * The cost of each member is measured on the first evaluations, which are
+ * performed serially. The concurrent evaluation is then used only if the
+ * combined cost of the members is above a threshold, so that the
+ * synchronization overhead is paid only when it is worth it. Field
+ * evaluations (used for partial derivatives) are always serial.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class ParallelForceModel extends AbstractForceModel {
+
+    /** Number of serial evaluations used to measure the cost of the members. */
+    private static final int CALIBRATION_EVALUATIONS = 200;
+
+    /** Members of the composite force model. */
+    private final List<ForceModel> members;
+
+    /** Index of the first parameter of each member (last element is the total number of parameters). */
+    private final int[] parameterOffsets;
+
+    /** Parameter drivers of all the members, in members order. */
+    private final List<ParameterDriver> drivers;
+
+    /** Number of groups evaluated concurrently. */
+    private final int threads;
+
+    /** Minimum combined cost of the members to use the concurrent evaluation (ns). */
+    private final double threshold;
+
+    /** Pool evaluating all the groups except the first one. */
+    private final ExecutorService pool;
+
+    /** Threads of the pool. */
+    private final List<Thread> workers;
+
+    /** Cumulated cost of each member during calibration (ns). */
+    private final long[] costs;
+
+    /** Number of evaluations performed for calibration. */
+    private int calibrations;
+
+    /** Groups of members (null until the calibration is done or if evaluation is serial). */
+    private int[][] groups;
+
+    /**
+     * Constructor.
+     * @param members members of the composite force model
+     * @param threads number of groups evaluated concurrently (including the propagation thread)
+     * @param threshold minimum combined cost of the members to use the concurrent evaluation (ns)
+     */
+    public ParallelForceModel(final List<ForceModel> members, final int threads, final double threshold) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive: " + threads);
+        }
+        this.members          = new ArrayList<>(members);
+        this.parameterOffsets = new int[members.size() + 1];
+        final List<ParameterDriver> allDrivers = new ArrayList<>();
+        for (int i = 0; i < members.size(); i++) {
+            allDrivers.addAll(members.get(i).getParametersDrivers());
+            parameterOffsets[i + 1] = allDrivers.size();
+        }
+        this.drivers      = Collections.unmodifiableList(allDrivers);
+        this.threads      = threads;
+        this.threshold    = threshold;
+        this.workers      = Collections.synchronizedList(new ArrayList<>());
+        this.pool         = Executors.newFixedThreadPool(FastMath.max(1, threads - 1), runnable -> {
+            final Thread thread = new Thread(runnable, "parallel-force-model");
+            thread.setDaemon(true);
+            workers.add(thread);
+            return thread;
+        });
+        this.costs        = new long[members.size()];
+        this.calibrations = 0;
+        this.groups       = null;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void init(final SpacecraftState initialState, final AbsoluteDate target) {
+        for (final ForceModel member : members) {
+            member.init(initialState, target);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T extends CalculusFieldElement<T>> void init(final FieldSpacecraftState<T> initialState,
+                                                         final FieldAbsoluteDate<T> target) {
+        for (final ForceModel member : members) {
+            member.init(initialState, target);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean dependsOnPositionOnly() {
+        for (final ForceModel member : members) {
+            if (!member.dependsOnPositionOnly()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Vector3D acceleration(final SpacecraftState s, final double[] parameters) {
+
+        // Calibration
+        if (calibrations < CALIBRATION_EVALUATIONS) {
+            Vector3D acceleration = Vector3D.ZERO;
+            for (int i = 0; i < members.size(); i++) {
+                final long t0 = System.nanoTime();
+                acceleration = acceleration.add(members.get(i).acceleration(s, memberParameters(parameters, i)));
+                costs[i] += System.nanoTime() - t0;
+            }
+            if (++calibrations == CALIBRATION_EVALUATIONS) {
+                groups = buildGroups();
+            }
+            return acceleration;
+        }
+
+        // Serial evaluation
+        if (groups == null) {
+            Vector3D acceleration = Vector3D.ZERO;
+            for (int i = 0; i < members.size(); i++) {
+                acceleration = acceleration.add(members.get(i).acceleration(s, memberParameters(parameters, i)));
+            }
+            return acceleration;
+        }
+
+        // Concurrent evaluation
+        final List<Future<Vector3D>> futures = new ArrayList<>(groups.length - 1);
+        for (int g = 1; g < groups.length; g++) {
+            final int[] group = groups[g];
+            futures.add(pool.submit(() -> evaluate(group, s, parameters)));
+        }
+        Vector3D acceleration = evaluate(groups[0], s, parameters);
+        try {
+            for (final Future<Vector3D> future : futures) {
+                acceleration = acceleration.add(future.get());
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new OrekitException(ie, LocalizedCoreFormats.SIMPLE_MESSAGE, ie.getMessage());
+        } catch (ExecutionException ee) {
+            if (ee.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ee.getCause();
+            }
+            throw new OrekitException(ee.getCause(), LocalizedCoreFormats.SIMPLE_MESSAGE, ee.getCause().getMessage());
+        }
+        return acceleration;
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T extends CalculusFieldElement<T>> FieldVector3D<T> acceleration(final FieldSpacecraftState<T> s,
+                                                                             final T[] parameters) {
+        FieldVector3D<T> acceleration = FieldVector3D.getZero(s.getDate().getField());
+        for (int i = 0; i < members.size(); i++) {
+            final T[] memberParameters = MathArrays.buildArray(s.getDate().getField(), parameterOffsets[i + 1] - parameterOffsets[i]);
+            System.arraycopy(parameters, parameterOffsets[i], memberParameters, 0, memberParameters.length);
+            acceleration = acceleration.add(members.get(i).acceleration(s, memberParameters));
+        }
+        return acceleration;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Stream<EventDetector> getEventsDetectors() {
+        return members.stream().flatMap(ForceModel::getEventsDetectors);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T extends CalculusFieldElement<T>> Stream<FieldEventDetector<T>> getFieldEventsDetectors(final Field<T> field) {
+        return members.stream().flatMap(member -> member.getFieldEventsDetectors(field));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<ParameterDriver> getParametersDrivers() {
+        return drivers;
+    }
+
+    /**
+     * Get the members of the composite force model.
+     * @return the members of the composite force model
+     */
+    public List<ForceModel> getMembers() {
+        return Collections.unmodifiableList(members);
+    }
+
+    /**
+     * Get the mean combined cost of the members measured during calibration.
+     * @return the mean combined cost of the members (ns), NaN if calibration is not done
+     */
+    public double getCombinedCost() {
+        if (calibrations < CALIBRATION_EVALUATIONS) {
+            return Double.NaN;
+        }
+        long total = 0L;
+        for (final long cost : costs) {
+            total += cost;
+        }
+        return ((double) total) / calibrations;
+    }
+
+    /**
+     * Check if the members are evaluated concurrently.
+     * @return true if the members are evaluated concurrently
+     */
+    public boolean isConcurrent() {
+        return groups != null;
+    }
+
+    /**
+     * Get the CPU time consumed by the threads of the pool.
+     * <p>
+     * The CPU time of the propagation thread is not included. The method must
+     * be called before {@link #shutdown()}, as the CPU time of a terminated
+     * thread is not available.
+     * </p>
+     * @return the CPU time consumed by the threads of the pool (ns)
+     */
+    public long getWorkersCpuTime() {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        long total = 0L;
+        synchronized (workers) {
+            for (final Thread worker : workers) {
+                total += FastMath.max(0L, bean.getThreadCpuTime(worker.getId()));
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Stop the threads of the pool.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Build the groups of members evaluated concurrently.
+     * <p>
+     * Members are sorted by decreasing cost and each one is added to the
+     * cheapest group (longest processing time first heuristic).
+     * </p>
+     * @return the groups of members (null if the evaluation must remain serial)
+     */
+    private int[][] buildGroups() {
+
+        final int nbGroups = FastMath.min(threads, members.size());
+        if (nbGroups < 2 || getCombinedCost() < threshold) {
+            return null;
+        }
+
+        // Sort members by decreasing cost
+        final Integer[] order = new Integer[members.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (i1, i2) -> Long.compare(costs[i2], costs[i1]));
+
+        // Assign each member to the cheapest group
+        final List<List<Integer>> lists = new ArrayList<>();
+        final long[] groupCosts = new long[nbGroups];
+        for (int g = 0; g < nbGroups; g++) {
+            lists.add(new ArrayList<>());
+        }
+        for (final Integer index : order) {
+            int cheapest = 0;
+            for (int g = 1; g < nbGroups; g++) {
+                if (groupCosts[g] < groupCosts[cheapest]) {
+                    cheapest = g;
+                }
+            }
+            lists.get(cheapest).add(index);
+            groupCosts[cheapest] += costs[index];
+        }
+
+        final int[][] result = new int[nbGroups][];
+        for (int g = 0; g < nbGroups; g++) {
+            result[g] = lists.get(g).stream().mapToInt(Integer::intValue).toArray();
+        }
+        return result;
+
+    }
+
+    /**
+     * Evaluate the acceleration of a group of members.
+     * @param group indices of the members
+     * @param s current state
+     * @param parameters parameters of the composite force model
+     * @return the acceleration of the group
+     */
+    private Vector3D evaluate(final int[] group, final SpacecraftState s, final double[] parameters) {
+        Vector3D acceleration = Vector3D.ZERO;
+        for (final int i : group) {
+            acceleration = acceleration.add(members.get(i).acceleration(s, memberParameters(parameters, i)));
+        }
+        return acceleration;
+    }
+
+    /**
+     * Extract the parameters of a member.
+     * @param parameters parameters of the composite force model
+     * @param index index of the member
+     * @return the parameters of the member
+     */
+    private double[] memberParameters(final double[] parameters, final int index) {
+        return Arrays.copyOfRange(parameters, parameterOffsets[index], parameterOffsets[index + 1]);
+    }
+
+}
@@ -0,0 +1,476 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.gravity;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hipparchus.CalculusFieldElement;
+import org.hipparchus.Field;
+import org.hipparchus.geometry.euclidean.threed.FieldVector3D;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.util.FastMath;
+import org.orekit.forces.AbstractForceModel;
+import org.orekit.forces.gravity.HolmesFeatherstoneAttractionModel;
+import org.orekit.forces.gravity.potential.NormalizedSphericalHarmonicsProvider;
+import org.orekit.forces.gravity.potential.NormalizedSphericalHarmonicsProvider.NormalizedSphericalHarmonics;
+import org.orekit.frames.Frame;
+import org.orekit.frames.StaticTransform;
+import org.orekit.propagation.FieldSpacecraftState;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.events.EventDetector;
+import org.orekit.propagation.events.FieldEventDetector;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.ParameterDriver;
+
+/**
+ * Spherical harmonics gravity field force model specialized for double evaluations.
+ * <p>
+ * The model runs the same Holmes-Featherstone recursions, with the same operations
+ * in the same order, as {@link HolmesFeatherstoneAttractionModel}, so both models
+ * give identical accelerations. The differences are in the memory layout:
+ * </p>
+ * <ul>
+ *   <li>the recursion columns, distance powers and longitude harmonics are stored in a
+ *       per-thread workspace allocated once, instead of being allocated at each call,</li>
+ *   <li>the C<sub>nm</sub> and S<sub>nm</sub> coefficients are copied once in flat arrays,
+ *       in the order in which the inner summation over degree reads them, instead of
+ *       being read through the provider at each call (they are copied again at each call
+ *       if the field is time-dependent),</li>
+ *   <li>the spherical to Cartesian gradient conversion is done on scalars.</li>
+ * </ul>
+ * <p>
+ * The only remaining allocations of a call are the frame transforms and the returned
+ * vector. Field evaluations (used for partial derivatives) are delegated to
+ * {@link HolmesFeatherstoneAttractionModel}, which also holds the parameter drivers.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class FlatHolmesFeatherstoneAttractionModel extends AbstractForceModel {
+
+    /** Exponent scaling to avoid floating point underflow (same as Holmes-Featherstone model). */
+    private static final int SCALING = 930;
+
+    /** Model used for field evaluations. */
+    private final HolmesFeatherstoneAttractionModel exact;
+
+    /** Gravity field provider. */
+    private final NormalizedSphericalHarmonicsProvider provider;
+
+    /** Body frame. */
+    private final Frame bodyFrame;
+
+    /** Maximal degree. */
+    private final int degree;
+
+    /** Maximal order. */
+    private final int order;
+
+    /** Flag indicating if the coefficients depend on time. */
+    private final boolean timeDependent;
+
+    /** Recursion coefficients g<sub>n,m</sub>/√j. */
+    private final double[] gnmOj;
+
+    /** Recursion coefficients h<sub>n,m</sub>/√j. */
+    private final double[] hnmOj;
+
+    /** Recursion coefficients e<sub>n,m</sub>. */
+    private final double[] enm;
+
+    /** Scaled sectorial Legendre functions. */
+    private final double[] sectorial;
+
+    /** Normalized C<sub>nm</sub> coefficients in summation order (null if the field depends on time). */
+    private final double[] cnm;
+
+    /** Normalized S<sub>nm</sub> coefficients in summation order (null if the field depends on time). */
+    private final double[] snm;
+
+    /** Per-thread workspaces. */
+    private final ThreadLocal<Workspace> workspaces;
+
+    /**
+     * Constructor.
+     * @param bodyFrame body frame
+     * @param provider gravity field provider
+     */
+    public FlatHolmesFeatherstoneAttractionModel(final Frame bodyFrame, final NormalizedSphericalHarmonicsProvider provider) {
+
+        this.exact         = new HolmesFeatherstoneAttractionModel(bodyFrame, provider);
+        this.provider      = provider;
+        this.bodyFrame     = bodyFrame;
+        this.degree        = provider.getMaxDegree();
+        this.order         = provider.getMaxOrder();
+        this.timeDependent = provider.getReferenceDate() != null;
+
+        // Recursion coefficients (equations 11 and 12 of Holmes and Featherstone paper)
+        final int size = FastMath.max(0, degree * (degree + 1) / 2 - 1);
+        this.gnmOj = new double[size];
+        this.hnmOj = new double[size];
+        this.enm   = new double[size];
+        int index = 0;
+        for (int m = degree; m >= 0; --m) {
+            final int j = (m == 0) ? 2 : 1;
+            for (int n = FastMath.max(2, m + 1); n <= degree; ++n) {
+                final double f = (n - m) * (n + m + 1);
+                gnmOj[index] = 2 * (m + 1) / FastMath.sqrt(j * f);
+                hnmOj[index] = FastMath.sqrt((n + m + 2) * (n - m - 1) / (j * f));
+                enm[index]   = FastMath.sqrt(f / j);
+                ++index;
+            }
+        }
+
+        // Scaled sectorial terms (equation 28 of Holmes and Featherstone paper)
+        this.sectorial = new double[degree + 1];
+        sectorial[0] = FastMath.scalb(1.0, -SCALING);
+        if (degree > 0) {
+            sectorial[1] = FastMath.sqrt(3.0) * sectorial[0];
+        }
+        for (int m = 2; m < sectorial.length; ++m) {
+            sectorial[m] = FastMath.sqrt((2 * m + 1) / (2.0 * m)) * sectorial[m - 1];
+        }
+
+        // Flat coefficients
+        if (timeDependent) {
+            this.cnm = null;
+            this.snm = null;
+        } else {
+            this.cnm = new double[coefficientsCount()];
+            this.snm = new double[cnm.length];
+            fillCoefficients(provider.onDate(AbsoluteDate.J2000_EPOCH), cnm, snm);
+        }
+
+        this.workspaces = ThreadLocal.withInitial(Workspace::new);
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean dependsOnPositionOnly() {
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Vector3D acceleration(final SpacecraftState s, final double[] parameters) {
+
+        // Position in body frame
+        final AbsoluteDate    date          = s.getDate();
+        final StaticTransform fromBodyFrame = bodyFrame.getStaticTransformTo(s.getFrame(), date);
+        final StaticTransform toBodyFrame   = fromBodyFrame.getInverse();
+        final Vector3D        position      = toBodyFrame.transformPosition(s.getPVCoordinates().getPosition());
+
+        // Gradient of the non-central part of the gravity field
+        final Workspace workspace = workspaces.get();
+        gradient(date, position, parameters[0], workspace);
+        final double[] gradient = workspace.gradient;
+        return fromBodyFrame.transformVector(new Vector3D(gradient[0], gradient[1], gradient[2]));
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T extends CalculusFieldElement<T>> FieldVector3D<T> acceleration(final FieldSpacecraftState<T> s,
+                                                                             final T[] parameters) {
+        return exact.acceleration(s, parameters);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Stream<EventDetector> getEventsDetectors() {
+        return Stream.empty();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T extends CalculusFieldElement<T>> Stream<FieldEventDetector<T>> getFieldEventsDetectors(final Field<T> field) {
+        return Stream.empty();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<ParameterDriver> getParametersDrivers() {
+        return exact.getParametersDrivers();
+    }
+
+    /**
+     * Get the model used for field evaluations.
+     * @return the model used for field evaluations
+     */
+    public HolmesFeatherstoneAttractionModel getExactModel() {
+        return exact;
+    }
+
+    /**
+     * Compute the gradient of the non-central part of the gravity field.
+     * <p>
+     * The result is stored in the gradient array of the workspace.
+     * </p>
+     * @param date current date
+     * @param position position in body frame (m)
+     * @param mu central attraction coefficient (m³/s²)
+     * @param workspace workspace of the current thread
+     */
+    private void gradient(final AbsoluteDate date, final Vector3D position, final double mu, final Workspace workspace) {
+
+        // Coefficients
+        final double[] c;
+        final double[] s;
+        if (timeDependent) {
+            fillCoefficients(provider.onDate(date), workspace.cnm, workspace.snm);
+            c = workspace.cnm;
+            s = workspace.snm;
+        } else {
+            c = cnm;
+            s = snm;
+        }
+
+        // Recursion columns
+        double[] pnm0Plus2 = workspace.pnm0Plus2;
+        double[] pnm0Plus1 = workspace.pnm0Plus1;
+        double[] pnm0      = workspace.pnm0;
+        final double[] pnm1 = workspace.pnm1;
+        Arrays.fill(pnm0Plus2, 0.0);
+        Arrays.fill(pnm0Plus1, 0.0);
+        Arrays.fill(pnm0, 0.0);
+
+        // Polar coordinates
+        final double x    = position.getX();
+        final double y    = position.getY();
+        final double z    = position.getZ();
+        final double x2   = x * x;
+        final double y2   = y * y;
+        final double z2   = z * z;
+        final double r2   = x2 + y2 + z2;
+        final double r    = FastMath.sqrt(r2);
+        final double rho2 = x2 + y2;
+        final double rho  = FastMath.sqrt(rho2);
+        final double t    = z / r;   // cos(theta), where theta is the polar angle
+        final double u    = rho / r; // sin(theta), where theta is the polar angle
+        final double tOu  = z / rho;
+        final double u2   = u * u;
+
+        // Distance powers
+        final double[] aOrN = workspace.aOrN;
+        aOrN[0] = 1.0;
+        if (degree > 0) {
+            aOrN[1] = provider.getAe() / r;
+        }
+        for (int n = 2; n < aOrN.length; ++n) {
+            final int p = n / 2;
+            final int q = n - p;
+            aOrN[n] = aOrN[p] * aOrN[q];
+        }
+
+        // Longitude cosines and sines
+        final double[] cosLambda = workspace.cosLambda;
+        final double[] sinLambda = workspace.sinLambda;
+        cosLambda[0] = 1.0;
+        sinLambda[0] = 0.0;
+        if (order > 0) {
+            cosLambda[1] = x / rho;
+            sinLambda[1] = y / rho;
+            for (int i = 2; i < cosLambda.length; ++i) {
+                final int p = i / 2;
+                final int q = i - p;
+                cosLambda[i] = cosLambda[p] * cosLambda[q] - sinLambda[p] * sinLambda[q];
+                sinLambda[i] = sinLambda[p] * cosLambda[q] + cosLambda[p] * sinLambda[q];
+            }
+        }
+
+        // Outer summation over order
+        int    index  = 0;
+        int    k      = 0;
+        double value  = 0.0;
+        double gR     = 0.0;
+        double gTheta = 0.0;
+        double gPhi   = 0.0;
+        for (int m = degree; m >= 0; --m) {
+
+            // Tesseral terms (equation 27 of Holmes and Featherstone paper)
+            int n = FastMath.max(2, m);
+            if (n == m) {
+                pnm0[n] = sectorial[n];
+                ++n;
+            }
+            int localIndex = index;
+            for (; n <= degree; ++n) {
+                pnm0[n] = gnmOj[localIndex] * t * pnm0Plus1[n] - hnmOj[localIndex] * u2 * pnm0Plus2[n];
+                ++localIndex;
+            }
+
+            // Derivatives with respect to polar angle (equation 28 of Holmes and Featherstone paper)
+            n = FastMath.max(2, m);
+            if (n == m) {
+                pnm1[n] = m * tOu * pnm0[n];
+                ++n;
+            }
+            localIndex = index;
+            for (; n <= degree; ++n) {
+                pnm1[n] = m * tOu * pnm0[n] - enm[localIndex] * u * pnm0Plus1[n];
+                ++localIndex;
+            }
+            index = localIndex;
+
+            if (m <= order) {
+
+                // Inner summation over degree, for fixed order
+                double sumDegreeS        = 0.0;
+                double sumDegreeC        = 0.0;
+                double dSumDegreeSdR     = 0.0;
+                double dSumDegreeCdR     = 0.0;
+                double dSumDegreeSdTheta = 0.0;
+                double dSumDegreeCdTheta = 0.0;
+                for (n = FastMath.max(2, m); n <= degree; ++n) {
+                    final double qSnm = aOrN[n] * s[k];
+                    final double qCnm = aOrN[n] * c[k];
+                    final double nOr  = n / r;
+                    final double s0   = pnm0[n] * qSnm;
+                    final double c0   = pnm0[n] * qCnm;
+                    final double s1   = pnm1[n] * qSnm;
+                    final double c1   = pnm1[n] * qCnm;
+                    sumDegreeS        += s0;
+                    sumDegreeC        += c0;
+                    dSumDegreeSdR     -= nOr * s0;
+                    dSumDegreeCdR     -= nOr * c0;
+                    dSumDegreeSdTheta += s1;
+                    dSumDegreeCdTheta += c1;
+                    ++k;
+                }
+
+                // Contribution to outer summation over order
+                final double sML = sinLambda[m];
+                final double cML = cosLambda[m];
+                value  = value  * u + sML * sumDegreeS        + cML * sumDegreeC;
+                gR     = gR     * u + sML * dSumDegreeSdR     + cML * dSumDegreeCdR;
+                gTheta = gTheta * u + m * (cML * sumDegreeS - sML * sumDegreeC);
+                gPhi   = gPhi   * u + sML * dSumDegreeSdTheta + cML * dSumDegreeCdTheta;
+
+            }
+
+            // Rotate the recursion columns
+            final double[] tmp = pnm0Plus2;
+            pnm0Plus2 = pnm0Plus1;
+            pnm0Plus1 = pnm0;
+            pnm0      = tmp;
+
+        }
+        workspace.pnm0Plus2 = pnm0Plus2;
+        workspace.pnm0Plus1 = pnm0Plus1;
+        workspace.pnm0      = pnm0;
+
+        // Scale back
+        value  = FastMath.scalb(value, SCALING);
+        gR     = FastMath.scalb(gR, SCALING);
+        gTheta = FastMath.scalb(gTheta, SCALING);
+        gPhi   = FastMath.scalb(gPhi, SCALING);
+
+        // Global mu/r factor
+        final double muOr = mu / r;
+        value  *= muOr;
+        gR      = muOr * gR - value / r;
+        gTheta *= muOr;
+        gPhi   *= muOr;
+
+        // Spherical to Cartesian gradient
+        final double rhoR2 = rho * (rho2 + z * z);
+        final double[] gradient = workspace.gradient;
+        gradient[0] = gR * (x / r) + gTheta * (-y / rho2) + gPhi * (x * z / rhoR2);
+        gradient[1] = gR * (y / r) + gTheta * (x / rho2)  + gPhi * (y * z / rhoR2);
+        gradient[2] = gR * (z / r) + gTheta * 0.0         + gPhi * (-rho / (rho2 + z * z));
+
+    }
+
+    /**
+     * Get the number of coefficients read by the inner summations.
+     * @return the number of coefficients
+     */
+    private int coefficientsCount() {
+        int count = 0;
+        for (int m = FastMath.min(order, degree); m >= 0; --m) {
+            count += FastMath.max(0, degree - FastMath.max(2, m) + 1);
+        }
+        return count;
+    }
+
+    /**
+     * Copy the coefficients in the order in which the inner summations read them.
+     * @param harmonics spherical harmonics coefficients
+     * @param c array of C<sub>nm</sub> coefficients to fill
+     * @param s array of S<sub>nm</sub> coefficients to fill
+     */
+    private void fillCoefficients(final NormalizedSphericalHarmonics harmonics, final double[] c, final double[] s) {
+        int k = 0;
+        for (int m = FastMath.min(order, degree); m >= 0; --m) {
+            for (int n = FastMath.max(2, m); n <= degree; ++n) {
+                c[k] = harmonics.getNormalizedCnm(n, m);
+                s[k] = harmonics.getNormalizedSnm(n, m);
+                ++k;
+            }
+        }
+    }
+
+    /** Preallocated arrays used by one thread. */
+    private class Workspace {
+
+        /** Legendre functions column for order m + 2. */
+        private double[] pnm0Plus2;
+
+        /** Legendre functions column for order m + 1. */
+        private double[] pnm0Plus1;
+
+        /** Legendre functions column for order m. */
+        private double[] pnm0;
+
+        /** Legendre functions derivatives column for order m. */
+        private final double[] pnm1;
+
+        /** Powers of the ratio equatorial radius / distance. */
+        private final double[] aOrN;
+
+        /** Cosines of the multiples of the longitude. */
+        private final double[] cosLambda;
+
+        /** Sines of the multiples of the longitude. */
+        private final double[] sinLambda;
+
+        /** C<sub>nm</sub> coefficients at current date (null if the field does not depend on time). */
+        private final double[] cnm;
+
+        /** S<sub>nm</sub> coefficients at current date (null if the field does not depend on time). */
+        private final double[] snm;
+
+        /** Gradient of the non-central part of the field in body frame. */
+        private final double[] gradient;
+
+        /** Simple constructor. */
+        Workspace() {
+            this.pnm0Plus2 = new double[degree + 1];
+            this.pnm0Plus1 = new double[degree + 1];
+            this.pnm0      = new double[degree + 1];
+            this.pnm1      = new double[degree + 1];
+            this.aOrN      = new double[degree + 1];
+            this.cosLambda = new double[order + 1];
+            this.sinLambda = new double[order + 1];
+            this.cnm       = timeDependent ? new double[coefficientsCount()] : null;
+            this.snm       = timeDependent ? new double[cnm.length] : null;
+            this.gradient  = new double[3];
+        }
+
+    }
+
+}
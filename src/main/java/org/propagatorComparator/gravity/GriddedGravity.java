@@ -0,0 +1,513 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.gravity;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.hipparchus.CalculusFieldElement;
+import org.hipparchus.Field;
+import org.hipparchus.geometry.euclidean.threed.FieldVector3D;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.util.FastMath;
+import org.hipparchus.util.MathUtils;
+import org.orekit.forces.AbstractForceModel;
+import org.orekit.forces.gravity.HolmesFeatherstoneAttractionModel;
+import org.orekit.forces.gravity.potential.NormalizedSphericalHarmonicsProvider;
+import org.orekit.forces.gravity.potential.NormalizedSphericalHarmonicsProvider.NormalizedSphericalHarmonics;
+import org.orekit.frames.Frame;
+import org.orekit.frames.StaticTransform;
+import org.orekit.propagation.FieldSpacecraftState;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.events.EventDetector;
+import org.orekit.propagation.events.FieldEventDetector;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.ParameterDriver;
+
+/**
+ * Gravity field force model answering acceleration queries from a precomputed grid.
+ * <p>
+ * The non-central acceleration of a {@link HolmesFeatherstoneAttractionModel} is
+ * tabulated once in the body frame on a radius × geocentric latitude × longitude grid
+ * covering the altitude band of the scenario. The three body frame components are
+ * stored off-heap, either in a direct buffer or in a memory-mapped file that is
+ * reused by later runs with the same field and grid. The file header stores a
+ * SHA-256 digest of the field (degree, order, μ, equatorial radius and
+ * coefficients), checked before a cache file is reused.
+ * Queries are answered by tricubic Lagrange interpolation (4 × 4 × 4 nodes); the
+ * latitude stencil is continued across the poles on the opposite meridian.
+ * </p>
+ * <p>
+ * The grid is built at a reference date, so time-dependent terms of the field are
+ * frozen. Queries outside the radial band and field evaluations (used for partial
+ * derivatives) are delegated to the exact model.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class GriddedGravity extends AbstractForceModel {
+
+    /** Magic number identifying a gravity grid file. */
+    private static final int MAGIC = 0x4F504747;
+
+    /** Version of the gravity grid file format. */
+    private static final int VERSION = 2;
+
+    /** Size of the digest of the gravity field (bytes). */
+    private static final int DIGEST_SIZE = 32;
+
+    /** Offset of the digest of the gravity field in the file header (bytes). */
+    private static final int DIGEST_OFFSET = 6 * Integer.BYTES + 4 * Double.BYTES;
+
+    /** Size of the file header (bytes). */
+    private static final int HEADER_SIZE = DIGEST_OFFSET + DIGEST_SIZE;
+
+    /** Number of digest bytes used in the cache file name. */
+    private static final int NAME_DIGEST_BYTES = 8;
+
+    /** Number of nodes of the interpolation stencil in each direction. */
+    private static final int STENCIL = 4;
+
+    /** Exact model, used outside the grid and for field evaluations. */
+    private final HolmesFeatherstoneAttractionModel exact;
+
+    /** Body frame. */
+    private final Frame bodyFrame;
+
+    /** Central attraction coefficient used to build the grid (m³/s²). */
+    private final double mu;
+
+    /** Minimum radius of the grid (m). */
+    private final double minRadius;
+
+    /** Radial step between grid nodes (m). */
+    private final double radialStep;
+
+    /** Number of radial nodes. */
+    private final int nRadius;
+
+    /** Angular step between grid nodes (rad). */
+    private final double angularStep;
+
+    /** Number of latitude nodes (poles included). */
+    private final int nLatitude;
+
+    /** Number of longitude nodes (even, so that opposite meridians are grid nodes). */
+    private final int nLongitude;
+
+    /** Body frame acceleration components at grid nodes (off-heap). */
+    private final DoubleBuffer acceleration;
+
+    /** SHA-256 digest of the gravity field. */
+    private final byte[] fieldDigest;
+
+    /** Flag indicating if the grid was read from a cache file. */
+    private final boolean loadedFromCache;
+
+    /**
+     * Constructor.
+     * @param bodyFrame body frame
+     * @param provider gravity field provider
+     * @param referenceDate date at which time-dependent terms of the field are evaluated
+     * @param minRadius minimum radius of the grid (m)
+     * @param maxRadius maximum radius of the grid (m)
+     * @param radialStep approximate radial step between grid nodes (m)
+     * @param angularStep approximate angular step between grid nodes (rad)
+     * @param cacheDirectory directory of the memory-mapped cache files (null for a direct buffer)
+     * @throws IOException if the cache file cannot be read or written
+     */
+    public GriddedGravity(final Frame bodyFrame, final NormalizedSphericalHarmonicsProvider provider,
+                          final AbsoluteDate referenceDate, final double minRadius, final double maxRadius,
+                          final double radialStep, final double angularStep, final File cacheDirectory)
+        throws IOException {
+
+        // Verify the grid definition
+        if (minRadius <= 0.0 || maxRadius <= minRadius || radialStep <= 0.0 || angularStep <= 0.0) {
+            throw new IllegalArgumentException("Invalid gravity grid definition");
+        }
+
+        this.exact       = new HolmesFeatherstoneAttractionModel(bodyFrame, provider);
+        this.bodyFrame   = bodyFrame;
+        this.mu          = provider.getMu();
+        this.nRadius     = FastMath.max(STENCIL, (int) FastMath.ceil((maxRadius - minRadius) / radialStep) + 1);
+        this.minRadius   = minRadius;
+        this.radialStep  = (maxRadius - minRadius) / (nRadius - 1);
+        this.nLatitude   = FastMath.max(STENCIL, (int) FastMath.ceil(FastMath.PI / angularStep) + 1);
+        this.angularStep = FastMath.PI / (nLatitude - 1);
+        this.nLongitude  = 2 * (nLatitude - 1);
+        this.fieldDigest = getFieldDigest(provider, referenceDate);
+
+        // Storage
+        final long size = HEADER_SIZE + (long) Double.BYTES * 3L * nRadius * nLatitude * nLongitude;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Gravity grid is too large: " + size + " bytes");
+        }
+
+        final ByteBuffer buffer;
+        if (cacheDirectory == null) {
+            // Direct buffer, not reused between runs
+            buffer = ByteBuffer.allocateDirect((int) size).order(ByteOrder.LITTLE_ENDIAN);
+            this.loadedFromCache = false;
+        } else {
+            // Memory-mapped file, reused by later runs with the same field and grid
+            final File file = new File(cacheDirectory, cacheFileName(provider));
+            final boolean exists = file.isFile() && file.length() == size;
+            cacheDirectory.mkdirs();
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                                                        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+            }
+            this.loadedFromCache = exists && headerMatches(buffer, provider);
+        }
+
+        // Off-heap samples
+        buffer.position(HEADER_SIZE);
+        this.acceleration = buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        if (!loadedFromCache) {
+            // The header is written last, so that an interrupted sampling is not reused
+            sample(referenceDate);
+            writeHeader(buffer, provider);
+        }
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean dependsOnPositionOnly() {
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Vector3D acceleration(final SpacecraftState s, final double[] parameters) {
+
+        // Position in body frame
+        final StaticTransform toBody = s.getFrame().getStaticTransformTo(bodyFrame, s.getDate());
+        final Vector3D acc = interpolate(toBody.transformPosition(s.getPVCoordinates().getPosition()));
+        if (acc == null) {
+            return exact.acceleration(s, parameters);
+        }
+
+        // Scale with the estimated central attraction coefficient and go back to the state frame
+        return toBody.getRotation().applyInverseTo(new Vector3D(parameters[0] / mu, acc));
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T extends CalculusFieldElement<T>> FieldVector3D<T> acceleration(final FieldSpacecraftState<T> s,
+                                                                             final T[] parameters) {
+        return exact.acceleration(s, parameters);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Stream<EventDetector> getEventsDetectors() {
+        return Stream.empty();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T extends CalculusFieldElement<T>> Stream<FieldEventDetector<T>> getFieldEventsDetectors(final Field<T> field) {
+        return Stream.empty();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<ParameterDriver> getParametersDrivers() {
+        return exact.getParametersDrivers();
+    }
+
+    /**
+     * Get the exact model sampled by the grid.
+     * @return the exact model
+     */
+    public HolmesFeatherstoneAttractionModel getExactModel() {
+        return exact;
+    }
+
+    /**
+     * Get the minimum radius of the grid.
+     * @return the minimum radius of the grid (m)
+     */
+    public double getMinRadius() {
+        return minRadius;
+    }
+
+    /**
+     * Get the maximum radius of the grid.
+     * @return the maximum radius of the grid (m)
+     */
+    public double getMaxRadius() {
+        return minRadius + (nRadius - 1) * radialStep;
+    }
+
+    /**
+     * Get the number of acceleration samples stored in the grid.
+     * @return the number of acceleration samples
+     */
+    public int getSampleCount() {
+        return nRadius * nLatitude * nLongitude;
+    }
+
+    /**
+     * Get the flag indicating if the grid was read from a cache file.
+     * @return true if the grid was read from a cache file
+     */
+    public boolean isLoadedFromCache() {
+        return loadedFromCache;
+    }
+
+    /**
+     * Compute the SHA-256 digest of a gravity field.
+     * <p>
+     * The digest covers the degree, the order, the central attraction coefficient,
+     * the equatorial radius and all the normalized coefficients, so it identifies
+     * the model.
+     * </p>
+     * @param provider gravity field provider
+     * @param date date at which time-dependent terms of the field are evaluated
+     * @return the SHA-256 digest of the gravity field
+     */
+    public static byte[] getFieldDigest(final NormalizedSphericalHarmonicsProvider provider, final AbsoluteDate date) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            final ByteBuffer    buffer = ByteBuffer.allocate(2 * Integer.BYTES + 2 * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(provider.getMaxDegree()).putInt(provider.getMaxOrder()).putDouble(provider.getMu()).putDouble(provider.getAe());
+            digest.update(buffer.array());
+            final NormalizedSphericalHarmonics harmonics = provider.onDate(date);
+            final ByteBuffer coefficients = ByteBuffer.allocate(2 * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            for (int n = 2; n <= provider.getMaxDegree(); ++n) {
+                for (int m = 0; m <= FastMath.min(n, provider.getMaxOrder()); ++m) {
+                    coefficients.clear();
+                    coefficients.putDouble(harmonics.getNormalizedCnm(n, m)).putDouble(harmonics.getNormalizedSnm(n, m));
+                    digest.update(coefficients.array());
+                }
+            }
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is available in all Java platforms
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Compute the interpolation errors with respect to the exact model.
+     * <p>
+     * The errors are computed at random positions uniformly distributed in
+     * direction and radius within the radial band of the grid.
+     * </p>
+     * @param date date at which the exact model is evaluated
+     * @param samples number of random positions
+     * @param seed seed of the random generator
+     * @return maximum absolute error (m/s²), RMS error (m/s²) and maximum relative error
+     */
+    public double[] getInterpolationErrors(final AbsoluteDate date, final int samples, final long seed) {
+        final Random random = new Random(seed);
+        double maxError    = 0.0;
+        double sumSquares  = 0.0;
+        double maxRelative = 0.0;
+        for (int i = 0; i < samples; ++i) {
+            final double   r         = minRadius + random.nextDouble() * (nRadius - 1) * radialStep;
+            final Vector3D direction = new Vector3D(random.nextGaussian(), random.nextGaussian(), random.nextGaussian()).normalize();
+            final Vector3D position  = new Vector3D(r, direction);
+            final Vector3D reference = new Vector3D(exact.gradient(date, position, mu));
+            final double   error     = Vector3D.distance(reference, interpolate(position));
+            maxError    = FastMath.max(maxError, error);
+            maxRelative = FastMath.max(maxRelative, error / reference.getNorm());
+            sumSquares += error * error;
+        }
+        return new double[] {maxError, FastMath.sqrt(sumSquares / samples), maxRelative};
+    }
+
+    /**
+     * Interpolate the non-central acceleration in the grid.
+     * @param p position in body frame (m)
+     * @return the non-central acceleration in body frame (m/s²), null if the position is outside the radial band
+     */
+    private Vector3D interpolate(final Vector3D p) {
+
+        final double x = p.getX();
+        final double y = p.getY();
+        final double z = p.getZ();
+
+        // Radial index
+        final double r = FastMath.sqrt(x * x + y * y + z * z);
+        final double u = (r - minRadius) / radialStep;
+        if (u < 0.0 || u > nRadius - 1) {
+            return null;
+        }
+
+        // Stencils
+        final double v  = (FastMath.asin(z / r) + 0.5 * FastMath.PI) / angularStep;
+        final double w  = MathUtils.normalizeAngle(FastMath.atan2(y, x), FastMath.PI) / angularStep;
+        final int    i0 = FastMath.max(0, FastMath.min((int) u - 1, nRadius - STENCIL));
+        final int    j0 = (int) FastMath.floor(v) - 1;
+        final int    k0 = (int) FastMath.floor(w) - 1;
+        final double[] wr = new double[STENCIL];
+        final double[] wl = new double[STENCIL];
+        final double[] wo = new double[STENCIL];
+        lagrange(u - i0, wr);
+        lagrange(v - j0, wl);
+        lagrange(w - k0, wo);
+
+        // Tricubic interpolation
+        double ax = 0.0;
+        double ay = 0.0;
+        double az = 0.0;
+        for (int dj = 0; dj < STENCIL; ++dj) {
+            // Continue the latitude stencil across the poles on the opposite meridian
+            int j     = j0 + dj;
+            int shift = 0;
+            if (j < 0) {
+                j     = -j;
+                shift = nLongitude / 2;
+            } else if (j > nLatitude - 1) {
+                j     = 2 * (nLatitude - 1) - j;
+                shift = nLongitude / 2;
+            }
+            for (int dk = 0; dk < STENCIL; ++dk) {
+                final int    k   = Math.floorMod(k0 + dk + shift, nLongitude);
+                final double wjk = wl[dj] * wo[dk];
+                for (int di = 0; di < STENCIL; ++di) {
+                    final int    index  = 3 * ((((i0 + di) * nLatitude) + j) * nLongitude + k);
+                    final double weight = wjk * wr[di];
+                    ax += weight * acceleration.get(index);
+                    ay += weight * acceleration.get(index + 1);
+                    az += weight * acceleration.get(index + 2);
+                }
+            }
+        }
+
+        return new Vector3D(ax, ay, az);
+
+    }
+
+    /**
+     * Compute the weights of the cubic Lagrange interpolation on nodes 0, 1, 2 and 3.
+     * @param t interpolation abscissa, relative to the first node
+     * @param weights array where the weights are stored
+     */
+    private static void lagrange(final double t, final double[] weights) {
+        final double t0 = t;
+        final double t1 = t - 1.0;
+        final double t2 = t - 2.0;
+        final double t3 = t - 3.0;
+        weights[0] = -t1 * t2 * t3 / 6.0;
+        weights[1] =  t0 * t2 * t3 / 2.0;
+        weights[2] = -t0 * t1 * t3 / 2.0;
+        weights[3] =  t0 * t1 * t2 / 6.0;
+    }
+
+    /**
+     * Sample the exact model on the grid.
+     * @param date date at which time-dependent terms of the field are evaluated
+     */
+    private void sample(final AbsoluteDate date) {
+        // Radial shells are independent
+        IntStream.range(0, nRadius).parallel().forEach(i -> {
+            final double r = minRadius + i * radialStep;
+            for (int j = 0; j < nLatitude; ++j) {
+                final double latitude = j * angularStep - 0.5 * FastMath.PI;
+                for (int k = 0; k < nLongitude; ++k) {
+                    final double   longitude = k * angularStep;
+                    final Vector3D point     = new Vector3D(longitude, latitude).scalarMultiply(r);
+                    final double[] gradient  = exact.gradient(date, point, mu);
+                    final int      index     = 3 * (((i * nLatitude) + j) * nLongitude + k);
+                    acceleration.put(index,     gradient[0]);
+                    acceleration.put(index + 1, gradient[1]);
+                    acceleration.put(index + 2, gradient[2]);
+                }
+            }
+        });
+    }
+
+    /**
+     * Write the file header.
+     * @param buffer buffer in which the header is written
+     * @param provider gravity field provider
+     */
+    private void writeHeader(final ByteBuffer buffer, final NormalizedSphericalHarmonicsProvider provider) {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, provider.getMaxDegree());
+        buffer.putInt(12, provider.getMaxOrder());
+        buffer.putInt(16, nRadius);
+        buffer.putInt(20, nLatitude);
+        buffer.putDouble(24, mu);
+        buffer.putDouble(32, provider.getAe());
+        buffer.putDouble(40, minRadius);
+        buffer.putDouble(48, radialStep);
+        for (int i = 0; i < DIGEST_SIZE; ++i) {
+            buffer.put(DIGEST_OFFSET + i, fieldDigest[i]);
+        }
+    }
+
+    /**
+     * Check if the header of an existing cache file matches the grid definition.
+     * @param buffer buffer containing the header
+     * @param provider gravity field provider
+     * @return true if the header matches
+     */
+    private boolean headerMatches(final ByteBuffer buffer, final NormalizedSphericalHarmonicsProvider provider) {
+        final byte[] stored = new byte[DIGEST_SIZE];
+        for (int i = 0; i < DIGEST_SIZE; ++i) {
+            stored[i] = buffer.get(DIGEST_OFFSET + i);
+        }
+        return buffer.getInt(0) == MAGIC &&
+               buffer.getInt(4) == VERSION &&
+               buffer.getInt(8) == provider.getMaxDegree() &&
+               buffer.getInt(12) == provider.getMaxOrder() &&
+               buffer.getInt(16) == nRadius &&
+               buffer.getInt(20) == nLatitude &&
+               buffer.getDouble(24) == mu &&
+               buffer.getDouble(32) == provider.getAe() &&
+               buffer.getDouble(40) == minRadius &&
+               buffer.getDouble(48) == radialStep &&
+               Arrays.equals(stored, fieldDigest);
+    }
+
+    /**
+     * Get the name of the cache file for the grid.
+     * <p>
+     * The name depends on the field digest and on the grid definition. As it
+     * only uses a prefix of the digest, the full digest of the header is checked
+     * before the file is reused.
+     * </p>
+     * @param provider gravity field provider
+     * @return the name of the cache file
+     */
+    private String cacheFileName(final NormalizedSphericalHarmonicsProvider provider) {
+        final StringBuilder field = new StringBuilder();
+        for (int i = 0; i < NAME_DIGEST_BYTES; ++i) {
+            field.append(String.format("%02x", fieldDigest[i]));
+        }
+        final int grid = Objects.hash(minRadius, radialStep, nRadius, nLatitude);
+        return "gravity-grid-" + provider.getMaxDegree() + "x" + provider.getMaxOrder() + "-" + field + "-" + Integer.toHexString(grid) + ".bin";
+    }
+
+}
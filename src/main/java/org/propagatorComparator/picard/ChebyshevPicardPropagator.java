@@ -0,0 +1,411 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.picard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.util.FastMath;
+import org.orekit.errors.OrekitException;
+import org.orekit.forces.ForceModel;
+import org.orekit.forces.gravity.NewtonianAttraction;
+import org.orekit.frames.Frame;
+import org.orekit.orbits.CartesianOrbit;
+import org.orekit.orbits.Orbit;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.PVCoordinates;
+
+/**
+ * Modified Chebyshev-Picard iteration (MCPI) propagator for the Cartesian dynamics.
+ * <p>
+ * The propagation is split in segments. On each segment, the trajectory is
+ * represented by its values at the N + 1 Chebyshev-Gauss-Lobatto nodes and is
+ * refined by Picard iterations: the accelerations are evaluated at all the
+ * nodes, fitted by a Chebyshev series of degree N and integrated twice, the
+ * integration being a constant matrix applied to the node values. The nodes
+ * are independent within an iteration, so that they are evaluated concurrently
+ * when an executor is provided. The iterations start from the Keplerian motion
+ * and stop when the largest position update is below the tolerance.
+ * </p>
+ * <p>
+ * The accelerations are the sum of the force models, a Newtonian attraction
+ * being added if none is provided. The event detectors of the force models are
+ * ignored, so that discontinuities (e.g. eclipse transitions) are smoothed by the
+ * polynomial fit. The force models must support concurrent evaluations when an
+ * executor is provided.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class ChebyshevPicardPropagator {
+
+    /** Force models. */
+    private final List<ForceModel> forceModels;
+
+    /** Parameters of the force models. */
+    private final double[][] parameters;
+
+    /** Initial orbit. */
+    private final Orbit initialOrbit;
+
+    /** Spacecraft mass (kg). */
+    private final double mass;
+
+    /** Nominal segment duration (s). */
+    private final double segmentDuration;
+
+    /** Polynomial order (N). */
+    private final int order;
+
+    /** Position tolerance of the Picard iterations (m). */
+    private final double tolerance;
+
+    /** Maximum number of Picard iterations per segment. */
+    private final int maxIterations;
+
+    /** Executor evaluating the nodes concurrently (null for serial evaluations). */
+    private final ExecutorService pool;
+
+    /** Number of node partitions evaluated concurrently. */
+    private final int partitions;
+
+    /** Normalized times of the nodes, in [-1, 1]. */
+    private final double[] nodes;
+
+    /** Integration matrix, from node values to node values of the integral from -1. */
+    private final double[][] integration;
+
+    /** Number of propagated segments. */
+    private int segments;
+
+    /** Number of Picard iterations. */
+    private int iterations;
+
+    /** Number of acceleration evaluations. */
+    private long evaluations;
+
+    /**
+     * Constructor.
+     * @param forceModels force models
+     * @param initialOrbit initial orbit (in an inertial frame)
+     * @param mass spacecraft mass (kg)
+     * @param segmentDuration nominal segment duration (s)
+     * @param order polynomial order (N, the segment has N + 1 nodes)
+     * @param tolerance position tolerance of the Picard iterations (m)
+     * @param maxIterations maximum number of Picard iterations per segment
+     * @param pool executor evaluating the nodes concurrently (null for serial evaluations)
+     * @param partitions number of node partitions evaluated concurrently
+     */
+    public ChebyshevPicardPropagator(final List<ForceModel> forceModels, final Orbit initialOrbit, final double mass,
+                                     final double segmentDuration, final int order, final double tolerance,
+                                     final int maxIterations, final ExecutorService pool, final int partitions) {
+        if (order < 2) {
+            throw new IllegalArgumentException("Order of the Chebyshev-Picard propagator must be at least 2: " + order);
+        }
+        if (segmentDuration <= 0.0) {
+            throw new IllegalArgumentException("Segment duration of the Chebyshev-Picard propagator must be positive: " + segmentDuration);
+        }
+        this.forceModels = new ArrayList<>(forceModels);
+        boolean newtonian = false;
+        for (final ForceModel force : forceModels) {
+            newtonian |= force instanceof NewtonianAttraction;
+        }
+        if (!newtonian) {
+            this.forceModels.add(new NewtonianAttraction(initialOrbit.getMu()));
+        }
+        this.parameters = new double[this.forceModels.size()][];
+        for (int f = 0; f < parameters.length; f++) {
+            parameters[f] = this.forceModels.get(f).getParameters();
+        }
+        this.initialOrbit    = initialOrbit;
+        this.mass            = mass;
+        this.segmentDuration = segmentDuration;
+        this.order           = order;
+        this.tolerance       = tolerance;
+        this.maxIterations   = maxIterations;
+        this.pool            = pool;
+        this.partitions      = pool == null ? 1 : FastMath.max(1, FastMath.min(partitions, order + 1));
+        this.nodes           = new double[order + 1];
+        for (int j = 0; j <= order; j++) {
+            nodes[j] = -FastMath.cos(j * FastMath.PI / order);
+        }
+        this.integration     = buildIntegrationMatrix(order);
+        this.segments        = 0;
+        this.iterations      = 0;
+        this.evaluations     = 0L;
+    }
+
+    /**
+     * Propagate the initial orbit.
+     * @param target target date
+     * @return the state at the target date
+     */
+    public SpacecraftState propagate(final AbsoluteDate target) {
+
+        final SpacecraftState initialState = new SpacecraftState(initialOrbit, mass);
+        for (final ForceModel force : forceModels) {
+            force.init(initialState, target);
+        }
+
+        final double total = target.durationFrom(initialOrbit.getDate());
+        final int    count = (int) FastMath.max(1, FastMath.ceil(FastMath.abs(total) / segmentDuration));
+        Orbit orbit = initialOrbit;
+        for (int k = 0; k < count; k++) {
+            final AbsoluteDate end = k == count - 1 ? target : initialOrbit.getDate().shiftedBy(total * (k + 1) / count);
+            orbit = propagateSegment(orbit, end.durationFrom(orbit.getDate()));
+        }
+        return new SpacecraftState(orbit, mass);
+
+    }
+
+    /**
+     * Get the number of propagated segments.
+     * @return the number of propagated segments
+     */
+    public int getSegments() {
+        return segments;
+    }
+
+    /**
+     * Get the number of Picard iterations.
+     * @return the number of Picard iterations, for all the segments
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Get the number of acceleration evaluations.
+     * @return the number of acceleration evaluations (one per node and iteration)
+     */
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    /**
+     * Propagate one segment.
+     * @param start orbit at the start of the segment
+     * @param duration signed duration of the segment (s)
+     * @return the orbit at the end of the segment
+     */
+    private Orbit propagateSegment(final Orbit start, final double duration) {
+
+        final int          size  = order + 1;
+        final double       half  = 0.5 * duration;
+        final Vector3D     r0    = start.getPVCoordinates().getPosition();
+        final Vector3D     v0    = start.getPVCoordinates().getVelocity();
+        final AbsoluteDate[] dates = new AbsoluteDate[size];
+
+        // Keplerian warm start
+        final Vector3D[] r = new Vector3D[size];
+        final Vector3D[] v = new Vector3D[size];
+        for (int j = 0; j < size; j++) {
+            dates[j] = start.getDate().shiftedBy(half * (nodes[j] + 1.0));
+            final PVCoordinates pv = start.shiftedBy(half * (nodes[j] + 1.0)).getPVCoordinates();
+            r[j] = pv.getPosition();
+            v[j] = pv.getVelocity();
+        }
+
+        // Picard iterations
+        final Vector3D[] a = new Vector3D[size];
+        boolean converged = false;
+        for (int iteration = 0; iteration < maxIterations && !converged; iteration++) {
+
+            evaluateAccelerations(start.getFrame(), start.getMu(), dates, r, v, a);
+
+            // Velocity then position, integrated from the start of the segment
+            final Vector3D[] newV = integrate(v0, half, a);
+            final Vector3D[] newR = integrate(r0, half, newV);
+            double update = 0.0;
+            for (int j = 0; j < size; j++) {
+                update = FastMath.max(update, Vector3D.distance(newR[j], r[j]));
+            }
+            System.arraycopy(newV, 0, v, 0, size);
+            System.arraycopy(newR, 0, r, 0, size);
+            converged = update <= tolerance;
+            iterations++;
+
+        }
+        if (!converged) {
+            throw new OrekitException(LocalizedCoreFormats.CONVERGENCE_FAILED);
+        }
+        segments++;
+
+        return new CartesianOrbit(new PVCoordinates(r[order], v[order]), start.getFrame(), dates[order], start.getMu());
+
+    }
+
+    /**
+     * Integrate node values from the start of the segment.
+     * @param initial value of the integral at the start of the segment
+     * @param half half of the segment duration (s)
+     * @param derivatives node values of the derivative
+     * @return the node values of the integral
+     */
+    private Vector3D[] integrate(final Vector3D initial, final double half, final Vector3D[] derivatives) {
+        final Vector3D[] integral = new Vector3D[derivatives.length];
+        for (int i = 0; i < derivatives.length; i++) {
+            double x = 0.0;
+            double y = 0.0;
+            double z = 0.0;
+            for (int j = 0; j < derivatives.length; j++) {
+                final double p = integration[i][j];
+                x += p * derivatives[j].getX();
+                y += p * derivatives[j].getY();
+                z += p * derivatives[j].getZ();
+            }
+            integral[i] = new Vector3D(initial.getX() + half * x, initial.getY() + half * y, initial.getZ() + half * z);
+        }
+        return integral;
+    }
+
+    /**
+     * Evaluate the accelerations at all the nodes.
+     * @param frame inertial frame
+     * @param mu central attraction coefficient (m³/s²)
+     * @param dates dates of the nodes
+     * @param r positions at the nodes (m)
+     * @param v velocities at the nodes (m/s)
+     * @param a accelerations at the nodes, filled by the method (m/s²)
+     */
+    private void evaluateAccelerations(final Frame frame, final double mu, final AbsoluteDate[] dates,
+                                       final Vector3D[] r, final Vector3D[] v, final Vector3D[] a) {
+
+        evaluations += r.length;
+        if (partitions == 1) {
+            evaluateAccelerations(frame, mu, dates, r, v, a, 0, r.length);
+            return;
+        }
+
+        // Node partitions evaluated concurrently
+        final List<Future<?>> futures = new ArrayList<>();
+        for (int p = 0; p < partitions; p++) {
+            final int from = r.length * p / partitions;
+            final int to   = r.length * (p + 1) / partitions;
+            futures.add(pool.submit(() -> evaluateAccelerations(frame, mu, dates, r, v, a, from, to)));
+        }
+        try {
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new OrekitException(ie, LocalizedCoreFormats.SIMPLE_MESSAGE, ie.getMessage());
+        } catch (ExecutionException ee) {
+            if (ee.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ee.getCause();
+            }
+            throw new OrekitException(ee.getCause(), LocalizedCoreFormats.SIMPLE_MESSAGE, ee.getCause().getMessage());
+        }
+
+    }
+
+    /**
+     * Evaluate the accelerations at a range of nodes.
+     * @param frame inertial frame
+     * @param mu central attraction coefficient (m³/s²)
+     * @param dates dates of the nodes
+     * @param r positions at the nodes (m)
+     * @param v velocities at the nodes (m/s)
+     * @param a accelerations at the nodes, filled by the method for the range (m/s²)
+     * @param from index of the first node (included)
+     * @param to index of the last node (excluded)
+     */
+    private void evaluateAccelerations(final Frame frame, final double mu, final AbsoluteDate[] dates,
+                                       final Vector3D[] r, final Vector3D[] v, final Vector3D[] a,
+                                       final int from, final int to) {
+        for (int j = from; j < to; j++) {
+            final SpacecraftState state = new SpacecraftState(new CartesianOrbit(new PVCoordinates(r[j], v[j]), frame, dates[j], mu), mass);
+            Vector3D acceleration = Vector3D.ZERO;
+            for (int f = 0; f < parameters.length; f++) {
+                acceleration = acceleration.add(forceModels.get(f).acceleration(state, parameters[f]));
+            }
+            a[j] = acceleration;
+        }
+    }
+
+    /**
+     * Build the integration matrix.
+     * <p>
+     * The node values are fitted by a Chebyshev series of degree N (discrete
+     * cosine transform on the Chebyshev-Gauss-Lobatto nodes), the series is
+     * integrated term by term with a zero value at -1 and evaluated at the nodes.
+     * </p>
+     * @param n polynomial order
+     * @return the integration matrix
+     */
+    private static double[][] buildIntegrationMatrix(final int n) {
+
+        // Chebyshev polynomials at the nodes, up to degree N + 1 (T_k(-cos(jπ/N)) = cos(k(π - jπ/N)))
+        final double[][] t = new double[n + 1][n + 2];
+        for (int j = 0; j <= n; j++) {
+            for (int k = 0; k <= n + 1; k++) {
+                t[j][k] = FastMath.cos(k * (FastMath.PI - j * FastMath.PI / n));
+            }
+        }
+
+        // Fit: coefficients c_k from the node values
+        final double[][] fit = new double[n + 1][n + 1];
+        for (int k = 0; k <= n; k++) {
+            final double ck = (k == 0 || k == n) ? 1.0 / n : 2.0 / n;
+            for (int j = 0; j <= n; j++) {
+                final double wj = (j == 0 || j == n) ? 0.5 : 1.0;
+                fit[k][j] = ck * wj * t[j][k];
+            }
+        }
+
+        // Integration: coefficients b_k of the integral from the coefficients c_k
+        final double[][] integral = new double[n + 2][n + 1];
+        for (int k = 1; k <= n + 1; k++) {
+            // b_k = (c_{k-1} - c_{k+1}) / 2k, with c_0 counted twice for k = 1
+            integral[k][k - 1] = (k == 1 ? 2.0 : 1.0) / (2.0 * k);
+            if (k + 1 <= n) {
+                integral[k][k + 1] = -1.0 / (2.0 * k);
+            }
+        }
+        for (int c = 0; c <= n; c++) {
+            // b_0 such that the integral is zero at -1 (T_k(-1) = (-1)^k)
+            double b0 = 0.0;
+            for (int k = 1; k <= n + 1; k++) {
+                b0 -= ((k & 1) == 0 ? 1.0 : -1.0) * integral[k][c];
+            }
+            integral[0][c] = b0;
+        }
+
+        // Integration matrix: evaluation at the nodes of the integrated fit
+        final double[][] matrix = new double[n + 1][n + 1];
+        for (int i = 0; i <= n; i++) {
+            for (int j = 0; j <= n; j++) {
+                double sum = 0.0;
+                for (int k = 0; k <= n + 1; k++) {
+                    double coefficient = 0.0;
+                    for (int m = 0; m <= n; m++) {
+                        coefficient += integral[k][m] * fit[m][j];
+                    }
+                    sum += t[i][k] * coefficient;
+                }
+                matrix[i][j] = sum;
+            }
+        }
+        return matrix;
+
+    }
+
+}
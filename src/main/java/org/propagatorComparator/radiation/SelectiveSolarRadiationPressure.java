@@ -0,0 +1,124 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.radiation;
+
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.hipparchus.CalculusFieldElement;
+import org.hipparchus.Field;
+import org.hipparchus.geometry.euclidean.threed.FieldVector3D;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.orekit.forces.radiation.RadiationSensitive;
+import org.orekit.forces.radiation.SolarRadiationPressure;
+import org.orekit.frames.Frame;
+import org.orekit.propagation.events.EventDetector;
+import org.orekit.propagation.events.FieldEventDetector;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.FieldAbsoluteDate;
+import org.orekit.utils.Constants;
+import org.orekit.utils.ExtendedPVCoordinatesProvider;
+
+/**
+ * Solar radiation pressure where the central body can be removed from the occulting bodies.
+ * <p>
+ * The parent class always considers the central body as an occulting body. If
+ * it is not one of the configured occulting bodies, the lighting ratio is only
+ * computed from the other occulting bodies (product of their eclipse ratios)
+ * and the umbra and penumbra detectors of the central body are dropped.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class SelectiveSolarRadiationPressure extends SolarRadiationPressure {
+
+    /** Number of detectors of the central body (umbra and penumbra) returned first by the parent class. */
+    private static final int CENTRAL_BODY_DETECTORS = 2;
+
+    /** Sun model. */
+    private final ExtendedPVCoordinatesProvider sun;
+
+    /** Flag for the central body shadow. */
+    private final boolean centralBodyOcculting;
+
+    /**
+     * Constructor.
+     * @param sun Sun model
+     * @param equatorialRadius central body equatorial radius (for shadow computation)
+     * @param spacecraft the object physical and geometrical information
+     * @param centralBodyOcculting if true, the central body is an occulting body
+     */
+    public SelectiveSolarRadiationPressure(final ExtendedPVCoordinatesProvider sun,
+                                           final double equatorialRadius,
+                                           final RadiationSensitive spacecraft,
+                                           final boolean centralBodyOcculting) {
+        super(sun, equatorialRadius, spacecraft);
+        this.sun                  = sun;
+        this.centralBodyOcculting = centralBodyOcculting;
+    }
+
+    /**
+     * Check if the central body is an occulting body.
+     * @return true if the central body is an occulting body
+     */
+    public boolean isCentralBodyOcculting() {
+        return centralBodyOcculting;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getTotalLightingRatio(final Vector3D position, final Frame frame, final AbsoluteDate date) {
+        if (centralBodyOcculting) {
+            return super.getTotalLightingRatio(position, frame, date);
+        }
+        final Vector3D sunPosition = sun.getPVCoordinates(date, frame).getPosition();
+        double ratio = 1.0;
+        for (final Map.Entry<ExtendedPVCoordinatesProvider, Double> entry : getOtherOccultingBodies().entrySet()) {
+            final Vector3D occulting = entry.getKey().getPVCoordinates(date, frame).getPosition();
+            ratio *= getGeneralEclipseRatio(position, occulting, entry.getValue(), sunPosition, Constants.SUN_RADIUS);
+        }
+        return ratio;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T extends CalculusFieldElement<T>> T getTotalLightingRatio(final FieldVector3D<T> position, final Frame frame,
+                                                                       final FieldAbsoluteDate<T> date) {
+        if (centralBodyOcculting) {
+            return super.getTotalLightingRatio(position, frame, date);
+        }
+        final T zero = date.getField().getZero();
+        final FieldVector3D<T> sunPosition = sun.getPVCoordinates(date, frame).getPosition();
+        T ratio = zero.add(1.0);
+        for (final Map.Entry<ExtendedPVCoordinatesProvider, Double> entry : getOtherOccultingBodies().entrySet()) {
+            final FieldVector3D<T> occulting = entry.getKey().getPVCoordinates(date, frame).getPosition();
+            ratio = ratio.multiply(getGeneralEclipseRatio(position, occulting, zero.add(entry.getValue()),
+                                                          sunPosition, zero.add(Constants.SUN_RADIUS)));
+        }
+        return ratio;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Stream<EventDetector> getEventsDetectors() {
+        return centralBodyOcculting ? super.getEventsDetectors() : super.getEventsDetectors().skip(CENTRAL_BODY_DETECTORS);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T extends CalculusFieldElement<T>> Stream<FieldEventDetector<T>> getFieldEventsDetectors(final Field<T> field) {
+        return centralBodyOcculting ? super.getFieldEventsDetectors(field) : super.getFieldEventsDetectors(field).skip(CENTRAL_BODY_DETECTORS);
+    }
+
+}
@@ -0,0 +1,363 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.radiation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.hipparchus.util.FastMath;
+import org.orekit.bodies.OneAxisEllipsoid;
+import org.orekit.propagation.Propagator;
+import org.orekit.propagation.events.EclipseDetector;
+import org.orekit.propagation.events.handlers.RecordAndContinue;
+import org.orekit.propagation.events.handlers.RecordAndContinue.Event;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.Constants;
+import org.orekit.utils.PVCoordinatesProvider;
+
+/**
+ * Shadow intervals precomputed on a reference trajectory.
+ * <p>
+ * Umbra and penumbra entry/exit dates are detected once over the
+ * propagation span on a cheap reference trajectory. They are used to
+ * classify any date of the span as fully lit, in umbra, or in a
+ * transition window where the exact shadow geometry must be computed.
+ * The transition windows are the penumbra phases widened by a margin
+ * accounting for the error of the reference trajectory.
+ * </p>
+ * <p>
+ * The intervals are only predicted over a validity window, during which the
+ * timing error of the reference trajectory is expected to stay within the margin.
+ * Beyond this window, every date is classified as a transition, so that the
+ * exact shadow geometry is computed.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class ShadowIntervals {
+
+    /** Maximum checking interval for the eclipse detectors (s). */
+    private static final double MAX_CHECK = 60.0;
+
+    /** Convergence threshold for the eclipse detectors (s). */
+    private static final double THRESHOLD = 1.0e-3;
+
+    /** Reference date of the intervals. */
+    private final AbsoluteDate start;
+
+    /** End of the validity window (offset from start date, s). */
+    private final double end;
+
+    /** Flag indicating if the validity window is shorter than the requested span. */
+    private final boolean truncated;
+
+    /** Transition windows (offsets from start date, s), sorted and disjoint. */
+    private final double[][] transitions;
+
+    /** Umbra intervals shrunk by the margin (offsets from start date, s), sorted and disjoint. */
+    private final double[][] umbras;
+
+    /** Predicted dates of the penumbra and umbra boundaries. */
+    private final List<AbsoluteDate> boundaries;
+
+    /**
+     * Constructor.
+     * @param start reference date of the intervals
+     * @param end end of the validity window (offset from start date, s)
+     * @param truncated true if the validity window is shorter than the requested span
+     * @param transitions transition windows (offsets from start date, s)
+     * @param umbras umbra intervals shrunk by the margin (offsets from start date, s)
+     * @param boundaries predicted dates of the penumbra and umbra boundaries
+     */
+    private ShadowIntervals(final AbsoluteDate start, final double end, final boolean truncated,
+                            final List<double[]> transitions, final List<double[]> umbras,
+                            final List<AbsoluteDate> boundaries) {
+        this.start       = start;
+        this.end         = end;
+        this.truncated   = truncated;
+        this.transitions = merge(transitions);
+        this.umbras      = merge(umbras);
+        this.boundaries  = new ArrayList<>(boundaries);
+        Collections.sort(this.boundaries);
+    }
+
+    /**
+     * Compute the shadow intervals of an occulting body.
+     * @param reference reference propagator (already initialized at start date)
+     * @param start start date of the span
+     * @param duration duration of the span (s)
+     * @param sun Sun coordinates provider
+     * @param occulting occulting body
+     * @param margin margin applied around the penumbra phases (s)
+     * @param validity duration over which the timing error of the reference trajectory stays within the margin (s)
+     * @return the shadow intervals
+     */
+    public static ShadowIntervals compute(final Propagator reference, final AbsoluteDate start,
+                                          final double duration, final PVCoordinatesProvider sun,
+                                          final OneAxisEllipsoid occulting, final double margin,
+                                          final double validity) {
+
+        // Eclipse detectors
+        final RecordAndContinue<EclipseDetector> penumbraEvents = new RecordAndContinue<>();
+        final RecordAndContinue<EclipseDetector> umbraEvents    = new RecordAndContinue<>();
+        final EclipseDetector penumbra = new EclipseDetector(sun, Constants.SUN_RADIUS, occulting).
+                                         withPenumbra().withMaxCheck(MAX_CHECK).withThreshold(THRESHOLD).
+                                         withHandler(penumbraEvents);
+        final EclipseDetector umbra    = new EclipseDetector(sun, Constants.SUN_RADIUS, occulting).
+                                         withUmbra().withMaxCheck(MAX_CHECK).withThreshold(THRESHOLD).
+                                         withHandler(umbraEvents);
+
+        // Initial shadow status (g function is negative in eclipse)
+        final boolean inPenumbra = penumbra.g(reference.getInitialState()) < 0.0;
+        final boolean inUmbra    = umbra.g(reference.getInitialState()) < 0.0;
+
+        // Propagate the reference trajectory over the validity window
+        final double span = FastMath.min(duration, validity);
+        reference.clearEventsDetectors();
+        reference.addEventDetector(penumbra);
+        reference.addEventDetector(umbra);
+        reference.propagate(start, start.shiftedBy(span));
+        reference.clearEventsDetectors();
+
+        // Shadow intervals
+        final List<AbsoluteDate> boundaries = new ArrayList<>();
+        final List<double[]> penumbraIntervals = intervals(start, inPenumbra, penumbraEvents.getEvents(), boundaries);
+        final List<double[]> umbraIntervals    = intervals(start, inUmbra, umbraEvents.getEvents(), boundaries);
+
+        // Umbra intervals, shrunk by the margin
+        final List<double[]> umbras = new ArrayList<>();
+        for (final double[] interval : umbraIntervals) {
+            if (interval[1] - interval[0] > 2.0 * margin) {
+                umbras.add(new double[] {interval[0] + margin, interval[1] - margin});
+            }
+        }
+
+        // Transition windows: penumbra phases widened by the margin, without the umbra core
+        final List<double[]> transitions = new ArrayList<>();
+        for (final double[] interval : penumbraIntervals) {
+            double current = interval[0] - margin;
+            for (final double[] core : umbras) {
+                if (core[0] < interval[1] && core[1] > interval[0]) {
+                    if (core[0] > current) {
+                        transitions.add(new double[] {current, core[0]});
+                    }
+                    current = FastMath.max(current, core[1]);
+                }
+            }
+            if (interval[1] + margin > current) {
+                transitions.add(new double[] {current, interval[1] + margin});
+            }
+        }
+
+        return new ShadowIntervals(start, span, span < duration, transitions, umbras, boundaries);
+
+    }
+
+    /**
+     * Build the union of several shadow intervals.
+     * @param intervals shadow intervals (at least one, all sharing the same start date)
+     * @return the union of the shadow intervals
+     */
+    public static ShadowIntervals union(final List<ShadowIntervals> intervals) {
+        final List<double[]>     transitions = new ArrayList<>();
+        final List<double[]>     umbras      = new ArrayList<>();
+        final List<AbsoluteDate> boundaries  = new ArrayList<>();
+        double  end       = Double.POSITIVE_INFINITY;
+        boolean truncated = false;
+        for (final ShadowIntervals shadow : intervals) {
+            transitions.addAll(Arrays.asList(shadow.transitions));
+            umbras.addAll(Arrays.asList(shadow.umbras));
+            boundaries.addAll(shadow.boundaries);
+            end       = FastMath.min(end, shadow.end);
+            truncated = truncated || shadow.truncated;
+        }
+        return new ShadowIntervals(intervals.get(0).start, end, truncated, transitions, umbras, boundaries);
+    }
+
+    /**
+     * Get the lighting ratio at a date, if it is known without computing the shadow geometry.
+     * @param date current date
+     * @return 0.0 in umbra, 1.0 if fully lit, NaN inside a transition window or beyond the validity window
+     */
+    public double getLightingRatio(final AbsoluteDate date) {
+        final double dt = date.durationFrom(start);
+        if (dt > end) {
+            return Double.NaN;
+        } else if (contains(umbras, dt)) {
+            return 0.0;
+        } else if (contains(transitions, dt)) {
+            return Double.NaN;
+        } else {
+            return 1.0;
+        }
+    }
+
+    /**
+     * Check if a time range intersects a transition window or an umbra interval.
+     * @param from start of the time range
+     * @param to end of the time range
+     * @return true if the time range intersects a shadow interval or goes beyond the validity window
+     */
+    public boolean hasShadow(final AbsoluteDate from, final AbsoluteDate to) {
+        final double dt0 = from.durationFrom(start);
+        final double dt1 = to.durationFrom(start);
+        return dt1 > end || intersects(transitions, dt0, dt1) || intersects(umbras, dt0, dt1);
+    }
+
+    /**
+     * Get the end of the validity window.
+     * @return the end of the validity window
+     */
+    public AbsoluteDate getValidityEnd() {
+        return start.shiftedBy(end);
+    }
+
+    /**
+     * Check if the validity window is shorter than the requested span.
+     * @return true if the exact shadow geometry is needed at the end of the span
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * Get the predicted dates of the penumbra and umbra boundaries.
+     * @return the predicted dates of the boundaries, sorted
+     */
+    public List<AbsoluteDate> getBoundaries() {
+        return Collections.unmodifiableList(boundaries);
+    }
+
+    /**
+     * Get the number of transition windows.
+     * @return the number of transition windows
+     */
+    public int getTransitionsCount() {
+        return transitions.length;
+    }
+
+    /**
+     * Get the total duration of the transition windows.
+     * @return the total duration of the transition windows (s)
+     */
+    public double getTransitionsDuration() {
+        double total = 0.0;
+        for (final double[] interval : transitions) {
+            total += interval[1] - interval[0];
+        }
+        return total;
+    }
+
+    /**
+     * Build the shadow intervals from the recorded events.
+     * @param start start date of the span
+     * @param inShadow true if the span starts in shadow
+     * @param events recorded events
+     * @param boundaries list where the dates of the events are added
+     * @return the shadow intervals (offsets from start date, s)
+     */
+    private static List<double[]> intervals(final AbsoluteDate start, final boolean inShadow,
+                                            final List<Event<EclipseDetector>> events,
+                                            final List<AbsoluteDate> boundaries) {
+        final List<double[]> intervals = new ArrayList<>();
+        double entry = inShadow ? Double.NEGATIVE_INFINITY : Double.NaN;
+        for (final Event<EclipseDetector> event : events) {
+            final double dt = event.getState().getDate().durationFrom(start);
+            boundaries.add(event.getState().getDate());
+            if (!event.isIncreasing()) {
+                // Entering the shadow
+                entry = dt;
+            } else if (!Double.isNaN(entry)) {
+                // Exiting the shadow
+                intervals.add(new double[] {entry, dt});
+                entry = Double.NaN;
+            }
+        }
+        if (!Double.isNaN(entry)) {
+            intervals.add(new double[] {entry, Double.POSITIVE_INFINITY});
+        }
+        return intervals;
+    }
+
+    /**
+     * Sort and merge overlapping intervals.
+     * @param intervals intervals to merge
+     * @return sorted and disjoint intervals
+     */
+    private static double[][] merge(final List<double[]> intervals) {
+        final List<double[]> sorted = new ArrayList<>(intervals);
+        sorted.sort((i1, i2) -> Double.compare(i1[0], i2[0]));
+        final List<double[]> merged = new ArrayList<>();
+        for (final double[] interval : sorted) {
+            final double[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && interval[0] <= last[1]) {
+                last[1] = FastMath.max(last[1], interval[1]);
+            } else {
+                merged.add(interval.clone());
+            }
+        }
+        return merged.toArray(new double[merged.size()][]);
+    }
+
+    /**
+     * Check if a sorted list of disjoint intervals contains a value.
+     * @param intervals sorted and disjoint intervals
+     * @param t value to check
+     * @return true if one of the intervals contains the value
+     */
+    private static boolean contains(final double[][] intervals, final double t) {
+        final int i = lastStartingBefore(intervals, t);
+        return i >= 0 && t <= intervals[i][1];
+    }
+
+    /**
+     * Check if a sorted list of disjoint intervals intersects a range.
+     * @param intervals sorted and disjoint intervals
+     * @param t0 start of the range
+     * @param t1 end of the range
+     * @return true if one of the intervals intersects the range
+     */
+    private static boolean intersects(final double[][] intervals, final double t0, final double t1) {
+        if (contains(intervals, t0)) {
+            return true;
+        }
+        final int i = lastStartingBefore(intervals, t0) + 1;
+        return i < intervals.length && intervals[i][0] <= t1;
+    }
+
+    /**
+     * Binary search of the last interval starting before a value.
+     * @param intervals sorted and disjoint intervals
+     * @param t value
+     * @return index of the last interval starting before the value (-1 if none)
+     */
+    private static int lastStartingBefore(final double[][] intervals, final double t) {
+        int low  = 0;
+        int high = intervals.length - 1;
+        int result = -1;
+        while (low <= high) {
+            final int middle = (low + high) >>> 1;
+            if (intervals[middle][0] <= t) {
+                result = middle;
+                low    = middle + 1;
+            } else {
+                high   = middle - 1;
+            }
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,97 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.radiation;
+
+import org.hipparchus.CalculusFieldElement;
+import org.hipparchus.util.FastMath;
+import org.hipparchus.util.MathArrays;
+import org.hipparchus.util.MathUtils;
+import org.orekit.forces.radiation.RadiationSensitive;
+import org.orekit.propagation.FieldSpacecraftState;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.semianalytical.dsst.forces.DSSTSolarRadiationPressure;
+import org.orekit.propagation.semianalytical.dsst.utilities.AuxiliaryElements;
+import org.orekit.propagation.semianalytical.dsst.utilities.FieldAuxiliaryElements;
+import org.orekit.utils.ExtendedPVCoordinatesProvider;
+
+/**
+ * DSST solar radiation pressure using precomputed shadow intervals.
+ * <p>
+ * The parent class computes, for each mean element rate evaluation, the entry
+ * and exit true longitudes of the Earth shadow. When the {@link ShadowIntervals}
+ * show that no shadow is met over the current orbit, the full orbit is used as
+ * integration arc and the shadow computation is skipped. Without intervals, the
+ * central body is not an occulting body and the full orbit is always used.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class ShadowedDSSTSolarRadiationPressure extends DSSTSolarRadiationPressure {
+
+    /** Precomputed shadow intervals of the central body (null if the central body is not occulting). */
+    private final ShadowIntervals intervals;
+
+    /** Margin added around the current orbit when looking for a shadow (s). */
+    private final double margin;
+
+    /**
+     * Constructor.
+     * @param sun Sun model
+     * @param equatorialRadius central body equatorial radius (for shadow computation)
+     * @param spacecraft spacecraft model
+     * @param mu central attraction coefficient
+     * @param intervals precomputed shadow intervals of the central body (null if the central body is not occulting)
+     * @param margin margin added around the current orbit when looking for a shadow (s)
+     */
+    public ShadowedDSSTSolarRadiationPressure(final ExtendedPVCoordinatesProvider sun,
+                                              final double equatorialRadius,
+                                              final RadiationSensitive spacecraft,
+                                              final double mu,
+                                              final ShadowIntervals intervals,
+                                              final double margin) {
+        super(sun, equatorialRadius, spacecraft, mu);
+        this.intervals = intervals;
+        this.margin    = margin;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected double[] getLLimits(final SpacecraftState state, final AuxiliaryElements auxiliaryElements) {
+        final double halfPeriod = 0.5 * state.getKeplerianPeriod() + margin;
+        if (intervals != null && intervals.hasShadow(state.getDate().shiftedBy(-halfPeriod), state.getDate().shiftedBy(halfPeriod))) {
+            // Exact shadow computation
+            return super.getLLimits(state, auxiliaryElements);
+        }
+        // Fully lit orbit
+        final double lv = MathUtils.normalizeAngle(auxiliaryElements.getLv(), 0.0);
+        return new double[] {-FastMath.PI + lv, FastMath.PI + lv};
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected <T extends CalculusFieldElement<T>> T[] getLLimits(final FieldSpacecraftState<T> state,
+                                                                 final FieldAuxiliaryElements<T> auxiliaryElements) {
+        if (intervals != null) {
+            // Exact shadow computation
+            return super.getLLimits(state, auxiliaryElements);
+        }
+        // Fully lit orbit
+        final T lv = MathUtils.normalizeAngle(auxiliaryElements.getLv(), state.getDate().getField().getZero());
+        final T[] limits = MathArrays.buildArray(state.getDate().getField(), 2);
+        limits[0] = lv.subtract(FastMath.PI);
+        limits[1] = lv.add(FastMath.PI);
+        return limits;
+    }
+
+}
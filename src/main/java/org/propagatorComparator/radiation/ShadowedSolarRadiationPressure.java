@@ -0,0 +1,164 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.radiation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hipparchus.CalculusFieldElement;
+import org.hipparchus.Field;
+import org.hipparchus.geometry.euclidean.threed.FieldVector3D;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.util.FastMath;
+import org.orekit.forces.radiation.RadiationSensitive;
+import org.orekit.frames.Frame;
+import org.orekit.propagation.events.DateDetector;
+import org.orekit.propagation.events.EventDetector;
+import org.orekit.propagation.events.FieldDateDetector;
+import org.orekit.propagation.events.FieldEventDetector;
+import org.orekit.propagation.events.handlers.ContinueOnEvent;
+import org.orekit.propagation.events.handlers.FieldContinueOnEvent;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.FieldAbsoluteDate;
+import org.orekit.utils.ExtendedPVCoordinatesProvider;
+
+/**
+ * Solar radiation pressure using precomputed shadow intervals.
+ * <p>
+ * Outside the transition windows of the {@link ShadowIntervals}, the lighting
+ * ratio is known (fully lit or umbra) and the eclipse geometry is not computed.
+ * Inside the transition windows, the exact lighting ratio of the parent class is
+ * used. The umbra and penumbra detectors of the parent class are replaced by a
+ * single date detector at the predicted shadow boundaries, so that the integrator
+ * still stops close to the acceleration discontinuities. If the validity window
+ * of the intervals does not cover the whole span, the detectors of the parent
+ * class are kept for the end of the span.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class ShadowedSolarRadiationPressure extends SelectiveSolarRadiationPressure {
+
+    /** Dates closer than this value are considered as a single boundary (s). */
+    private static final double BOUNDARY_TOLERANCE = 1.0;
+
+    /** Maximum checking interval of the boundary detector (s). */
+    private static final double MAX_CHECK = 3600.0;
+
+    /** Convergence threshold of the boundary detector (s). */
+    private static final double THRESHOLD = 1.0e-3;
+
+    /** Precomputed shadow intervals. */
+    private final ShadowIntervals intervals;
+
+    /**
+     * Constructor.
+     * @param sun Sun model
+     * @param equatorialRadius central body equatorial radius (for shadow computation)
+     * @param spacecraft the object physical and geometrical information
+     * @param centralBodyOcculting if true, the central body is an occulting body
+     * @param intervals precomputed shadow intervals of all the occulting bodies
+     */
+    public ShadowedSolarRadiationPressure(final ExtendedPVCoordinatesProvider sun,
+                                          final double equatorialRadius,
+                                          final RadiationSensitive spacecraft,
+                                          final boolean centralBodyOcculting,
+                                          final ShadowIntervals intervals) {
+        super(sun, equatorialRadius, spacecraft, centralBodyOcculting);
+        this.intervals = intervals;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getTotalLightingRatio(final Vector3D position, final Frame frame, final AbsoluteDate date) {
+        final double ratio = intervals.getLightingRatio(date);
+        return Double.isNaN(ratio) ? super.getTotalLightingRatio(position, frame, date) : ratio;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T extends CalculusFieldElement<T>> T getTotalLightingRatio(final FieldVector3D<T> position, final Frame frame,
+                                                                       final FieldAbsoluteDate<T> date) {
+        final double ratio = intervals.getLightingRatio(date.toAbsoluteDate());
+        return Double.isNaN(ratio) ? super.getTotalLightingRatio(position, frame, date) : date.getField().getZero().add(ratio);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Stream<EventDetector> getEventsDetectors() {
+
+        final List<AbsoluteDate> boundaries = getBoundaries();
+        final Stream<EventDetector> exact = intervals.isTruncated() ? super.getEventsDetectors() : Stream.empty();
+        if (boundaries.isEmpty()) {
+            return exact;
+        }
+
+        final DateDetector detector = new DateDetector(getMaxCheck(boundaries), THRESHOLD,
+                                                       boundaries.toArray(new AbsoluteDate[boundaries.size()])).
+                                      withHandler(new ContinueOnEvent<>());
+        return Stream.concat(Stream.of(detector), exact);
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T extends CalculusFieldElement<T>> Stream<FieldEventDetector<T>> getFieldEventsDetectors(final Field<T> field) {
+
+        final List<AbsoluteDate> boundaries = getBoundaries();
+        final Stream<FieldEventDetector<T>> exact = intervals.isTruncated() ? super.getFieldEventsDetectors(field) : Stream.empty();
+        if (boundaries.isEmpty()) {
+            return exact;
+        }
+
+        @SuppressWarnings("unchecked")
+        final FieldAbsoluteDate<T>[] dates = (FieldAbsoluteDate<T>[]) new FieldAbsoluteDate<?>[boundaries.size()];
+        for (int i = 0; i < dates.length; i++) {
+            dates[i] = new FieldAbsoluteDate<>(field, boundaries.get(i));
+        }
+        final FieldDateDetector<T> detector = new FieldDateDetector<>(field.getZero().add(getMaxCheck(boundaries)),
+                                                                      field.getZero().add(THRESHOLD), dates).
+                                              withHandler(new FieldContinueOnEvent<>());
+        return Stream.concat(Stream.of(detector), exact);
+
+    }
+
+    /**
+     * Get the predicted shadow boundaries, without near duplicates.
+     * @return the predicted shadow boundaries
+     */
+    private List<AbsoluteDate> getBoundaries() {
+        final List<AbsoluteDate> boundaries = new ArrayList<>();
+        for (final AbsoluteDate date : intervals.getBoundaries()) {
+            if (boundaries.isEmpty() || date.durationFrom(boundaries.get(boundaries.size() - 1)) > BOUNDARY_TOLERANCE) {
+                boundaries.add(date);
+            }
+        }
+        return boundaries;
+    }
+
+    /**
+     * Get the checking interval of the boundary detector.
+     * @param boundaries predicted shadow boundaries
+     * @return the checking interval, smaller than the gap between two boundaries (s)
+     */
+    private static double getMaxCheck(final List<AbsoluteDate> boundaries) {
+        double maxCheck = MAX_CHECK;
+        for (int i = 1; i < boundaries.size(); i++) {
+            maxCheck = FastMath.min(maxCheck, 0.5 * boundaries.get(i).durationFrom(boundaries.get(i - 1)));
+        }
+        return maxCheck;
+    }
+
+}
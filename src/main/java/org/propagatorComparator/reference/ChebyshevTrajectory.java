@@ -0,0 +1,238 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.reference;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.util.FastMath;
+import org.orekit.frames.Frame;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.TimeStampedPVCoordinates;
+import org.propagatorComparator.ephemeris.ChebyshevSeries;
+
+/**
+ * Trajectory represented by Chebyshev series on segments of equal duration.
+ * <p>
+ * Each segment holds the Chebyshev coefficients of the six Cartesian
+ * coordinates (position and velocity) in the trajectory frame. As all the
+ * segments have the same duration, the segment containing a date is found
+ * directly from the date offset, so the cost of a random-time lookup does
+ * not depend on the length of the trajectory. All the coefficients are stored
+ * in a single primitive array.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class ChebyshevTrajectory {
+
+    /** Identifier of the binary file format. */
+    private static final int MAGIC = 0x43484254;
+
+    /** Version of the binary file format. */
+    private static final int VERSION = 1;
+
+    /** Number of interpolated components (position and velocity). */
+    static final int COMPONENTS = 6;
+
+    /** Frame of the trajectory. */
+    private final Frame frame;
+
+    /** Start date of the trajectory. */
+    private final AbsoluteDate start;
+
+    /** Duration of the segments (s). */
+    private final double segmentDuration;
+
+    /** Number of segments. */
+    private final int segments;
+
+    /** Chebyshev series of the segments. */
+    private final ChebyshevSeries series;
+
+    /** Chebyshev coefficients, indexed by segment, component and degree. */
+    private final double[] coefficients;
+
+    /**
+     * Constructor.
+     * @param frame frame of the trajectory
+     * @param start start date of the trajectory
+     * @param segmentDuration duration of the segments (s)
+     * @param segments number of segments
+     * @param degree degree of the Chebyshev series
+     * @param coefficients Chebyshev coefficients, indexed by segment, component and degree
+     */
+    ChebyshevTrajectory(final Frame frame, final AbsoluteDate start, final double segmentDuration,
+                        final int segments, final int degree, final double[] coefficients) {
+        if (coefficients.length != segments * COMPONENTS * (degree + 1)) {
+            throw new IllegalArgumentException("Inconsistent number of Chebyshev coefficients: " + coefficients.length);
+        }
+        this.frame           = frame;
+        this.start           = start;
+        this.segmentDuration = segmentDuration;
+        this.segments        = segments;
+        this.series          = new ChebyshevSeries(degree);
+        this.coefficients    = coefficients;
+    }
+
+    /**
+     * Get the frame of the trajectory.
+     * @return the frame of the trajectory
+     */
+    public Frame getFrame() {
+        return frame;
+    }
+
+    /**
+     * Get the start date of the trajectory.
+     * @return the start date of the trajectory
+     */
+    public AbsoluteDate getStart() {
+        return start;
+    }
+
+    /**
+     * Get the end date of the trajectory.
+     * @return the end date of the trajectory
+     */
+    public AbsoluteDate getEnd() {
+        return start.shiftedBy(segments * segmentDuration);
+    }
+
+    /**
+     * Get the duration of the segments.
+     * @return the duration of the segments (s)
+     */
+    public double getSegmentDuration() {
+        return segmentDuration;
+    }
+
+    /**
+     * Get the number of segments.
+     * @return the number of segments
+     */
+    public int getSegments() {
+        return segments;
+    }
+
+    /**
+     * Get the degree of the Chebyshev series.
+     * @return the degree of the Chebyshev series
+     */
+    public int getDegree() {
+        return series.getDegree();
+    }
+
+    /**
+     * Get the position-velocity coordinates at a date.
+     * @param date date (must be within the trajectory, up to one segment duration outside for extrapolation)
+     * @return the position-velocity coordinates in the trajectory frame
+     */
+    public TimeStampedPVCoordinates getPVCoordinates(final AbsoluteDate date) {
+
+        // Segment containing the date
+        final double dt    = date.durationFrom(start);
+        final int    index = FastMath.max(0, FastMath.min(segments - 1, (int) FastMath.floor(dt / segmentDuration)));
+
+        // Normalized time in the segment
+        final double x = 2.0 * (dt - index * segmentDuration) / segmentDuration - 1.0;
+
+        final int size   = series.getSize();
+        final int offset = index * COMPONENTS * size;
+        return new TimeStampedPVCoordinates(date,
+                                            new Vector3D(series.evaluate(coefficients, offset, x),
+                                                         series.evaluate(coefficients, offset + size, x),
+                                                         series.evaluate(coefficients, offset + 2 * size, x)),
+                                            new Vector3D(series.evaluate(coefficients, offset + 3 * size, x),
+                                                         series.evaluate(coefficients, offset + 4 * size, x),
+                                                         series.evaluate(coefficients, offset + 5 * size, x)));
+
+    }
+
+    /**
+     * Write the trajectory in a binary file.
+     * <p>
+     * The file is first written in a temporary file which is then renamed,
+     * so that a partially written file is never read.
+     * </p>
+     * @param file output file
+     * @throws IOException if the file cannot be written
+     */
+    public void write(final File file) throws IOException {
+
+        final File temporary = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary.toPath())))) {
+
+            // Start date, split between whole seconds and fraction to preserve its accuracy
+            final long   whole    = (long) FastMath.floor(start.durationFrom(AbsoluteDate.J2000_EPOCH));
+            final double fraction = start.durationFrom(AbsoluteDate.J2000_EPOCH.shiftedBy(whole));
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(frame.getName());
+            out.writeLong(whole);
+            out.writeDouble(fraction);
+            out.writeDouble(segmentDuration);
+            out.writeInt(segments);
+            out.writeInt(series.getDegree());
+            for (final double coefficient : coefficients) {
+                out.writeDouble(coefficient);
+            }
+
+        }
+        Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+    }
+
+    /**
+     * Read a trajectory from a binary file.
+     * @param file input file
+     * @param frame frame of the trajectory (its name must be the one stored in the file)
+     * @return the trajectory
+     * @throws IOException if the file cannot be read or is not a trajectory file
+     */
+    public static ChebyshevTrajectory read(final File file, final Frame frame) throws IOException {
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a Chebyshev trajectory file: " + file.getAbsolutePath());
+            }
+            final String frameName = in.readUTF();
+            if (!frameName.equals(frame.getName())) {
+                throw new IllegalArgumentException("Chebyshev trajectory " + file.getAbsolutePath() + " is defined in " +
+                                                   frameName + ", not in " + frame.getName());
+            }
+            final AbsoluteDate start           = AbsoluteDate.J2000_EPOCH.shiftedBy(in.readLong()).shiftedBy(in.readDouble());
+            final double       segmentDuration = in.readDouble();
+            final int          segments        = in.readInt();
+            final int          degree          = in.readInt();
+            final double[]     coefficients    = new double[segments * COMPONENTS * (degree + 1)];
+            for (int i = 0; i < coefficients.length; i++) {
+                coefficients[i] = in.readDouble();
+            }
+            return new ChebyshevTrajectory(frame, start, segmentDuration, segments, degree, coefficients);
+
+        }
+
+    }
+
+}
@@ -0,0 +1,187 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.reference;
+
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.util.FastMath;
+import org.orekit.frames.Frame;
+import org.orekit.propagation.sampling.OrekitStepHandler;
+import org.orekit.propagation.sampling.OrekitStepInterpolator;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.PVCoordinates;
+import org.propagatorComparator.ephemeris.ChebyshevSeries;
+
+/**
+ * Step handler fitting a {@link ChebyshevTrajectory} on the fly during a propagation.
+ * <p>
+ * The trajectory is divided in segments of equal duration. The states are
+ * interpolated at the Chebyshev-Gauss nodes of each segment as the propagation
+ * progresses, and the coefficients of a segment are computed as soon as its
+ * last node is reached, so that only the node values of the current segment
+ * are kept in memory. The fit is checked at the start of each segment, which
+ * is not a node, to provide the maximum fitting error of the trajectory.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class ChebyshevTrajectoryBuilder implements OrekitStepHandler {
+
+    /** Frame of the trajectory. */
+    private final Frame frame;
+
+    /** Start date of the trajectory. */
+    private final AbsoluteDate start;
+
+    /** Duration of the segments (s). */
+    private final double segmentDuration;
+
+    /** Number of segments. */
+    private final int segments;
+
+    /** Chebyshev series of the segments. */
+    private final ChebyshevSeries series;
+
+    /** Chebyshev coefficients of the fitted segments. */
+    private final double[] coefficients;
+
+    /** Values of the components at the nodes of the current segment. */
+    private final double[][] values;
+
+    /** Index of the current segment. */
+    private int segment;
+
+    /** Index of the next node in the current segment (-1 for the check point at the segment start). */
+    private int node;
+
+    /** Position at the check point of the current segment. */
+    private Vector3D checkPosition;
+
+    /** Maximum position fitting error (m). */
+    private double maxFitError;
+
+    /**
+     * Constructor.
+     * <p>
+     * The duration is divided in the smallest number of segments whose duration
+     * does not exceed the given maximum segment duration.
+     * </p>
+     * @param frame frame of the trajectory
+     * @param start start date of the trajectory
+     * @param duration duration of the trajectory (s)
+     * @param maxSegmentDuration maximum duration of the segments (s)
+     * @param degree degree of the Chebyshev series
+     */
+    public ChebyshevTrajectoryBuilder(final Frame frame, final AbsoluteDate start, final double duration,
+                                      final double maxSegmentDuration, final int degree) {
+        if (duration <= 0.0 || maxSegmentDuration <= 0.0) {
+            throw new IllegalArgumentException("Duration and segment duration of the Chebyshev trajectory must be positive");
+        }
+        this.frame              = frame;
+        this.start              = start;
+        this.segments           = (int) FastMath.ceil(duration / maxSegmentDuration);
+        this.segmentDuration    = duration / segments;
+        this.series             = new ChebyshevSeries(degree);
+        this.coefficients       = new double[segments * ChebyshevTrajectory.COMPONENTS * (degree + 1)];
+        this.values             = new double[ChebyshevTrajectory.COMPONENTS][degree + 1];
+        this.segment            = 0;
+        this.node               = -1;
+        this.maxFitError        = 0.0;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void handleStep(final OrekitStepInterpolator interpolator) {
+        final AbsoluteDate current = interpolator.getCurrentState().getDate();
+        while (segment < segments) {
+            final AbsoluteDate date = nextDate();
+            if (date.compareTo(current) > 0) {
+                return;
+            }
+            store(interpolator.getInterpolatedState(date).getPVCoordinates(frame));
+        }
+    }
+
+    /**
+     * Get the fitted trajectory.
+     * @return the fitted trajectory
+     */
+    public ChebyshevTrajectory build() {
+        if (segment < segments) {
+            throw new IllegalStateException("Chebyshev trajectory is incomplete: " + segment + " segments fitted out of " + segments);
+        }
+        return new ChebyshevTrajectory(frame, start, segmentDuration, segments, series.getDegree(), coefficients.clone());
+    }
+
+    /**
+     * Get the maximum position fitting error.
+     * @return the maximum position fitting error (m), evaluated at the start of the segments
+     */
+    public double getMaxFitError() {
+        return maxFitError;
+    }
+
+    /**
+     * Get the date of the next point to store.
+     * @return the date of the next point to store
+     */
+    private AbsoluteDate nextDate() {
+        final double x = node < 0 ? -1.0 : series.getNode(node);
+        return start.shiftedBy((segment + 0.5 * (x + 1.0)) * segmentDuration);
+    }
+
+    /**
+     * Store the coordinates at the next point.
+     * @param pv coordinates at the date of the next point
+     */
+    private void store(final PVCoordinates pv) {
+
+        if (node < 0) {
+            checkPosition = pv.getPosition();
+        } else {
+            values[0][node] = pv.getPosition().getX();
+            values[1][node] = pv.getPosition().getY();
+            values[2][node] = pv.getPosition().getZ();
+            values[3][node] = pv.getVelocity().getX();
+            values[4][node] = pv.getVelocity().getY();
+            values[5][node] = pv.getVelocity().getZ();
+        }
+
+        if (++node > series.getDegree()) {
+            fitSegment();
+            segment++;
+            node = -1;
+        }
+
+    }
+
+    /**
+     * Compute the Chebyshev coefficients of the current segment by discrete orthogonality at the nodes.
+     */
+    private void fitSegment() {
+
+        final int size   = series.getSize();
+        final int offset = segment * ChebyshevTrajectory.COMPONENTS * size;
+        for (int c = 0; c < ChebyshevTrajectory.COMPONENTS; c++) {
+            series.fit(values[c], coefficients, offset + c * size);
+        }
+
+        // Fitting error at the check point (start of the segment)
+        final Vector3D check = new Vector3D(series.evaluate(coefficients, offset, -1.0),
+                                            series.evaluate(coefficients, offset + size, -1.0),
+                                            series.evaluate(coefficients, offset + 2 * size, -1.0));
+        maxFitError = FastMath.max(maxFitError, Vector3D.distance(checkPosition, check));
+
+    }
+
+}
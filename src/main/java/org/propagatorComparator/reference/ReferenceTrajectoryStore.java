@@ -0,0 +1,113 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.reference;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.orekit.frames.Frame;
+
+/**
+ * Directory of reference trajectories, identified by a key.
+ * <p>
+ * The key is a SHA-256 digest of a description of everything the reference
+ * trajectory depends on (initial orbit, span, force models, integrator and
+ * fitting settings), so that a trajectory is computed only once for a given
+ * configuration and reused by all the following comparisons.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class ReferenceTrajectoryStore {
+
+    /** Extension of the trajectory files. */
+    private static final String EXTENSION = ".cheb";
+
+    /** Directory of the trajectory files. */
+    private final File directory;
+
+    /**
+     * Constructor.
+     * @param directory directory of the trajectory files (created if needed)
+     * @throws IOException if the directory cannot be created
+     */
+    public ReferenceTrajectoryStore(final File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create reference trajectory directory " + directory.getAbsolutePath());
+        }
+        this.directory = directory;
+    }
+
+    /**
+     * Compute the key of a reference trajectory.
+     * @param description description of everything the reference trajectory depends on
+     * @return the key of the reference trajectory (hexadecimal SHA-256 digest of the description)
+     */
+    public static String key(final String description) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256").digest(description.getBytes(StandardCharsets.UTF_8));
+            final StringBuilder builder = new StringBuilder();
+            for (final byte b : digest) {
+                builder.append(String.format("%02x", b));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is available in all Java platforms
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Get the file of a reference trajectory.
+     * @param key key of the reference trajectory
+     * @return the file of the reference trajectory
+     */
+    public File getFile(final String key) {
+        return new File(directory, key + EXTENSION);
+    }
+
+    /**
+     * Check if a reference trajectory is stored.
+     * @param key key of the reference trajectory
+     * @return true if the reference trajectory is stored
+     */
+    public boolean contains(final String key) {
+        return getFile(key).isFile();
+    }
+
+    /**
+     * Load a reference trajectory.
+     * @param key key of the reference trajectory
+     * @param frame frame of the reference trajectory
+     * @return the reference trajectory
+     * @throws IOException if the reference trajectory cannot be read
+     */
+    public ChebyshevTrajectory load(final String key, final Frame frame) throws IOException {
+        return ChebyshevTrajectory.read(getFile(key), frame);
+    }
+
+    /**
+     * Store a reference trajectory.
+     * @param key key of the reference trajectory
+     * @param trajectory reference trajectory
+     * @throws IOException if the reference trajectory cannot be written
+     */
+    public void store(final String key, final ChebyshevTrajectory trajectory) throws IOException {
+        trajectory.write(getFile(key));
+    }
+
+}
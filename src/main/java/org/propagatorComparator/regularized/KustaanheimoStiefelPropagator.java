@@ -0,0 +1,374 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.regularized;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.ode.ODEIntegrator;
+import org.hipparchus.ode.ODEState;
+import org.hipparchus.ode.ODEStateAndDerivative;
+import org.hipparchus.ode.OrdinaryDifferentialEquation;
+import org.hipparchus.ode.events.Action;
+import org.hipparchus.ode.events.ODEEventHandler;
+import org.hipparchus.util.FastMath;
+import org.orekit.forces.ForceModel;
+import org.orekit.forces.gravity.NewtonianAttraction;
+import org.orekit.orbits.CartesianOrbit;
+import org.orekit.orbits.Orbit;
+import org.orekit.orbits.OrbitType;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.numerical.NumericalPropagator;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.PVCoordinates;
+
+/**
+ * Propagator integrating the regularized Kustaanheimo-Stiefel (KS) equations.
+ * <p>
+ * The position is mapped to a 4-dimensional vector u such that x = L(u) u,
+ * and the physical time t to the fictitious time s through the Sundman
+ * transformation dt = r ds. The Keplerian motion then becomes a harmonic
+ * oscillator: u'' + h / 2 u = r / 2 L<sup>T</sup>(u) P, with h = μ / r - v² / 2
+ * the negative Keplerian energy, obeying h' = -2 u'<sup>T</sup> L<sup>T</sup>(u) P,
+ * P being the perturbing accelerations. The integrated state is (u, u', h, t).
+ * As a constant step in s is a step in t proportional to the radius, the
+ * integrator no longer has to shrink its steps around the perigee of highly
+ * eccentric orbits.
+ * </p>
+ * <p>
+ * The integration stops when the physical time reaches the target, the
+ * remaining sub-millisecond offset being covered by a Keplerian shift. The
+ * perturbing accelerations are the sum of the force models, the Newtonian
+ * attractions being removed. The event detectors of the force models are
+ * ignored.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class KustaanheimoStiefelPropagator {
+
+    /** Dimension of the integrated state (u, u', h, t). */
+    private static final int DIMENSION = 10;
+
+    /** Convergence threshold of the end of the integration, in physical time (s). */
+    private static final double TIME_CONVERGENCE = 1.0e-6;
+
+    /** Maximum number of iterations locating the end of the integration. */
+    private static final int MAX_ITERATIONS = 100;
+
+    /** Perturbing force models. */
+    private final List<ForceModel> forceModels;
+
+    /** Parameters of the force models. */
+    private final double[][] parameters;
+
+    /** Initial orbit. */
+    private final Orbit initialOrbit;
+
+    /** Spacecraft mass (kg). */
+    private final double mass;
+
+    /** Integrator of the KS equations, in fictitious time. */
+    private final ODEIntegrator integrator;
+
+    /** Number of integration steps. */
+    private int steps;
+
+    /** Number of acceleration evaluations. */
+    private int evaluations;
+
+    /**
+     * Constructor.
+     * <p>
+     * The steps of the integrator are in fictitious time, see {@link #getFictitiousTimeScale(Orbit)}.
+     * </p>
+     * @param forceModels force models
+     * @param initialOrbit initial orbit (in an inertial frame, elliptic)
+     * @param mass spacecraft mass (kg)
+     * @param integrator integrator of the KS equations (the state dimension is 10)
+     */
+    public KustaanheimoStiefelPropagator(final List<ForceModel> forceModels, final Orbit initialOrbit,
+                                         final double mass, final ODEIntegrator integrator) {
+        if (initialOrbit.getA() <= 0.0) {
+            throw new IllegalArgumentException("Initial orbit of the KS propagator must be elliptic: a = " + initialOrbit.getA());
+        }
+        this.forceModels = new ArrayList<>();
+        for (final ForceModel force : forceModels) {
+            if (!(force instanceof NewtonianAttraction)) {
+                this.forceModels.add(force);
+            }
+        }
+        this.parameters = new double[this.forceModels.size()][];
+        for (int f = 0; f < parameters.length; f++) {
+            parameters[f] = this.forceModels.get(f).getParameters();
+        }
+        this.initialOrbit = initialOrbit;
+        this.mass         = mass;
+        this.integrator   = integrator;
+        this.steps        = 0;
+        this.evaluations  = 0;
+    }
+
+    /**
+     * Get the scale between the physical and fictitious times.
+     * <p>
+     * On average over a revolution, dt / ds is the semi-major axis, so that a
+     * physical time step divided by this scale gives the equivalent step in
+     * fictitious time.
+     * </p>
+     * @param orbit orbit
+     * @return the scale between the physical and fictitious times (m)
+     */
+    public static double getFictitiousTimeScale(final Orbit orbit) {
+        return orbit.getA();
+    }
+
+    /**
+     * Estimate the tolerances of the KS state from a position error.
+     * <p>
+     * The position and velocity tolerances of the Cartesian coordinates are
+     * mapped to u (δx ≈ 2 √r δu), u' (δv ≈ 2 / √r δu'), h (δh ≈ v δv) and t
+     * (δx ≈ v δt).
+     * </p>
+     * @param dP user specified position error (m)
+     * @param orbit reference orbit
+     * @return a two rows array, row 0 being the absolute tolerance error and row 1
+     * being the relative tolerance error
+     */
+    public static double[][] tolerances(final double dP, final Orbit orbit) {
+        final double[][] cartesian = NumericalPropagator.tolerances(dP, orbit, OrbitType.CARTESIAN);
+        final double   dV     = cartesian[0][3];
+        final double   sqrtR  = FastMath.sqrt(orbit.getPVCoordinates().getPosition().getNorm());
+        final double   v      = orbit.getPVCoordinates().getVelocity().getNorm();
+        final double[] absTol = new double[DIMENSION];
+        final double[] relTol = new double[DIMENSION];
+        Arrays.fill(absTol, 0, 4, dP / (2.0 * sqrtR));
+        Arrays.fill(absTol, 4, 8, 0.5 * sqrtR * dV);
+        absTol[8] = v * dV;
+        absTol[9] = dP / v;
+        Arrays.fill(relTol, cartesian[1][0]);
+        return new double[][] {
+            absTol, relTol
+        };
+    }
+
+    /**
+     * Propagate the initial orbit.
+     * @param target target date (after the initial date)
+     * @return the state at the target date
+     */
+    public SpacecraftState propagate(final AbsoluteDate target) {
+
+        final double duration = target.durationFrom(initialOrbit.getDate());
+        if (duration <= 0.0) {
+            throw new IllegalArgumentException("Target date of the KS propagator must be after the initial date: " + target);
+        }
+
+        final SpacecraftState initialState = new SpacecraftState(initialOrbit, mass);
+        for (final ForceModel force : forceModels) {
+            force.init(initialState, target);
+        }
+
+        // Initial KS state
+        final PVCoordinates pv = initialOrbit.getPVCoordinates();
+        final Vector3D      x  = pv.getPosition();
+        final Vector3D      v  = pv.getVelocity();
+        final double        r  = x.getNorm();
+        final double[]      u  = new double[4];
+        if (x.getX() >= 0.0) {
+            u[0] = FastMath.sqrt(0.5 * (r + x.getX()));
+            u[1] = 0.5 * x.getY() / u[0];
+            u[2] = 0.5 * x.getZ() / u[0];
+            u[3] = 0.0;
+        } else {
+            u[1] = FastMath.sqrt(0.5 * (r - x.getX()));
+            u[0] = 0.5 * x.getY() / u[1];
+            u[2] = 0.0;
+            u[3] = 0.5 * x.getZ() / u[1];
+        }
+        final double[] y0 = new double[DIMENSION];
+        System.arraycopy(u, 0, y0, 0, 4);
+        System.arraycopy(transposedProduct(u, v.getX(), v.getY(), v.getZ(), 0.5), 0, y0, 4, 4);
+        y0[8] = initialOrbit.getMu() / r - 0.5 * v.getNormSq();
+        y0[9] = 0.0;
+
+        // Fictitious time span reaching the target if the perigee radius does not decrease below half its initial value
+        final double perigee = initialOrbit.getA() * (1.0 - initialOrbit.getE());
+        final double span    = 2.0 * duration / perigee;
+
+        steps       = 0;
+        evaluations = 0;
+        integrator.clearEventHandlers();
+        integrator.clearStepHandlers();
+        integrator.addEventHandler(new TargetTime(duration), span, TIME_CONVERGENCE / perigee, MAX_ITERATIONS);
+        integrator.addStepHandler(interpolator -> steps++);
+
+        final KSEquations equations = new KSEquations();
+        ODEStateAndDerivative end = integrator.integrate(equations, new ODEState(0.0, y0), span);
+        evaluations += integrator.getEvaluations();
+        while (end.getPrimaryState()[9] < duration - TIME_CONVERGENCE) {
+            end = integrator.integrate(equations, end, end.getTime() + span);
+            evaluations += integrator.getEvaluations();
+        }
+
+        // Back to Cartesian coordinates
+        final double[]     y    = end.getPrimaryState();
+        final AbsoluteDate date = initialOrbit.getDate().shiftedBy(y[9]);
+        final Orbit orbit = new CartesianOrbit(toCartesian(y), initialOrbit.getFrame(), date, initialOrbit.getMu());
+        return new SpacecraftState(orbit.shiftedBy(target.durationFrom(date)), mass);
+
+    }
+
+    /**
+     * Get the number of integration steps of the last propagation.
+     * @return the number of integration steps
+     */
+    public int getSteps() {
+        return steps;
+    }
+
+    /**
+     * Get the number of acceleration evaluations of the last propagation.
+     * @return the number of acceleration evaluations
+     */
+    public int getEvaluations() {
+        return evaluations;
+    }
+
+    /**
+     * Compute the Cartesian position-velocity from the KS state.
+     * @param y KS state (u, u', h, t)
+     * @return the position-velocity
+     */
+    private static PVCoordinates toCartesian(final double[] y) {
+        final double[] x = product(y[0], y[1], y[2], y[3], y[0], y[1], y[2], y[3]);
+        final double   r = y[0] * y[0] + y[1] * y[1] + y[2] * y[2] + y[3] * y[3];
+        final double[] v = product(y[0], y[1], y[2], y[3], y[4], y[5], y[6], y[7]);
+        return new PVCoordinates(new Vector3D(x[0], x[1], x[2]), new Vector3D(2.0 / r, new Vector3D(v[0], v[1], v[2])));
+    }
+
+    /**
+     * Compute the product L(u) w of the KS matrix by a vector.
+     * @param u1 first component of u
+     * @param u2 second component of u
+     * @param u3 third component of u
+     * @param u4 fourth component of u
+     * @param w1 first component of w
+     * @param w2 second component of w
+     * @param w3 third component of w
+     * @param w4 fourth component of w
+     * @return the first three components of L(u) w (the fourth one being null for the vectors used here)
+     */
+    private static double[] product(final double u1, final double u2, final double u3, final double u4,
+                                    final double w1, final double w2, final double w3, final double w4) {
+        return new double[] {
+            u1 * w1 - u2 * w2 - u3 * w3 + u4 * w4,
+            u2 * w1 + u1 * w2 - u4 * w3 - u3 * w4,
+            u3 * w1 + u4 * w2 + u1 * w3 + u2 * w4
+        };
+    }
+
+    /**
+     * Compute the scaled product k L<sup>T</sup>(u) (p, 0) of the transposed KS matrix by a 3-dimensional vector.
+     * @param u KS position
+     * @param px first component of p
+     * @param py second component of p
+     * @param pz third component of p
+     * @param k scaling factor
+     * @return k L<sup>T</sup>(u) (p, 0)
+     */
+    private static double[] transposedProduct(final double[] u, final double px, final double py, final double pz,
+                                              final double k) {
+        return new double[] {
+            k * ( u[0] * px + u[1] * py + u[2] * pz),
+            k * (-u[1] * px + u[0] * py + u[3] * pz),
+            k * (-u[2] * px - u[3] * py + u[0] * pz),
+            k * ( u[3] * px - u[2] * py + u[1] * pz)
+        };
+    }
+
+    /** Regularized equations of motion. */
+    private class KSEquations implements OrdinaryDifferentialEquation {
+
+        /** {@inheritDoc} */
+        @Override
+        public int getDimension() {
+            return DIMENSION;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public double[] computeDerivatives(final double s, final double[] y) {
+
+            final double[] u = Arrays.copyOfRange(y, 0, 4);
+            final double   r = u[0] * u[0] + u[1] * u[1] + u[2] * u[2] + u[3] * u[3];
+            final double   h = y[8];
+
+            // Perturbing accelerations
+            Vector3D perturbation = Vector3D.ZERO;
+            if (!forceModels.isEmpty()) {
+                final SpacecraftState state = new SpacecraftState(new CartesianOrbit(toCartesian(y), initialOrbit.getFrame(),
+                                                                                     initialOrbit.getDate().shiftedBy(y[9]),
+                                                                                     initialOrbit.getMu()),
+                                                                  mass);
+                for (int i = 0; i < forceModels.size(); i++) {
+                    perturbation = perturbation.add(forceModels.get(i).acceleration(state, parameters[i]));
+                }
+            }
+            final double[] lp = transposedProduct(u, perturbation.getX(), perturbation.getY(), perturbation.getZ(), 1.0);
+
+            final double[] yDot = new double[DIMENSION];
+            for (int i = 0; i < 4; i++) {
+                yDot[i]     = y[4 + i];
+                yDot[4 + i] = -0.5 * h * u[i] + 0.5 * r * lp[i];
+            }
+            yDot[8] = -2.0 * (y[4] * lp[0] + y[5] * lp[1] + y[6] * lp[2] + y[7] * lp[3]);
+            yDot[9] = r;
+            return yDot;
+
+        }
+
+    }
+
+    /** Stop of the integration when the physical time reaches the target. */
+    private static class TargetTime implements ODEEventHandler {
+
+        /** Target physical time, from the initial date (s). */
+        private final double duration;
+
+        /**
+         * Constructor.
+         * @param duration target physical time, from the initial date (s)
+         */
+        TargetTime(final double duration) {
+            this.duration = duration;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public double g(final ODEStateAndDerivative state) {
+            return state.getPrimaryState()[9] - duration;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Action eventOccurred(final ODEStateAndDerivative state, final boolean increasing) {
+            return Action.STOP;
+        }
+
+    }
+
+}
@@ -0,0 +1,231 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.truth;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Sequential reader of the lines of an ASCII file through memory-mapped windows.
+ * <p>
+ * The file is mapped by windows of fixed size, a new window starting at the
+ * current line when the end of the previous one is reached, so that files
+ * larger than the maximum size of a mapped buffer can be read. The current
+ * line is not copied: its characters are read directly from the mapped buffer,
+ * and fields are extracted only when needed, so that lines which are skipped
+ * do not allocate any object.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class MappedLineReader implements Closeable {
+
+    /** Default size of the mapped windows (bytes). */
+    public static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    /** File channel. */
+    private final FileChannel channel;
+
+    /** Size of the file (bytes). */
+    private final long size;
+
+    /** Size of the mapped windows (bytes). */
+    private final int windowSize;
+
+    /** Current mapped window. */
+    private MappedByteBuffer window;
+
+    /** Offset of the current window in the file (bytes). */
+    private long windowStart;
+
+    /** Index of the first character of the current line in the window. */
+    private int lineStart;
+
+    /** Index following the last character of the current line in the window (line terminator excluded). */
+    private int lineEnd;
+
+    /** Index of the first character of the next line in the window. */
+    private int next;
+
+    /**
+     * Constructor with default window size.
+     * @param file file to read
+     * @throws IOException if the file cannot be opened
+     */
+    public MappedLineReader(final File file) throws IOException {
+        this(file, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Constructor.
+     * @param file file to read
+     * @param windowSize size of the mapped windows (bytes, must be larger than the longest line)
+     * @throws IOException if the file cannot be opened
+     */
+    public MappedLineReader(final File file, final int windowSize) throws IOException {
+        this.channel     = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        this.size        = channel.size();
+        this.windowSize  = windowSize;
+        this.windowStart = 0L;
+        this.next        = 0;
+        this.lineStart   = 0;
+        this.lineEnd     = 0;
+        map(0L);
+    }
+
+    /**
+     * Advance to the next line.
+     * @return true if a line is available, false if the end of the file is reached
+     * @throws IOException if the file cannot be mapped
+     */
+    public boolean nextLine() throws IOException {
+
+        if (windowStart + next >= size) {
+            return false;
+        }
+
+        int end = find(next);
+        if (end < 0) {
+            // The line crosses the end of the window, map a new window starting at the line
+            map(windowStart + next);
+            next = 0;
+            end  = find(0);
+            if (end < 0) {
+                throw new IOException("Line longer than the mapped window at offset " + windowStart);
+            }
+        }
+
+        lineStart = next;
+        lineEnd   = end;
+        next      = end < window.limit() ? end + 1 : end;
+        if (lineEnd > lineStart && window.get(lineEnd - 1) == '\r') {
+            lineEnd--;
+        }
+        return true;
+
+    }
+
+    /**
+     * Get the length of the current line.
+     * @return the length of the current line (line terminator excluded)
+     */
+    public int length() {
+        return lineEnd - lineStart;
+    }
+
+    /**
+     * Get a character of the current line.
+     * @param index index of the character in the line
+     * @return the character
+     */
+    public char charAt(final int index) {
+        return (char) window.get(lineStart + index);
+    }
+
+    /**
+     * Check if the current line starts with a prefix.
+     * @param prefix prefix
+     * @return true if the current line starts with the prefix
+     */
+    public boolean startsWith(final String prefix) {
+        if (prefix.length() > length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (charAt(i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check if a field of the current line is equal to a string.
+     * @param start index of the first character of the field
+     * @param value expected value
+     * @return true if the field is equal to the value
+     */
+    public boolean regionMatches(final int start, final String value) {
+        if (start + value.length() > length()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (charAt(start + i) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Extract a field of the current line.
+     * @param start index of the first character of the field
+     * @param end index following the last character of the field (truncated to the line length)
+     * @return the trimmed field
+     */
+    public String field(final int start, final int end) {
+        final int    to    = Math.min(end, length());
+        final byte[] bytes = new byte[Math.max(0, to - start)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = window.get(lineStart + start + i);
+        }
+        return new String(bytes, StandardCharsets.US_ASCII).trim();
+    }
+
+    /**
+     * Get the current line.
+     * @return the current line
+     */
+    public String line() {
+        return field(0, length());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Map a window of the file.
+     * @param start offset of the window in the file (bytes)
+     * @throws IOException if the file cannot be mapped
+     */
+    private void map(final long start) throws IOException {
+        windowStart = start;
+        window      = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowSize, size - start));
+    }
+
+    /**
+     * Find the end of a line in the current window.
+     * @param from index of the first character of the line
+     * @return the index of the line feed, or the window limit if it is the end of the file,
+     * or -1 if the line crosses the end of the window
+     */
+    private int find(final int from) {
+        final int limit = window.limit();
+        for (int i = from; i < limit; i++) {
+            if (window.get(i) == '\n') {
+                return i;
+            }
+        }
+        return windowStart + limit >= size ? limit : -1;
+    }
+
+}
@@ -0,0 +1,449 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.truth;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.hipparchus.analysis.interpolation.HermiteInterpolator;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.util.FastMath;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.orbits.CartesianOrbit;
+import org.orekit.orbits.Orbit;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.DateComponents;
+import org.orekit.time.TimeComponents;
+import org.orekit.time.TimeScale;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.PVCoordinates;
+
+/**
+ * Precise ephemeris of one satellite used as truth.
+ * <p>
+ * The ephemeris is loaded from a SP3 or ILRS CPF file read through a
+ * {@link MappedLineReader}. Only the records of the selected satellite are
+ * kept, in primitive columns (dates as offsets from the first record,
+ * positions and optional velocities), the other lines being skipped without
+ * being converted to objects. The trajectory is interpolated by Hermite
+ * polynomials on a sliding window of records, the velocities being used when
+ * available.
+ * </p>
+ * <p>
+ * The records are expressed in the terrestrial frame of the files (e.g. ITRF),
+ * which is the body frame of the central body, or in EME2000 for CPF files
+ * with the mean of J2000 reference frame.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class TruthEphemeris {
+
+    /** SP3 format. */
+    public static final String SP3 = "SP3";
+
+    /** ILRS CPF format. */
+    public static final String CPF = "CPF";
+
+    /** Initial capacity of the columns. */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /** Conversion from SP3 kilometers to meters. */
+    private static final double KM = 1000.0;
+
+    /** Conversion from SP3 decimeters per second to meters per second. */
+    private static final double DM_PER_S = 0.1;
+
+    /** Absolute value above which an SP3 coordinate is a bad or absent value (km). */
+    private static final double SP3_BAD_VALUE = 999999.0;
+
+    /** Index of the reference frame in the CPF H2 record. */
+    private static final int CPF_FRAME_INDEX = 19;
+
+    /** First column of the target name in the CPF version 1 H1 record (0-based). */
+    private static final int CPF_V1_TARGET_START = 35;
+
+    /** First column of the target name in the CPF version 2 H1 record (0-based). */
+    private static final int CPF_V2_TARGET_START = 38;
+
+    /** Width of the target name in the CPF H1 record. */
+    private static final int CPF_TARGET_WIDTH = 10;
+
+    /** Frame of the records. */
+    private final Frame frame;
+
+    /** Number of points of the interpolation. */
+    private final int interpolationPoints;
+
+    /** Identifier of the satellite. */
+    private String satellite;
+
+    /** Date of the first record. */
+    private AbsoluteDate reference;
+
+    /** Number of records. */
+    private int size;
+
+    /** Dates of the records, as offsets from the first record (s). */
+    private double[] t;
+
+    /** X coordinates of the positions (m). */
+    private double[] x;
+
+    /** Y coordinates of the positions (m). */
+    private double[] y;
+
+    /** Z coordinates of the positions (m). */
+    private double[] z;
+
+    /** X coordinates of the velocities (m/s, NaN if absent). */
+    private double[] vx;
+
+    /** Y coordinates of the velocities (m/s, NaN if absent). */
+    private double[] vy;
+
+    /** Z coordinates of the velocities (m/s, NaN if absent). */
+    private double[] vz;
+
+    /**
+     * Constructor.
+     * @param frame frame of the records
+     * @param satellite identifier of the satellite (null for the first one of the file)
+     * @param interpolationPoints number of points of the interpolation
+     */
+    private TruthEphemeris(final Frame frame, final String satellite, final int interpolationPoints) {
+        this.frame               = frame;
+        this.satellite           = satellite;
+        this.interpolationPoints = interpolationPoints;
+        this.size                = 0;
+        this.t                   = new double[INITIAL_CAPACITY];
+        this.x                   = new double[INITIAL_CAPACITY];
+        this.y                   = new double[INITIAL_CAPACITY];
+        this.z                   = new double[INITIAL_CAPACITY];
+        this.vx                  = new double[INITIAL_CAPACITY];
+        this.vy                  = new double[INITIAL_CAPACITY];
+        this.vz                  = new double[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Load a precise ephemeris.
+     * @param file SP3 or CPF file
+     * @param format file format ({@link #SP3} or {@link #CPF}, null to guess it from the first line)
+     * @param satellite identifier of the satellite in a SP3 file (e.g. "L51", null for the first one of the file)
+     * @param bodyFrame terrestrial frame of the records
+     * @param interpolationPoints number of points of the interpolation
+     * @return the loaded ephemeris
+     * @throws IOException if the file cannot be read
+     */
+    public static TruthEphemeris load(final File file, final String format, final String satellite,
+                                      final Frame bodyFrame, final int interpolationPoints) throws IOException {
+
+        if (interpolationPoints < 2) {
+            throw new IllegalArgumentException("Number of interpolation points of the truth ephemeris must be at least 2: " + interpolationPoints);
+        }
+
+        try (MappedLineReader reader = new MappedLineReader(file)) {
+
+            if (!reader.nextLine()) {
+                throw new IllegalArgumentException("Empty truth ephemeris file: " + file.getAbsolutePath());
+            }
+            final String actualFormat = format != null ? format.toUpperCase() : reader.startsWith("#") ? SP3 : CPF;
+
+            final TruthEphemeris ephemeris;
+            if (SP3.equals(actualFormat)) {
+                ephemeris = new TruthEphemeris(bodyFrame, satellite, interpolationPoints);
+                ephemeris.parseSP3(reader);
+            } else if (CPF.equals(actualFormat)) {
+                ephemeris = parseCPF(reader, bodyFrame, interpolationPoints);
+            } else {
+                throw new IllegalArgumentException("Unsupported truth ephemeris format: " + format);
+            }
+
+            if (ephemeris.size < interpolationPoints) {
+                throw new IllegalArgumentException("Not enough records in truth ephemeris " + file.getAbsolutePath() +
+                                                   " for satellite " + ephemeris.satellite + ": " + ephemeris.size);
+            }
+            return ephemeris;
+
+        }
+
+    }
+
+    /**
+     * Get the identifier of the satellite.
+     * @return the identifier of the satellite
+     */
+    public String getSatellite() {
+        return satellite;
+    }
+
+    /**
+     * Get the number of records.
+     * @return the number of records
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Get the date of the first record.
+     * @return the date of the first record
+     */
+    public AbsoluteDate getStart() {
+        return reference;
+    }
+
+    /**
+     * Get the date of the last record.
+     * @return the date of the last record
+     */
+    public AbsoluteDate getEnd() {
+        return reference.shiftedBy(t[size - 1]);
+    }
+
+    /**
+     * Get the median interval between records.
+     * @return the median interval between records (s)
+     */
+    public double getStep() {
+        final double[] steps = new double[size - 1];
+        for (int i = 0; i < steps.length; i++) {
+            steps[i] = t[i + 1] - t[i];
+        }
+        Arrays.sort(steps);
+        return steps[steps.length / 2];
+    }
+
+    /**
+     * Get the interpolated position-velocity.
+     * @param date date (between the first and last records)
+     * @param outputFrame frame of the position-velocity
+     * @return the interpolated position-velocity
+     */
+    public PVCoordinates getPVCoordinates(final AbsoluteDate date, final Frame outputFrame) {
+
+        final double dt = date.durationFrom(reference);
+        if (dt < t[0] || dt > t[size - 1]) {
+            throw new IllegalArgumentException("Date outside of the truth ephemeris: " + date);
+        }
+
+        // Window of records around the date
+        int index = Arrays.binarySearch(t, 0, size, dt);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        final int first = FastMath.max(0, FastMath.min(size - interpolationPoints, index - (interpolationPoints - 1) / 2));
+
+        final HermiteInterpolator interpolator = new HermiteInterpolator();
+        for (int i = first; i < first + interpolationPoints; i++) {
+            if (Double.isNaN(vx[i])) {
+                interpolator.addSamplePoint(t[i] - dt, new double[] {x[i], y[i], z[i]});
+            } else {
+                interpolator.addSamplePoint(t[i] - dt, new double[] {x[i], y[i], z[i]}, new double[] {vx[i], vy[i], vz[i]});
+            }
+        }
+        final double[][] derivatives = interpolator.derivatives(0.0, 1);
+
+        final PVCoordinates pv = new PVCoordinates(new Vector3D(derivatives[0]), new Vector3D(derivatives[1]));
+        return frame.getTransformTo(outputFrame, date).transformPVCoordinates(pv);
+
+    }
+
+    /**
+     * Get the orbit at the first record.
+     * @param outputFrame inertial frame of the orbit
+     * @param mu central attraction coefficient (m³/s²)
+     * @return the orbit at the first record
+     */
+    public Orbit getInitialOrbit(final Frame outputFrame, final double mu) {
+        return new CartesianOrbit(getPVCoordinates(reference, outputFrame), outputFrame, reference, mu);
+    }
+
+    /**
+     * Parse the records of a SP3 file.
+     * @param reader reader positioned on the first line
+     * @throws IOException if the file cannot be read
+     */
+    private void parseSP3(final MappedLineReader reader) throws IOException {
+
+        TimeScale    timeScale  = TimeScalesFactory.getGPS();
+        boolean      timeSystem = false;
+        AbsoluteDate epoch      = null;
+        do {
+            if (reader.startsWith("%c") && !timeSystem) {
+                // First %c line: time system
+                timeScale  = getTimeScale(reader.field(9, 12));
+                timeSystem = true;
+            } else if (reader.startsWith("* ")) {
+                epoch = new AbsoluteDate(Integer.parseInt(reader.field(3, 7)), Integer.parseInt(reader.field(8, 10)),
+                                         Integer.parseInt(reader.field(11, 13)), Integer.parseInt(reader.field(14, 16)),
+                                         Integer.parseInt(reader.field(17, 19)), Double.parseDouble(reader.field(20, 31)),
+                                         timeScale);
+            } else if (reader.startsWith("P") && epoch != null) {
+                if (satellite == null) {
+                    satellite = reader.field(1, 4);
+                }
+                if (reader.regionMatches(1, satellite)) {
+                    final double px = Double.parseDouble(reader.field(4, 18));
+                    final double py = Double.parseDouble(reader.field(18, 32));
+                    final double pz = Double.parseDouble(reader.field(32, 46));
+                    if (isValidSP3(px, py, pz)) {
+                        add(epoch, KM * px, KM * py, KM * pz);
+                    }
+                }
+            } else if (reader.startsWith("V") && epoch != null && satellite != null && reader.regionMatches(1, satellite)) {
+                // Velocity of the last position record, if it has the same epoch
+                if (size > 0 && epoch.durationFrom(reference) == t[size - 1]) {
+                    final double dx = Double.parseDouble(reader.field(4, 18));
+                    final double dy = Double.parseDouble(reader.field(18, 32));
+                    final double dz = Double.parseDouble(reader.field(32, 46));
+                    if (isValidSP3(dx, dy, dz)) {
+                        vx[size - 1] = DM_PER_S * dx;
+                        vy[size - 1] = DM_PER_S * dy;
+                        vz[size - 1] = DM_PER_S * dz;
+                    }
+                }
+            } else if (reader.startsWith("EOF")) {
+                break;
+            }
+        } while (reader.nextLine());
+
+    }
+
+    /**
+     * Parse the records of a CPF file.
+     * @param reader reader positioned on the first line
+     * @param bodyFrame terrestrial frame of the records
+     * @param interpolationPoints number of points of the interpolation
+     * @return the parsed ephemeris
+     * @throws IOException if the file cannot be read
+     */
+    private static TruthEphemeris parseCPF(final MappedLineReader reader, final Frame bodyFrame,
+                                           final int interpolationPoints) throws IOException {
+
+        final TimeScale utc = TimeScalesFactory.getUTC();
+        String         target    = null;
+        Frame          cpfFrame  = bodyFrame;
+        TruthEphemeris ephemeris = null;
+        do {
+            if (reader.startsWith("H1") || reader.startsWith("h1")) {
+                // Target name (fixed columns of the H1 record, followed by optional notes)
+                final int start = "1".equals(reader.field(7, 9)) ? CPF_V1_TARGET_START : CPF_V2_TARGET_START;
+                target = reader.field(start, start + CPF_TARGET_WIDTH);
+            } else if (reader.startsWith("H2") || reader.startsWith("h2")) {
+                final String[] fields = reader.line().split("\\s+");
+                if (fields.length > CPF_FRAME_INDEX) {
+                    final int code = Integer.parseInt(fields[CPF_FRAME_INDEX]);
+                    if (code == 2) {
+                        cpfFrame = FramesFactory.getEME2000();
+                    } else if (code != 0) {
+                        throw new IllegalArgumentException("Unsupported CPF reference frame: " + code);
+                    }
+                }
+            } else if (reader.startsWith("10")) {
+                if (ephemeris == null) {
+                    ephemeris = new TruthEphemeris(cpfFrame, target, interpolationPoints);
+                }
+                final String[] fields = reader.line().split("\\s+");
+                final AbsoluteDate date = new AbsoluteDate(new DateComponents(DateComponents.MODIFIED_JULIAN_EPOCH, Integer.parseInt(fields[2])),
+                                                           new TimeComponents(Double.parseDouble(fields[3])), utc);
+                ephemeris.add(date, Double.parseDouble(fields[5]), Double.parseDouble(fields[6]), Double.parseDouble(fields[7]));
+            } else if (reader.startsWith("20") && ephemeris != null && ephemeris.size > 0) {
+                final String[] fields = reader.line().split("\\s+");
+                ephemeris.vx[ephemeris.size - 1] = Double.parseDouble(fields[2]);
+                ephemeris.vy[ephemeris.size - 1] = Double.parseDouble(fields[3]);
+                ephemeris.vz[ephemeris.size - 1] = Double.parseDouble(fields[4]);
+            } else if (reader.startsWith("99")) {
+                break;
+            }
+        } while (reader.nextLine());
+
+        return ephemeris != null ? ephemeris : new TruthEphemeris(cpfFrame, target, interpolationPoints);
+
+    }
+
+    /**
+     * Get the time scale of a SP3 time system.
+     * @param system SP3 time system
+     * @return the corresponding time scale
+     */
+    private static TimeScale getTimeScale(final String system) {
+        switch (system) {
+            case "UTC" :
+                return TimeScalesFactory.getUTC();
+            case "TAI" :
+                return TimeScalesFactory.getTAI();
+            case "GAL" :
+                return TimeScalesFactory.getGST();
+            case "BDT" :
+                return TimeScalesFactory.getBDT();
+            case "QZS" :
+                return TimeScalesFactory.getQZSS();
+            case "GLO" :
+                return TimeScalesFactory.getGLONASS();
+            default :
+                return TimeScalesFactory.getGPS();
+        }
+    }
+
+    /**
+     * Check if SP3 coordinates are valid.
+     * @param cx first coordinate
+     * @param cy second coordinate
+     * @param cz third coordinate
+     * @return true if the coordinates are neither absent (0.0) nor bad (999999.999999)
+     */
+    private static boolean isValidSP3(final double cx, final double cy, final double cz) {
+        return !(cx == 0.0 && cy == 0.0 && cz == 0.0) &&
+               FastMath.abs(cx) < SP3_BAD_VALUE && FastMath.abs(cy) < SP3_BAD_VALUE && FastMath.abs(cz) < SP3_BAD_VALUE;
+    }
+
+    /**
+     * Add a record.
+     * @param date date of the record (after the previous one)
+     * @param px X coordinate of the position (m)
+     * @param py Y coordinate of the position (m)
+     * @param pz Z coordinate of the position (m)
+     */
+    private void add(final AbsoluteDate date, final double px, final double py, final double pz) {
+        if (reference == null) {
+            reference = date;
+        }
+        final double dt = date.durationFrom(reference);
+        if (size > 0 && dt <= t[size - 1]) {
+            throw new IllegalArgumentException("Truth ephemeris records are not in chronological order at " + date);
+        }
+        if (size == t.length) {
+            final int capacity = 2 * t.length;
+            t  = Arrays.copyOf(t, capacity);
+            x  = Arrays.copyOf(x, capacity);
+            y  = Arrays.copyOf(y, capacity);
+            z  = Arrays.copyOf(z, capacity);
+            vx = Arrays.copyOf(vx, capacity);
+            vy = Arrays.copyOf(vy, capacity);
+            vz = Arrays.copyOf(vz, capacity);
+        }
+        t[size]  = dt;
+        x[size]  = px;
+        y[size]  = py;
+        z[size]  = pz;
+        vx[size] = Double.NaN;
+        vy[size] = Double.NaN;
+        vz[size] = Double.NaN;
+        size++;
+    }
+
+}
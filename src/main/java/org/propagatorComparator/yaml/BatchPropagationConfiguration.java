@@ -0,0 +1,162 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.yaml;
+
+/**
+ * Initial data to initialize a batch secular propagation.
+ * <p>
+ * The population is read from a TLE catalog file (2LE or 3LE format).
+ * </p>
+ * <p>
+ * Data are read from a YAML file.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class BatchPropagationConfiguration {
+
+    /** TLE catalog file. */
+    private String file;
+
+    /** Maximum number of objects loaded. */
+    private int maxObjects;
+
+    /** Propagation duration (days). */
+    private double duration;
+
+    /** Step between the output epochs (s). */
+    private double step;
+
+    /** Number of partitions of the population propagated concurrently. */
+    private int threads;
+
+    /** Flag indicating if the semi-major axis decay is modelled. */
+    private boolean drag;
+
+    /** Number of objects cross-checked with the numerical and DSST propagators. */
+    private int samples;
+
+    /**
+     * Get the TLE catalog file.
+     * @return the TLE catalog file
+     */
+    public String getFile() {
+        return file;
+    }
+
+    /**
+     * Set the TLE catalog file.
+     * @param file TLE catalog file
+     */
+    public void setFile(final String file) {
+        this.file = file;
+    }
+
+    /**
+     * Get the maximum number of objects loaded.
+     * @return the maximum number of objects loaded
+     */
+    public int getMaxObjects() {
+        return maxObjects;
+    }
+
+    /**
+     * Set the maximum number of objects loaded.
+     * @param maxObjects maximum number of objects loaded
+     */
+    public void setMaxObjects(final int maxObjects) {
+        this.maxObjects = maxObjects;
+    }
+
+    /**
+     * Get the propagation duration.
+     * @return the propagation duration (days)
+     */
+    public double getDuration() {
+        return duration;
+    }
+
+    /**
+     * Set the propagation duration.
+     * @param duration propagation duration (days)
+     */
+    public void setDuration(final double duration) {
+        this.duration = duration;
+    }
+
+    /**
+     * Get the step between the output epochs.
+     * @return the step between the output epochs (s)
+     */
+    public double getStep() {
+        return step;
+    }
+
+    /**
+     * Set the step between the output epochs.
+     * @param step step between the output epochs (s)
+     */
+    public void setStep(final double step) {
+        this.step = step;
+    }
+
+    /**
+     * Get the number of partitions of the population propagated concurrently.
+     * @return the number of partitions of the population propagated concurrently
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Set the number of partitions of the population propagated concurrently.
+     * @param threads number of partitions of the population propagated concurrently
+     */
+    public void setThreads(final int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Get the flag indicating if the semi-major axis decay is modelled.
+     * @return true if the semi-major axis decay is modelled
+     */
+    public boolean isDrag() {
+        return drag;
+    }
+
+    /**
+     * Set the flag indicating if the semi-major axis decay is modelled.
+     * @param drag true if the semi-major axis decay is modelled
+     */
+    public void setDrag(final boolean drag) {
+        this.drag = drag;
+    }
+
+    /**
+     * Get the number of objects cross-checked with the numerical and DSST propagators.
+     * @return the number of objects cross-checked with the numerical and DSST propagators
+     */
+    public int getSamples() {
+        return samples;
+    }
+
+    /**
+     * Set the number of objects cross-checked with the numerical and DSST propagators.
+     * @param samples number of objects cross-checked with the numerical and DSST propagators
+     */
+    public void setSamples(final int samples) {
+        this.samples = samples;
+    }
+
+}
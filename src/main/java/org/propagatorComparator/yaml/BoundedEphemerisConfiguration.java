@@ -0,0 +1,178 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.yaml;
+
+/**
+ * Initial data to initialize the bounded-memory ephemeris generation.
+ * <p>
+ * Data are read from a YAML file.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class BoundedEphemerisConfiguration {
+
+    /** Directory of the ephemeris files. */
+    private String directory;
+
+    /** Position tolerance of the segments (m). */
+    private double tolerance;
+
+    /** Degree of the Chebyshev series. */
+    private int degree;
+
+    /** Minimum duration of the segments (s). */
+    private double minSegmentDuration;
+
+    /** Maximum duration of the segments (s). */
+    private double maxSegmentDuration;
+
+    /** Number of segments kept in the in-heap cache. */
+    private int cacheSize;
+
+    /** Number of random-time queries of the ephemerides. */
+    private int queries;
+
+    /** Flag for the comparison with the Orekit generated ephemerides. */
+    private boolean compareWithGenerated;
+
+    /**
+     * Get the directory of the ephemeris files.
+     * @return the directory of the ephemeris files
+     */
+    public String getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Set the directory of the ephemeris files.
+     * @param directory directory of the ephemeris files
+     */
+    public void setDirectory(final String directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Get the position tolerance of the segments.
+     * @return the position tolerance of the segments (m)
+     */
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * Set the position tolerance of the segments.
+     * @param tolerance position tolerance of the segments (m)
+     */
+    public void setTolerance(final double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Get the degree of the Chebyshev series.
+     * @return the degree of the Chebyshev series
+     */
+    public int getDegree() {
+        return degree;
+    }
+
+    /**
+     * Set the degree of the Chebyshev series.
+     * @param degree degree of the Chebyshev series
+     */
+    public void setDegree(final int degree) {
+        this.degree = degree;
+    }
+
+    /**
+     * Get the minimum duration of the segments.
+     * @return the minimum duration of the segments (s)
+     */
+    public double getMinSegmentDuration() {
+        return minSegmentDuration;
+    }
+
+    /**
+     * Set the minimum duration of the segments.
+     * @param minSegmentDuration minimum duration of the segments (s)
+     */
+    public void setMinSegmentDuration(final double minSegmentDuration) {
+        this.minSegmentDuration = minSegmentDuration;
+    }
+
+    /**
+     * Get the maximum duration of the segments.
+     * @return the maximum duration of the segments (s)
+     */
+    public double getMaxSegmentDuration() {
+        return maxSegmentDuration;
+    }
+
+    /**
+     * Set the maximum duration of the segments.
+     * @param maxSegmentDuration maximum duration of the segments (s)
+     */
+    public void setMaxSegmentDuration(final double maxSegmentDuration) {
+        this.maxSegmentDuration = maxSegmentDuration;
+    }
+
+    /**
+     * Get the number of segments kept in the in-heap cache.
+     * @return the number of segments kept in the in-heap cache
+     */
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    /**
+     * Set the number of segments kept in the in-heap cache.
+     * @param cacheSize number of segments kept in the in-heap cache
+     */
+    public void setCacheSize(final int cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * Get the number of random-time queries of the ephemerides.
+     * @return the number of random-time queries of the ephemerides
+     */
+    public int getQueries() {
+        return queries;
+    }
+
+    /**
+     * Set the number of random-time queries of the ephemerides.
+     * @param queries number of random-time queries of the ephemerides
+     */
+    public void setQueries(final int queries) {
+        this.queries = queries;
+    }
+
+    /**
+     * Get the flag for the comparison with the Orekit generated ephemerides.
+     * @return true if the bounded ephemerides are compared with the Orekit generated ephemerides
+     */
+    public boolean isCompareWithGenerated() {
+        return compareWithGenerated;
+    }
+
+    /**
+     * Set the flag for the comparison with the Orekit generated ephemerides.
+     * @param compareWithGenerated true if the bounded ephemerides are compared with the Orekit generated ephemerides
+     */
+    public void setCompareWithGenerated(final boolean compareWithGenerated) {
+        this.compareWithGenerated = compareWithGenerated;
+    }
+
+}
@@ -0,0 +1,144 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.yaml;
+
+/**
+ * Initial data to initialize a TLE catalog comparison.
+ * <p>
+ * The catalog file contains TLE pairs, optionally preceded by a name line
+ * (i.e. 2LE or 3LE format). It is read one object at a time.
+ * </p>
+ * <p>
+ * Data are read from a YAML file.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class CatalogConfiguration {
+
+    /** TLE catalog file. */
+    private String file;
+
+    /** Propagation duration (days). */
+    private double duration;
+
+    /** Maximum number of objects to process. */
+    private int maxObjects;
+
+    /** Number of objects processed concurrently. */
+    private int threads;
+
+    /** Maximum number of objects waiting to be processed. */
+    private int queueCapacity;
+
+    /** Output CSV file. */
+    private String outputFile;
+
+    /**
+     * Get the TLE catalog file.
+     * @return the TLE catalog file
+     */
+    public String getFile() {
+        return file;
+    }
+
+    /**
+     * Set the TLE catalog file.
+     * @param file TLE catalog file
+     */
+    public void setFile(final String file) {
+        this.file = file;
+    }
+
+    /**
+     * Get the propagation duration.
+     * @return the propagation duration (days)
+     */
+    public double getDuration() {
+        return duration;
+    }
+
+    /**
+     * Set the propagation duration.
+     * @param duration propagation duration (days)
+     */
+    public void setDuration(final double duration) {
+        this.duration = duration;
+    }
+
+    /**
+     * Get the maximum number of objects to process.
+     * @return the maximum number of objects to process
+     */
+    public int getMaxObjects() {
+        return maxObjects;
+    }
+
+    /**
+     * Set the maximum number of objects to process.
+     * @param maxObjects maximum number of objects to process
+     */
+    public void setMaxObjects(final int maxObjects) {
+        this.maxObjects = maxObjects;
+    }
+
+    /**
+     * Get the number of objects processed concurrently.
+     * @return the number of objects processed concurrently
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Set the number of objects processed concurrently.
+     * @param threads number of objects processed concurrently
+     */
+    public void setThreads(final int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Get the maximum number of objects waiting to be processed.
+     * @return the maximum number of objects waiting to be processed
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Set the maximum number of objects waiting to be processed.
+     * @param queueCapacity maximum number of objects waiting to be processed
+     */
+    public void setQueueCapacity(final int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Get the output CSV file.
+     * @return the output CSV file
+     */
+    public String getOutputFile() {
+        return outputFile;
+    }
+
+    /**
+     * Set the output CSV file.
+     * @param outputFile output CSV file
+     */
+    public void setOutputFile(final String outputFile) {
+        this.outputFile = outputFile;
+    }
+
+}
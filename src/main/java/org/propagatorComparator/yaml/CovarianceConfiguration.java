@@ -0,0 +1,91 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.yaml;
+
+import java.util.List;
+
+/**
+ * Initial data to initialize the covariance propagation.
+ * <p>
+ * The orbital covariance is expressed in Cartesian coordinates, in the
+ * frame of the initial orbit. The drag and reflection coefficients are
+ * added to the propagated covariance only if their standard deviation
+ * is not equal to zero.
+ * </p>
+ * <p>
+ * Data are read from a YAML file.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class CovarianceConfiguration {
+
+    /** Initial Cartesian covariance, 6x6 row by row (m², m²/s, m²/s²). */
+    private List<List<Double>> cartesian;
+
+    /** Standard deviation of the drag coefficient (0.0 if not considered). */
+    private double dragCoefficientSigma;
+
+    /** Standard deviation of the reflection coefficient (0.0 if not considered). */
+    private double reflectionCoefficientSigma;
+
+    /**
+     * Get the initial Cartesian covariance.
+     * @return the initial Cartesian covariance, 6x6 row by row (m², m²/s, m²/s²)
+     */
+    public List<List<Double>> getCartesian() {
+        return cartesian;
+    }
+
+    /**
+     * Set the initial Cartesian covariance.
+     * @param cartesian initial Cartesian covariance, 6x6 row by row (m², m²/s, m²/s²)
+     */
+    public void setCartesian(final List<List<Double>> cartesian) {
+        this.cartesian = cartesian;
+    }
+
+    /**
+     * Get the standard deviation of the drag coefficient.
+     * @return the standard deviation of the drag coefficient (0.0 if not considered)
+     */
+    public double getDragCoefficientSigma() {
+        return dragCoefficientSigma;
+    }
+
+    /**
+     * Set the standard deviation of the drag coefficient.
+     * @param dragCoefficientSigma standard deviation of the drag coefficient (0.0 if not considered)
+     */
+    public void setDragCoefficientSigma(final double dragCoefficientSigma) {
+        this.dragCoefficientSigma = dragCoefficientSigma;
+    }
+
+    /**
+     * Get the standard deviation of the reflection coefficient.
+     * @return the standard deviation of the reflection coefficient (0.0 if not considered)
+     */
+    public double getReflectionCoefficientSigma() {
+        return reflectionCoefficientSigma;
+    }
+
+    /**
+     * Set the standard deviation of the reflection coefficient.
+     * @param reflectionCoefficientSigma standard deviation of the reflection coefficient (0.0 if not considered)
+     */
+    public void setReflectionCoefficientSigma(final double reflectionCoefficientSigma) {
+        this.reflectionCoefficientSigma = reflectionCoefficientSigma;
+    }
+
+}
@@ -0,0 +1,203 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.yaml;
+
+import java.util.List;
+
+/**
+ * Initial data to initialize a DSST vs. numerical crossover map.
+ * <p>
+ * The grid cells are defined by offsets applied to the semi-major axis,
+ * eccentricity and inclination of the initial orbit.
+ * </p>
+ * <p>
+ * Data are read from a YAML file.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class CrossoverMapConfiguration {
+
+    /** Offsets applied to the semi-major axis (m). */
+    private List<Double> semiMajorAxisOffsets;
+
+    /** Offsets applied to the eccentricity. */
+    private List<Double> eccentricityOffsets;
+
+    /** Offsets applied to the inclination (°). */
+    private List<Double> inclinationOffsets;
+
+    /** Propagation durations (days). */
+    private List<Double> durations;
+
+    /** Target position accuracies (m). */
+    private List<Double> targetAccuracies;
+
+    /** Integrator position errors tried for each propagator, from the loosest to the tightest (m). */
+    private List<Double> positionErrors;
+
+    /** Integrator position error of the reference numerical propagation (m). */
+    private double referencePositionError;
+
+    /** Parallelism of the fork-join pool. */
+    private int parallelism;
+
+    /** Output CSV file. */
+    private String outputFile;
+
+    /**
+     * Get the offsets applied to the semi-major axis.
+     * @return the offsets applied to the semi-major axis (m)
+     */
+    public List<Double> getSemiMajorAxisOffsets() {
+        return semiMajorAxisOffsets;
+    }
+
+    /**
+     * Set the offsets applied to the semi-major axis.
+     * @param semiMajorAxisOffsets offsets applied to the semi-major axis (m)
+     */
+    public void setSemiMajorAxisOffsets(final List<Double> semiMajorAxisOffsets) {
+        this.semiMajorAxisOffsets = semiMajorAxisOffsets;
+    }
+
+    /**
+     * Get the offsets applied to the eccentricity.
+     * @return the offsets applied to the eccentricity
+     */
+    public List<Double> getEccentricityOffsets() {
+        return eccentricityOffsets;
+    }
+
+    /**
+     * Set the offsets applied to the eccentricity.
+     * @param eccentricityOffsets offsets applied to the eccentricity
+     */
+    public void setEccentricityOffsets(final List<Double> eccentricityOffsets) {
+        this.eccentricityOffsets = eccentricityOffsets;
+    }
+
+    /**
+     * Get the offsets applied to the inclination.
+     * @return the offsets applied to the inclination (°)
+     */
+    public List<Double> getInclinationOffsets() {
+        return inclinationOffsets;
+    }
+
+    /**
+     * Set the offsets applied to the inclination.
+     * @param inclinationOffsets offsets applied to the inclination (°)
+     */
+    public void setInclinationOffsets(final List<Double> inclinationOffsets) {
+        this.inclinationOffsets = inclinationOffsets;
+    }
+
+    /**
+     * Get the propagation durations.
+     * @return the propagation durations (days)
+     */
+    public List<Double> getDurations() {
+        return durations;
+    }
+
+    /**
+     * Set the propagation durations.
+     * @param durations propagation durations (days)
+     */
+    public void setDurations(final List<Double> durations) {
+        this.durations = durations;
+    }
+
+    /**
+     * Get the target position accuracies.
+     * @return the target position accuracies (m)
+     */
+    public List<Double> getTargetAccuracies() {
+        return targetAccuracies;
+    }
+
+    /**
+     * Set the target position accuracies.
+     * @param targetAccuracies target position accuracies (m)
+     */
+    public void setTargetAccuracies(final List<Double> targetAccuracies) {
+        this.targetAccuracies = targetAccuracies;
+    }
+
+    /**
+     * Get the integrator position errors tried for each propagator.
+     * @return the integrator position errors, from the loosest to the tightest (m)
+     */
+    public List<Double> getPositionErrors() {
+        return positionErrors;
+    }
+
+    /**
+     * Set the integrator position errors tried for each propagator.
+     * @param positionErrors integrator position errors, from the loosest to the tightest (m)
+     */
+    public void setPositionErrors(final List<Double> positionErrors) {
+        this.positionErrors = positionErrors;
+    }
+
+    /**
+     * Get the integrator position error of the reference numerical propagation.
+     * @return the integrator position error of the reference propagation (m)
+     */
+    public double getReferencePositionError() {
+        return referencePositionError;
+    }
+
+    /**
+     * Set the integrator position error of the reference numerical propagation.
+     * @param referencePositionError integrator position error of the reference propagation (m)
+     */
+    public void setReferencePositionError(final double referencePositionError) {
+        this.referencePositionError = referencePositionError;
+    }
+
+    /**
+     * Get the parallelism of the fork-join pool.
+     * @return the parallelism of the fork-join pool
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Set the parallelism of the fork-join pool.
+     * @param parallelism parallelism of the fork-join pool
+     */
+    public void setParallelism(final int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Get the output CSV file.
+     * @return the output CSV file
+     */
+    public String getOutputFile() {
+        return outputFile;
+    }
+
+    /**
+     * Set the output CSV file.
+     * @param outputFile output CSV file
+     */
+    public void setOutputFile(final String outputFile) {
+        this.outputFile = outputFile;
+    }
+
+}
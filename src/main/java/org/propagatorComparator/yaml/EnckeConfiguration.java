@@ -0,0 +1,64 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.yaml;
+
+/**
+ * Initial data to initialize the Encke propagator.
+ * <p>
+ * Data are read from a YAML file.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class EnckeConfiguration {
+
+    /** Rectification threshold on the deviation to reference position norms ratio. */
+    private double rectificationThreshold;
+
+    /** Integrator shared by the Encke and Cowell propagators (null to use the numerical integrator). */
+    private IntegratorConfiguration integrator;
+
+    /**
+     * Get the rectification threshold.
+     * @return the rectification threshold on the deviation to reference position norms ratio
+     */
+    public double getRectificationThreshold() {
+        return rectificationThreshold;
+    }
+
+    /**
+     * Set the rectification threshold.
+     * @param rectificationThreshold rectification threshold on the deviation to reference position norms ratio
+     */
+    public void setRectificationThreshold(final double rectificationThreshold) {
+        this.rectificationThreshold = rectificationThreshold;
+    }
+
+    /**
+     * Get the integrator shared by the Encke and Cowell propagators.
+     * @return the integrator shared by the Encke and Cowell propagators (null to use the numerical integrator)
+     */
+    public IntegratorConfiguration getIntegrator() {
+        return integrator;
+    }
+
+    /**
+     * Set the integrator shared by the Encke and Cowell propagators.
+     * @param integrator integrator shared by the Encke and Cowell propagators (null to use the numerical integrator)
+     */
+    public void setIntegrator(final IntegratorConfiguration integrator) {
+        this.integrator = integrator;
+    }
+
+}
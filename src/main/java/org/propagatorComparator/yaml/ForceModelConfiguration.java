@@ -39,12 +39,18 @@ public class ForceModelConfiguration {
     /** Third body attraction. */
     private List<ThirdBodyConfiguration> thirdBody;
 
+    /** Flag to compare the DE and analytical third body ephemerides. */
+    private boolean compareThirdBodyEphemerides;
+
     /** Atmospheric drag. */
     private DragConfiguration drag;
 
     /** Solar radiation pressure. */
     private SolarRadiationPressureConfiguration solarRadiationPressure;
 
+    /** Concurrent evaluation of the numerical force models (null if serial). */
+    private ParallelForceModelsConfiguration parallelForceModels;
+
     /** Post-Newtonian correction force due to general relativity. */
     private RelativityConfiguration relativity;
 
@@ -86,6 +92,22 @@ public class ForceModelConfiguration {
         this.thirdBody = thirdBody;
     }
 
+    /**
+     * Get the flag to compare the DE and analytical third body ephemerides.
+     * @return true if the DE and analytical third body ephemerides are compared
+     */
+    public boolean isCompareThirdBodyEphemerides() {
+        return compareThirdBodyEphemerides;
+    }
+
+    /**
+     * Set the flag to compare the DE and analytical third body ephemerides.
+     * @param compareThirdBodyEphemerides true if the DE and analytical third body ephemerides are compared
+     */
+    public void setCompareThirdBodyEphemerides(final boolean compareThirdBodyEphemerides) {
+        this.compareThirdBodyEphemerides = compareThirdBodyEphemerides;
+    }
+
     /**
      * Get the drag force model.
      * @return the drag force model
@@ -118,6 +140,22 @@ public class ForceModelConfiguration {
         this.solarRadiationPressure = solarRadiationPressure;
     }
 
+    /**
+     * Get the configuration of the concurrent evaluation of the numerical force models.
+     * @return the configuration of the concurrent evaluation (null if serial)
+     */
+    public ParallelForceModelsConfiguration getParallelForceModels() {
+        return parallelForceModels;
+    }
+
+    /**
+     * Set the configuration of the concurrent evaluation of the numerical force models.
+     * @param parallelForceModels configuration of the concurrent evaluation (null if serial)
+     */
+    public void setParallelForceModels(final ParallelForceModelsConfiguration parallelForceModels) {
+        this.parallelForceModels = parallelForceModels;
+    }
+
     /**
      * Get the relativity force model.
      * @return the relativity force model
@@ -175,6 +213,18 @@ public class ForceModelConfiguration {
         /** Maximal order. */
         private int order;
 
+        /** Precomputed acceleration grid (null if the exact model is used). */
+        private GravityGridConfiguration grid;
+
+        /** Automatic degree and order selection (null if degree and order are used as is). */
+        private GravityAutoConfiguration auto;
+
+        /** Spherical harmonics engine of the numerical propagator ("HOLMES_FEATHERSTONE" or "FLAT"). */
+        private String engine;
+
+        /** Flag to benchmark the spherical harmonics engines. */
+        private boolean benchmarkEngines;
+
         /**
          * Get the maximal degree.
          * @return the maximal degree
@@ -207,6 +257,232 @@ public class ForceModelConfiguration {
             this.order = order;
         }
 
+        /**
+         * Get the precomputed acceleration grid configuration.
+         * @return the grid configuration (null if the exact model is used)
+         */
+        public GravityGridConfiguration getGrid() {
+            return grid;
+        }
+
+        /**
+         * Set the precomputed acceleration grid configuration.
+         * @param grid grid configuration
+         */
+        public void setGrid(final GravityGridConfiguration grid) {
+            this.grid = grid;
+        }
+
+        /**
+         * Get the automatic degree and order selection configuration.
+         * @return the automatic selection configuration (null if degree and order are used as is)
+         */
+        public GravityAutoConfiguration getAuto() {
+            return auto;
+        }
+
+        /**
+         * Set the automatic degree and order selection configuration.
+         * @param auto automatic selection configuration
+         */
+        public void setAuto(final GravityAutoConfiguration auto) {
+            this.auto = auto;
+        }
+
+        /**
+         * Get the spherical harmonics engine of the numerical propagator.
+         * @return the spherical harmonics engine (null for Holmes-Featherstone)
+         */
+        public String getEngine() {
+            return engine;
+        }
+
+        /**
+         * Set the spherical harmonics engine of the numerical propagator.
+         * @param engine spherical harmonics engine ("HOLMES_FEATHERSTONE" or "FLAT")
+         */
+        public void setEngine(final String engine) {
+            this.engine = engine;
+        }
+
+        /**
+         * Get the flag to benchmark the spherical harmonics engines.
+         * @return true if the spherical harmonics engines are benchmarked
+         */
+        public boolean isBenchmarkEngines() {
+            return benchmarkEngines;
+        }
+
+        /**
+         * Set the flag to benchmark the spherical harmonics engines.
+         * @param benchmarkEngines true to benchmark the spherical harmonics engines
+         */
+        public void setBenchmarkEngines(final boolean benchmarkEngines) {
+            this.benchmarkEngines = benchmarkEngines;
+        }
+
+    }
+
+    /** Automatic gravity field degree and order selection. */
+    public static class GravityAutoConfiguration {
+
+        /** Target position accuracy with respect to the reference field (m). */
+        private double targetAccuracy;
+
+        /** Duration of the selection runs (days). */
+        private double duration;
+
+        /**
+         * Get the target position accuracy with respect to the reference field.
+         * @return the target position accuracy (m)
+         */
+        public double getTargetAccuracy() {
+            return targetAccuracy;
+        }
+
+        /**
+         * Set the target position accuracy with respect to the reference field.
+         * @param targetAccuracy target position accuracy (m)
+         */
+        public void setTargetAccuracy(final double targetAccuracy) {
+            this.targetAccuracy = targetAccuracy;
+        }
+
+        /**
+         * Get the duration of the selection runs.
+         * @return the duration of the selection runs (days)
+         */
+        public double getDuration() {
+            return duration;
+        }
+
+        /**
+         * Set the duration of the selection runs.
+         * @param duration duration of the selection runs (days)
+         */
+        public void setDuration(final double duration) {
+            this.duration = duration;
+        }
+
+    }
+
+    /** Precomputed gravity acceleration grid. */
+    public static class GravityGridConfiguration {
+
+        /** Angular step between grid nodes (°). */
+        private double angularStep;
+
+        /** Radial step between grid nodes (m). */
+        private double radialStep;
+
+        /** Minimum altitude of the grid (m). */
+        private double minAltitude;
+
+        /** Maximum altitude of the grid (m). */
+        private double maxAltitude;
+
+        /** Directory of the grid cache files. */
+        private String cacheDirectory;
+
+        /** Flag to compare with the exact model. */
+        private boolean compareWithExact;
+
+        /**
+         * Get the angular step between grid nodes.
+         * @return the angular step (°)
+         */
+        public double getAngularStep() {
+            return angularStep;
+        }
+
+        /**
+         * Set the angular step between grid nodes.
+         * @param angularStep angular step (°)
+         */
+        public void setAngularStep(final double angularStep) {
+            this.angularStep = angularStep;
+        }
+
+        /**
+         * Get the radial step between grid nodes.
+         * @return the radial step (m)
+         */
+        public double getRadialStep() {
+            return radialStep;
+        }
+
+        /**
+         * Set the radial step between grid nodes.
+         * @param radialStep radial step (m)
+         */
+        public void setRadialStep(final double radialStep) {
+            this.radialStep = radialStep;
+        }
+
+        /**
+         * Get the minimum altitude of the grid.
+         * @return the minimum altitude (m)
+         */
+        public double getMinAltitude() {
+            return minAltitude;
+        }
+
+        /**
+         * Set the minimum altitude of the grid.
+         * @param minAltitude minimum altitude (m)
+         */
+        public void setMinAltitude(final double minAltitude) {
+            this.minAltitude = minAltitude;
+        }
+
+        /**
+         * Get the maximum altitude of the grid.
+         * @return the maximum altitude (m)
+         */
+        public double getMaxAltitude() {
+            return maxAltitude;
+        }
+
+        /**
+         * Set the maximum altitude of the grid.
+         * @param maxAltitude maximum altitude (m)
+         */
+        public void setMaxAltitude(final double maxAltitude) {
+            this.maxAltitude = maxAltitude;
+        }
+
+        /**
+         * Get the directory of the grid cache files.
+         * @return the directory of the grid cache files (null if the grid is not cached)
+         */
+        public String getCacheDirectory() {
+            return cacheDirectory;
+        }
+
+        /**
+         * Set the directory of the grid cache files.
+         * @param cacheDirectory directory of the grid cache files
+         */
+        public void setCacheDirectory(final String cacheDirectory) {
+            this.cacheDirectory = cacheDirectory;
+        }
+
+        /**
+         * Get the flag to compare with the exact model.
+         * @return true if the grid is compared with the exact model
+         */
+        public boolean isCompareWithExact() {
+            return compareWithExact;
+        }
+
+        /**
+         * Set the flag to compare with the exact model.
+         * @param compareWithExact true if the grid is compared with the exact model
+         */
+        public void setCompareWithExact(final boolean compareWithExact) {
+            this.compareWithExact = compareWithExact;
+        }
+
     }
 
     /** Third body attraction. */
@@ -218,6 +494,9 @@ public class ForceModelConfiguration {
         /** Flag for the computation of the body's solid tides. */
         private boolean withSolidTides;
 
+        /** Ephemeris source ("DE" or "ANALYTICAL", null means "DE"). */
+        private String ephemeris;
+
         /**
          * Get the name of the celestial body.
          * @return the name of the celestial body
@@ -250,6 +529,22 @@ public class ForceModelConfiguration {
             this.withSolidTides = withSolidTides;
         }
 
+        /**
+         * Get the ephemeris source.
+         * @return the ephemeris source ("DE" or "ANALYTICAL", null means "DE")
+         */
+        public String getEphemeris() {
+            return ephemeris;
+        }
+
+        /**
+         * Set the ephemeris source.
+         * @param ephemeris ephemeris source ("DE" or "ANALYTICAL")
+         */
+        public void setEphemeris(final String ephemeris) {
+            this.ephemeris = ephemeris;
+        }
+
     }
 
     /** Atmospheric drag. */
@@ -261,6 +556,12 @@ public class ForceModelConfiguration {
         /** Estimated drag coefficient. */
         private double cd;
 
+        /** Precomputed density grid (null if the atmosphere model is used directly). */
+        private AtmosphereGridConfiguration atmosphereGrid;
+
+        /** Directory of the binary cache of the parsed space weather data (null if not persisted). */
+        private String spaceWeatherCacheDirectory;
+
         /**
          * Get the cross section.
          * @return the cross section (m²)
@@ -293,6 +594,176 @@ public class ForceModelConfiguration {
             this.cd = cd;
         }
 
+        /**
+         * Get the precomputed density grid.
+         * @return the precomputed density grid (null if the atmosphere model is used directly)
+         */
+        public AtmosphereGridConfiguration getAtmosphereGrid() {
+            return atmosphereGrid;
+        }
+
+        /**
+         * Set the precomputed density grid.
+         * @param atmosphereGrid precomputed density grid
+         */
+        public void setAtmosphereGrid(final AtmosphereGridConfiguration atmosphereGrid) {
+            this.atmosphereGrid = atmosphereGrid;
+        }
+
+        /**
+         * Get the directory of the binary cache of the parsed space weather data.
+         * @return the directory of the space weather cache (null if not persisted)
+         */
+        public String getSpaceWeatherCacheDirectory() {
+            return spaceWeatherCacheDirectory;
+        }
+
+        /**
+         * Set the directory of the binary cache of the parsed space weather data.
+         * @param spaceWeatherCacheDirectory directory of the space weather cache
+         */
+        public void setSpaceWeatherCacheDirectory(final String spaceWeatherCacheDirectory) {
+            this.spaceWeatherCacheDirectory = spaceWeatherCacheDirectory;
+        }
+
+    }
+
+    /** Precomputed atmospheric density grid. */
+    public static class AtmosphereGridConfiguration {
+
+        /** Time step between grid nodes (s). */
+        private double timeStep;
+
+        /** Minimum altitude of the grid (m). */
+        private double minAltitude;
+
+        /** Maximum altitude of the grid (m). */
+        private double maxAltitude;
+
+        /** Number of altitude nodes. */
+        private int altitudePoints;
+
+        /** Number of latitude nodes. */
+        private int latitudePoints;
+
+        /** Number of local solar time nodes. */
+        private int localSolarTimePoints;
+
+        /** Directory of the memory-mapped cache files (null if not cached). */
+        private String cacheDirectory;
+
+        /**
+         * Get the time step between grid nodes.
+         * @return the time step between grid nodes (s)
+         */
+        public double getTimeStep() {
+            return timeStep;
+        }
+
+        /**
+         * Set the time step between grid nodes.
+         * @param timeStep time step between grid nodes (s)
+         */
+        public void setTimeStep(final double timeStep) {
+            this.timeStep = timeStep;
+        }
+
+        /**
+         * Get the minimum altitude of the grid.
+         * @return the minimum altitude of the grid (m)
+         */
+        public double getMinAltitude() {
+            return minAltitude;
+        }
+
+        /**
+         * Set the minimum altitude of the grid.
+         * @param minAltitude minimum altitude of the grid (m)
+         */
+        public void setMinAltitude(final double minAltitude) {
+            this.minAltitude = minAltitude;
+        }
+
+        /**
+         * Get the maximum altitude of the grid.
+         * @return the maximum altitude of the grid (m)
+         */
+        public double getMaxAltitude() {
+            return maxAltitude;
+        }
+
+        /**
+         * Set the maximum altitude of the grid.
+         * @param maxAltitude maximum altitude of the grid (m)
+         */
+        public void setMaxAltitude(final double maxAltitude) {
+            this.maxAltitude = maxAltitude;
+        }
+
+        /**
+         * Get the number of altitude nodes.
+         * @return the number of altitude nodes
+         */
+        public int getAltitudePoints() {
+            return altitudePoints;
+        }
+
+        /**
+         * Set the number of altitude nodes.
+         * @param altitudePoints number of altitude nodes
+         */
+        public void setAltitudePoints(final int altitudePoints) {
+            this.altitudePoints = altitudePoints;
+        }
+
+        /**
+         * Get the number of latitude nodes.
+         * @return the number of latitude nodes
+         */
+        public int getLatitudePoints() {
+            return latitudePoints;
+        }
+
+        /**
+         * Set the number of latitude nodes.
+         * @param latitudePoints number of latitude nodes
+         */
+        public void setLatitudePoints(final int latitudePoints) {
+            this.latitudePoints = latitudePoints;
+        }
+
+        /**
+         * Get the number of local solar time nodes.
+         * @return the number of local solar time nodes
+         */
+        public int getLocalSolarTimePoints() {
+            return localSolarTimePoints;
+        }
+
+        /**
+         * Set the number of local solar time nodes.
+         * @param localSolarTimePoints number of local solar time nodes
+         */
+        public void setLocalSolarTimePoints(final int localSolarTimePoints) {
+            this.localSolarTimePoints = localSolarTimePoints;
+        }
+
+        /**
+         * Get the directory of the memory-mapped cache files.
+         * @return the directory of the cache files (null if not cached)
+         */
+        public String getCacheDirectory() {
+            return cacheDirectory;
+        }
+
+        /**
+         * Set the directory of the memory-mapped cache files.
+         * @param cacheDirectory directory of the cache files
+         */
+        public void setCacheDirectory(final String cacheDirectory) {
+            this.cacheDirectory = cacheDirectory;
+        }
+
     }
 
     /** Solar radiation pressure. */
@@ -304,6 +775,12 @@ public class ForceModelConfiguration {
         /** Estimated reflection coefficient. */
         private double cr;
 
+        /** Occulting bodies (null for the central body only). */
+        private List<String> occultingBodies;
+
+        /** Shadow intervals configuration (null if exact eclipse computation is used). */
+        private ShadowIntervalsConfiguration shadowIntervals;
+
         /**
          * Get the cross section.
          * @return the cross section (m²)
@@ -336,6 +813,162 @@ public class ForceModelConfiguration {
             this.cr = cr;
         }
 
+        /**
+         * Get the occulting bodies.
+         * @return the occulting bodies
+         */
+        public List<String> getOccultingBodies() {
+            return occultingBodies;
+        }
+
+        /**
+         * Set the occulting bodies.
+         * @param occultingBodies occulting bodies
+         */
+        public void setOccultingBodies(final List<String> occultingBodies) {
+            this.occultingBodies = occultingBodies;
+        }
+
+        /**
+         * Get the shadow intervals configuration.
+         * @return the shadow intervals configuration (null if exact eclipse computation is used)
+         */
+        public ShadowIntervalsConfiguration getShadowIntervals() {
+            return shadowIntervals;
+        }
+
+        /**
+         * Set the shadow intervals configuration.
+         * @param shadowIntervals shadow intervals configuration
+         */
+        public void setShadowIntervals(final ShadowIntervalsConfiguration shadowIntervals) {
+            this.shadowIntervals = shadowIntervals;
+        }
+
+    }
+
+    /** Shadow intervals precomputed on a reference trajectory. */
+    public static class ShadowIntervalsConfiguration {
+
+        /** Margin applied around the predicted penumbra phases (s). */
+        private double margin;
+
+        /** Duration over which the predicted intervals are used (s). */
+        private double validity;
+
+        /** Flag to compare with an exact eclipse computation. */
+        private boolean compareWithExact;
+
+        /**
+         * Get the margin applied around the predicted penumbra phases.
+         * @return the margin (s)
+         */
+        public double getMargin() {
+            return margin;
+        }
+
+        /**
+         * Set the margin applied around the predicted penumbra phases.
+         * @param margin margin (s)
+         */
+        public void setMargin(final double margin) {
+            this.margin = margin;
+        }
+
+        /**
+         * Get the duration over which the predicted intervals are used.
+         * @return the duration over which the predicted intervals are used (s)
+         */
+        public double getValidity() {
+            return validity;
+        }
+
+        /**
+         * Set the duration over which the predicted intervals are used.
+         * @param validity duration over which the predicted intervals are used (s)
+         */
+        public void setValidity(final double validity) {
+            this.validity = validity;
+        }
+
+        /**
+         * Get the flag to compare with an exact eclipse computation.
+         * @return true if the results are compared with an exact eclipse computation
+         */
+        public boolean isCompareWithExact() {
+            return compareWithExact;
+        }
+
+        /**
+         * Set the flag to compare with an exact eclipse computation.
+         * @param compareWithExact true if the results are compared with an exact eclipse computation
+         */
+        public void setCompareWithExact(final boolean compareWithExact) {
+            this.compareWithExact = compareWithExact;
+        }
+
+    }
+
+    /** Concurrent evaluation of the numerical force models. */
+    public static class ParallelForceModelsConfiguration {
+
+        /** Number of threads (including the propagation thread). */
+        private int threads;
+
+        /** Minimum combined cost of the force models to evaluate them concurrently (µs). */
+        private double threshold;
+
+        /** Flag to benchmark serial and concurrent evaluations. */
+        private boolean benchmark;
+
+        /**
+         * Get the number of threads.
+         * @return the number of threads (including the propagation thread)
+         */
+        public int getThreads() {
+            return threads;
+        }
+
+        /**
+         * Set the number of threads.
+         * @param threads number of threads (including the propagation thread)
+         */
+        public void setThreads(final int threads) {
+            this.threads = threads;
+        }
+
+        /**
+         * Get the minimum combined cost of the force models to evaluate them concurrently.
+         * @return the threshold (µs)
+         */
+        public double getThreshold() {
+            return threshold;
+        }
+
+        /**
+         * Set the minimum combined cost of the force models to evaluate them concurrently.
+         * @param threshold threshold (µs)
+         */
+        public void setThreshold(final double threshold) {
+            this.threshold = threshold;
+        }
+
+        /**
+         * Get the flag to benchmark serial and concurrent evaluations.
+         * @return true if serial and concurrent evaluations are benchmarked
+         */
+        public boolean isBenchmark() {
+            return benchmark;
+        }
+
+        /**
+         * Set the flag to benchmark serial and concurrent evaluations.
+         * @param benchmark true if serial and concurrent evaluations are benchmarked
+         */
+        public void setBenchmark(final boolean benchmark) {
+            this.benchmark = benchmark;
+        }
+
     }
 
     /** Post-Newtonian correction force due to general relativity. */
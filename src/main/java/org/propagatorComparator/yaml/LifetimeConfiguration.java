@@ -0,0 +1,104 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.yaml;
+
+import java.util.List;
+
+/**
+ * Initial data to initialize an orbit lifetime study.
+ * <p>
+ * Data are read from a YAML file.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class LifetimeConfiguration {
+
+    /** Reentry altitude (m). */
+    private double altitude;
+
+    /** Maximum propagation duration (days). */
+    private double maxDuration;
+
+    /** Solar flux scale factors of the scenarios. */
+    private List<Double> fluxScales;
+
+    /** Number of scenarios propagated concurrently. */
+    private int threads;
+
+    /**
+     * Get the reentry altitude.
+     * @return the reentry altitude (m)
+     */
+    public double getAltitude() {
+        return altitude;
+    }
+
+    /**
+     * Set the reentry altitude.
+     * @param altitude reentry altitude (m)
+     */
+    public void setAltitude(final double altitude) {
+        this.altitude = altitude;
+    }
+
+    /**
+     * Get the maximum propagation duration.
+     * @return the maximum propagation duration (days)
+     */
+    public double getMaxDuration() {
+        return maxDuration;
+    }
+
+    /**
+     * Set the maximum propagation duration.
+     * @param maxDuration maximum propagation duration (days)
+     */
+    public void setMaxDuration(final double maxDuration) {
+        this.maxDuration = maxDuration;
+    }
+
+    /**
+     * Get the solar flux scale factors of the scenarios.
+     * @return the solar flux scale factors of the scenarios
+     */
+    public List<Double> getFluxScales() {
+        return fluxScales;
+    }
+
+    /**
+     * Set the solar flux scale factors of the scenarios.
+     * @param fluxScales solar flux scale factors of the scenarios
+     */
+    public void setFluxScales(final List<Double> fluxScales) {
+        this.fluxScales = fluxScales;
+    }
+
+    /**
+     * Get the number of scenarios propagated concurrently.
+     * @return the number of scenarios propagated concurrently
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Set the number of scenarios propagated concurrently.
+     * @param threads number of scenarios propagated concurrently
+     */
+    public void setThreads(final int threads) {
+        this.threads = threads;
+    }
+
+}
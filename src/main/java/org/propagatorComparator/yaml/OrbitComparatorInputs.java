@@ -39,6 +39,57 @@ public class OrbitComparatorInputs {
     /** Propagation duration (days). */
     private double propagationDuration;
 
+    /** Scaling study (null if not performed). */
+    private ScalingStudyConfiguration scalingStudy;
+
+    /** DSST vs. numerical crossover map (null if not computed). */
+    private CrossoverMapConfiguration crossoverMap;
+
+    /** Covariance propagation (null if not computed). */
+    private CovarianceConfiguration covariance;
+
+    /** Sensitivity computation (null if not computed). */
+    private SensitivityConfiguration sensitivity;
+
+    /** Orbit determination benchmark (null if not computed). */
+    private OrbitDeterminationConfiguration orbitDetermination;
+
+    /** Flag indicating if the batches of propagations reuse pooled propagators. */
+    private boolean poolPropagators;
+
+    /** TLE catalog comparison (null if not performed). */
+    private CatalogConfiguration catalog;
+
+    /** Batch secular propagation (null if not performed). */
+    private BatchPropagationConfiguration batchPropagation;
+
+    /** Parareal propagation (null if not performed). */
+    private PararealConfiguration parareal;
+
+    /** Chebyshev-Picard propagator (null if not used). */
+    private PicardConfiguration picard;
+
+    /** Encke propagator (null if not used). */
+    private EnckeConfiguration encke;
+
+    /** Regularized (Kustaanheimo-Stiefel) propagator (null if not used). */
+    private RegularizedConfiguration regularized;
+
+    /** Orbit lifetime study (null if not performed). */
+    private LifetimeConfiguration lifetime;
+
+    /** Comparison with a precise ephemeris (null if not performed). */
+    private TruthConfiguration truth;
+
+    /** High-fidelity reference trajectory (null if not used). */
+    private ReferenceConfiguration reference;
+
+    /** Indexed ephemeris benchmark (null if not performed). */
+    private EphemerisConfiguration ephemeris;
+
+    /** Bounded-memory ephemeris generation (null if not performed). */
+    private BoundedEphemerisConfiguration boundedEphemeris;
+
     /**
      * Get the propagation duration in days.
      * @return the propagation duration in days
@@ -135,5 +186,277 @@ public class OrbitComparatorInputs {
         this.forceModels = forceModels;
     }
 
+    /**
+     * Get the scaling study configuration.
+     * @return the scaling study configuration (null if not performed)
+     */
+    public ScalingStudyConfiguration getScalingStudy() {
+        return scalingStudy;
+    }
+
+    /**
+     * Set the scaling study configuration.
+     * @param scalingStudy the scaling study configuration to set
+     */
+    public void setScalingStudy(ScalingStudyConfiguration scalingStudy) {
+        this.scalingStudy = scalingStudy;
+    }
+
+    /**
+     * Get the crossover map configuration.
+     * @return the crossover map configuration (null if not computed)
+     */
+    public CrossoverMapConfiguration getCrossoverMap() {
+        return crossoverMap;
+    }
+
+    /**
+     * Set the crossover map configuration.
+     * @param crossoverMap the crossover map configuration to set
+     */
+    public void setCrossoverMap(CrossoverMapConfiguration crossoverMap) {
+        this.crossoverMap = crossoverMap;
+    }
+
+    /**
+     * Get the covariance propagation configuration.
+     * @return the covariance propagation configuration (null if not computed)
+     */
+    public CovarianceConfiguration getCovariance() {
+        return covariance;
+    }
+
+    /**
+     * Set the covariance propagation configuration.
+     * @param covariance the covariance propagation configuration to set
+     */
+    public void setCovariance(CovarianceConfiguration covariance) {
+        this.covariance = covariance;
+    }
+
+    /**
+     * Get the sensitivity computation configuration.
+     * @return the sensitivity computation configuration (null if not computed)
+     */
+    public SensitivityConfiguration getSensitivity() {
+        return sensitivity;
+    }
+
+    /**
+     * Set the sensitivity computation configuration.
+     * @param sensitivity the sensitivity computation configuration to set
+     */
+    public void setSensitivity(SensitivityConfiguration sensitivity) {
+        this.sensitivity = sensitivity;
+    }
+
+    /**
+     * Get the orbit determination benchmark configuration.
+     * @return the orbit determination benchmark configuration (null if not computed)
+     */
+    public OrbitDeterminationConfiguration getOrbitDetermination() {
+        return orbitDetermination;
+    }
+
+    /**
+     * Set the orbit determination benchmark configuration.
+     * @param orbitDetermination the orbit determination benchmark configuration to set
+     */
+    public void setOrbitDetermination(OrbitDeterminationConfiguration orbitDetermination) {
+        this.orbitDetermination = orbitDetermination;
+    }
+
+    /**
+     * Get the flag indicating if the batches of propagations reuse pooled propagators.
+     * @return true if the batches of propagations reuse pooled propagators
+     */
+    public boolean isPoolPropagators() {
+        return poolPropagators;
+    }
+
+    /**
+     * Set the flag indicating if the batches of propagations reuse pooled propagators.
+     * @param poolPropagators true if the batches of propagations reuse pooled propagators
+     */
+    public void setPoolPropagators(boolean poolPropagators) {
+        this.poolPropagators = poolPropagators;
+    }
+
+    /**
+     * Get the TLE catalog comparison configuration.
+     * @return the TLE catalog comparison configuration (null if not performed)
+     */
+    public CatalogConfiguration getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Set the TLE catalog comparison configuration.
+     * @param catalog the TLE catalog comparison configuration to set
+     */
+    public void setCatalog(CatalogConfiguration catalog) {
+        this.catalog = catalog;
+    }
+
+    /**
+     * Get the batch secular propagation configuration.
+     * @return the batch secular propagation configuration (null if not performed)
+     */
+    public BatchPropagationConfiguration getBatchPropagation() {
+        return batchPropagation;
+    }
+
+    /**
+     * Set the batch secular propagation configuration.
+     * @param batchPropagation the batch secular propagation configuration to set
+     */
+    public void setBatchPropagation(BatchPropagationConfiguration batchPropagation) {
+        this.batchPropagation = batchPropagation;
+    }
+
+    /**
+     * Get the Parareal propagation configuration.
+     * @return the Parareal propagation configuration (null if not performed)
+     */
+    public PararealConfiguration getParareal() {
+        return parareal;
+    }
+
+    /**
+     * Set the Parareal propagation configuration.
+     * @param parareal the Parareal propagation configuration to set
+     */
+    public void setParareal(PararealConfiguration parareal) {
+        this.parareal = parareal;
+    }
+
+    /**
+     * Get the Chebyshev-Picard propagator configuration.
+     * @return the Chebyshev-Picard propagator configuration (null if not used)
+     */
+    public PicardConfiguration getPicard() {
+        return picard;
+    }
+
+    /**
+     * Set the Chebyshev-Picard propagator configuration.
+     * @param picard the Chebyshev-Picard propagator configuration to set
+     */
+    public void setPicard(PicardConfiguration picard) {
+        this.picard = picard;
+    }
+
+    /**
+     * Get the Encke propagator configuration.
+     * @return the Encke propagator configuration (null if not used)
+     */
+    public EnckeConfiguration getEncke() {
+        return encke;
+    }
+
+    /**
+     * Set the Encke propagator configuration.
+     * @param encke the Encke propagator configuration to set
+     */
+    public void setEncke(EnckeConfiguration encke) {
+        this.encke = encke;
+    }
+
+    /**
+     * Get the regularized propagator configuration.
+     * @return the regularized propagator configuration (null if not used)
+     */
+    public RegularizedConfiguration getRegularized() {
+        return regularized;
+    }
+
+    /**
+     * Set the regularized propagator configuration.
+     * @param regularized the regularized propagator configuration to set
+     */
+    public void setRegularized(RegularizedConfiguration regularized) {
+        this.regularized = regularized;
+    }
+
+    /**
+     * Get the orbit lifetime study configuration.
+     * @return the orbit lifetime study configuration (null if not performed)
+     */
+    public LifetimeConfiguration getLifetime() {
+        return lifetime;
+    }
+
+    /**
+     * Set the orbit lifetime study configuration.
+     * @param lifetime the orbit lifetime study configuration to set
+     */
+    public void setLifetime(LifetimeConfiguration lifetime) {
+        this.lifetime = lifetime;
+    }
+
+    /**
+     * Get the precise ephemeris comparison configuration.
+     * @return the precise ephemeris comparison configuration (null if not performed)
+     */
+    public TruthConfiguration getTruth() {
+        return truth;
+    }
+
+    /**
+     * Set the precise ephemeris comparison configuration.
+     * @param truth the precise ephemeris comparison configuration to set
+     */
+    public void setTruth(TruthConfiguration truth) {
+        this.truth = truth;
+    }
+
+    /**
+     * Get the high-fidelity reference trajectory configuration.
+     * @return the high-fidelity reference trajectory configuration (null if not used)
+     */
+    public ReferenceConfiguration getReference() {
+        return reference;
+    }
+
+    /**
+     * Set the high-fidelity reference trajectory configuration.
+     * @param reference the high-fidelity reference trajectory configuration to set
+     */
+    public void setReference(ReferenceConfiguration reference) {
+        this.reference = reference;
+    }
+
+    /**
+     * Get the indexed ephemeris benchmark configuration.
+     * @return the indexed ephemeris benchmark configuration (null if not performed)
+     */
+    public EphemerisConfiguration getEphemeris() {
+        return ephemeris;
+    }
+
+    /**
+     * Set the indexed ephemeris benchmark configuration.
+     * @param ephemeris the indexed ephemeris benchmark configuration to set
+     */
+    public void setEphemeris(EphemerisConfiguration ephemeris) {
+        this.ephemeris = ephemeris;
+    }
+
+    /**
+     * Get the bounded-memory ephemeris generation configuration.
+     * @return the bounded-memory ephemeris generation configuration (null if not performed)
+     */
+    public BoundedEphemerisConfiguration getBoundedEphemeris() {
+        return boundedEphemeris;
+    }
+
+    /**
+     * Set the bounded-memory ephemeris generation configuration.
+     * @param boundedEphemeris the bounded-memory ephemeris generation configuration to set
+     */
+    public void setBoundedEphemeris(BoundedEphemerisConfiguration boundedEphemeris) {
+        this.boundedEphemeris = boundedEphemeris;
+    }
+
     
 }
@@ -0,0 +1,259 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.yaml;
+
+/**
+ * Initial data to initialize the orbit determination benchmark.
+ * <p>
+ * PV measurements are simulated from a reference numerical propagation and
+ * fitted by a batch least squares estimator. Values equal to zero are
+ * replaced by default values.
+ * </p>
+ * <p>
+ * Data are read from a YAML file.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class OrbitDeterminationConfiguration {
+
+    /** Duration of the measurement arc (days). */
+    private double arcDuration;
+
+    /** Time step between two measurements (s). */
+    private double measurementStep;
+
+    /** Standard deviation of the measured position (m). */
+    private double positionSigma;
+
+    /** Standard deviation of the measured velocity (m/s). */
+    private double velocitySigma;
+
+    /** Flag for the Gaussian noise added to the measurements. */
+    private boolean noise;
+
+    /** Radial offset applied to the position of the initial guess (m). */
+    private double initialPositionOffset;
+
+    /** Along-track offset applied to the velocity of the initial guess (m/s). */
+    private double initialVelocityOffset;
+
+    /** Integrator position error of the reference numerical propagation (m). */
+    private double referencePositionError;
+
+    /** Scaling factor of the orbital parameters (m). */
+    private double positionScale;
+
+    /** Convergence threshold on the normalized parameters. */
+    private double convergenceThreshold;
+
+    /** Maximum number of iterations. */
+    private int maxIterations;
+
+    /** Maximum number of evaluations. */
+    private int maxEvaluations;
+
+    /**
+     * Get the duration of the measurement arc.
+     * @return the duration of the measurement arc (days)
+     */
+    public double getArcDuration() {
+        return arcDuration;
+    }
+
+    /**
+     * Set the duration of the measurement arc.
+     * @param arcDuration duration of the measurement arc (days)
+     */
+    public void setArcDuration(final double arcDuration) {
+        this.arcDuration = arcDuration;
+    }
+
+    /**
+     * Get the time step between two measurements.
+     * @return the time step between two measurements (s)
+     */
+    public double getMeasurementStep() {
+        return measurementStep;
+    }
+
+    /**
+     * Set the time step between two measurements.
+     * @param measurementStep time step between two measurements (s)
+     */
+    public void setMeasurementStep(final double measurementStep) {
+        this.measurementStep = measurementStep;
+    }
+
+    /**
+     * Get the standard deviation of the measured position.
+     * @return the standard deviation of the measured position (m)
+     */
+    public double getPositionSigma() {
+        return positionSigma;
+    }
+
+    /**
+     * Set the standard deviation of the measured position.
+     * @param positionSigma standard deviation of the measured position (m)
+     */
+    public void setPositionSigma(final double positionSigma) {
+        this.positionSigma = positionSigma;
+    }
+
+    /**
+     * Get the standard deviation of the measured velocity.
+     * @return the standard deviation of the measured velocity (m/s)
+     */
+    public double getVelocitySigma() {
+        return velocitySigma;
+    }
+
+    /**
+     * Set the standard deviation of the measured velocity.
+     * @param velocitySigma standard deviation of the measured velocity (m/s)
+     */
+    public void setVelocitySigma(final double velocitySigma) {
+        this.velocitySigma = velocitySigma;
+    }
+
+    /**
+     * Get the flag for the Gaussian noise added to the measurements.
+     * @return the flag for the Gaussian noise added to the measurements
+     */
+    public boolean isNoise() {
+        return noise;
+    }
+
+    /**
+     * Set the flag for the Gaussian noise added to the measurements.
+     * @param noise flag for the Gaussian noise added to the measurements
+     */
+    public void setNoise(final boolean noise) {
+        this.noise = noise;
+    }
+
+    /**
+     * Get the radial offset applied to the position of the initial guess.
+     * @return the radial offset applied to the position of the initial guess (m)
+     */
+    public double getInitialPositionOffset() {
+        return initialPositionOffset;
+    }
+
+    /**
+     * Set the radial offset applied to the position of the initial guess.
+     * @param initialPositionOffset radial offset applied to the position of the initial guess (m)
+     */
+    public void setInitialPositionOffset(final double initialPositionOffset) {
+        this.initialPositionOffset = initialPositionOffset;
+    }
+
+    /**
+     * Get the along-track offset applied to the velocity of the initial guess.
+     * @return the along-track offset applied to the velocity of the initial guess (m/s)
+     */
+    public double getInitialVelocityOffset() {
+        return initialVelocityOffset;
+    }
+
+    /**
+     * Set the along-track offset applied to the velocity of the initial guess.
+     * @param initialVelocityOffset along-track offset applied to the velocity of the initial guess (m/s)
+     */
+    public void setInitialVelocityOffset(final double initialVelocityOffset) {
+        this.initialVelocityOffset = initialVelocityOffset;
+    }
+
+    /**
+     * Get the integrator position error of the reference numerical propagation.
+     * @return the integrator position error of the reference propagation (m)
+     */
+    public double getReferencePositionError() {
+        return referencePositionError;
+    }
+
+    /**
+     * Set the integrator position error of the reference numerical propagation.
+     * @param referencePositionError integrator position error of the reference propagation (m)
+     */
+    public void setReferencePositionError(final double referencePositionError) {
+        this.referencePositionError = referencePositionError;
+    }
+
+    /**
+     * Get the scaling factor of the orbital parameters.
+     * @return the scaling factor of the orbital parameters (m)
+     */
+    public double getPositionScale() {
+        return positionScale;
+    }
+
+    /**
+     * Set the scaling factor of the orbital parameters.
+     * @param positionScale scaling factor of the orbital parameters (m)
+     */
+    public void setPositionScale(final double positionScale) {
+        this.positionScale = positionScale;
+    }
+
+    /**
+     * Get the convergence threshold on the normalized parameters.
+     * @return the convergence threshold on the normalized parameters
+     */
+    public double getConvergenceThreshold() {
+        return convergenceThreshold;
+    }
+
+    /**
+     * Set the convergence threshold on the normalized parameters.
+     * @param convergenceThreshold convergence threshold on the normalized parameters
+     */
+    public void setConvergenceThreshold(final double convergenceThreshold) {
+        this.convergenceThreshold = convergenceThreshold;
+    }
+
+    /**
+     * Get the maximum number of iterations.
+     * @return the maximum number of iterations
+     */
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    /**
+     * Set the maximum number of iterations.
+     * @param maxIterations maximum number of iterations
+     */
+    public void setMaxIterations(final int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Get the maximum number of evaluations.
+     * @return the maximum number of evaluations
+     */
+    public int getMaxEvaluations() {
+        return maxEvaluations;
+    }
+
+    /**
+     * Set the maximum number of evaluations.
+     * @param maxEvaluations maximum number of evaluations
+     */
+    public void setMaxEvaluations(final int maxEvaluations) {
+        this.maxEvaluations = maxEvaluations;
+    }
+
+}
@@ -0,0 +1,106 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.yaml;
+
+/**
+ * Initial data to initialize a Parareal propagation.
+ * <p>
+ * The DSST propagator is the coarse solver and the numerical propagator
+ * is the fine solver.
+ * </p>
+ * <p>
+ * Data are read from a YAML file.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class PararealConfiguration {
+
+    /** Number of time slices. */
+    private int slices;
+
+    /** Number of slices propagated concurrently by the fine solver. */
+    private int threads;
+
+    /** Position tolerance on the slice boundaries between two iterations (m). */
+    private double tolerance;
+
+    /** Maximum number of iterations. */
+    private int maxIterations;
+
+    /**
+     * Get the number of time slices.
+     * @return the number of time slices
+     */
+    public int getSlices() {
+        return slices;
+    }
+
+    /**
+     * Set the number of time slices.
+     * @param slices number of time slices
+     */
+    public void setSlices(final int slices) {
+        this.slices = slices;
+    }
+
+    /**
+     * Get the number of slices propagated concurrently by the fine solver.
+     * @return the number of slices propagated concurrently by the fine solver
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Set the number of slices propagated concurrently by the fine solver.
+     * @param threads number of slices propagated concurrently by the fine solver
+     */
+    public void setThreads(final int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Get the position tolerance on the slice boundaries between two iterations.
+     * @return the position tolerance on the slice boundaries between two iterations (m)
+     */
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * Set the position tolerance on the slice boundaries between two iterations.
+     * @param tolerance position tolerance on the slice boundaries between two iterations (m)
+     */
+    public void setTolerance(final double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Get the maximum number of iterations.
+     * @return the maximum number of iterations
+     */
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    /**
+     * Set the maximum number of iterations.
+     * @param maxIterations maximum number of iterations
+     */
+    public void setMaxIterations(final int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+}
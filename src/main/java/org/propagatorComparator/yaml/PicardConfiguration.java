@@ -0,0 +1,121 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.yaml;
+
+/**
+ * Initial data to initialize the modified Chebyshev-Picard iteration propagator.
+ * <p>
+ * Data are read from a YAML file.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class PicardConfiguration {
+
+    /** Segment duration (s). */
+    private double segmentDuration;
+
+    /** Polynomial order. */
+    private int order;
+
+    /** Position tolerance of the Picard iterations (m). */
+    private double tolerance;
+
+    /** Maximum number of Picard iterations per segment. */
+    private int maxIterations;
+
+    /** Number of threads evaluating the nodes. */
+    private int threads;
+
+    /**
+     * Get the segment duration.
+     * @return the segment duration (s)
+     */
+    public double getSegmentDuration() {
+        return segmentDuration;
+    }
+
+    /**
+     * Set the segment duration.
+     * @param segmentDuration segment duration (s)
+     */
+    public void setSegmentDuration(final double segmentDuration) {
+        this.segmentDuration = segmentDuration;
+    }
+
+    /**
+     * Get the polynomial order.
+     * @return the polynomial order
+     */
+    public int getOrder() {
+        return order;
+    }
+
+    /**
+     * Set the polynomial order.
+     * @param order polynomial order
+     */
+    public void setOrder(final int order) {
+        this.order = order;
+    }
+
+    /**
+     * Get the position tolerance of the Picard iterations.
+     * @return the position tolerance of the Picard iterations (m)
+     */
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * Set the position tolerance of the Picard iterations.
+     * @param tolerance position tolerance of the Picard iterations (m)
+     */
+    public void setTolerance(final double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Get the maximum number of Picard iterations per segment.
+     * @return the maximum number of Picard iterations per segment
+     */
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    /**
+     * Set the maximum number of Picard iterations per segment.
+     * @param maxIterations maximum number of Picard iterations per segment
+     */
+    public void setMaxIterations(final int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Get the number of threads evaluating the nodes.
+     * @return the number of threads evaluating the nodes
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Set the number of threads evaluating the nodes.
+     * @param threads number of threads evaluating the nodes
+     */
+    public void setThreads(final int threads) {
+        this.threads = threads;
+    }
+
+}
@@ -0,0 +1,102 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.yaml;
+
+/**
+ * Initial data to initialize the high-fidelity reference trajectory.
+ * <p>
+ * Data are read from a YAML file.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class ReferenceConfiguration {
+
+    /** Directory of the reference trajectory files. */
+    private String directory;
+
+    /** Position error of the reference integrator (m). */
+    private double positionError;
+
+    /** Maximum duration of the Chebyshev segments (s). */
+    private double segmentDuration;
+
+    /** Degree of the Chebyshev series. */
+    private int degree;
+
+    /**
+     * Get the directory of the reference trajectory files.
+     * @return the directory of the reference trajectory files
+     */
+    public String getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Set the directory of the reference trajectory files.
+     * @param directory directory of the reference trajectory files
+     */
+    public void setDirectory(final String directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Get the position error of the reference integrator.
+     * @return the position error of the reference integrator (m)
+     */
+    public double getPositionError() {
+        return positionError;
+    }
+
+    /**
+     * Set the position error of the reference integrator.
+     * @param positionError position error of the reference integrator (m)
+     */
+    public void setPositionError(final double positionError) {
+        this.positionError = positionError;
+    }
+
+    /**
+     * Get the maximum duration of the Chebyshev segments.
+     * @return the maximum duration of the Chebyshev segments (s)
+     */
+    public double getSegmentDuration() {
+        return segmentDuration;
+    }
+
+    /**
+     * Set the maximum duration of the Chebyshev segments.
+     * @param segmentDuration maximum duration of the Chebyshev segments (s)
+     */
+    public void setSegmentDuration(final double segmentDuration) {
+        this.segmentDuration = segmentDuration;
+    }
+
+    /**
+     * Get the degree of the Chebyshev series.
+     * @return the degree of the Chebyshev series
+     */
+    public int getDegree() {
+        return degree;
+    }
+
+    /**
+     * Set the degree of the Chebyshev series.
+     * @param degree degree of the Chebyshev series
+     */
+    public void setDegree(final int degree) {
+        this.degree = degree;
+    }
+
+}
@@ -0,0 +1,146 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.yaml;
+
+import java.util.List;
+
+/**
+ * Initial data to initialize a scaling study.
+ * <p>
+ * Each axis is swept independently, the other parameters keeping the
+ * values of the configured scenario.
+ * </p>
+ * <p>
+ * Data are read from a YAML file.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class ScalingStudyConfiguration {
+
+    /** Propagation durations (days). */
+    private List<Double> durations;
+
+    /** Gravity field degrees. */
+    private List<Integer> degrees;
+
+    /** Gravity field orders, one for each degree (null if the order is equal to the degree). */
+    private List<Integer> orders;
+
+    /** Semi-major axes (m). */
+    private List<Double> semiMajorAxes;
+
+    /** Number of runs executed concurrently. */
+    private int threads;
+
+    /** Output CSV file. */
+    private String outputFile;
+
+    /**
+     * Get the propagation durations.
+     * @return the propagation durations (days)
+     */
+    public List<Double> getDurations() {
+        return durations;
+    }
+
+    /**
+     * Set the propagation durations.
+     * @param durations propagation durations (days)
+     */
+    public void setDurations(final List<Double> durations) {
+        this.durations = durations;
+    }
+
+    /**
+     * Get the gravity field degrees.
+     * @return the gravity field degrees
+     */
+    public List<Integer> getDegrees() {
+        return degrees;
+    }
+
+    /**
+     * Set the gravity field degrees.
+     * @param degrees gravity field degrees
+     */
+    public void setDegrees(final List<Integer> degrees) {
+        this.degrees = degrees;
+    }
+
+    /**
+     * Get the gravity field orders.
+     * @return the gravity field orders, one for each degree (null if the order is equal to the degree)
+     */
+    public List<Integer> getOrders() {
+        return orders;
+    }
+
+    /**
+     * Set the gravity field orders.
+     * @param orders gravity field orders, one for each degree
+     */
+    public void setOrders(final List<Integer> orders) {
+        this.orders = orders;
+    }
+
+    /**
+     * Get the semi-major axes.
+     * @return the semi-major axes (m)
+     */
+    public List<Double> getSemiMajorAxes() {
+        return semiMajorAxes;
+    }
+
+    /**
+     * Set the semi-major axes.
+     * @param semiMajorAxes semi-major axes (m)
+     */
+    public void setSemiMajorAxes(final List<Double> semiMajorAxes) {
+        this.semiMajorAxes = semiMajorAxes;
+    }
+
+    /**
+     * Get the number of runs executed concurrently.
+     * @return the number of runs executed concurrently
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Set the number of runs executed concurrently.
+     * @param threads number of runs executed concurrently
+     */
+    public void setThreads(final int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Get the output CSV file.
+     * @return the output CSV file
+     */
+    public String getOutputFile() {
+        return outputFile;
+    }
+
+    /**
+     * Set the output CSV file.
+     * @param outputFile output CSV file
+     */
+    public void setOutputFile(final String outputFile) {
+        this.outputFile = outputFile;
+    }
+
+}
@@ -0,0 +1,222 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.yaml;
+
+/**
+ * Initial data to initialize the sensitivity computation.
+ * <p>
+ * Sensitivities of the final Cartesian state are computed with respect to
+ * the initial Cartesian state and, optionally, to the drag and reflection
+ * coefficients. Finite difference steps equal to zero are replaced by
+ * default values.
+ * </p>
+ * <p>
+ * Data are read from a YAML file.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class SensitivityConfiguration {
+
+    /** Flag for the sensitivity with respect to the drag coefficient. */
+    private boolean dragCoefficient;
+
+    /** Flag for the sensitivity with respect to the reflection coefficient. */
+    private boolean reflectionCoefficient;
+
+    /** Finite difference step on the position (m). */
+    private double positionStep;
+
+    /** Finite difference step on the velocity (m/s). */
+    private double velocityStep;
+
+    /** Relative finite difference step on the parameters (absolute for parameters below 1). */
+    private double parameterStep;
+
+    /** Standard deviation of the initial position (m, 0.0 if not dispersed). */
+    private double positionSigma;
+
+    /** Standard deviation of the initial velocity (m/s, 0.0 if not dispersed). */
+    private double velocitySigma;
+
+    /** Standard deviation of the drag coefficient (0.0 if not dispersed). */
+    private double dragCoefficientSigma;
+
+    /** Standard deviation of the reflection coefficient (0.0 if not dispersed). */
+    private double reflectionCoefficientSigma;
+
+    /** Number of Monte Carlo samples checking the linearized dispersion (0 if not checked). */
+    private int monteCarloSamples;
+
+    /**
+     * Get the flag for the sensitivity with respect to the drag coefficient.
+     * @return the flag for the sensitivity with respect to the drag coefficient
+     */
+    public boolean isDragCoefficient() {
+        return dragCoefficient;
+    }
+
+    /**
+     * Set the flag for the sensitivity with respect to the drag coefficient.
+     * @param dragCoefficient flag for the sensitivity with respect to the drag coefficient
+     */
+    public void setDragCoefficient(final boolean dragCoefficient) {
+        this.dragCoefficient = dragCoefficient;
+    }
+
+    /**
+     * Get the flag for the sensitivity with respect to the reflection coefficient.
+     * @return the flag for the sensitivity with respect to the reflection coefficient
+     */
+    public boolean isReflectionCoefficient() {
+        return reflectionCoefficient;
+    }
+
+    /**
+     * Set the flag for the sensitivity with respect to the reflection coefficient.
+     * @param reflectionCoefficient flag for the sensitivity with respect to the reflection coefficient
+     */
+    public void setReflectionCoefficient(final boolean reflectionCoefficient) {
+        this.reflectionCoefficient = reflectionCoefficient;
+    }
+
+    /**
+     * Get the finite difference step on the position.
+     * @return the finite difference step on the position (m)
+     */
+    public double getPositionStep() {
+        return positionStep;
+    }
+
+    /**
+     * Set the finite difference step on the position.
+     * @param positionStep finite difference step on the position (m)
+     */
+    public void setPositionStep(final double positionStep) {
+        this.positionStep = positionStep;
+    }
+
+    /**
+     * Get the finite difference step on the velocity.
+     * @return the finite difference step on the velocity (m/s)
+     */
+    public double getVelocityStep() {
+        return velocityStep;
+    }
+
+    /**
+     * Set the finite difference step on the velocity.
+     * @param velocityStep finite difference step on the velocity (m/s)
+     */
+    public void setVelocityStep(final double velocityStep) {
+        this.velocityStep = velocityStep;
+    }
+
+    /**
+     * Get the relative finite difference step on the parameters.
+     * @return the relative finite difference step on the parameters
+     */
+    public double getParameterStep() {
+        return parameterStep;
+    }
+
+    /**
+     * Set the relative finite difference step on the parameters.
+     * @param parameterStep relative finite difference step on the parameters
+     */
+    public void setParameterStep(final double parameterStep) {
+        this.parameterStep = parameterStep;
+    }
+
+    /**
+     * Get the standard deviation of the initial position.
+     * @return the standard deviation of the initial position (m, 0.0 if not dispersed)
+     */
+    public double getPositionSigma() {
+        return positionSigma;
+    }
+
+    /**
+     * Set the standard deviation of the initial position.
+     * @param positionSigma standard deviation of the initial position (m, 0.0 if not dispersed)
+     */
+    public void setPositionSigma(final double positionSigma) {
+        this.positionSigma = positionSigma;
+    }
+
+    /**
+     * Get the standard deviation of the initial velocity.
+     * @return the standard deviation of the initial velocity (m/s, 0.0 if not dispersed)
+     */
+    public double getVelocitySigma() {
+        return velocitySigma;
+    }
+
+    /**
+     * Set the standard deviation of the initial velocity.
+     * @param velocitySigma standard deviation of the initial velocity (m/s, 0.0 if not dispersed)
+     */
+    public void setVelocitySigma(final double velocitySigma) {
+        this.velocitySigma = velocitySigma;
+    }
+
+    /**
+     * Get the standard deviation of the drag coefficient.
+     * @return the standard deviation of the drag coefficient (0.0 if not dispersed)
+     */
+    public double getDragCoefficientSigma() {
+        return dragCoefficientSigma;
+    }
+
+    /**
+     * Set the standard deviation of the drag coefficient.
+     * @param dragCoefficientSigma standard deviation of the drag coefficient (0.0 if not dispersed)
+     */
+    public void setDragCoefficientSigma(final double dragCoefficientSigma) {
+        this.dragCoefficientSigma = dragCoefficientSigma;
+    }
+
+    /**
+     * Get the standard deviation of the reflection coefficient.
+     * @return the standard deviation of the reflection coefficient (0.0 if not dispersed)
+     */
+    public double getReflectionCoefficientSigma() {
+        return reflectionCoefficientSigma;
+    }
+
+    /**
+     * Set the standard deviation of the reflection coefficient.
+     * @param reflectionCoefficientSigma standard deviation of the reflection coefficient (0.0 if not dispersed)
+     */
+    public void setReflectionCoefficientSigma(final double reflectionCoefficientSigma) {
+        this.reflectionCoefficientSigma = reflectionCoefficientSigma;
+    }
+
+    /**
+     * Get the number of Monte Carlo samples checking the linearized dispersion.
+     * @return the number of Monte Carlo samples checking the linearized dispersion (0 if not checked)
+     */
+    public int getMonteCarloSamples() {
+        return monteCarloSamples;
+    }
+
+    /**
+     * Set the number of Monte Carlo samples checking the linearized dispersion.
+     * @param monteCarloSamples number of Monte Carlo samples checking the linearized dispersion (0 if not checked)
+     */
+    public void setMonteCarloSamples(final int monteCarloSamples) {
+        this.monteCarloSamples = monteCarloSamples;
+    }
+
+}
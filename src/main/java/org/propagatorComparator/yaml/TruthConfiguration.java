@@ -0,0 +1,121 @@
+/* Copyright 2023 Bryan Cazabonne
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.propagatorComparator.yaml;
+
+/**
+ * Initial data to initialize the comparison with a precise ephemeris (SP3 or ILRS CPF).
+ * <p>
+ * Data are read from a YAML file.
+ * </p>
+ * @author Bryan Cazabonne
+ */
+public class TruthConfiguration {
+
+    /** Ephemeris file. */
+    private String file;
+
+    /** Ephemeris format ("SP3" or "CPF", guessed from the file if null). */
+    private String format;
+
+    /** Identifier of the satellite in a SP3 file (first satellite of the file if null). */
+    private String satellite;
+
+    /** Number of points of the interpolation. */
+    private int interpolationPoints;
+
+    /** Output CSV file of the residuals. */
+    private String outputFile;
+
+    /**
+     * Get the ephemeris file.
+     * @return the ephemeris file
+     */
+    public String getFile() {
+        return file;
+    }
+
+    /**
+     * Set the ephemeris file.
+     * @param file ephemeris file
+     */
+    public void setFile(final String file) {
+        this.file = file;
+    }
+
+    /**
+     * Get the ephemeris format.
+     * @return the ephemeris format ("SP3" or "CPF", guessed from the file if null)
+     */
+    public String getFormat() {
+        return format;
+    }
+
+    /**
+     * Set the ephemeris format.
+     * @param format ephemeris format ("SP3" or "CPF", guessed from the file if null)
+     */
+    public void setFormat(final String format) {
+        this.format = format;
+    }
+
+    /**
+     * Get the identifier of the satellite in a SP3 file.
+     * @return the identifier of the satellite in a SP3 file (first satellite of the file if null)
+     */
+    public String getSatellite() {
+        return satellite;
+    }
+
+    /**
+     * Set the identifier of the satellite in a SP3 file.
+     * @param satellite identifier of the satellite in a SP3 file (first satellite of the file if null)
+     */
+    public void setSatellite(final String satellite) {
+        this.satellite = satellite;
+    }
+
+    /**
+     * Get the number of points of the interpolation.
+     * @return the number of points of the interpolation
+     */
+    public int getInterpolationPoints() {
+        return interpolationPoints;
+    }
+
+    /**
+     * Set the number of points of the interpolation.
+     * @param interpolationPoints number of points of the interpolation
+     */
+    public void setInterpolationPoints(final int interpolationPoints) {
+        this.interpolationPoints = interpolationPoints;
+    }
+
+    /**
+     * Get the output CSV file of the residuals.
+     * @return the output CSV file of the residuals
+     */
+    public String getOutputFile() {
+        return outputFile;
+    }
+
+    /**
+     * Set the output CSV file of the residuals.
+     * @param outputFile output CSV file of the residuals
+     */
+    public void setOutputFile(final String outputFile) {
+        this.outputFile = outputFile;
+    }
+
+}